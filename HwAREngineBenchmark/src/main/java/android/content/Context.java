@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package android.content;
+
+import android.content.res.AssetManager;
+
+/**
+ * Stand-in of android.content.Context, with an asset manager that reads the assets of the demo.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public class Context {
+    private final AssetManager mAssetManager = new AssetManager();
+
+    public AssetManager getAssets() {
+        return mAssetManager;
+    }
+}
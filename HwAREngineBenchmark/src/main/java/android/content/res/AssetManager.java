@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package android.content.res;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stand-in of android.content.res.AssetManager that reads the assets from the source tree of
+ * the demo, so that the displays load the same textures and object model as on a device. The
+ * directory is ../HwAREngineDemo/src/main/assets, relative to the benchmark module, or the one
+ * given by the system property arengine.assets.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public final class AssetManager {
+    private static final String ASSET_DIRECTORY =
+        System.getProperty("arengine.assets", "../HwAREngineDemo/src/main/assets");
+
+    public InputStream open(String fileName) throws IOException {
+        return new FileInputStream(new File(ASSET_DIRECTORY, fileName));
+    }
+}
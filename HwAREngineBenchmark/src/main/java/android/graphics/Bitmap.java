@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package android.graphics;
+
+/**
+ * Stand-in of android.graphics.Bitmap that only keeps the size, its pixels are all transparent.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public final class Bitmap {
+    private final int mWidth;
+
+    private final int mHeight;
+
+    private Bitmap(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+    }
+
+    public static Bitmap createBitmap(int width, int height, Config config) {
+        return new Bitmap(width, height);
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public void getPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+    }
+
+    public void recycle() {
+    }
+
+    /**
+     * Pixel formats of the stand-in, only the one used by the demos.
+     */
+    public enum Config {
+        ARGB_8888
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package android.graphics;
+
+/**
+ * Stand-in of android.graphics.Canvas that draws nothing.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public class Canvas {
+    public Canvas(Bitmap bitmap) {
+    }
+
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package android.graphics;
+
+/**
+ * Stand-in of android.graphics.Color, only the colors used by the demos.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class Color {
+    public static final int WHITE = 0xFFFFFFFF;
+
+    private Color() {
+    }
+}
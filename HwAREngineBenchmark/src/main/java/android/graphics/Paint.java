@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package android.graphics;
+
+/**
+ * Stand-in of android.graphics.Paint, with the metrics of a monospace font proportional to the
+ * text size.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public class Paint {
+    public static final int ANTI_ALIAS_FLAG = 0x01;
+
+    private static final float ADVANCE_RATIO = 0.6f;
+
+    private static final float ASCENT_RATIO = 0.8f;
+
+    private float mTextSize = 12.0f;
+
+    public Paint(int flags) {
+    }
+
+    public Typeface setTypeface(Typeface typeface) {
+        return typeface;
+    }
+
+    public void setTextSize(float textSize) {
+        mTextSize = textSize;
+    }
+
+    public void setColor(int color) {
+    }
+
+    public float measureText(String text) {
+        return text.length() * mTextSize * ADVANCE_RATIO;
+    }
+
+    public float ascent() {
+        return -mTextSize * ASCENT_RATIO;
+    }
+}
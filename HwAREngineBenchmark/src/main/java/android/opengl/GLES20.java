@@ -0,0 +1,469 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package android.opengl;
+
+import java.nio.Buffer;
+
+/**
+ * Stand-in of the OpenGL ES 2.0 bindings for running the render logic on a desktop JVM.
+ * Nothing is drawn, the calls are only counted, and the queries return values that let the
+ * callers continue, such as successful compile and link status.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public class GLES20 {
+    public static final int GL_NO_ERROR = 0;
+
+    public static final int GL_FALSE = 0;
+
+    public static final int GL_TRUE = 1;
+
+    public static final int GL_POINTS = 0x0000;
+
+    public static final int GL_DEPTH_BUFFER_BIT = 0x0100;
+
+    public static final int GL_LINES = 0x0001;
+
+    public static final int GL_TRIANGLES = 0x0004;
+
+    public static final int GL_ZERO = 0;
+
+    public static final int GL_ONE = 1;
+
+    public static final int GL_TRIANGLE_STRIP = 0x0005;
+
+    public static final int GL_TRIANGLE_FAN = 0x0006;
+
+    public static final int GL_SRC_ALPHA = 0x0302;
+
+    public static final int GL_ONE_MINUS_SRC_ALPHA = 0x0303;
+
+    public static final int GL_DST_ALPHA = 0x0304;
+
+    public static final int GL_DEPTH_TEST = 0x0B71;
+
+    public static final int GL_CULL_FACE = 0x0B44;
+
+    public static final int GL_UNPACK_ALIGNMENT = 0x0CF5;
+
+    public static final int GL_BLEND = 0x0BE2;
+
+    public static final int GL_TEXTURE_2D = 0x0DE1;
+
+    public static final int GL_UNSIGNED_BYTE = 0x1401;
+
+    public static final int GL_RGBA = 0x1908;
+
+    public static final int GL_LUMINANCE = 0x1909;
+
+    public static final int GL_LINEAR = 0x2601;
+
+    public static final int GL_LINEAR_MIPMAP_LINEAR = 0x2703;
+
+    public static final int GL_TEXTURE_MAG_FILTER = 0x2800;
+
+    public static final int GL_TEXTURE_MIN_FILTER = 0x2801;
+
+    public static final int GL_TEXTURE_WRAP_S = 0x2802;
+
+    public static final int GL_TEXTURE_WRAP_T = 0x2803;
+
+    public static final int GL_REPEAT = 0x2901;
+
+    public static final int GL_COLOR_BUFFER_BIT = 0x4000;
+
+    public static final int GL_CLAMP_TO_EDGE = 0x812F;
+
+    public static final int GL_DEPTH_COMPONENT16 = 0x81A5;
+
+    public static final int GL_TEXTURE0 = 0x84C0;
+
+    public static final int GL_UNSIGNED_SHORT = 0x1403;
+
+    public static final int GL_UNSIGNED_INT = 0x1405;
+
+    public static final int GL_FLOAT = 0x1406;
+
+    public static final int GL_ARRAY_BUFFER = 0x8892;
+
+    public static final int GL_ELEMENT_ARRAY_BUFFER = 0x8893;
+
+    public static final int GL_STREAM_DRAW = 0x88E0;
+
+    public static final int GL_STATIC_DRAW = 0x88E4;
+
+    public static final int GL_DYNAMIC_DRAW = 0x88E8;
+
+    public static final int GL_FRAGMENT_SHADER = 0x8B30;
+
+    public static final int GL_VERTEX_SHADER = 0x8B31;
+
+    public static final int GL_COMPILE_STATUS = 0x8B81;
+
+    public static final int GL_LINK_STATUS = 0x8B82;
+
+    public static final int GL_FRAMEBUFFER_COMPLETE = 0x8CD5;
+
+    public static final int GL_COLOR_ATTACHMENT0 = 0x8CE0;
+
+    public static final int GL_DEPTH_ATTACHMENT = 0x8D00;
+
+    public static final int GL_FRAMEBUFFER = 0x8D40;
+
+    public static final int GL_RENDERBUFFER = 0x8D41;
+
+    private static long sCallCount = 0;
+
+    private static long sDrawCallCount = 0;
+
+    private static long sUploadedBytes = 0;
+
+    private static int sNextName = 1;
+
+    /**
+     * Reset the counters.
+     */
+    public static void resetCounters() {
+        sCallCount = 0;
+        sDrawCallCount = 0;
+        sUploadedBytes = 0;
+    }
+
+    /**
+     * Get the number of GL calls since the last reset.
+     *
+     * @return Number of calls.
+     */
+    public static long getCallCount() {
+        return sCallCount;
+    }
+
+    /**
+     * Get the number of draw calls since the last reset.
+     *
+     * @return Number of draw calls.
+     */
+    public static long getDrawCallCount() {
+        return sDrawCallCount;
+    }
+
+    /**
+     * Get the number of bytes passed to buffer uploads and uniform arrays since the last reset.
+     *
+     * @return Number of bytes.
+     */
+    public static long getUploadedBytes() {
+        return sUploadedBytes;
+    }
+
+    /**
+     * Count a call of the other GL stand-ins of the package that uploads data.
+     *
+     * @param bytes Number of uploaded bytes.
+     */
+    static void countUpload(long bytes) {
+        sCallCount++;
+        sUploadedBytes += bytes;
+    }
+
+    public static void glActiveTexture(int texture) {
+        sCallCount++;
+    }
+
+    public static void glAttachShader(int program, int shader) {
+        sCallCount++;
+    }
+
+    public static void glBindBuffer(int target, int buffer) {
+        sCallCount++;
+    }
+
+    public static void glBindFramebuffer(int target, int framebuffer) {
+        sCallCount++;
+    }
+
+    public static void glBindRenderbuffer(int target, int renderbuffer) {
+        sCallCount++;
+    }
+
+    public static void glBindTexture(int target, int texture) {
+        sCallCount++;
+    }
+
+    public static void glBlendFunc(int sfactor, int dfactor) {
+        sCallCount++;
+    }
+
+    public static void glBlendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+        sCallCount++;
+    }
+
+    public static void glBufferData(int target, int size, Buffer data, int usage) {
+        sCallCount++;
+        if (data != null) {
+            sUploadedBytes += size;
+        }
+    }
+
+    public static void glBufferSubData(int target, int offset, int size, Buffer data) {
+        sCallCount++;
+        sUploadedBytes += size;
+    }
+
+    public static int glCheckFramebufferStatus(int target) {
+        sCallCount++;
+        return GL_FRAMEBUFFER_COMPLETE;
+    }
+
+    public static void glClear(int mask) {
+        sCallCount++;
+    }
+
+    public static void glClearColor(float red, float green, float blue, float alpha) {
+        sCallCount++;
+    }
+
+    public static void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        sCallCount++;
+    }
+
+    public static void glCompileShader(int shader) {
+        sCallCount++;
+    }
+
+    public static int glCreateProgram() {
+        sCallCount++;
+        return sNextName++;
+    }
+
+    public static int glCreateShader(int type) {
+        sCallCount++;
+        return sNextName++;
+    }
+
+    public static void glDeleteBuffers(int n, int[] buffers, int offset) {
+        sCallCount++;
+    }
+
+    public static void glDeleteFramebuffers(int n, int[] framebuffers, int offset) {
+        sCallCount++;
+    }
+
+    public static void glDeleteProgram(int program) {
+        sCallCount++;
+    }
+
+    public static void glDeleteRenderbuffers(int n, int[] renderbuffers, int offset) {
+        sCallCount++;
+    }
+
+    public static void glDeleteShader(int shader) {
+        sCallCount++;
+    }
+
+    public static void glDeleteTextures(int n, int[] textures, int offset) {
+        sCallCount++;
+    }
+
+    public static void glDepthMask(boolean flag) {
+        sCallCount++;
+    }
+
+    public static void glDisable(int cap) {
+        sCallCount++;
+    }
+
+    public static void glDisableVertexAttribArray(int index) {
+        sCallCount++;
+    }
+
+    public static void glDrawArrays(int mode, int first, int count) {
+        sCallCount++;
+        sDrawCallCount++;
+    }
+
+    public static void glDrawElements(int mode, int count, int type, int offset) {
+        sCallCount++;
+        sDrawCallCount++;
+    }
+
+    public static void glDrawElements(int mode, int count, int type, Buffer indices) {
+        sCallCount++;
+        sDrawCallCount++;
+        sUploadedBytes += count * 2;
+    }
+
+    public static void glEnable(int cap) {
+        sCallCount++;
+    }
+
+    public static void glEnableVertexAttribArray(int index) {
+        sCallCount++;
+    }
+
+    public static void glFramebufferRenderbuffer(int target, int attachment, int renderbuffertarget,
+        int renderbuffer) {
+        sCallCount++;
+    }
+
+    public static void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level) {
+        sCallCount++;
+    }
+
+    public static void glGenBuffers(int n, int[] buffers, int offset) {
+        sCallCount++;
+        for (int i = 0; i < n; i++) {
+            buffers[offset + i] = sNextName++;
+        }
+    }
+
+    public static void glGenFramebuffers(int n, int[] framebuffers, int offset) {
+        sCallCount++;
+        for (int i = 0; i < n; i++) {
+            framebuffers[offset + i] = sNextName++;
+        }
+    }
+
+    public static void glGenRenderbuffers(int n, int[] renderbuffers, int offset) {
+        sCallCount++;
+        for (int i = 0; i < n; i++) {
+            renderbuffers[offset + i] = sNextName++;
+        }
+    }
+
+    public static void glGenTextures(int n, int[] textures, int offset) {
+        sCallCount++;
+        for (int i = 0; i < n; i++) {
+            textures[offset + i] = sNextName++;
+        }
+    }
+
+    public static void glGenerateMipmap(int target) {
+        sCallCount++;
+    }
+
+    public static int glGetAttribLocation(int program, String name) {
+        sCallCount++;
+        return sNextName++;
+    }
+
+    public static int glGetError() {
+        return GL_NO_ERROR;
+    }
+
+    public static String glGetProgramInfoLog(int program) {
+        sCallCount++;
+        return "";
+    }
+
+    public static void glGetProgramiv(int program, int pname, int[] params, int offset) {
+        sCallCount++;
+        params[offset] = GL_TRUE;
+    }
+
+    public static String glGetShaderInfoLog(int shader) {
+        sCallCount++;
+        return "";
+    }
+
+    public static void glGetShaderiv(int shader, int pname, int[] params, int offset) {
+        sCallCount++;
+        params[offset] = GL_TRUE;
+    }
+
+    public static int glGetUniformLocation(int program, String name) {
+        sCallCount++;
+        return sNextName++;
+    }
+
+    public static boolean glIsEnabled(int cap) {
+        sCallCount++;
+        return false;
+    }
+
+    public static void glLinkProgram(int program) {
+        sCallCount++;
+    }
+
+    public static void glRenderbufferStorage(int target, int internalformat, int width, int height) {
+        sCallCount++;
+    }
+
+    public static void glShaderSource(int shader, String string) {
+        sCallCount++;
+    }
+
+    public static void glPixelStorei(int pname, int param) {
+        sCallCount++;
+    }
+
+    public static void glTexImage2D(int target, int level, int internalformat, int width, int height, int border,
+        int format, int type, Buffer pixels) {
+        sCallCount++;
+        if (pixels != null) {
+            sUploadedBytes += pixels.remaining();
+        }
+    }
+
+    public static void glTexParameteri(int target, int pname, int param) {
+        sCallCount++;
+    }
+
+    public static void glUniform1f(int location, float x) {
+        sCallCount++;
+    }
+
+    public static void glUniform1i(int location, int x) {
+        sCallCount++;
+    }
+
+    public static void glUniform2f(int location, float x, float y) {
+        sCallCount++;
+    }
+
+    public static void glUniform2fv(int location, int count, float[] v, int offset) {
+        sCallCount++;
+        sUploadedBytes += count * 2 * 4;
+    }
+
+    public static void glUniform4f(int location, float x, float y, float z, float w) {
+        sCallCount++;
+    }
+
+    public static void glUniform4fv(int location, int count, float[] v, int offset) {
+        sCallCount++;
+        sUploadedBytes += count * 4 * 4;
+    }
+
+    public static void glUniformMatrix2fv(int location, int count, boolean transpose, float[] value, int offset) {
+        sCallCount++;
+        sUploadedBytes += count * 4 * 4;
+    }
+
+    public static void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        sCallCount++;
+        sUploadedBytes += count * 16 * 4;
+    }
+
+    public static void glUseProgram(int program) {
+        sCallCount++;
+    }
+
+    public static void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride,
+        int offset) {
+        sCallCount++;
+    }
+
+    public static void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride,
+        Buffer ptr) {
+        sCallCount++;
+        sUploadedBytes += ptr.remaining() * 4;
+    }
+
+    public static void glViewport(int x, int y, int width, int height) {
+        sCallCount++;
+    }
+}
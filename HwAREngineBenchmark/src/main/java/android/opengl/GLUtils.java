@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package android.opengl;
+
+import android.graphics.Bitmap;
+
+/**
+ * Stand-in of android.opengl.GLUtils, counting the texture upload like a GLES20 call.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public final class GLUtils {
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private GLUtils() {
+    }
+
+    public static void texImage2D(int target, int level, Bitmap bitmap, int border) {
+        GLES20.countUpload(bitmap.getWidth() * bitmap.getHeight() * BYTES_PER_PIXEL);
+    }
+}
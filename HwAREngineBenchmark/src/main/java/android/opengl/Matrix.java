@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package android.opengl;
+
+/**
+ * Stand-in of android.opengl.Matrix with the methods used by the render logic, computing
+ * the same column-major results as the Android implementation.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public class Matrix {
+    private static final int SIZE = 4;
+
+    // Like the Android implementation, rotateM works in a shared scratch matrix, so it is not thread safe.
+    private static final float[] TEMP = new float[SIZE * SIZE * 2];
+
+    public static void multiplyMM(float[] result, int resultOffset, float[] lhs, int lhsOffset,
+        float[] rhs, int rhsOffset) {
+        for (int column = 0; column < SIZE; column++) {
+            float r0 = rhs[rhsOffset + column * SIZE];
+            float r1 = rhs[rhsOffset + column * SIZE + 1];
+            float r2 = rhs[rhsOffset + column * SIZE + 2];
+            float r3 = rhs[rhsOffset + column * SIZE + 3];
+            for (int row = 0; row < SIZE; row++) {
+                result[resultOffset + column * SIZE + row] = lhs[lhsOffset + row] * r0
+                    + lhs[lhsOffset + SIZE + row] * r1
+                    + lhs[lhsOffset + SIZE * 2 + row] * r2
+                    + lhs[lhsOffset + SIZE * 3 + row] * r3;
+            }
+        }
+    }
+
+    public static void multiplyMV(float[] resultVec, int resultVecOffset, float[] lhsMat, int lhsMatOffset,
+        float[] rhsVec, int rhsVecOffset) {
+        float v0 = rhsVec[rhsVecOffset];
+        float v1 = rhsVec[rhsVecOffset + 1];
+        float v2 = rhsVec[rhsVecOffset + 2];
+        float v3 = rhsVec[rhsVecOffset + 3];
+        for (int row = 0; row < SIZE; row++) {
+            resultVec[resultVecOffset + row] = lhsMat[lhsMatOffset + row] * v0
+                + lhsMat[lhsMatOffset + SIZE + row] * v1
+                + lhsMat[lhsMatOffset + SIZE * 2 + row] * v2
+                + lhsMat[lhsMatOffset + SIZE * 3 + row] * v3;
+        }
+    }
+
+    public static void orthoM(float[] m, int offset, float left, float right, float bottom, float top,
+        float near, float far) {
+        float width = 1.0f / (right - left);
+        float height = 1.0f / (top - bottom);
+        float depth = 1.0f / (far - near);
+        setIdentityM(m, offset);
+        m[offset] = 2.0f * width;
+        m[offset + 5] = 2.0f * height;
+        m[offset + 10] = -2.0f * depth;
+        m[offset + 12] = -(right + left) * width;
+        m[offset + 13] = -(top + bottom) * height;
+        m[offset + 14] = -(far + near) * depth;
+    }
+
+    public static void rotateM(float[] m, int mOffset, float a, float x, float y, float z) {
+        setRotateM(TEMP, 0, a, x, y, z);
+        multiplyMM(TEMP, SIZE * SIZE, m, mOffset, TEMP, 0);
+        System.arraycopy(TEMP, SIZE * SIZE, m, mOffset, SIZE * SIZE);
+    }
+
+    public static void setIdentityM(float[] m, int offset) {
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            m[offset + i] = (i % (SIZE + 1) == 0) ? 1.0f : 0.0f;
+        }
+    }
+
+    public static void setLookAtM(float[] m, int offset, float eyeX, float eyeY, float eyeZ,
+        float centerX, float centerY, float centerZ, float upX, float upY, float upZ) {
+        float fx = centerX - eyeX;
+        float fy = centerY - eyeY;
+        float fz = centerZ - eyeZ;
+        float inverseLength = 1.0f / (float) Math.sqrt(fx * fx + fy * fy + fz * fz);
+        fx *= inverseLength;
+        fy *= inverseLength;
+        fz *= inverseLength;
+
+        // Side vector, the cross product of the forward vector and the up vector.
+        float sx = fy * upZ - fz * upY;
+        float sy = fz * upX - fx * upZ;
+        float sz = fx * upY - fy * upX;
+        inverseLength = 1.0f / (float) Math.sqrt(sx * sx + sy * sy + sz * sz);
+        sx *= inverseLength;
+        sy *= inverseLength;
+        sz *= inverseLength;
+
+        // Recomputed up vector, the cross product of the side vector and the forward vector.
+        float ux = sy * fz - sz * fy;
+        float uy = sz * fx - sx * fz;
+        float uz = sx * fy - sy * fx;
+
+        m[offset] = sx;
+        m[offset + 1] = ux;
+        m[offset + 2] = -fx;
+        m[offset + 3] = 0.0f;
+        m[offset + 4] = sy;
+        m[offset + 5] = uy;
+        m[offset + 6] = -fy;
+        m[offset + 7] = 0.0f;
+        m[offset + 8] = sz;
+        m[offset + 9] = uz;
+        m[offset + 10] = -fz;
+        m[offset + 11] = 0.0f;
+        m[offset + 12] = -(sx * eyeX + sy * eyeY + sz * eyeZ);
+        m[offset + 13] = -(ux * eyeX + uy * eyeY + uz * eyeZ);
+        m[offset + 14] = fx * eyeX + fy * eyeY + fz * eyeZ;
+        m[offset + 15] = 1.0f;
+    }
+
+    public static void setRotateM(float[] rm, int rmOffset, float a, float x, float y, float z) {
+        setIdentityM(rm, rmOffset);
+        float radians = (float) Math.toRadians(a);
+        float s = (float) Math.sin(radians);
+        float c = (float) Math.cos(radians);
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        x /= length;
+        y /= length;
+        z /= length;
+        float nc = 1.0f - c;
+        rm[rmOffset] = x * x * nc + c;
+        rm[rmOffset + 1] = y * x * nc + z * s;
+        rm[rmOffset + 2] = x * z * nc - y * s;
+        rm[rmOffset + 4] = x * y * nc - z * s;
+        rm[rmOffset + 5] = y * y * nc + c;
+        rm[rmOffset + 6] = y * z * nc + x * s;
+        rm[rmOffset + 8] = x * z * nc + y * s;
+        rm[rmOffset + 9] = y * z * nc - x * s;
+        rm[rmOffset + 10] = z * z * nc + c;
+    }
+}
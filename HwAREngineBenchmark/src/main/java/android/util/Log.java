@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package android.util;
+
+/**
+ * Stand-in of android.util.Log. Debug and info messages are dropped so that they do not
+ * distort the measurements, warnings and errors are printed to the standard error.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public final class Log {
+    public static final int VERBOSE = 2;
+
+    public static final int DEBUG = 3;
+
+    public static final int INFO = 4;
+
+    public static final int WARN = 5;
+
+    public static final int ERROR = 6;
+
+    private Log() {
+    }
+
+    public static int println(int priority, String tag, String msg) {
+        if (priority >= WARN) {
+            System.err.println((priority == WARN ? "W/" : "E/") + tag + ": " + msg);
+        }
+        return 0;
+    }
+
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int i(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg) {
+        System.err.println("W/" + tag + ": " + msg);
+        return 0;
+    }
+
+    public static int e(String tag, String msg) {
+        System.err.println("E/" + tag + ": " + msg);
+        return 0;
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        System.err.println("E/" + tag + ": " + msg);
+        tr.printStackTrace();
+        return 0;
+    }
+}
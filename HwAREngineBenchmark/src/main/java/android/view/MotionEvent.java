@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package android.view;
+
+/**
+ * Stand-in of android.view.MotionEvent, for the hit test of the world objects. The benchmarks
+ * have no touch, so no event is ever created.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public class MotionEvent {
+    private float mX;
+
+    private float mY;
+
+    public float getX() {
+        return mX;
+    }
+
+    public float getY() {
+        return mY;
+    }
+}
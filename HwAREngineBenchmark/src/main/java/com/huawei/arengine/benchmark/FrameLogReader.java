@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.benchmark;
+
+import android.util.SparseArray;
+
+import com.huawei.arengine.demos.common.FrameLogFormat;
+import com.huawei.arengine.demos.common.PooledFloatArray;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * Read the frames of a log written by FrameRecorder. The delta encoded entries are decoded
+ * into one array per stream, which is reused from frame to frame, so the values of an entry
+ * are valid until the next frame is read.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public class FrameLogReader {
+    private static final int TYPE_SHIFT = 24;
+
+    private static final int ID_MASK = 0xFFFFFF;
+
+    private final SparseArray<PooledFloatArray> mStreams = new SparseArray<>();
+
+    private final ArrayList<Entry> mEntries = new ArrayList<>();
+
+    private final MappedByteBuffer mBuffer;
+
+    private int mEntryCount = 0;
+
+    private long mTimestampNs = 0;
+
+    /**
+     * Open a log and check its header.
+     *
+     * @param file Log file.
+     * @throws IOException If the file can not be read or is not a log of a supported version.
+     */
+    public FrameLogReader(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            mBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (mBuffer.remaining() < 8 || mBuffer.getInt() != FrameLogFormat.MAGIC) {
+            throw new IOException(file + " is not a frame log");
+        }
+        int version = mBuffer.getInt();
+        if (version != FrameLogFormat.VERSION) {
+            throw new IOException("Unsupported frame log version " + version);
+        }
+    }
+
+    /**
+     * Go back to the first frame. The delta state is cleared, so the log can be replayed again.
+     */
+    public void rewind() {
+        mBuffer.position(8);
+        mStreams.clear();
+        mEntryCount = 0;
+    }
+
+    /**
+     * Read the next frame.
+     *
+     * @return False at the end of the log, or if the last frame was cut by the end of the recording.
+     * @throws IOException If the log is corrupted.
+     */
+    public boolean nextFrame() throws IOException {
+        mEntryCount = 0;
+        if (!mBuffer.hasRemaining()) {
+            return false;
+        }
+        try {
+            byte record = mBuffer.get();
+            if (record != FrameLogFormat.RECORD_FRAME) {
+                throw new IOException("Unexpected record " + record + " at " + (mBuffer.position() - 1));
+            }
+            mTimestampNs = mBuffer.getLong();
+            while (true) {
+                byte type = mBuffer.get();
+                if (type == FrameLogFormat.RECORD_END) {
+                    return true;
+                }
+                readEntry(type);
+            }
+        } catch (BufferUnderflowException e) {
+            return false;
+        }
+    }
+
+    private void readEntry(byte type) throws IOException {
+        int id = mBuffer.getInt();
+        int count = getVarint();
+        byte encoding = mBuffer.get();
+        int key = (type << TYPE_SHIFT) | (id & ID_MASK);
+        PooledFloatArray values = mStreams.get(key);
+        if (values == null) {
+            values = new PooledFloatArray(count);
+            mStreams.put(key, values);
+        }
+        if (encoding == FrameLogFormat.ENCODING_DELTA) {
+            if (values.size() != count) {
+                throw new IOException("Delta entry of " + count + " floats after " + values.size());
+            }
+            float[] data = values.array();
+            for (int i = 0; i < count; i++) {
+                data[i] = Float.intBitsToFloat(Float.floatToRawIntBits(data[i]) ^ getVarint());
+            }
+        } else if (encoding == FrameLogFormat.ENCODING_RAW) {
+            values.ensureCapacity(count);
+            float[] data = values.array();
+            for (int i = 0; i < count; i++) {
+                data[i] = mBuffer.getFloat();
+            }
+            values.setSize(count);
+        } else {
+            throw new IOException("Unknown encoding " + encoding);
+        }
+        if (mEntryCount == mEntries.size()) {
+            mEntries.add(new Entry());
+        }
+        Entry entry = mEntries.get(mEntryCount++);
+        entry.mType = type;
+        entry.mId = id;
+        entry.mValues = values;
+    }
+
+    private int getVarint() {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = mBuffer.get();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Get the timestamp of the current frame.
+     *
+     * @return Timestamp in nanoseconds.
+     */
+    public long getTimestampNs() {
+        return mTimestampNs;
+    }
+
+    /**
+     * Get the number of entries of the current frame.
+     *
+     * @return Number of entries.
+     */
+    public int getEntryCount() {
+        return mEntryCount;
+    }
+
+    /**
+     * Get an entry of the current frame.
+     *
+     * @param index Index between 0 and {@link #getEntryCount()}.
+     * @return Entry, valid until the next frame is read.
+     */
+    public Entry getEntry(int index) {
+        return mEntries.get(index);
+    }
+
+    /**
+     * Find the entry of the current frame with the specified type and id.
+     *
+     * @param type Type of the entry.
+     * @param id Id of the object.
+     * @return Entry, or null if the frame has no such entry.
+     */
+    public Entry findEntry(byte type, int id) {
+        for (int i = 0; i < mEntryCount; i++) {
+            Entry entry = mEntries.get(i);
+            if (entry.mType == type && entry.mId == id) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One entry of a frame.
+     *
+     * @author HW
+     * @since 2020-03-16
+     */
+    public static class Entry {
+        private byte mType;
+
+        private int mId;
+
+        private PooledFloatArray mValues;
+
+        /**
+         * Get the type, one of the TYPE constants of FrameLogFormat.
+         *
+         * @return Type.
+         */
+        public byte getType() {
+            return mType;
+        }
+
+        /**
+         * Get the id of the object in its type.
+         *
+         * @return Id.
+         */
+        public int getId() {
+            return mId;
+        }
+
+        /**
+         * Get the decoded values.
+         *
+         * @return Values of the entry.
+         */
+        public PooledFloatArray getValues() {
+            return mValues;
+        }
+    }
+}
@@ -0,0 +1,696 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.benchmark;
+
+import android.opengl.Matrix;
+import android.util.SparseArray;
+
+import com.huawei.arengine.demos.common.FrameLogFormat;
+import com.huawei.arengine.demos.common.MatrixUtil;
+import com.huawei.arengine.demos.common.PooledFloatArray;
+import com.huawei.arengine.demos.common.engine.ArEngineAnchor;
+import com.huawei.arengine.demos.common.engine.ArEngineBody;
+import com.huawei.arengine.demos.common.engine.ArEngineCamera;
+import com.huawei.arengine.demos.common.engine.ArEngineFace;
+import com.huawei.arengine.demos.common.engine.ArEngineFrame;
+import com.huawei.arengine.demos.common.engine.ArEngineHand;
+import com.huawei.arengine.demos.common.engine.ArEngineHitResult;
+import com.huawei.arengine.demos.common.engine.ArEnginePlane;
+import com.huawei.arengine.demos.common.engine.ArEnginePointCloud;
+import com.huawei.arengine.demos.common.engine.ArEnginePose;
+import com.huawei.arengine.demos.common.engine.ArEngineSession;
+import com.huawei.arengine.demos.common.engine.ArEngineTrackable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link ArEngineSession} that plays back the frames of a log written by FrameRecorder, so that
+ * the render logic of the demos runs on a recorded scene exactly as it runs on AREngine. Each
+ * {@link #update()} returns the frame last read by {@link FrameLogReader#nextFrame()}:
+ * <ul>
+ * <li>the camera has the recorded view and projection matrices, the projection is returned
+ * whatever the clip planes asked for;</li>
+ * <li>a plane or an anchor is tracking in the frames where it was recorded, and paused in the
+ * others. A plane is reported as updated when its pose, polygon or label changed, or when it
+ * starts or stops tracking;</li>
+ * <li>the hands, the bodies and the faces have the recorded skeletons, poses and vertices, and
+ * are tracking in the frames where they were recorded.</li>
+ * </ul>
+ * The point cloud is not recorded and is empty, the light intensity is 1 and hit tests return
+ * no result.
+ *
+ * <p>The trackables are kept by their recorded id, also when the log is rewound, and their
+ * arrays are only reallocated when the size of an entry changes, so the session does not
+ * allocate in the frame loop once each trackable has been seen.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+class FrameLogSession implements ArEngineSession {
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private static final int MATRIX_SIZE = 16;
+
+    private static final int POSE_SIZE = 7;
+
+    private final FrameLogReader mReader;
+
+    private final LogFrame mFrame = new LogFrame();
+
+    private final SparseArray<LogPlane> mPlanesById = new SparseArray<>();
+
+    private final SparseArray<LogAnchor> mAnchorsById = new SparseArray<>();
+
+    private final SparseArray<LogHand> mHandsById = new SparseArray<>();
+
+    private final SparseArray<LogBody> mBodiesById = new SparseArray<>();
+
+    private final SparseArray<LogFace> mFacesById = new SparseArray<>();
+
+    private final ArrayList<ArEnginePlane> mPlanes = new ArrayList<>();
+
+    private final ArrayList<ArEngineAnchor> mAnchors = new ArrayList<>();
+
+    private final ArrayList<ArEngineHand> mHands = new ArrayList<>();
+
+    private final ArrayList<ArEngineBody> mBodies = new ArrayList<>();
+
+    private final ArrayList<ArEngineFace> mFaces = new ArrayList<>();
+
+    private final ArrayList<LogTrackable> mTrackables = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param reader Reader of the log, the caller moves it from frame to frame.
+     */
+    FrameLogSession(FrameLogReader reader) {
+        mReader = reader;
+    }
+
+    @Override
+    public void setCameraTextureName(int textureId) {
+    }
+
+    @Override
+    public void setDisplayGeometry(int displayRotation, int width, int height) {
+    }
+
+    @Override
+    public ArEngineFrame update() {
+        mFrame.mTimestampNs = mReader.getTimestampNs();
+        for (int i = 0; i < mTrackables.size(); i++) {
+            mTrackables.get(i).mIsRecorded = false;
+        }
+        for (int i = 0; i < mReader.getEntryCount(); i++) {
+            readEntry(mReader.getEntry(i));
+        }
+        mFrame.mUpdatedPlanes.clear();
+        for (int i = 0; i < mTrackables.size(); i++) {
+            mTrackables.get(i).endFrame(mFrame.mUpdatedPlanes);
+        }
+        return mFrame;
+    }
+
+    @Override
+    public Collection<ArEnginePlane> getAllPlanes() {
+        return mPlanes;
+    }
+
+    @Override
+    public Collection<ArEngineAnchor> getAllAnchors() {
+        return mAnchors;
+    }
+
+    @Override
+    public Collection<ArEngineHand> getAllHands() {
+        return mHands;
+    }
+
+    @Override
+    public Collection<ArEngineBody> getAllBodies() {
+        return mBodies;
+    }
+
+    @Override
+    public Collection<ArEngineFace> getAllFaces() {
+        return mFaces;
+    }
+
+    private void readEntry(FrameLogReader.Entry entry) {
+        int id = entry.getId();
+        PooledFloatArray values = entry.getValues();
+        switch (entry.getType()) {
+            case FrameLogFormat.TYPE_CAMERA_VIEW:
+                mFrame.mCamera.setViewMatrix(values);
+                break;
+            case FrameLogFormat.TYPE_CAMERA_PROJECTION:
+                mFrame.mCamera.setProjectionMatrix(values);
+                break;
+            case FrameLogFormat.TYPE_PLANE_POSE:
+                getPlane(id).setCenterMatrix(values);
+                break;
+            case FrameLogFormat.TYPE_PLANE_POLYGON:
+                getPlane(id).setPolygon(values);
+                break;
+            case FrameLogFormat.TYPE_PLANE_LABEL:
+                getPlane(id).setLabel(values);
+                break;
+            case FrameLogFormat.TYPE_ANCHOR_POSE:
+                getAnchor(id).setMatrix(values);
+                break;
+            case FrameLogFormat.TYPE_HAND_SKELETON:
+                getHand(id).mSkeleton = copyValues(values, getHand(id).mSkeleton);
+                break;
+            case FrameLogFormat.TYPE_HAND_CONNECTIONS:
+                getHand(id).mConnections = copyInts(values, getHand(id).mConnections);
+                break;
+            case FrameLogFormat.TYPE_BODY_SKELETON:
+                getBody(id).mPoints = copyValues(values, getBody(id).mPoints);
+                break;
+            case FrameLogFormat.TYPE_BODY_POINT_EXISTS:
+                getBody(id).mIsExists = copyInts(values, getBody(id).mIsExists);
+                break;
+            case FrameLogFormat.TYPE_BODY_CONNECTIONS:
+                getBody(id).mConnections = copyInts(values, getBody(id).mConnections);
+                break;
+            case FrameLogFormat.TYPE_BODY_COORDINATE:
+                getBody(id).mIs3dCamera = values.size() > 0 && values.get(0) != 0.0f;
+                break;
+            case FrameLogFormat.TYPE_FACE_POSE:
+                getFace(id).setPose(values);
+                break;
+            case FrameLogFormat.TYPE_FACE_VERTICES:
+                getFace(id).setVertices(values);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private LogPlane getPlane(int id) {
+        LogPlane plane = mPlanesById.get(id);
+        if (plane == null) {
+            plane = new LogPlane();
+            mPlanesById.put(id, plane);
+            mPlanes.add(plane);
+            mTrackables.add(plane);
+        }
+        plane.mIsRecorded = true;
+        return plane;
+    }
+
+    private LogAnchor getAnchor(int id) {
+        LogAnchor anchor = mAnchorsById.get(id);
+        if (anchor == null) {
+            anchor = new LogAnchor();
+            mAnchorsById.put(id, anchor);
+            mAnchors.add(anchor);
+            mTrackables.add(anchor);
+        }
+        anchor.mIsRecorded = true;
+        return anchor;
+    }
+
+    private LogHand getHand(int id) {
+        LogHand hand = mHandsById.get(id);
+        if (hand == null) {
+            hand = new LogHand(id);
+            mHandsById.put(id, hand);
+            mHands.add(hand);
+            mTrackables.add(hand);
+        }
+        hand.mIsRecorded = true;
+        return hand;
+    }
+
+    private LogBody getBody(int id) {
+        LogBody body = mBodiesById.get(id);
+        if (body == null) {
+            body = new LogBody(id);
+            mBodiesById.put(id, body);
+            mBodies.add(body);
+            mTrackables.add(body);
+        }
+        body.mIsRecorded = true;
+        return body;
+    }
+
+    private LogFace getFace(int id) {
+        LogFace face = mFacesById.get(id);
+        if (face == null) {
+            face = new LogFace();
+            mFacesById.put(id, face);
+            mFaces.add(face);
+            mTrackables.add(face);
+        }
+        face.mIsRecorded = true;
+        return face;
+    }
+
+    /**
+     * Copy the values of an entry into an array of their exact size, the target is reused if it
+     * has this size.
+     */
+    private static float[] copyValues(PooledFloatArray values, float[] target) {
+        float[] result = target.length == values.size() ? target : new float[values.size()];
+        System.arraycopy(values.array(), 0, result, 0, values.size());
+        return result;
+    }
+
+    /**
+     * Convert the float values of an int entry back, into an array of their exact size.
+     */
+    private static int[] copyInts(PooledFloatArray values, int[] target) {
+        int[] result = target.length == values.size() ? target : new int[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            result[i] = (int) values.get(i);
+        }
+        return result;
+    }
+
+    private static boolean isSameValues(PooledFloatArray values, float[] target) {
+        if (values.size() != target.length) {
+            return false;
+        }
+        for (int i = 0; i < target.length; i++) {
+            if (Float.floatToRawIntBits(values.get(i)) != Float.floatToRawIntBits(target[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static FloatBuffer allocateFloats(int count) {
+        return ByteBuffer.allocateDirect(BYTES_PER_FLOAT * count).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * Trackable that is tracking in the frames where it was recorded.
+     */
+    private abstract static class LogTrackable implements ArEngineTrackable {
+        boolean mIsRecorded = false;
+
+        TrackingState mTrackingState = TrackingState.PAUSED;
+
+        /**
+         * Update the tracking state at the end of the entries of a frame.
+         *
+         * @param updatedPlanes Planes updated in the frame.
+         */
+        void endFrame(List<ArEnginePlane> updatedPlanes) {
+            updateTrackingState();
+        }
+
+        /**
+         * Set the tracking state from the entries of the frame.
+         *
+         * @return True if the state changed.
+         */
+        boolean updateTrackingState() {
+            TrackingState state = mIsRecorded ? TrackingState.TRACKING : TrackingState.PAUSED;
+            if (state == mTrackingState) {
+                return false;
+            }
+            mTrackingState = state;
+            return true;
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return mTrackingState;
+        }
+    }
+
+    private static class LogFrame implements ArEngineFrame {
+        private final LogCamera mCamera = new LogCamera();
+
+        private final EmptyPointCloud mPointCloud = new EmptyPointCloud();
+
+        private final ArrayList<ArEnginePlane> mUpdatedPlanes = new ArrayList<>();
+
+        private long mTimestampNs;
+
+        @Override
+        public long getTimestampNs() {
+            return mTimestampNs;
+        }
+
+        @Override
+        public ArEngineCamera getCamera() {
+            return mCamera;
+        }
+
+        @Override
+        public Collection<ArEnginePlane> getUpdatedPlanes() {
+            return mUpdatedPlanes;
+        }
+
+        @Override
+        public ArEnginePointCloud acquirePointCloud() {
+            mPointCloud.mTimestampNs = mTimestampNs;
+            return mPointCloud;
+        }
+
+        @Override
+        public float getLightPixelIntensity() {
+            return 1.0f;
+        }
+
+        @Override
+        public boolean hasDisplayGeometryChanged() {
+            return false;
+        }
+
+        @Override
+        public void transformDisplayUvCoords(FloatBuffer uvCoords, FloatBuffer outUvCoords) {
+            int position = uvCoords.position();
+            outUvCoords.clear();
+            outUvCoords.put(uvCoords);
+            outUvCoords.flip();
+            uvCoords.position(position);
+        }
+
+        @Override
+        public List<ArEngineHitResult> hitTest(float x, float y) {
+            return Collections.emptyList();
+        }
+    }
+
+    private static class LogCamera implements ArEngineCamera {
+        private final ArEnginePose mPose = new ArEnginePose();
+
+        private final float[] mViewMatrix = new float[MATRIX_SIZE];
+
+        private final float[] mProjectionMatrix = new float[MATRIX_SIZE];
+
+        private final float[] mPoseMatrix = new float[MATRIX_SIZE];
+
+        private final float[] mPoseValues = new float[POSE_SIZE];
+
+        LogCamera() {
+            Matrix.setIdentityM(mViewMatrix, 0);
+            Matrix.setIdentityM(mProjectionMatrix, 0);
+        }
+
+        void setViewMatrix(PooledFloatArray values) {
+            if (values.size() != MATRIX_SIZE) {
+                return;
+            }
+            System.arraycopy(values.array(), 0, mViewMatrix, 0, MATRIX_SIZE);
+
+            // The view matrix is rigid, the pose of the camera is its inverse: the transposed
+            // rotation, and the translation rotated back and negated.
+            for (int column = 0; column < 3; column++) {
+                for (int row = 0; row < 3; row++) {
+                    mPoseMatrix[column * 4 + row] = mViewMatrix[row * 4 + column];
+                }
+                mPoseMatrix[12 + column] = -(mViewMatrix[column * 4] * mViewMatrix[12]
+                    + mViewMatrix[column * 4 + 1] * mViewMatrix[13] + mViewMatrix[column * 4 + 2] * mViewMatrix[14]);
+            }
+            MatrixUtil.matrixToPose(mPoseMatrix, 0, mPoseValues);
+            mPose.set(mPoseValues[0], mPoseValues[1], mPoseValues[2], mPoseValues[3], mPoseValues[4],
+                mPoseValues[5], mPoseValues[6]);
+        }
+
+        void setProjectionMatrix(PooledFloatArray values) {
+            if (values.size() == MATRIX_SIZE) {
+                System.arraycopy(values.array(), 0, mProjectionMatrix, 0, MATRIX_SIZE);
+            }
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return TrackingState.TRACKING;
+        }
+
+        @Override
+        public ArEnginePose getPose() {
+            return mPose;
+        }
+
+        @Override
+        public ArEnginePose getDisplayOrientedPose() {
+            return mPose;
+        }
+
+        @Override
+        public void getViewMatrix(float[] matrix, int offset) {
+            System.arraycopy(mViewMatrix, 0, matrix, offset, MATRIX_SIZE);
+        }
+
+        @Override
+        public void getProjectionMatrix(float[] matrix, int offset, float near, float far) {
+            System.arraycopy(mProjectionMatrix, 0, matrix, offset, MATRIX_SIZE);
+        }
+    }
+
+    private static class EmptyPointCloud implements ArEnginePointCloud {
+        private final FloatBuffer mPoints = allocateFloats(0);
+
+        private long mTimestampNs;
+
+        @Override
+        public long getTimestampNs() {
+            return mTimestampNs;
+        }
+
+        @Override
+        public FloatBuffer getPoints() {
+            mPoints.clear();
+            return mPoints;
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+
+    private static class LogPlane extends LogTrackable implements ArEnginePlane {
+        private final ArEnginePose mCenterPose = new ArEnginePose();
+
+        private final float[] mCenterMatrix = new float[MATRIX_SIZE];
+
+        private final float[] mCenterValues = new float[POSE_SIZE];
+
+        private float[] mPolygonValues = new float[0];
+
+        private FloatBuffer mPolygon = allocateFloats(0);
+
+        private int mLabelIndex = -1;
+
+        private boolean mIsChanged = false;
+
+        void setCenterMatrix(PooledFloatArray values) {
+            if (values.size() != MATRIX_SIZE || isSameValues(values, mCenterMatrix)) {
+                return;
+            }
+            System.arraycopy(values.array(), 0, mCenterMatrix, 0, MATRIX_SIZE);
+            MatrixUtil.matrixToPose(mCenterMatrix, 0, mCenterValues);
+            mCenterPose.set(mCenterValues[0], mCenterValues[1], mCenterValues[2], mCenterValues[3],
+                mCenterValues[4], mCenterValues[5], mCenterValues[6]);
+            mIsChanged = true;
+        }
+
+        void setPolygon(PooledFloatArray values) {
+            if (isSameValues(values, mPolygonValues)) {
+                return;
+            }
+            mPolygonValues = copyValues(values, mPolygonValues);
+            if (mPolygon.capacity() != mPolygonValues.length) {
+                mPolygon = allocateFloats(mPolygonValues.length);
+            }
+            mPolygon.clear();
+            mPolygon.put(mPolygonValues);
+            mPolygon.flip();
+            mIsChanged = true;
+        }
+
+        void setLabel(PooledFloatArray values) {
+            int labelIndex = values.size() > 0 ? (int) values.get(0) : -1;
+            if (labelIndex != mLabelIndex) {
+                mLabelIndex = labelIndex;
+                mIsChanged = true;
+            }
+        }
+
+        @Override
+        void endFrame(List<ArEnginePlane> updatedPlanes) {
+            if (updateTrackingState() || mIsChanged) {
+                updatedPlanes.add(this);
+            }
+            mIsChanged = false;
+        }
+
+        @Override
+        public ArEnginePose getCenterPose() {
+            return mCenterPose;
+        }
+
+        @Override
+        public FloatBuffer getPlanePolygon() {
+            mPolygon.rewind();
+            return mPolygon;
+        }
+
+        @Override
+        public boolean isSubsumed() {
+            return false;
+        }
+
+        @Override
+        public boolean hasKnownType() {
+            return mLabelIndex >= 0;
+        }
+
+        @Override
+        public int getLabelIndex() {
+            return Math.max(mLabelIndex, 0);
+        }
+
+        @Override
+        public boolean isPoseInPolygon(ArEnginePose pose) {
+            return false;
+        }
+    }
+
+    private static class LogAnchor extends LogTrackable implements ArEngineAnchor {
+        private final ArEnginePose mPose = new ArEnginePose();
+
+        private final float[] mPoseValues = new float[POSE_SIZE];
+
+        private boolean mIsDetached = false;
+
+        void setMatrix(PooledFloatArray values) {
+            if (values.size() != MATRIX_SIZE) {
+                return;
+            }
+            MatrixUtil.matrixToPose(values.array(), 0, mPoseValues);
+            mPose.set(mPoseValues[0], mPoseValues[1], mPoseValues[2], mPoseValues[3], mPoseValues[4],
+                mPoseValues[5], mPoseValues[6]);
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return mIsDetached ? TrackingState.STOPPED : super.getTrackingState();
+        }
+
+        @Override
+        public ArEnginePose getPose() {
+            return mPose;
+        }
+
+        @Override
+        public void detach() {
+            mIsDetached = true;
+        }
+    }
+
+    private static class LogHand extends LogTrackable implements ArEngineHand {
+        private final int mHandId;
+
+        private float[] mSkeleton = new float[0];
+
+        private int[] mConnections = new int[0];
+
+        LogHand(int handId) {
+            mHandId = handId;
+        }
+
+        @Override
+        public int getHandId() {
+            return mHandId;
+        }
+
+        @Override
+        public float[] getHandskeletonArray() {
+            return mSkeleton;
+        }
+
+        @Override
+        public int[] getHandSkeletonConnection() {
+            return mConnections;
+        }
+    }
+
+    private static class LogBody extends LogTrackable implements ArEngineBody {
+        private final int mBodyId;
+
+        private float[] mPoints = new float[0];
+
+        private int[] mIsExists = new int[0];
+
+        private int[] mConnections = new int[0];
+
+        private boolean mIs3dCamera = false;
+
+        LogBody(int bodyId) {
+            mBodyId = bodyId;
+        }
+
+        @Override
+        public int getBodyId() {
+            return mBodyId;
+        }
+
+        @Override
+        public boolean is3dCamera() {
+            return mIs3dCamera;
+        }
+
+        @Override
+        public float[] getSkeletonPoints() {
+            return mPoints;
+        }
+
+        @Override
+        public int[] getSkeletonPointIsExist() {
+            return mIsExists;
+        }
+
+        @Override
+        public int[] getBodySkeletonConnection() {
+            return mConnections;
+        }
+    }
+
+    private static class LogFace extends LogTrackable implements ArEngineFace {
+        private final ArEnginePose mPose = new ArEnginePose();
+
+        private FloatBuffer mVertices = allocateFloats(0);
+
+        void setPose(PooledFloatArray values) {
+            if (values.size() == POSE_SIZE) {
+                mPose.set(values.get(0), values.get(1), values.get(2), values.get(3), values.get(4), values.get(5),
+                    values.get(6));
+            }
+        }
+
+        void setVertices(PooledFloatArray values) {
+            if (mVertices.capacity() != values.size()) {
+                mVertices = allocateFloats(values.size());
+            }
+            mVertices.clear();
+            mVertices.put(values.array(), 0, values.size());
+            mVertices.flip();
+        }
+
+        @Override
+        public ArEnginePose getPose() {
+            return mPose;
+        }
+
+        @Override
+        public FloatBuffer getVertices() {
+            return mVertices;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.benchmark;
+
+import android.opengl.GLES20;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * Measure the CPU time, the allocated bytes and the GL work of each frame, and print the report.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+class FrameMeter {
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final FrameStatistics mCpuTime = new FrameStatistics("cpu time (us)");
+
+    private final FrameStatistics mAllocated = new FrameStatistics("allocated (bytes)");
+
+    private final FrameStatistics mGlCalls = new FrameStatistics("gl calls");
+
+    private final FrameStatistics mDrawCalls = new FrameStatistics("draw calls");
+
+    private final FrameStatistics mUploaded = new FrameStatistics("uploaded (bytes)");
+
+    private final com.sun.management.ThreadMXBean mAllocationBean;
+
+    private final long mThreadId = Thread.currentThread().getId();
+
+    private long mStartNs;
+
+    private long mStartAllocated;
+
+    FrameMeter() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        mAllocationBean = threadBean instanceof com.sun.management.ThreadMXBean
+            ? (com.sun.management.ThreadMXBean) threadBean : null;
+    }
+
+    /**
+     * Start measuring a frame.
+     */
+    void begin() {
+        GLES20.resetCounters();
+        mStartAllocated = getAllocatedBytes();
+        mStartNs = System.nanoTime();
+    }
+
+    /**
+     * Stop measuring the frame started by {@link #begin()}.
+     */
+    void end() {
+        long endNs = System.nanoTime();
+        long endAllocated = getAllocatedBytes();
+        mCpuTime.add(endNs - mStartNs);
+        mAllocated.add(endAllocated - mStartAllocated);
+        mGlCalls.add(GLES20.getCallCount());
+        mDrawCalls.add(GLES20.getDrawCallCount());
+        mUploaded.add(GLES20.getUploadedBytes());
+    }
+
+    private long getAllocatedBytes() {
+        return mAllocationBean == null ? 0 : mAllocationBean.getThreadAllocatedBytes(mThreadId);
+    }
+
+    /**
+     * Print the statistics of the measured frames.
+     */
+    void printReport() {
+        System.out.println("frames " + mCpuTime.getCount());
+        System.out.println(mCpuTime.format(NANOS_PER_MICRO));
+        System.out.println(mAllocated.format(1.0));
+        System.out.println(mGlCalls.format(1.0));
+        System.out.println(mDrawCalls.format(1.0));
+        System.out.println(mUploaded.format(1.0));
+    }
+
+    /**
+     * Check the 95th percentile of the frame time against a limit.
+     *
+     * @param maxP95Ms Limit in milliseconds, NaN for no limit.
+     * @return Exit code of the benchmark, 0 if the frames are within the limit, 1 if not, 2 without frames.
+     */
+    int getExitCode(double maxP95Ms) {
+        if (mCpuTime.getCount() == 0) {
+            System.err.println("No frame was measured");
+            return 2;
+        }
+        double p95Ms = mCpuTime.getPercentile(95) / NANOS_PER_MILLI;
+        if (!Double.isNaN(maxP95Ms) && p95Ms > maxP95Ms) {
+            System.err.println(String.format(Locale.ROOT, "FAIL: p95 frame time %.3f ms is above %.3f ms",
+                p95Ms, maxP95Ms));
+            return 1;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Samples of one per-frame measurement, such as the CPU time, with their percentiles.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public class FrameStatistics {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final String mName;
+
+    private long[] mSamples = new long[INITIAL_CAPACITY];
+
+    private int mCount = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param name Name of the measurement in the report.
+     */
+    public FrameStatistics(String name) {
+        mName = name;
+    }
+
+    /**
+     * Add the sample of a frame.
+     *
+     * @param sample Measured value.
+     */
+    public void add(long sample) {
+        if (mCount == mSamples.length) {
+            mSamples = Arrays.copyOf(mSamples, mCount * 2);
+        }
+        mSamples[mCount++] = sample;
+    }
+
+    /**
+     * Get the number of samples.
+     *
+     * @return Number of samples.
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Get a percentile of the samples.
+     *
+     * @param percent Percentile between 0 and 100.
+     * @return Sample at the percentile, 0 if there is no sample.
+     */
+    public long getPercentile(double percent) {
+        if (mCount == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(mSamples, mCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percent / 100.0 * mCount) - 1;
+        return sorted[Math.max(0, Math.min(index, mCount - 1))];
+    }
+
+    /**
+     * Get the mean of the samples.
+     *
+     * @return Mean, 0 if there is no sample.
+     */
+    public double getMean() {
+        if (mCount == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < mCount; i++) {
+            sum += mSamples[i];
+        }
+        return sum / mCount;
+    }
+
+    /**
+     * Format the mean, the median, the 95th and 99th percentiles and the maximum.
+     *
+     * @param divisor Unit conversion applied to the values, such as 1000 for nanoseconds to microseconds.
+     * @return One line of the report.
+     */
+    public String format(double divisor) {
+        return String.format(java.util.Locale.ROOT, "%-28s mean %10.1f  p50 %10.1f  p95 %10.1f  p99 %10.1f  max %10.1f",
+            mName, getMean() / divisor, getPercentile(50) / divisor, getPercentile(95) / divisor,
+            getPercentile(99) / divisor, getPercentile(100) / divisor);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.benchmark;
+
+import com.huawei.arengine.demos.common.JobSystem;
+import com.huawei.arengine.demos.common.engine.SyntheticArEngineSession;
+
+import java.util.Locale;
+
+/**
+ * Measure how the render logic of {@link SyntheticBenchmark} scales with the number of threads
+ * of the {@link JobSystem}. The same scene is run with 0 workers, where all the loops run on
+ * the calling thread, then with 1 to the maximum number of workers, and the report of each
+ * count gives the wall time per frame and the speedup of its median over the serial run.
+ * Only the loops split on the job system scale, the rest of the frame is serial.
+ *
+ * <p>Usage: JobBenchmark [--planes n] [--anchors n] [--points n] [--faces n] [--frames n]
+ * [--warmup frames] [--seed n] [--max-workers n]. The default scene has 4,000 planes,
+ * 2,000 anchors and 4 faces, and the default maximum is one worker per spare core.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public class JobBenchmark {
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    /**
+     * Entry of the benchmark.
+     *
+     * @param args Options.
+     */
+    public static void main(String[] args) {
+        int planes = 4000;
+        int anchors = 2000;
+        int points = 5000;
+        int faces = 4;
+        int frames = 600;
+        int warmupFrames = 300;
+        long seed = 1;
+        int maxWorkers = Runtime.getRuntime().availableProcessors() - 1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--planes":
+                    planes = Integer.parseInt(value);
+                    break;
+                case "--anchors":
+                    anchors = Integer.parseInt(value);
+                    break;
+                case "--points":
+                    points = Integer.parseInt(value);
+                    break;
+                case "--faces":
+                    faces = Integer.parseInt(value);
+                    break;
+                case "--frames":
+                    frames = Integer.parseInt(value);
+                    break;
+                case "--warmup":
+                    warmupFrames = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--max-workers":
+                    maxWorkers = Integer.parseInt(value);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        System.out.println("planes " + planes + ", anchors " + anchors + ", points " + points + ", faces " + faces
+            + ", cores " + Runtime.getRuntime().availableProcessors());
+        double serialMedian = 0.0;
+        for (int workers = 0; workers <= Math.max(maxWorkers, 0); workers++) {
+            JobSystem.setSharedWorkerCount(workers);
+            SyntheticArEngineSession session = new SyntheticArEngineSession(seed);
+            session.setPlaneCount(planes);
+            session.setAnchorCount(anchors);
+            session.setPointCount(points);
+            session.setFaceCount(faces);
+            SyntheticBenchmark benchmark = new SyntheticBenchmark(session);
+            for (int i = 0; i < warmupFrames; i++) {
+                benchmark.drawFrame();
+            }
+            FrameStatistics wallTime = new FrameStatistics("wall time (us)");
+            for (int i = 0; i < frames; i++) {
+                long startNs = System.nanoTime();
+                benchmark.drawFrame();
+                wallTime.add(System.nanoTime() - startNs);
+            }
+            double median = wallTime.getPercentile(50);
+            if (workers == 0) {
+                serialMedian = median;
+            }
+            System.out.println("workers " + workers + ", speedup " + String.format(Locale.ROOT, "%.2f",
+                serialMedian / median));
+            System.out.println(wallTime.format(NANOS_PER_MICRO));
+        }
+        JobSystem.setSharedWorkerCount(0);
+    }
+}
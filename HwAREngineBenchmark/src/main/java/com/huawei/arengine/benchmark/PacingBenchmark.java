@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.benchmark;
+
+import com.huawei.arengine.demos.common.FramePacer;
+
+import java.util.Random;
+
+/**
+ * Simulate the frames drawn for a camera slower than the display, in the continuous render
+ * mode and with the {@link FramePacer} of the on-demand mode. The camera frames arrive at the
+ * camera rate with a random jitter, each vsync of the display either draws or not, and a drawn
+ * frame shows the newest camera frame that arrived before it. The report of each mode gives the
+ * drawn frames, the redundant ones that showed the same camera frame again, the camera frames
+ * that were never shown, and the latency from the arrival of a camera frame to its first draw.
+ * The time is simulated, so the report does not depend on the machine; the time saved by the
+ * pacer is computed from the cost of a frame given with --frame-cost-us, such as the CPU time per
+ * frame reported by {@link SyntheticBenchmark}.
+ *
+ * <p>Usage: PacingBenchmark [--display-hz n] [--camera-fps n] [--jitter-us n] [--draw-delay-us n]
+ * [--input-hz n] [--frame-cost-us n] [--seconds n] [--seed n]. The default is a 30 fps camera on
+ * a 60 Hz display, with a jitter of 2 ms and no input events.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public class PacingBenchmark {
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    // Offset of the camera clock, the pacer must only use the differences of its timestamps.
+    private static final long CAMERA_CLOCK_OFFSET_NS = 123456789000L;
+
+    private final long mVsyncPeriodNs;
+
+    private final long mCameraIntervalNs;
+
+    private final long mDrawDelayNs;
+
+    private final long mInputIntervalNs;
+
+    private final long mFrameCostNs;
+
+    private final long[] mArrivalNs;
+
+    private PacingBenchmark(double displayHz, double cameraFps, long jitterNs, long drawDelayNs, double inputHz,
+        long frameCostNs, int seconds, long seed) {
+        mVsyncPeriodNs = (long) (NANOS_PER_SECOND / displayHz);
+        mCameraIntervalNs = (long) (NANOS_PER_SECOND / cameraFps);
+        mDrawDelayNs = drawDelayNs;
+        mInputIntervalNs = inputHz > 0 ? (long) (NANOS_PER_SECOND / inputHz) : 0;
+        mFrameCostNs = frameCostNs;
+        Random random = new Random(seed);
+        mArrivalNs = new long[(int) (seconds * cameraFps)];
+        long phaseNs = (long) (random.nextDouble() * mCameraIntervalNs);
+        for (int i = 0; i < mArrivalNs.length; i++) {
+            long offsetNs = jitterNs == 0 ? 0 : (long) ((random.nextDouble() * 2 - 1) * jitterNs);
+            mArrivalNs[i] = mCameraIntervalNs + phaseNs + i * mCameraIntervalNs + offsetNs;
+        }
+    }
+
+    /**
+     * Entry of the benchmark.
+     *
+     * @param args Options.
+     */
+    public static void main(String[] args) {
+        double displayHz = 60;
+        double cameraFps = 30;
+        long jitterUs = 2000;
+        long drawDelayUs = 1000;
+        double inputHz = 0;
+        long frameCostUs = 0;
+        int seconds = 60;
+        long seed = 1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--display-hz":
+                    displayHz = Double.parseDouble(value);
+                    break;
+                case "--camera-fps":
+                    cameraFps = Double.parseDouble(value);
+                    break;
+                case "--jitter-us":
+                    jitterUs = Long.parseLong(value);
+                    break;
+                case "--draw-delay-us":
+                    drawDelayUs = Long.parseLong(value);
+                    break;
+                case "--input-hz":
+                    inputHz = Double.parseDouble(value);
+                    break;
+                case "--frame-cost-us":
+                    frameCostUs = Long.parseLong(value);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        System.out.println("display " + displayHz + " Hz, camera " + cameraFps + " fps, jitter " + jitterUs
+            + " us, input " + inputHz + " Hz, " + seconds + " s");
+        PacingBenchmark benchmark = new PacingBenchmark(displayHz, cameraFps, jitterUs * NANOS_PER_MICRO,
+            drawDelayUs * NANOS_PER_MICRO, inputHz, frameCostUs * NANOS_PER_MICRO, seconds, seed);
+        benchmark.run(null);
+        FramePacer pacer = new FramePacer();
+        benchmark.run(pacer);
+        System.out.println(pacer.formatReport());
+    }
+
+    private void run(FramePacer pacer) {
+        long endNs = mArrivalNs[mArrivalNs.length - 1] + mCameraIntervalNs;
+        long nextInputNs = mInputIntervalNs;
+        int nextFrame = 0;
+        long shownFrame = -1;
+        long drawCount = 0;
+        long redundantCount = 0;
+        long shownCount = 0;
+        FrameStatistics latency = new FrameStatistics("camera to draw (us)");
+        for (long vsyncNs = mVsyncPeriodNs; vsyncNs < endNs; vsyncNs += mVsyncPeriodNs) {
+            if (pacer != null) {
+                if (mInputIntervalNs > 0 && vsyncNs >= nextInputNs) {
+                    pacer.onInputEvent();
+                    nextInputNs += mInputIntervalNs;
+                }
+                if (!pacer.onVsync(vsyncNs)) {
+                    continue;
+                }
+            }
+
+            // The session update on the OpenGL thread returns the newest camera frame.
+            long drawNs = vsyncNs + mDrawDelayNs;
+            while (nextFrame < mArrivalNs.length && mArrivalNs[nextFrame] <= drawNs) {
+                nextFrame++;
+            }
+            int frame = nextFrame - 1;
+            drawCount++;
+            if (frame >= 0 && frame == shownFrame) {
+                redundantCount++;
+            } else if (frame >= 0) {
+                shownCount++;
+                shownFrame = frame;
+                latency.add(drawNs - mArrivalNs[frame]);
+            }
+            if (pacer != null) {
+                if (frame >= 0) {
+                    pacer.onCameraFrame(CAMERA_CLOCK_OFFSET_NS + mArrivalNs[frame]);
+                }
+                pacer.onFrameDrawn(mFrameCostNs, mFrameCostNs);
+            }
+        }
+        System.out.println("mode " + (pacer == null ? "continuous" : "on demand") + ": drawn " + drawCount
+            + ", redundant " + redundantCount + ", camera frames " + mArrivalNs.length + ", shown " + shownCount
+            + ", never shown " + (mArrivalNs.length - shownCount));
+        System.out.println(latency.format(NANOS_PER_MICRO));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.benchmark;
+
+import com.huawei.arengine.demos.common.engine.ArEngineFrame;
+import com.huawei.arengine.demos.java.world.rendering.WorldFrameRenderer;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Replay a log written by FrameRecorder through the per-frame render logic of the demos, on the
+ * desktop JVM and without a device. The log is played back by a {@link FrameLogSession}: the
+ * world logic of the demo reads its camera, planes and anchors, and the logic of the hand, body
+ * and face demos reads the other trackables. GLES20 is replaced by a stand-in that counts the
+ * calls, so the report gives the CPU time and the allocations of the logic and the GL calls,
+ * draw calls and uploaded bytes it issues per frame.
+ *
+ * <p>Usage: ReplayBenchmark &lt;log&gt; [--warmup frames] [--max-p95-ms milliseconds]. With
+ * --max-p95-ms, the exit code is 1 when the 95th percentile of the frame time is above the
+ * limit, so the benchmark can gate a build.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public class ReplayBenchmark {
+    private static final int DEFAULT_WARMUP_FRAMES = 300;
+
+    private static final int SURFACE_WIDTH = 1080;
+
+    private static final int SURFACE_HEIGHT = 2340;
+
+    private final TrackableRenderLogic mLogic = new TrackableRenderLogic();
+
+    private final WorldFrameRenderer mWorld;
+
+    private final FrameLogReader mReader;
+
+    private final FrameLogSession mSession;
+
+    private ReplayBenchmark(FrameLogReader reader) {
+        mReader = reader;
+        mSession = new FrameLogSession(reader);
+        mWorld = SyntheticBenchmark.createWorldRenderer(SURFACE_WIDTH, SURFACE_HEIGHT);
+        mLogic.init(SURFACE_WIDTH, SURFACE_HEIGHT);
+    }
+
+    /**
+     * Entry of the benchmark.
+     *
+     * @param args Path of the log, then the options.
+     * @throws IOException If the log can not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayBenchmark <log> [--warmup frames] [--max-p95-ms milliseconds]");
+            System.exit(2);
+        }
+        int warmupFrames = DEFAULT_WARMUP_FRAMES;
+        double maxP95Ms = Double.NaN;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            if ("--warmup".equals(args[i])) {
+                warmupFrames = Integer.parseInt(args[i + 1]);
+            } else if ("--max-p95-ms".equals(args[i])) {
+                maxP95Ms = Double.parseDouble(args[i + 1]);
+            } else {
+                System.err.println("Unknown option " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        ReplayBenchmark benchmark = new ReplayBenchmark(new FrameLogReader(new File(args[0])));
+        benchmark.warmUp(warmupFrames);
+        FrameMeter meter = benchmark.measure();
+        meter.printReport();
+        System.exit(meter.getExitCode(maxP95Ms));
+    }
+
+    /**
+     * Replay frames without measuring them, so that the JIT compiles the logic first. The log
+     * is replayed again from the start if it has fewer frames.
+     */
+    private void warmUp(int frames) throws IOException {
+        int replayed = 0;
+        while (replayed < frames) {
+            mReader.rewind();
+            int before = replayed;
+            while (replayed < frames && mReader.nextFrame()) {
+                replayFrame();
+                replayed++;
+            }
+            if (replayed == before) {
+                break;
+            }
+        }
+    }
+
+    private FrameMeter measure() throws IOException {
+        FrameMeter meter = new FrameMeter();
+
+        // The timestamps go back at the rewind, so the predictors restart like at the start of the recording.
+        mReader.rewind();
+        while (mReader.nextFrame()) {
+            meter.begin();
+            replayFrame();
+            meter.end();
+        }
+        return meter;
+    }
+
+    private void replayFrame() {
+        ArEngineFrame frame = mSession.update();
+        mWorld.update(mSession, frame);
+        SyntheticBenchmark.syncVirtualObjects(mWorld.getVirtualObjects(), mSession.getAllAnchors());
+        mWorld.onDrawFrame(frame);
+        mLogic.beginFrame(mWorld.getProjectionMatrix(), frame.getTimestampNs());
+        mLogic.addTrackables(mSession);
+        mLogic.endFrame();
+    }
+}
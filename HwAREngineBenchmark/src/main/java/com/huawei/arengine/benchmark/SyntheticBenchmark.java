@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.benchmark;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import com.huawei.arengine.demos.common.QualityGovernor;
+import com.huawei.arengine.demos.common.engine.ArEngineAnchor;
+import com.huawei.arengine.demos.common.engine.ArEngineFrame;
+import com.huawei.arengine.demos.common.engine.SyntheticArEngineSession;
+import com.huawei.arengine.demos.java.world.VirtualObject;
+import com.huawei.arengine.demos.java.world.rendering.WorldFrameRenderer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Run the render logic of the demos on a {@link SyntheticArEngineSession}, to measure how it
+ * scales with the number of trackables. The world logic draws the planes, the point cloud and
+ * the anchors, and the logic of the hand, body and face demos draws the other trackables.
+ *
+ * <p>Usage: SyntheticBenchmark [--planes n] [--anchors n] [--points n] [--hands n] [--bodies n]
+ * [--faces n] [--frames n] [--warmup frames] [--seed n] [--max-p95-ms milliseconds]
+ * [--target-us microseconds] [--update-sleep-us microseconds]. The default scene has 1,000
+ * planes and 500 anchors. With a target frame time, a {@link QualityGovernor} fed with the time
+ * of each frame after the session update, warmup included, lowers the quality like the world
+ * demo does. With an update sleep, each update of the session blocks for this time first, like
+ * an update that waits for the camera; the measured frame time includes it, the governor does
+ * not. The exit code is the same as the one of {@link ReplayBenchmark}.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public class SyntheticBenchmark {
+    private static final int SURFACE_WIDTH = 1080;
+
+    private static final int SURFACE_HEIGHT = 2340;
+
+    private static final int LABEL_COUNT = 6;
+
+    private static final float[] OBJECT_COLOR = new float[] {66.0f, 133.0f, 244.0f, 255.0f};
+
+    private final SyntheticArEngineSession mSession;
+
+    private final WorldFrameRenderer mWorld;
+
+    private final TrackableRenderLogic mLogic = new TrackableRenderLogic();
+
+    private QualityGovernor mGovernor;
+
+    private QualityGovernor.Tier mAppliedTier;
+
+    /**
+     * Constructor, the session must be configured.
+     *
+     * @param session Session of the scene.
+     */
+    SyntheticBenchmark(SyntheticArEngineSession session) {
+        mSession = session;
+        mSession.setDisplayGeometry(0, SURFACE_WIDTH, SURFACE_HEIGHT);
+        mWorld = createWorldRenderer(SURFACE_WIDTH, SURFACE_HEIGHT);
+        mLogic.init(SURFACE_WIDTH, SURFACE_HEIGHT);
+    }
+
+    /**
+     * Entry of the benchmark.
+     *
+     * @param args Options.
+     */
+    public static void main(String[] args) {
+        int planes = 1000;
+        int anchors = 500;
+        int points = 5000;
+        int hands = 0;
+        int bodies = 0;
+        int faces = 0;
+        int frames = 900;
+        int warmupFrames = 300;
+        long seed = 1;
+        double maxP95Ms = Double.NaN;
+        long targetUs = 0;
+        long updateSleepUs = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--planes":
+                    planes = Integer.parseInt(value);
+                    break;
+                case "--anchors":
+                    anchors = Integer.parseInt(value);
+                    break;
+                case "--points":
+                    points = Integer.parseInt(value);
+                    break;
+                case "--hands":
+                    hands = Integer.parseInt(value);
+                    break;
+                case "--bodies":
+                    bodies = Integer.parseInt(value);
+                    break;
+                case "--faces":
+                    faces = Integer.parseInt(value);
+                    break;
+                case "--frames":
+                    frames = Integer.parseInt(value);
+                    break;
+                case "--warmup":
+                    warmupFrames = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--max-p95-ms":
+                    maxP95Ms = Double.parseDouble(value);
+                    break;
+                case "--target-us":
+                    targetUs = Long.parseLong(value);
+                    break;
+                case "--update-sleep-us":
+                    updateSleepUs = Long.parseLong(value);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        SyntheticArEngineSession session = updateSleepUs > 0 ? new BlockingSession(seed, updateSleepUs)
+            : new SyntheticArEngineSession(seed);
+        session.setPlaneCount(planes);
+        session.setAnchorCount(anchors);
+        session.setPointCount(points);
+        session.setHandCount(hands);
+        session.setBodyCount(bodies);
+        session.setFaceCount(faces);
+        SyntheticBenchmark benchmark = new SyntheticBenchmark(session);
+        if (targetUs > 0) {
+            benchmark.mGovernor = new QualityGovernor(targetUs * 1000L);
+        }
+        for (int i = 0; i < warmupFrames; i++) {
+            benchmark.drawFrame();
+        }
+        FrameMeter meter = new FrameMeter();
+        for (int i = 0; i < frames; i++) {
+            meter.begin();
+            benchmark.drawFrame();
+            meter.end();
+        }
+        System.out.println("planes " + planes + ", anchors " + anchors + ", points " + points + ", hands " + hands
+            + ", bodies " + bodies + ", faces " + faces + ", update sleep " + updateSleepUs + " us");
+        if (benchmark.mGovernor != null) {
+            QualityGovernor governor = benchmark.mGovernor;
+            System.out.println("quality tier " + governor.getTierIndex() + " (" + governor.getTier().getName()
+                + "), changes " + governor.getTierChangeCount() + ", last p90 "
+                + governor.getLastPercentileNs() / 1000L + " us, target " + targetUs + " us");
+        }
+        meter.printReport();
+        System.exit(meter.getExitCode(maxP95Ms));
+    }
+
+    /**
+     * Update the session and run the render logic of one frame.
+     */
+    void drawFrame() {
+        applyQualityTier();
+        ArEngineFrame frame = mSession.update();
+
+        // Like the world demo, the governor does not count the update, a lower quality does not speed it up.
+        long startNs = System.nanoTime();
+        mWorld.update(mSession, frame);
+        syncVirtualObjects(mWorld.getVirtualObjects(), mSession.getAllAnchors());
+        mWorld.onDrawFrame(frame);
+        mLogic.beginFrame(mWorld.getProjectionMatrix(), frame.getTimestampNs());
+        mLogic.addTrackables(mSession);
+        mLogic.endFrame();
+        if (mGovernor != null) {
+            mGovernor.onFrame(System.nanoTime() - startNs);
+        }
+    }
+
+    private void applyQualityTier() {
+        if (mGovernor == null || mGovernor.getTier() == mAppliedTier) {
+            return;
+        }
+        mAppliedTier = mGovernor.getTier();
+        mWorld.applyQualityTier(mAppliedTier);
+    }
+
+    /**
+     * Create the world logic of the demo, like RenderUtil.onSurfaceCreated(). The textures and the
+     * object model are read from the assets of the demo; the labels, drawn from the views of the
+     * activity in the demo, are blank bitmaps of the same count.
+     *
+     * @param width Width of the surface.
+     * @param height Height of the surface.
+     * @return Initialized world logic.
+     */
+    static WorldFrameRenderer createWorldRenderer(int width, int height) {
+        ArrayList<Bitmap> labelBitmaps = new ArrayList<>();
+        for (int i = 0; i < LABEL_COUNT; i++) {
+            labelBitmaps.add(Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888));
+        }
+        WorldFrameRenderer world = new WorldFrameRenderer();
+        world.init(new Context(), labelBitmaps);
+        world.onSurfaceChanged(width, height);
+        return world;
+    }
+
+    /**
+     * Place one virtual object on each anchor, in place of the taps of the demo. The anchors of
+     * the benchmark sessions are never removed, so the objects are created again when the
+     * number of anchors changes.
+     *
+     * @param objects Virtual objects of the world logic.
+     * @param anchors Anchors of the session.
+     */
+    static void syncVirtualObjects(List<VirtualObject> objects, Collection<ArEngineAnchor> anchors) {
+        if (objects.size() == anchors.size()) {
+            return;
+        }
+        objects.clear();
+        for (ArEngineAnchor anchor : anchors) {
+            objects.add(new VirtualObject(anchor, OBJECT_COLOR));
+        }
+    }
+
+    /**
+     * Synthetic session whose update blocks first, like an update that waits for the next camera
+     * image or for the tracking.
+     */
+    private static class BlockingSession extends SyntheticArEngineSession {
+        private final long mSleepUs;
+
+        BlockingSession(long seed, long sleepUs) {
+            super(seed);
+            mSleepUs = sleepUs;
+        }
+
+        @Override
+        public ArEngineFrame update() {
+            try {
+                Thread.sleep(mSleepUs / 1000L, (int) (mSleepUs % 1000L) * 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.update();
+        }
+    }
+}
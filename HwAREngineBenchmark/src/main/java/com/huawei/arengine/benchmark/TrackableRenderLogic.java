@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.benchmark;
+
+import android.content.Context;
+
+import com.huawei.arengine.demos.common.FaceSnapshot;
+import com.huawei.arengine.demos.common.HudRenderer;
+import com.huawei.arengine.demos.common.OverlayModel;
+import com.huawei.arengine.demos.common.TrackedSkeletonRenderer;
+import com.huawei.arengine.demos.common.engine.ArEngineBody;
+import com.huawei.arengine.demos.common.engine.ArEngineFace;
+import com.huawei.arengine.demos.common.engine.ArEngineHand;
+import com.huawei.arengine.demos.common.engine.ArEnginePose;
+import com.huawei.arengine.demos.common.engine.ArEngineSession;
+import com.huawei.arengine.demos.common.engine.ArEngineTrackable;
+import com.huawei.arengine.demos.java.face.rendering.FaceGeometryDisplay;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+
+/**
+ * The per-frame logic of the hand, body and face demos, and the text overlay. The skeletons go
+ * through the same {@link TrackedSkeletonRenderer}, the faces through the same
+ * {@link FaceSnapshot} and {@link FaceGeometryDisplay}, and the text through the same
+ * {@link OverlayModel} and {@link HudRenderer} as in the demos, so the benchmarks run the same
+ * code and parameters as the demos for each trackable.
+ *
+ * <p>The engine facade has no face topology, so the faces are given two triangles per vertex,
+ * like a regular grid, with texture coordinates that change with the number of vertices only.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+class TrackableRenderLogic {
+    private static final int MATRIX_SIZE = 16;
+
+    private static final int POSE_SIZE = 7;
+
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private static final int BYTES_PER_INT = 4;
+
+    private static final int FPS_DECIMALS = 1;
+
+    private static final int POSE_DECIMALS = 4;
+
+    // The FPS is computed every 0.5 seconds of the frame timestamps, like in the demos.
+    private static final long FPS_INTERVAL_NS = 500000000L;
+
+    private static final float NANOS_PER_SECOND = 1.0e9f;
+
+    private final TrackedSkeletonRenderer mHandRenderer = TrackedSkeletonRenderer.createForHands();
+
+    private final TrackedSkeletonRenderer mBodyRenderer = TrackedSkeletonRenderer.createForBodies();
+
+    private final FaceGeometryDisplay mFaceDisplay = new FaceGeometryDisplay();
+
+    private final ArrayList<FaceSnapshot> mFaces = new ArrayList<>();
+
+    private final HudRenderer mHudRenderer = new HudRenderer();
+
+    private final OverlayModel mOverlay = new OverlayModel();
+
+    private final int mFpsField = mOverlay.addFloat("FPS=", FPS_DECIMALS);
+
+    private final int mFacePoseField = mOverlay.addFloatArray("face pose", POSE_DECIMALS, true);
+
+    private final int mTextureCoordinatesField = mOverlay.addInt("textureCoordinates length=");
+
+    private final float[] mFacePose = new float[POSE_SIZE];
+
+    private final float[] mProjectionMatrix = new float[MATRIX_SIZE];
+
+    private FloatBuffer mTextureCoordinates = allocateFloats(0);
+
+    private IntBuffer mTriangleIndices = allocateInts(0);
+
+    private int mTopologyVertexCount = -1;
+
+    private int mTriangleCount = 0;
+
+    private long mTimestampNs;
+
+    private long mFpsStartNs = 0;
+
+    private int mFpsFrames = 0;
+
+    private float mFps = 0.0f;
+
+    /**
+     * Create the renderers. The demos call it when the surface is created.
+     *
+     * @param width Width of the surface in pixels.
+     * @param height Height of the surface in pixels.
+     */
+    void init(int width, int height) {
+        mHandRenderer.init();
+        mHandRenderer.onSurfaceChanged(width, height);
+        mBodyRenderer.init();
+        mBodyRenderer.onSurfaceChanged(width, height);
+        mFaceDisplay.init(new Context());
+        mHudRenderer.init();
+        mHudRenderer.onSurfaceChanged(width, height);
+    }
+
+    /**
+     * Start a frame. The benchmarks draw each frame as soon as it is captured.
+     *
+     * @param projectionMatrix Projection matrix(4 * 4) of the camera.
+     * @param timestampNs Timestamp of the frame in nanoseconds.
+     */
+    void beginFrame(float[] projectionMatrix, long timestampNs) {
+        System.arraycopy(projectionMatrix, 0, mProjectionMatrix, 0, MATRIX_SIZE);
+        mTimestampNs = timestampNs;
+        mHandRenderer.beginFrame(mProjectionMatrix, timestampNs, timestampNs);
+        mBodyRenderer.beginFrame(mProjectionMatrix, timestampNs, timestampNs);
+        updateFps();
+    }
+
+    /**
+     * Add the tracked hands, bodies and faces of a session, like the hand, body and face demos.
+     * The faces are drawn right away, like in the face demo.
+     *
+     * @param session Session that returned the frame.
+     */
+    void addTrackables(ArEngineSession session) {
+        for (ArEngineHand hand : session.getAllHands()) {
+            if (hand.getTrackingState() == ArEngineTrackable.TrackingState.TRACKING) {
+                float[] skeleton = hand.getHandskeletonArray();
+                int[] connections = hand.getHandSkeletonConnection();
+                mHandRenderer.addHand(hand.getHandId(), skeleton, skeleton.length, connections, connections.length);
+            }
+        }
+        for (ArEngineBody body : session.getAllBodies()) {
+            if (body.getTrackingState() == ArEngineTrackable.TrackingState.TRACKING) {
+                float[] points = body.getSkeletonPoints();
+                int[] isExists = body.getSkeletonPointIsExist();
+                int[] connections = body.getBodySkeletonConnection();
+                mBodyRenderer.addBody(body.getBodyId(), points, points.length, isExists, isExists.length,
+                    connections, connections.length, body.is3dCamera());
+            }
+        }
+        mOverlay.setFloat(mFpsField, mFps);
+        boolean isFaceTracked = false;
+        int faceCount = 0;
+        for (ArEngineFace face : session.getAllFaces()) {
+            if (faceCount == mFaces.size()) {
+                mFaces.add(new FaceSnapshot());
+            }
+            FaceSnapshot snapshot = mFaces.get(faceCount++);
+            if (!updateFace(snapshot, face)) {
+                continue;
+            }
+            isFaceTracked = true;
+            mOverlay.setFloats(mFacePoseField, mFacePose, POSE_SIZE);
+            mOverlay.setInt(mTextureCoordinatesField, snapshot.getTextureCoordinates().limit());
+            mFaceDisplay.onDrawFrame(mProjectionMatrix, snapshot, mTimestampNs);
+        }
+        mOverlay.setVisible(mFacePoseField, isFaceTracked);
+        mOverlay.setVisible(mTextureCoordinatesField, isFaceTracked);
+        mHudRenderer.setText(mOverlay);
+    }
+
+    /**
+     * Copy a face of the session into its snapshot, like FrameSnapshot does with an ARFace.
+     *
+     * @return True if the face is tracked.
+     */
+    private boolean updateFace(FaceSnapshot snapshot, ArEngineFace face) {
+        boolean isTracking = face.getTrackingState() == ArEngineTrackable.TrackingState.TRACKING;
+        snapshot.setTracking(isTracking);
+        if (!isTracking) {
+            return false;
+        }
+        ArEnginePose pose = face.getPose();
+        pose.getTranslation(mFacePose, 0);
+        pose.getRotationQuaternion(mFacePose, 3);
+        snapshot.setPose(mFacePose[0], mFacePose[1], mFacePose[2], mFacePose[3], mFacePose[4], mFacePose[5],
+            mFacePose[6]);
+        FloatBuffer vertices = face.getVertices();
+        updateTopology(vertices.remaining() / 3);
+        if (snapshot.updateVertices(vertices, mTriangleCount)) {
+            snapshot.updateTopology(mTextureCoordinates, mTriangleIndices, mTriangleCount);
+        }
+        vertices.rewind();
+        return true;
+    }
+
+    private void updateTopology(int vertexCount) {
+        if (vertexCount == mTopologyVertexCount) {
+            return;
+        }
+        mTopologyVertexCount = vertexCount;
+        mTriangleCount = Math.max(2 * (vertexCount - 3), 0);
+        if (mTextureCoordinates.capacity() < 2 * vertexCount) {
+            mTextureCoordinates = allocateFloats(2 * vertexCount);
+        }
+        mTextureCoordinates.clear();
+        for (int i = 0; i < vertexCount; i++) {
+            float coordinate = (float) i / Math.max(vertexCount - 1, 1);
+            mTextureCoordinates.put(coordinate).put(1.0f - coordinate);
+        }
+        mTextureCoordinates.flip();
+        if (mTriangleIndices.capacity() < 3 * mTriangleCount) {
+            mTriangleIndices = allocateInts(3 * mTriangleCount);
+        }
+        mTriangleIndices.clear();
+        for (int i = 0; i + 3 < vertexCount; i++) {
+            mTriangleIndices.put(i).put(i + 1).put(i + 2);
+            mTriangleIndices.put(i + 1).put(i + 3).put(i + 2);
+        }
+        mTriangleIndices.flip();
+    }
+
+    private void updateFps() {
+        mFpsFrames++;
+        long elapsedNs = mTimestampNs - mFpsStartNs;
+
+        // The timestamps go back when a log is replayed again.
+        if (elapsedNs < 0) {
+            mFpsStartNs = mTimestampNs;
+            mFpsFrames = 0;
+        } else if (elapsedNs > FPS_INTERVAL_NS) {
+            mFps = mFpsFrames * NANOS_PER_SECOND / elapsedNs;
+            mFpsStartNs = mTimestampNs;
+            mFpsFrames = 0;
+        }
+    }
+
+    /**
+     * Draw the skeletons and the text overlay of the frame, and forget the trackables that
+     * disappeared.
+     */
+    void endFrame() {
+        mHandRenderer.endFrame();
+        mBodyRenderer.endFrame();
+        mHudRenderer.onDrawFrame();
+    }
+
+    private static FloatBuffer allocateFloats(int count) {
+        return ByteBuffer.allocateDirect(BYTES_PER_FLOAT * count).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    private static IntBuffer allocateInts(int count) {
+        return ByteBuffer.allocateDirect(BYTES_PER_INT * count).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.benchmark;
+
+import android.opengl.GLES20;
+
+import com.huawei.arengine.demos.common.StagingBufferPool;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+/**
+ * Compare the ways of staging the vertex data of a frame before glBufferSubData: a heap array
+ * wrapped for each upload, a direct buffer owned by each display and reallocated when it is too
+ * small, and the slabs of {@link StagingBufferPool}. Each frame uploads the vertices of the
+ * planes, whose sizes change between frames, two skeletons, the HUD and a face mesh.
+ * The report of each mode gives the CPU time and the bytes allocated per frame. The stand-in
+ * GLES20 does not pin or copy the heap arrays like the JNI of the device does, so the device
+ * cost of the wrapped arrays is higher than measured here.
+ *
+ * <p>Usage: UploadBenchmark [--mode wrap|owned|slab] [--planes n] [--frames n] [--warmup frames]
+ * [--seed n]. All the modes are run by default; run one mode per process for comparable CPU times,
+ * since the modes share the compiled code of the upload.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public class UploadBenchmark {
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private static final int FLOATS_PER_PLANE_VERTEX = 3;
+
+    private static final int MIN_PLANE_VERTICES = 8;
+
+    private static final int MAX_PLANE_VERTICES = 96;
+
+    // Bone quads of a hand skeleton and HUD quads, as sized by SkeletonRenderer and HudRenderer.
+    private static final int SKELETON_FLOATS = 20 * 4 * 4;
+
+    private static final int HUD_FLOATS = 122 * 4 * 8;
+
+    private static final int FACE_FLOATS = 1220 * 3;
+
+    private static final int SKELETON_COUNT = 2;
+
+    private static final String[] MODES = {"wrap", "owned", "slab"};
+
+    private final Random mRandom;
+
+    private final int mPlaneCount;
+
+    private final float[] mSource = new float[Math.max(HUD_FLOATS, FACE_FLOATS)];
+
+    // One owned buffer per upload site, for the "owned" mode.
+    private final FloatBuffer[] mOwnedBuffers;
+
+    private UploadBenchmark(int planeCount, long seed) {
+        mPlaneCount = planeCount;
+        mRandom = new Random(seed);
+        for (int i = 0; i < mSource.length; i++) {
+            mSource[i] = mRandom.nextFloat();
+        }
+        mOwnedBuffers = new FloatBuffer[planeCount + SKELETON_COUNT + 2];
+        for (int i = 0; i < mOwnedBuffers.length; i++) {
+            mOwnedBuffers[i] = allocateFloats(0);
+        }
+    }
+
+    /**
+     * Entry of the benchmark.
+     *
+     * @param args Options.
+     */
+    public static void main(String[] args) {
+        int planes = 50;
+        int frames = 3000;
+        int warmupFrames = 1000;
+        long seed = 1;
+        String[] modes = MODES;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--mode":
+                    modes = new String[] {value};
+                    break;
+                case "--planes":
+                    planes = Integer.parseInt(value);
+                    break;
+                case "--frames":
+                    frames = Integer.parseInt(value);
+                    break;
+                case "--warmup":
+                    warmupFrames = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        System.out.println("planes " + planes + ", skeletons " + SKELETON_COUNT + ", hud, face");
+        for (String mode : modes) {
+            UploadBenchmark benchmark = new UploadBenchmark(planes, seed);
+            for (int i = 0; i < warmupFrames; i++) {
+                benchmark.uploadFrame(mode);
+            }
+            FrameMeter meter = new FrameMeter();
+            for (int i = 0; i < frames; i++) {
+                meter.begin();
+                benchmark.uploadFrame(mode);
+                meter.end();
+            }
+            System.out.println("mode " + mode);
+            meter.printReport();
+        }
+        StagingBufferPool pool = StagingBufferPool.get();
+        System.out.println("slab acquisitions " + pool.getAcquireCount() + ", allocations "
+            + pool.getAllocationCount());
+    }
+
+    private void uploadFrame(String mode) {
+        int site = 0;
+        for (int i = 0; i < mPlaneCount; i++) {
+            int vertices = MIN_PLANE_VERTICES + mRandom.nextInt(MAX_PLANE_VERTICES - MIN_PLANE_VERTICES);
+            upload(mode, site++, vertices * FLOATS_PER_PLANE_VERTEX);
+        }
+        for (int i = 0; i < SKELETON_COUNT; i++) {
+            upload(mode, site++, SKELETON_FLOATS);
+        }
+        upload(mode, site++, HUD_FLOATS);
+        upload(mode, site, FACE_FLOATS);
+    }
+
+    private void upload(String mode, int site, int floatCount) {
+        switch (mode) {
+            case "wrap":
+                float[] data = new float[floatCount];
+                System.arraycopy(mSource, 0, data, 0, floatCount);
+                GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, floatCount * BYTES_PER_FLOAT,
+                    FloatBuffer.wrap(data, 0, floatCount));
+                break;
+            case "owned":
+                FloatBuffer owned = mOwnedBuffers[site];
+                if (owned.capacity() < floatCount) {
+                    owned = allocateFloats(floatCount * 2);
+                    mOwnedBuffers[site] = owned;
+                }
+                owned.clear();
+                owned.put(mSource, 0, floatCount).flip();
+                GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, floatCount * BYTES_PER_FLOAT, owned);
+                break;
+            default:
+                StagingBufferPool pool = StagingBufferPool.get();
+                StagingBufferPool.Slab slab = pool.acquire(floatCount * BYTES_PER_FLOAT);
+                FloatBuffer staging = slab.floats();
+                staging.put(mSource, 0, floatCount).flip();
+                GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, floatCount * BYTES_PER_FLOAT, staging);
+                pool.release(slab);
+                break;
+        }
+    }
+
+    private static FloatBuffer allocateFloats(int count) {
+        return ByteBuffer.allocateDirect(count * BYTES_PER_FLOAT).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+}
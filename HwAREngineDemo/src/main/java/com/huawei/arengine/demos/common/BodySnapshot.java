@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import com.huawei.hiar.ARBody;
+import com.huawei.hiar.ARCoordinateSystemType;
+import com.huawei.hiar.ARTrackable;
+
+/**
+ * Data of one ARBody captured once per frame. Only the skeleton of the coordinate system
+ * reported by the body is copied, so the point and line displays share one copy of it.
+ *
+ * @author HW
+ * @since 2020-03-27
+ */
+public class BodySnapshot {
+    private static final int SKELETON_CAPACITY = 32 * 3;
+
+    private static final int CONNECTION_CAPACITY = 32 * 2;
+
+    // Coordinates of the skeleton points (x, y, z), in 3D camera space or in 2D screen space.
+    private final PooledFloatArray mSkeletonPoints = new PooledFloatArray(SKELETON_CAPACITY);
+
+    // Whether each skeleton point was detected, 0 means not detected.
+    private final PooledIntArray mSkeletonPointIsExist = new PooledIntArray(SKELETON_CAPACITY / 3);
+
+    // Pairs of indexes of connected skeleton points.
+    private final PooledIntArray mSkeletonConnections = new PooledIntArray(CONNECTION_CAPACITY);
+
+    private int mBodyId;
+
+    private boolean mIsTracking;
+
+    private int mBodyAction;
+
+    private ARCoordinateSystemType mCoordinateSystemType;
+
+    /**
+     * Copy the data of the body. Each getter of ARBody is called only once.
+     *
+     * @param body Body of the current frame.
+     */
+    public void update(ARBody body) {
+        mBodyId = body.getBodyId();
+        mIsTracking = body.getTrackingState() == ARTrackable.TrackingState.TRACKING;
+        mBodyAction = body.getBodyAction();
+        mCoordinateSystemType = body.getCoordinateSystemType();
+        if (is3dCamera()) {
+            mSkeletonPoints.set(body.getSkeletonPoint3D());
+            mSkeletonPointIsExist.set(body.getSkeletonPointIsExist3D());
+        } else {
+            mSkeletonPoints.set(body.getSkeletonPoint2D());
+            mSkeletonPointIsExist.set(body.getSkeletonPointIsExist2D());
+        }
+        mSkeletonConnections.set(body.getBodySkeletonConnection());
+    }
+
+    /**
+     * Get the body id.
+     *
+     * @return Body id.
+     */
+    public int getBodyId() {
+        return mBodyId;
+    }
+
+    /**
+     * Check whether the body is tracking.
+     *
+     * @return True if it is tracking.
+     */
+    public boolean isTracking() {
+        return mIsTracking;
+    }
+
+    /**
+     * Get the body action.
+     *
+     * @return Body action.
+     */
+    public int getBodyAction() {
+        return mBodyAction;
+    }
+
+    /**
+     * Get the coordinate system type.
+     *
+     * @return Coordinate system type.
+     */
+    public ARCoordinateSystemType getCoordinateSystemType() {
+        return mCoordinateSystemType;
+    }
+
+    /**
+     * Check whether the skeleton points are in the 3D camera coordinate system.
+     *
+     * @return True for 3D camera coordinates, false for 2D screen coordinates.
+     */
+    public boolean is3dCamera() {
+        return mCoordinateSystemType == ARCoordinateSystemType.COORDINATE_SYSTEM_TYPE_3D_CAMERA;
+    }
+
+    /**
+     * Get the skeleton points.
+     *
+     * @return Skeleton points.
+     */
+    public PooledFloatArray getSkeletonPoints() {
+        return mSkeletonPoints;
+    }
+
+    /**
+     * Get the detection flags of the skeleton points, 0 means the point was not detected.
+     *
+     * @return One flag per skeleton point.
+     */
+    public PooledIntArray getSkeletonPointIsExist() {
+        return mSkeletonPointIsExist;
+    }
+
+    /**
+     * Get the skeleton connections.
+     *
+     * @return Skeleton connections.
+     */
+    public PooledIntArray getSkeletonConnections() {
+        return mSkeletonConnections;
+    }
+}
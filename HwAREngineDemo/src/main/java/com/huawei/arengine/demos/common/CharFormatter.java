@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+/**
+ * Format text, integers and floats into a reused char array. Unlike StringBuilder.append(float)
+ * or string concatenation, no object is allocated once the array is large enough.
+ *
+ * @author HW
+ * @since 2020-04-27
+ */
+public final class CharFormatter {
+    private static final int MAX_DECIMALS = 9;
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L
+    };
+
+    // Longest decimal representation of a long, with the sign.
+    private static final int MAX_LONG_CHARS = 20;
+
+    // Above this magnitude, the scaled value of a float with the most decimals overflows a long.
+    private static final double MAX_FIXED_MAGNITUDE = 9.0e9;
+
+    private char[] mChars;
+
+    private int mLength = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity Initial capacity in chars.
+     */
+    public CharFormatter(int capacity) {
+        mChars = new char[capacity];
+    }
+
+    /**
+     * Remove all the chars.
+     *
+     * @return This formatter.
+     */
+    public CharFormatter clear() {
+        mLength = 0;
+        return this;
+    }
+
+    /**
+     * Get the array of the chars, valid until the next append.
+     *
+     * @return Char array, its first {@link #length()} chars are the text.
+     */
+    public char[] array() {
+        return mChars;
+    }
+
+    /**
+     * Get the number of chars.
+     *
+     * @return Length of the text.
+     */
+    public int length() {
+        return mLength;
+    }
+
+    /**
+     * Append a char.
+     *
+     * @param value Char.
+     * @return This formatter.
+     */
+    public CharFormatter append(char value) {
+        ensureCapacity(mLength + 1);
+        mChars[mLength++] = value;
+        return this;
+    }
+
+    /**
+     * Append a string, without allocating when it is a constant.
+     *
+     * @param value String, nothing is appended if it is null.
+     * @return This formatter.
+     */
+    public CharFormatter append(String value) {
+        if (value == null) {
+            return this;
+        }
+        int length = value.length();
+        ensureCapacity(mLength + length);
+        value.getChars(0, length, mChars, mLength);
+        mLength += length;
+        return this;
+    }
+
+    /**
+     * Append a decimal integer.
+     *
+     * @param value Integer.
+     * @return This formatter.
+     */
+    public CharFormatter append(long value) {
+        ensureCapacity(mLength + MAX_LONG_CHARS);
+        if (value == Long.MIN_VALUE) {
+            return append("-9223372036854775808");
+        }
+        long remaining = value;
+        if (remaining < 0) {
+            mChars[mLength++] = '-';
+            remaining = -remaining;
+        }
+
+        // Write the digits from the last one, then reverse them in place.
+        int start = mLength;
+        do {
+            mChars[mLength++] = (char) ('0' + (remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        for (int i = start, j = mLength - 1; i < j; i++, j--) {
+            char digit = mChars[i];
+            mChars[i] = mChars[j];
+            mChars[j] = digit;
+        }
+        return this;
+    }
+
+    /**
+     * Append a float with a fixed number of decimals, rounded half up.
+     *
+     * @param value Float.
+     * @param decimals Number of decimals, from 0 to 9.
+     * @return This formatter.
+     */
+    public CharFormatter append(float value, int decimals) {
+        if (Float.isNaN(value)) {
+            return append("NaN");
+        }
+        if (Float.isInfinite(value)) {
+            return append(value > 0 ? "Infinity" : "-Infinity");
+        }
+        int digits = Math.max(0, Math.min(decimals, MAX_DECIMALS));
+        double magnitude = Math.abs((double) value);
+        if (magnitude >= MAX_FIXED_MAGNITUDE) {
+            // Such values are not expected in the overlay, only their integer part is shown.
+            return append((long) value);
+        }
+        long scaled = Math.round(magnitude * POWERS_OF_TEN[digits]);
+        if (value < 0 && scaled != 0) {
+            append('-');
+        }
+        append(scaled / POWERS_OF_TEN[digits]);
+        if (digits == 0) {
+            return this;
+        }
+        ensureCapacity(mLength + 1 + digits);
+        mChars[mLength++] = '.';
+        long fraction = scaled % POWERS_OF_TEN[digits];
+        for (int i = digits - 1; i >= 0; i--) {
+            mChars[mLength + i] = (char) ('0' + (fraction % 10));
+            fraction /= 10;
+        }
+        mLength += digits;
+        return this;
+    }
+
+    /**
+     * Append a line separator.
+     *
+     * @return This formatter.
+     */
+    public CharFormatter newLine() {
+        return append('\n');
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > mChars.length) {
+            char[] chars = new char[Math.max(capacity, mChars.length * 2)];
+            System.arraycopy(mChars, 0, chars, 0, mLength);
+            mChars = chars;
+        }
+    }
+}
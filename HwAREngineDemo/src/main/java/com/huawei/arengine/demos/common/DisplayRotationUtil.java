@@ -10,6 +10,7 @@ import android.hardware.display.DisplayManager.DisplayListener;
 import android.view.Display;
 import android.view.WindowManager;
 
+import com.huawei.arengine.demos.common.engine.ArEngineSession;
 import com.huawei.hiar.ARSession;
 
 /**
@@ -90,6 +91,18 @@ public class DisplayRotationUtil implements DisplayListener {
         mIsDeviceRotation = false;
     }
 
+    /**
+     * If the device is rotated, update the device window of the current session facade.
+     * This method should be called when activity is onDrawFrame.
+     *
+     * @param session the {@link ArEngineSession} object to set display geometry if display geometry changed.
+     */
+    public void updateArSessionDisplayGeometry(ArEngineSession session) {
+        int displayRotation = mDisplay.getRotation();
+        session.setDisplayGeometry(displayRotation, mViewportWidth, mViewportHeight);
+        mIsDeviceRotation = false;
+    }
+
     @Override
     public void onDisplayAdded(int displayId) {
     }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.opengl.Matrix;
+
+/**
+ * Filter and extrapolate the pose and the mesh vertices of a tracked face, with the parameters
+ * of the face demo. It has no dependency on AREngine, so the benchmarks run the same code on
+ * recorded or synthetic faces. The demo tracks one face, so the pose and the vertices have one
+ * predictor each.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class FaceMotionPredictor {
+    // One Euro filter parameters of the face pose and of the mesh vertices, in meters.
+    private static final float POSE_MIN_CUTOFF = 1.0f;
+
+    private static final float POSE_BETA = 5.0f;
+
+    private static final float VERTEX_MIN_CUTOFF = 1.0f;
+
+    private static final float VERTEX_BETA = 10.0f;
+
+    private static final float DERIVATIVE_CUTOFF = 1.0f;
+
+    private static final int MATRIX_SIZE = 16;
+
+    private final RigidPosePredictor mPosePredictor = new RigidPosePredictor(POSE_MIN_CUTOFF, POSE_BETA,
+        DERIVATIVE_CUTOFF);
+
+    private final PosePredictor mVertexPredictor = new PosePredictor(VERTEX_MIN_CUTOFF, VERTEX_BETA,
+        DERIVATIVE_CUTOFF);
+
+    private final float[] mFacePoseMatrix = new float[MATRIX_SIZE];
+
+    /**
+     * Predict the vertices of the face mesh, the work is split on the job system.
+     *
+     * @param vertices Vertices (x, y, z).
+     * @param count Number of floats of the vertices.
+     * @param timestampNs Timestamp of the frame.
+     * @return Predicted vertices, valid until the next call.
+     */
+    public float[] predictVertices(float[] vertices, int count, long timestampNs) {
+        return mVertexPredictor.predict(vertices, count, timestampNs, JobSystem.get());
+    }
+
+    /**
+     * Predict the pose of the face and build its model view projection matrix.
+     *
+     * @param pose Face pose (tx, ty, tz, qx, qy, qz, qw).
+     * @param timestampNs Timestamp of the frame.
+     * @param projectionMatrix Projection matrix(4 * 4) of the camera.
+     * @param modelViewProjection Model view projection matrix(4 * 4) of the face.
+     */
+    public void predictModelViewProjection(float[] pose, long timestampNs, float[] projectionMatrix,
+        float[] modelViewProjection) {
+        MatrixUtil.poseToMatrix(mPosePredictor.predict(pose, timestampNs), mFacePoseMatrix);
+        Matrix.multiplyMM(modelViewProjection, 0, projectionMatrix, 0, mFacePoseMatrix, 0);
+    }
+}
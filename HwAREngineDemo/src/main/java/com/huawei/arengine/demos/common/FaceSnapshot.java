@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Data of one face captured once per frame. The vertices are copied every frame, and the
+ * texture coordinates and the triangle indices are copied only when the topology of the mesh
+ * changes. {@link FrameSnapshot} fills it from an ARFace, whose geometry is acquired and
+ * released once; the snapshot itself does not depend on the SDK.
+ *
+ * @author HW
+ * @since 2020-03-24
+ */
+public class FaceSnapshot {
+    private static final String TAG = FaceSnapshot.class.getSimpleName();
+
+    private static final int POSE_SIZE = 7;
+
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private static final int BYTES_PER_INT = 4;
+
+    private static final int INITIAL_VERTEX_FLOATS = 4096;
+
+    private static final int INITIAL_INDEX_INTS = 8192;
+
+    // Translation and rotation of the face pose (tx, ty, tz, qx, qy, qz, qw).
+    private final float[] mPose = new float[POSE_SIZE];
+
+    private FloatBuffer mVertices = allocateFloats(INITIAL_VERTEX_FLOATS);
+
+    private FloatBuffer mTextureCoordinates = allocateFloats(INITIAL_VERTEX_FLOATS);
+
+    private IntBuffer mTriangleIndices =
+        MemoryAccounting.allocateDirect(TAG, BYTES_PER_INT * INITIAL_INDEX_INTS).asIntBuffer();
+
+    private boolean mIsTracking;
+
+    private int mTriangleCount = -1;
+
+    // Increased every time the texture coordinates and the triangle indices are copied.
+    private int mTopologyVersion = 0;
+
+    /**
+     * Set whether the face is tracked. The other data is only updated while it is.
+     *
+     * @param isTracking True if the face is tracked in the current frame.
+     */
+    public void setTracking(boolean isTracking) {
+        mIsTracking = isTracking;
+    }
+
+    /**
+     * Set the translation and rotation of the face pose.
+     *
+     * @param tx Translation along x.
+     * @param ty Translation along y.
+     * @param tz Translation along z.
+     * @param qx Rotation quaternion x.
+     * @param qy Rotation quaternion y.
+     * @param qz Rotation quaternion z.
+     * @param qw Rotation quaternion w.
+     */
+    public void setPose(float tx, float ty, float tz, float qx, float qy, float qz, float qw) {
+        mPose[0] = tx;
+        mPose[1] = ty;
+        mPose[2] = tz;
+        mPose[3] = qx;
+        mPose[4] = qy;
+        mPose[5] = qz;
+        mPose[6] = qw;
+    }
+
+    /**
+     * Copy the vertices of the face mesh.
+     *
+     * @param vertices Vertices (x, y, z) of the current frame, read from their position.
+     * @param triangleCount Number of triangles of the mesh.
+     * @return True if the topology of the mesh changed, {@link #updateTopology} must then be called.
+     */
+    public boolean updateVertices(FloatBuffer vertices, int triangleCount) {
+        int previousVertexFloats = mVertices.limit();
+        mVertices = copy(vertices, mVertices);
+        return triangleCount != mTriangleCount || mVertices.limit() != previousVertexFloats;
+    }
+
+    /**
+     * Copy the texture coordinates and the triangle indices of the face mesh, after its
+     * topology changed.
+     *
+     * @param textureCoordinates Texture coordinates (u, v) of the vertices.
+     * @param triangleIndices Vertex indices of the triangles.
+     * @param triangleCount Number of triangles.
+     */
+    public void updateTopology(FloatBuffer textureCoordinates, IntBuffer triangleIndices, int triangleCount) {
+        mTextureCoordinates = copy(textureCoordinates, mTextureCoordinates);
+        updateTriangleIndices(triangleIndices);
+        mTriangleCount = triangleCount;
+        mTopologyVersion++;
+    }
+
+    private void updateTriangleIndices(IntBuffer source) {
+        if (mTriangleIndices.capacity() < source.remaining()) {
+            MemoryAccounting.freeDirect(TAG, BYTES_PER_INT * mTriangleIndices.capacity());
+            mTriangleIndices = MemoryAccounting.allocateDirect(TAG, BYTES_PER_INT * source.remaining()).asIntBuffer();
+        }
+        mTriangleIndices.clear();
+        mTriangleIndices.put(source);
+        mTriangleIndices.flip();
+    }
+
+    private static FloatBuffer copy(FloatBuffer source, FloatBuffer target) {
+        FloatBuffer result = target;
+        if (result.capacity() < source.remaining()) {
+            MemoryAccounting.freeDirect(TAG, BYTES_PER_FLOAT * result.capacity());
+            result = allocateFloats(source.remaining());
+        }
+        result.clear();
+        result.put(source);
+        result.flip();
+        return result;
+    }
+
+    private static FloatBuffer allocateFloats(int count) {
+        return MemoryAccounting.allocateDirect(TAG, BYTES_PER_FLOAT * count).asFloatBuffer();
+    }
+
+    /**
+     * Check whether the face is tracking.
+     *
+     * @return True if it is tracking.
+     */
+    public boolean isTracking() {
+        return mIsTracking;
+    }
+
+    /**
+     * Get the translation and rotation of the face pose.
+     *
+     * @return Pose values (tx, ty, tz, qx, qy, qz, qw).
+     */
+    public float[] getPose() {
+        return mPose;
+    }
+
+    /**
+     * Get the vertices.
+     *
+     * @return Vertices.
+     */
+    public FloatBuffer getVertices() {
+        return mVertices;
+    }
+
+    /**
+     * Get the texture coordinates.
+     *
+     * @return Texture coordinates.
+     */
+    public FloatBuffer getTextureCoordinates() {
+        return mTextureCoordinates;
+    }
+
+    /**
+     * Get the triangle indices.
+     *
+     * @return Triangle indices.
+     */
+    public IntBuffer getTriangleIndices() {
+        return mTriangleIndices;
+    }
+
+    /**
+     * Get the triangle count.
+     *
+     * @return Triangle count.
+     */
+    public int getTriangleCount() {
+        return mTriangleCount;
+    }
+
+    /**
+     * Get the version of the texture coordinates and the triangle indices, increased when they change.
+     *
+     * @return Topology version.
+     */
+    public int getTopologyVersion() {
+        return mTopologyVersion;
+    }
+}
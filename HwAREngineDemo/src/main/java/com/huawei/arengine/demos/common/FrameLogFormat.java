@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+/**
+ * Format of the logs written by {@link FrameRecorder}. It has no Android dependency, so the
+ * tools that replay the logs off the device share it.
+ *
+ * <p>The log is little endian. It starts with {@link #MAGIC} and {@link #VERSION}, then each
+ * frame is {@link #RECORD_FRAME}, the timestamp as a long, the entries and {@link #RECORD_END}.
+ * Each entry is its type byte, an int id, the float count as a varint and an encoding byte.
+ * With {@link #ENCODING_RAW} the floats follow as they are. With {@link #ENCODING_DELTA} each
+ * float is XORed bitwise with the previous entry of the same type and id, which has the same
+ * count, and written as a varint, so unchanged values take one byte. A stream that has not
+ * been written yet counts as a previous entry of 0 floats.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public final class FrameLogFormat {
+    /**
+     * First int of a log.
+     */
+    public static final int MAGIC = 0x41524543;
+
+    /**
+     * Format version of the log.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Start of a frame.
+     */
+    public static final byte RECORD_FRAME = 1;
+
+    /**
+     * End of a frame, a frame without it was cut by the end of the recording.
+     */
+    public static final byte RECORD_END = 2;
+
+    /**
+     * View matrix of the camera.
+     */
+    public static final byte TYPE_CAMERA_VIEW = 10;
+
+    /**
+     * Projection matrix of the camera.
+     */
+    public static final byte TYPE_CAMERA_PROJECTION = 11;
+
+    /**
+     * Center pose matrix of a plane.
+     */
+    public static final byte TYPE_PLANE_POSE = 12;
+
+    /**
+     * Polygon of a plane, (x, z) pairs around the center pose.
+     */
+    public static final byte TYPE_PLANE_POLYGON = 13;
+
+    /**
+     * Pose matrix of an anchor.
+     */
+    public static final byte TYPE_ANCHOR_POSE = 14;
+
+    /**
+     * Skeleton points of a hand.
+     */
+    public static final byte TYPE_HAND_SKELETON = 15;
+
+    /**
+     * Skeleton points of a body.
+     */
+    public static final byte TYPE_BODY_SKELETON = 16;
+
+    /**
+     * Pose of a face (tx, ty, tz, qx, qy, qz, qw).
+     */
+    public static final byte TYPE_FACE_POSE = 17;
+
+    /**
+     * Mesh vertices of a face.
+     */
+    public static final byte TYPE_FACE_VERTICES = 18;
+
+    /**
+     * Pairs of indexes of connected hand skeleton points, stored as floats.
+     */
+    public static final byte TYPE_HAND_CONNECTIONS = 19;
+
+    /**
+     * Pairs of indexes of connected body skeleton points, stored as floats.
+     */
+    public static final byte TYPE_BODY_CONNECTIONS = 20;
+
+    /**
+     * Detection flags of the body skeleton points, 0 means not detected, stored as floats.
+     */
+    public static final byte TYPE_BODY_POINT_EXISTS = 21;
+
+    /**
+     * Coordinate system of a body, 1 for 3D camera coordinates and 0 for 2D screen coordinates.
+     */
+    public static final byte TYPE_BODY_COORDINATE = 22;
+
+    /**
+     * Label index of a plane, -1 for a plane of unknown type.
+     */
+    public static final byte TYPE_PLANE_LABEL = 23;
+
+    /**
+     * The floats of the entry are written as they are.
+     */
+    public static final byte ENCODING_RAW = 0;
+
+    /**
+     * The floats of the entry are XORed with the previous entry of the same stream.
+     */
+    public static final byte ENCODING_DELTA = 1;
+
+    private FrameLogFormat() {
+    }
+}
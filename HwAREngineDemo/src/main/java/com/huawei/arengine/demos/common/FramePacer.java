@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import java.util.Locale;
+
+/**
+ * Decide on each vsync whether a frame is worth drawing, so that the OpenGL thread draws at the
+ * rate of the camera instead of the rate of the display. AREngine gives no callback when it has
+ * a new camera frame, so the pacer learns the camera interval from the timestamps of the drawn
+ * frames, and the offset from the camera clock to the first vsync at which a camera frame can be
+ * drawn, and asks for the next frame on the first vsync at which the next camera frame is
+ * expected. A frame drawn with the same camera timestamp as the previous one is redundant, and
+ * the pacer then asks again on every vsync until a new camera frame comes. An input event asks
+ * for a frame on the next vsync.
+ *
+ * <p>The pacer also counts the vsyncs without a frame, which a continuous render mode would
+ * have drawn, and the time the drawn frames took, to report the time saved.
+ *
+ * <p>{@link #onVsync} and {@link #onInputEvent} are called on the UI thread,
+ * {@link #onCameraFrame} and {@link #onFrameDrawn} on the OpenGL thread.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class FramePacer {
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    // Gains of the tracker of the camera frames, on the timestamp and on the interval.
+    private static final float PHASE_GAIN = 0.2f;
+
+    private static final float INTERVAL_GAIN = 0.02f;
+
+    // Longest camera interval taken as the frame rate, a longer one is a pause.
+    private static final long MAX_CAMERA_INTERVAL_NS = 100000000L;
+
+    private static final long MIN_CAMERA_INTERVAL_NS = 1000000L;
+
+    // Increase of the frame offset after a frame asked too early, so that it follows a camera
+    // frame delivered later than before, or a camera clock that moved.
+    private static final long OFFSET_RISE_NS = 250000L;
+
+    // Margin of the expected time of a camera frame, for the error of the interval estimate.
+    private static final long EXPECTED_MARGIN_NS = 1000000L;
+
+    private long mCameraIntervalNs = 0;
+
+    private long mLastCameraTimestampNs = 0;
+
+    // Timestamp of the last camera frame filtered by the tracker, without its jitter.
+    private long mCameraPhaseNs = 0;
+
+    // Smallest difference from the timestamp of a camera frame to a vsync that drew it.
+    private long mFrameOffsetNs = 0;
+
+    private boolean mHasFrameOffset = false;
+
+    private long mRequestVsyncNs = 0;
+
+    private long mDrawnTimestampNs = 0;
+
+    private boolean mIsRenderPending = false;
+
+    // The frame in flight was asked because a camera frame was expected.
+    private boolean mIsExpectedRender = false;
+
+    private boolean mIsInputPending = false;
+
+    private long mVsyncCount = 0;
+
+    private long mSkippedVsyncCount = 0;
+
+    private long mNewFrameCount = 0;
+
+    private long mRedundantFrameCount = 0;
+
+    private long mDrawnFrameCount = 0;
+
+    private long mFrameCpuTimeNs = 0;
+
+    private long mFrameWallTimeNs = 0;
+
+    /**
+     * Handle a vsync of the display.
+     *
+     * @param frameTimeNs Time of the vsync, in the time base of {@link System#nanoTime()}.
+     * @return True if a frame is to be drawn for this vsync.
+     */
+    public synchronized boolean onVsync(long frameTimeNs) {
+        mVsyncCount++;
+        // While the OpenGL thread has not drawn the previous frame, a request would be merged.
+        // A request not drawn for long was dropped, such as while the surface was recreated.
+        if (mIsRenderPending && frameTimeNs - mRequestVsyncNs < MAX_CAMERA_INTERVAL_NS) {
+            return false;
+        }
+        boolean isExpected = isCameraFrameExpected(frameTimeNs);
+        if (!mIsInputPending && !isExpected) {
+            mSkippedVsyncCount++;
+            return false;
+        }
+        mIsExpectedRender = isExpected;
+        mIsInputPending = false;
+        mIsRenderPending = true;
+        mRequestVsyncNs = frameTimeNs;
+        return true;
+    }
+
+    /**
+     * Ask for a frame on the next vsync, such as after a touch event.
+     */
+    public synchronized void onInputEvent() {
+        mIsInputPending = true;
+    }
+
+    /**
+     * Report the camera frame of the frame being drawn, after the session was updated.
+     *
+     * @param timestampNs Timestamp of the camera frame.
+     */
+    public synchronized void onCameraFrame(long timestampNs) {
+        mDrawnTimestampNs = timestampNs;
+    }
+
+    /**
+     * Report the end of a drawn frame.
+     *
+     * @param cpuTimeNs CPU time of the OpenGL thread in the frame.
+     * @param wallTimeNs Wall time of the frame on the OpenGL thread.
+     */
+    public synchronized void onFrameDrawn(long cpuTimeNs, long wallTimeNs) {
+        mIsRenderPending = false;
+        mDrawnFrameCount++;
+        mFrameCpuTimeNs += cpuTimeNs;
+        mFrameWallTimeNs += wallTimeNs;
+        long timestampNs = mDrawnTimestampNs;
+        mDrawnTimestampNs = 0;
+        if (timestampNs == 0) {
+            // No session yet, the next vsync asks again.
+            return;
+        }
+        if (timestampNs == mLastCameraTimestampNs) {
+            mRedundantFrameCount++;
+            if (mIsExpectedRender && mHasFrameOffset) {
+                mFrameOffsetNs += OFFSET_RISE_NS;
+            }
+            return;
+        }
+        trackCameraFrame(timestampNs);
+        mLastCameraTimestampNs = timestampNs;
+
+        // The camera frame arrived before this vsync, so the offset is an upper bound of the
+        // delay of the camera frames, and the smallest one is the closest.
+        long offsetNs = mRequestVsyncNs - timestampNs;
+        mFrameOffsetNs = mHasFrameOffset ? Math.min(mFrameOffsetNs, offsetNs) : offsetNs;
+        mHasFrameOffset = true;
+        mNewFrameCount++;
+    }
+
+    /**
+     * Forget the frame rates and the frame in flight, such as when the view was paused. The
+     * counters are kept.
+     */
+    public synchronized void reset() {
+        mCameraIntervalNs = 0;
+        mLastCameraTimestampNs = 0;
+        mCameraPhaseNs = 0;
+        mFrameOffsetNs = 0;
+        mHasFrameOffset = false;
+        mDrawnTimestampNs = 0;
+        mIsRenderPending = false;
+        mIsExpectedRender = false;
+        mIsInputPending = false;
+    }
+
+    /**
+     * Get the number of vsyncs for which no frame was drawn.
+     *
+     * @return Number of redundant frames avoided.
+     */
+    public synchronized long getSkippedVsyncCount() {
+        return mSkippedVsyncCount;
+    }
+
+    /**
+     * Get the number of drawn frames that showed the same camera frame as the previous one.
+     *
+     * @return Number of redundant frames drawn.
+     */
+    public synchronized long getRedundantFrameCount() {
+        return mRedundantFrameCount;
+    }
+
+    /**
+     * Get the estimated interval of the camera frames.
+     *
+     * @return Interval in nanoseconds, 0 before two camera frames were drawn.
+     */
+    public synchronized long getCameraIntervalNs() {
+        return mCameraIntervalNs;
+    }
+
+    /**
+     * Format the counters, with the time saved estimated from the mean time of a drawn frame.
+     *
+     * @return One line report.
+     */
+    public synchronized String formatReport() {
+        double meanCpuMs = mDrawnFrameCount == 0 ? 0.0 : mFrameCpuTimeNs / NANOS_PER_MILLI / mDrawnFrameCount;
+        double meanWallMs = mDrawnFrameCount == 0 ? 0.0 : mFrameWallTimeNs / NANOS_PER_MILLI / mDrawnFrameCount;
+        return String.format(Locale.ROOT,
+            "vsyncs %d, drawn %d (new %d, redundant %d), avoided %d, camera interval %.1f ms, "
+                + "frame cpu %.2f ms, frame wall %.2f ms, saved cpu %.0f ms, saved gl thread %.0f ms",
+            mVsyncCount, mDrawnFrameCount, mNewFrameCount, mRedundantFrameCount, mSkippedVsyncCount,
+            mCameraIntervalNs / NANOS_PER_MILLI, meanCpuMs, meanWallMs, meanCpuMs * mSkippedVsyncCount,
+            meanWallMs * mSkippedVsyncCount);
+    }
+
+    private boolean isCameraFrameExpected(long frameTimeNs) {
+        if (mCameraIntervalNs == 0 || !mHasFrameOffset) {
+            return true;
+        }
+        long expectedNs = mCameraPhaseNs + mCameraIntervalNs + mFrameOffsetNs - EXPECTED_MARGIN_NS;
+        return frameTimeNs >= expectedNs;
+    }
+
+    private void trackCameraFrame(long timestampNs) {
+        long elapsedNs = timestampNs - mLastCameraTimestampNs;
+        if (mLastCameraTimestampNs == 0 || elapsedNs <= 0 || elapsedNs > MAX_CAMERA_INTERVAL_NS) {
+            // First frame, or after a pause.
+            mCameraPhaseNs = timestampNs;
+            return;
+        }
+        if (mCameraIntervalNs == 0) {
+            mCameraIntervalNs = Math.max(elapsedNs, MIN_CAMERA_INTERVAL_NS);
+            mCameraPhaseNs = timestampNs;
+            return;
+        }
+
+        // Camera frames dropped by the engine are counted from the elapsed time.
+        long frames = Math.max(1, Math.round((double) (timestampNs - mCameraPhaseNs) / mCameraIntervalNs));
+        long predictedNs = mCameraPhaseNs + frames * mCameraIntervalNs;
+        long errorNs = timestampNs - predictedNs;
+        mCameraPhaseNs = predictedNs + (long) (errorNs * PHASE_GAIN);
+        long intervalNs = mCameraIntervalNs + (long) (errorNs * INTERVAL_GAIN / frames);
+        mCameraIntervalNs = Math.max(MIN_CAMERA_INTERVAL_NS, Math.min(intervalNs, MAX_CAMERA_INTERVAL_NS));
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.util.Log;
+import android.util.SparseArray;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Record the trackable data of each frame into an append-only binary log, so that the sessions
+ * can be replayed off the device. The entries are encoded into one direct buffer of 256 KB,
+ * which is written to the file with {@link FileChannel#write(ByteBuffer)} when it is full and
+ * reused, so a frame mostly costs memory copies, the memory of a session is bounded whatever
+ * its length, and nothing is allocated once all the streams have been seen. The format is
+ * described in {@link FrameLogFormat}.
+ *
+ * <p>Recording is opt-in: it is enabled for debuggable builds when the directory "records" has
+ * been created in the external files directory of the application, for example with adb. The
+ * recorder never creates this directory itself.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public class FrameRecorder {
+    private static final String TAG = FrameRecorder.class.getSimpleName();
+
+    private static final String RECORD_DIRECTORY = "records";
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private static final int MAX_VARINT_BYTES = 5;
+
+    // Type, id, count and encoding.
+    private static final int ENTRY_HEADER_BYTES = 1 + 4 + MAX_VARINT_BYTES + 1;
+
+    private static final int FRAME_HEADER_BYTES = 1 + 8;
+
+    private static final int TYPE_SHIFT = 24;
+
+    private static final int ID_MASK = 0xFFFFFF;
+
+    // Last floats written for each stream, the key is made of the type and the id.
+    private final SparseArray<PooledFloatArray> mPrevious = new SparseArray<>();
+
+    // Conversion buffer of the entries that are not float arrays.
+    private final PooledFloatArray mScratch = new PooledFloatArray(64);
+
+    private final FileOutputStream mFile;
+
+    private final FileChannel mChannel;
+
+    private ByteBuffer mBuffer = MemoryAccounting.allocateDirect(TAG, BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    private boolean mIsFailed = false;
+
+    private FrameRecorder(File file) throws IOException {
+        mFile = new FileOutputStream(file);
+        mChannel = mFile.getChannel();
+        mBuffer.putInt(FrameLogFormat.MAGIC);
+        mBuffer.putInt(FrameLogFormat.VERSION);
+    }
+
+    /**
+     * Open a new log in the record directory if recording is enabled.
+     *
+     * @param context Context of the activity.
+     * @param name Prefix of the file name, such as the name of the demo.
+     * @return Recorder, or null if recording is disabled or the file cannot be created.
+     */
+    public static FrameRecorder open(Context context, String name) {
+        if ((context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) == 0) {
+            return null;
+        }
+        // getExternalFilesDir(RECORD_DIRECTORY) would create the directory and enable recording.
+        File filesDirectory = context.getExternalFilesDir(null);
+        File directory = filesDirectory == null ? null : new File(filesDirectory, RECORD_DIRECTORY);
+        if (directory == null || !directory.isDirectory()) {
+            return null;
+        }
+        File file = new File(directory, name + "-" + System.currentTimeMillis() + ".arlog");
+        try {
+            return new FrameRecorder(file);
+        } catch (IOException e) {
+            Log.e(TAG, "Can not create the record file " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Start the entries of a frame.
+     *
+     * @param timestampNs Timestamp of the frame in nanoseconds.
+     */
+    public void beginFrame(long timestampNs) {
+        if (!ensureSpace(FRAME_HEADER_BYTES)) {
+            return;
+        }
+        mBuffer.put(FrameLogFormat.RECORD_FRAME);
+        mBuffer.putLong(timestampNs);
+    }
+
+    /**
+     * Write an entry from an array.
+     *
+     * @param type Type of the entry, one of the TYPE constants of FrameLogFormat.
+     * @param id Id of the object in its type, such as the hand id.
+     * @param values Floats to write.
+     * @param count Number of valid floats.
+     */
+    public void write(byte type, int id, float[] values, int count) {
+        PooledFloatArray previous = startEntry(type, id, count);
+        if (previous == null) {
+            return;
+        }
+        float[] previousValues = previous.array();
+        if (previous.size() == count) {
+            mBuffer.put(FrameLogFormat.ENCODING_DELTA);
+            for (int i = 0; i < count; i++) {
+                putDelta(values[i], previousValues[i]);
+            }
+        } else {
+            mBuffer.put(FrameLogFormat.ENCODING_RAW);
+            for (int i = 0; i < count; i++) {
+                mBuffer.putFloat(values[i]);
+            }
+        }
+        previous.ensureCapacity(count);
+        System.arraycopy(values, 0, previous.array(), 0, count);
+        previous.setSize(count);
+    }
+
+    /**
+     * Write an entry from a buffer, the position of the buffer is not changed.
+     *
+     * @param type Type of the entry, one of the TYPE constants of FrameLogFormat.
+     * @param id Id of the object in its type.
+     * @param values Floats to write, from 0 to the limit.
+     */
+    public void write(byte type, int id, FloatBuffer values) {
+        int count = values.limit();
+        PooledFloatArray previous = startEntry(type, id, count);
+        if (previous == null) {
+            return;
+        }
+        if (previous.size() == count) {
+            float[] previousValues = previous.array();
+            mBuffer.put(FrameLogFormat.ENCODING_DELTA);
+            for (int i = 0; i < count; i++) {
+                putDelta(values.get(i), previousValues[i]);
+            }
+        } else {
+            mBuffer.put(FrameLogFormat.ENCODING_RAW);
+            for (int i = 0; i < count; i++) {
+                mBuffer.putFloat(values.get(i));
+            }
+        }
+        previous.ensureCapacity(count);
+        float[] previousValues = previous.array();
+        for (int i = 0; i < count; i++) {
+            previousValues[i] = values.get(i);
+        }
+        previous.setSize(count);
+    }
+
+    /**
+     * Write an entry from an int array, the ints are converted to floats.
+     *
+     * @param type Type of the entry, one of the TYPE constants of FrameLogFormat.
+     * @param id Id of the object in its type.
+     * @param values Ints to write, such as skeleton connections.
+     */
+    public void write(byte type, int id, PooledIntArray values) {
+        int count = values.size();
+        mScratch.ensureCapacity(count);
+        float[] scratch = mScratch.array();
+        int[] data = values.array();
+        for (int i = 0; i < count; i++) {
+            scratch[i] = data[i];
+        }
+        write(type, id, scratch, count);
+    }
+
+    /**
+     * Write the hands, the bodies and the faces of a snapshot.
+     *
+     * @param snapshot Snapshot of the frame.
+     */
+    public void write(FrameSnapshot snapshot) {
+        for (int i = 0; i < snapshot.getHandCount(); i++) {
+            HandSnapshot hand = snapshot.getHand(i);
+            if (hand.isTracking()) {
+                PooledFloatArray skeletons = hand.getSkeletons();
+                write(FrameLogFormat.TYPE_HAND_SKELETON, hand.getHandId(), skeletons.array(), skeletons.size());
+                write(FrameLogFormat.TYPE_HAND_CONNECTIONS, hand.getHandId(), hand.getSkeletonConnections());
+            }
+        }
+        for (int i = 0; i < snapshot.getBodyCount(); i++) {
+            BodySnapshot body = snapshot.getBody(i);
+            if (body.isTracking()) {
+                PooledFloatArray points = body.getSkeletonPoints();
+                write(FrameLogFormat.TYPE_BODY_SKELETON, body.getBodyId(), points.array(), points.size());
+                write(FrameLogFormat.TYPE_BODY_POINT_EXISTS, body.getBodyId(), body.getSkeletonPointIsExist());
+                write(FrameLogFormat.TYPE_BODY_CONNECTIONS, body.getBodyId(), body.getSkeletonConnections());
+                mScratch.ensureCapacity(1);
+                mScratch.array()[0] = body.is3dCamera() ? 1.0f : 0.0f;
+                write(FrameLogFormat.TYPE_BODY_COORDINATE, body.getBodyId(), mScratch.array(), 1);
+            }
+        }
+        for (int i = 0; i < snapshot.getFaceCount(); i++) {
+            FaceSnapshot face = snapshot.getFace(i);
+            if (face.isTracking()) {
+                write(FrameLogFormat.TYPE_FACE_POSE, i, face.getPose(), face.getPose().length);
+                write(FrameLogFormat.TYPE_FACE_VERTICES, i, face.getVertices());
+            }
+        }
+    }
+
+    /**
+     * End the entries of a frame.
+     */
+    public void endFrame() {
+        if (ensureSpace(1)) {
+            mBuffer.put(FrameLogFormat.RECORD_END);
+        }
+    }
+
+    /**
+     * Write the buffered entries and close the file. It must not be called while a frame is
+     * being written, for example after GLSurfaceView.onPause().
+     */
+    public void close() {
+        flush();
+        try {
+            mChannel.close();
+            mFile.close();
+        } catch (IOException e) {
+            Log.e(TAG, "Can not close the record file", e);
+        }
+        mIsFailed = true;
+        MemoryAccounting.freeDirect(TAG, mBuffer.capacity());
+    }
+
+    private PooledFloatArray startEntry(byte type, int id, int count) {
+        if (!ensureSpace(ENTRY_HEADER_BYTES + count * MAX_VARINT_BYTES)) {
+            return null;
+        }
+        int key = (type << TYPE_SHIFT) | (id & ID_MASK);
+        PooledFloatArray previous = mPrevious.get(key);
+        if (previous == null) {
+            previous = new PooledFloatArray(count);
+            mPrevious.put(key, previous);
+        }
+        mBuffer.put(type);
+        mBuffer.putInt(id);
+        putVarint(count);
+        return previous;
+    }
+
+    private void putDelta(float value, float previous) {
+        putVarint(Float.floatToRawIntBits(value) ^ Float.floatToRawIntBits(previous));
+    }
+
+    private void putVarint(int value) {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            mBuffer.put((byte) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        mBuffer.put((byte) remaining);
+    }
+
+    // Write the buffer to the file when it can not hold the specified bytes.
+    private boolean ensureSpace(int bytes) {
+        if (mIsFailed) {
+            return false;
+        }
+        if (mBuffer.remaining() >= bytes) {
+            return true;
+        }
+        if (!flush()) {
+            return false;
+        }
+        if (mBuffer.capacity() < bytes) {
+            // An entry larger than the buffer, such as a large face mesh, grows it once.
+            MemoryAccounting.freeDirect(TAG, mBuffer.capacity());
+            mBuffer = MemoryAccounting.allocateDirect(TAG, bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return true;
+    }
+
+    private boolean flush() {
+        if (mIsFailed) {
+            return false;
+        }
+        mBuffer.flip();
+        try {
+            while (mBuffer.hasRemaining()) {
+                mChannel.write(mBuffer);
+            }
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Can not write the record file, recording stopped", e);
+            mIsFailed = true;
+            return false;
+        } finally {
+            mBuffer.clear();
+        }
+    }
+}
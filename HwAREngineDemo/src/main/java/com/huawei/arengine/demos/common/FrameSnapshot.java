@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import com.huawei.hiar.ARBody;
+import com.huawei.hiar.ARFace;
+import com.huawei.hiar.ARFaceGeometry;
+import com.huawei.hiar.ARFrame;
+import com.huawei.hiar.ARHand;
+import com.huawei.hiar.ARPose;
+import com.huawei.hiar.ARTrackable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * The data of the trackables of one frame. It is filled once after each ARSession.update(),
+ * and all the displays and text overlays of the frame read it instead of calling the getters
+ * of AREngine again. The snapshot objects are pooled and reused from frame to frame.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public class FrameSnapshot {
+    private final ArrayList<HandSnapshot> mHands = new ArrayList<>();
+
+    private final ArrayList<BodySnapshot> mBodies = new ArrayList<>();
+
+    private final ArrayList<FaceSnapshot> mFaces = new ArrayList<>();
+
+    // The size of projection matrix is 4 * 4.
+    private final float[] mProjectionMatrix = new float[16];
+
+    private int mHandCount = 0;
+
+    private int mBodyCount = 0;
+
+    private int mFaceCount = 0;
+
+    private long mTimestampNs = 0;
+
+    /**
+     * Start a new frame. The trackables must be updated afterwards.
+     *
+     * @param frame Frame returned by ARSession.update().
+     */
+    public void update(ARFrame frame) {
+        mTimestampNs = frame.getTimestampNs();
+        mHandCount = 0;
+        mBodyCount = 0;
+        mFaceCount = 0;
+    }
+
+    /**
+     * Capture the data of the hands of the frame.
+     *
+     * @param hands Hands returned by ARSession.getAllTrackables().
+     */
+    public void updateHands(Collection<ARHand> hands) {
+        mHandCount = 0;
+        for (ARHand hand : hands) {
+            if (mHandCount == mHands.size()) {
+                mHands.add(new HandSnapshot());
+            }
+            mHands.get(mHandCount++).update(hand);
+        }
+    }
+
+    /**
+     * Capture the data of the bodies of the frame.
+     *
+     * @param bodies Bodies returned by ARSession.getAllTrackables().
+     */
+    public void updateBodies(Collection<ARBody> bodies) {
+        mBodyCount = 0;
+        for (ARBody body : bodies) {
+            if (mBodyCount == mBodies.size()) {
+                mBodies.add(new BodySnapshot());
+            }
+            mBodies.get(mBodyCount++).update(body);
+        }
+    }
+
+    /**
+     * Capture the data of the faces of the frame.
+     *
+     * @param faces Faces returned by ARSession.getAllTrackables().
+     */
+    public void updateFaces(Collection<ARFace> faces) {
+        mFaceCount = 0;
+        for (ARFace face : faces) {
+            if (mFaceCount == mFaces.size()) {
+                mFaces.add(new FaceSnapshot());
+            }
+            updateFace(mFaces.get(mFaceCount++), face);
+        }
+    }
+
+    private static void updateFace(FaceSnapshot snapshot, ARFace face) {
+        boolean isTracking = face.getTrackingState() == ARTrackable.TrackingState.TRACKING;
+        snapshot.setTracking(isTracking);
+        if (!isTracking) {
+            return;
+        }
+        ARPose pose = face.getPose();
+        snapshot.setPose(pose.tx(), pose.ty(), pose.tz(), pose.qx(), pose.qy(), pose.qz(), pose.qw());
+
+        // The geometry is acquired and released once, the topology is only read when it changed.
+        ARFaceGeometry faceGeometry = face.getFaceGeometry();
+        try {
+            int triangleCount = faceGeometry.getTriangleCount();
+            if (snapshot.updateVertices(faceGeometry.getVertices(), triangleCount)) {
+                snapshot.updateTopology(faceGeometry.getTextureCoordinates(), faceGeometry.getTriangleIndices(),
+                    triangleCount);
+            }
+        } finally {
+            faceGeometry.release();
+        }
+    }
+
+    /**
+     * Set the projection matrix of the camera of the frame.
+     *
+     * @param projectionMatrix Projection matrix(4 * 4), copied.
+     */
+    public void setProjectionMatrix(float[] projectionMatrix) {
+        System.arraycopy(projectionMatrix, 0, mProjectionMatrix, 0, mProjectionMatrix.length);
+    }
+
+    /**
+     * Get the projection matrix of the camera of the frame.
+     *
+     * @return Projection matrix(4 * 4), valid until the next update.
+     */
+    public float[] getProjectionMatrix() {
+        return mProjectionMatrix;
+    }
+
+    /**
+     * Get the timestamp of the frame.
+     *
+     * @return Timestamp in nanoseconds.
+     */
+    public long getTimestampNs() {
+        return mTimestampNs;
+    }
+
+    /**
+     * Get the number of hands of the frame.
+     *
+     * @return Number of hands.
+     */
+    public int getHandCount() {
+        return mHandCount;
+    }
+
+    /**
+     * Get the hand at the specified index.
+     *
+     * @param index Index between 0 and {@link #getHandCount()}.
+     * @return Hand snapshot, valid until the next update.
+     */
+    public HandSnapshot getHand(int index) {
+        return mHands.get(index);
+    }
+
+    /**
+     * Get the number of bodies of the frame.
+     *
+     * @return Number of bodies.
+     */
+    public int getBodyCount() {
+        return mBodyCount;
+    }
+
+    /**
+     * Get the body at the specified index.
+     *
+     * @param index Index between 0 and {@link #getBodyCount()}.
+     * @return Body snapshot, valid until the next update.
+     */
+    public BodySnapshot getBody(int index) {
+        return mBodies.get(index);
+    }
+
+    /**
+     * Get the number of faces of the frame.
+     *
+     * @return Number of faces.
+     */
+    public int getFaceCount() {
+        return mFaceCount;
+    }
+
+    /**
+     * Get the face at the specified index.
+     *
+     * @param index Index between 0 and {@link #getFaceCount()}.
+     * @return Face snapshot, valid until the next update.
+     */
+    public FaceSnapshot getFace(int index) {
+        return mFaces.get(index);
+    }
+}
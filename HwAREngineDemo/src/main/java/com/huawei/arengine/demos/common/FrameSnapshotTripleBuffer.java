@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+/**
+ * Three {@link FrameSnapshot}s exchanged between the thread that captures the frames and the
+ * thread that reads them. The writer fills its own slot and publishes it, which swaps it with
+ * the published slot, so it never waits for the reader and a snapshot that was not read yet is
+ * simply replaced by the newer one. The reader takes the newest published snapshot, which swaps
+ * it with its own slot, and keeps it until it takes the next one. A published snapshot is not
+ * written again until it is taken and released, so the reader sees complete frames. Both sides
+ * run on the frames of the session: the writer captures on the OpenGL thread right after the
+ * update, so the buffer does not hide a slow update from the display.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class FrameSnapshotTripleBuffer {
+    private final FrameSnapshot[] mSlots = {new FrameSnapshot(), new FrameSnapshot(), new FrameSnapshot()};
+
+    private int mWriteSlot = 0;
+
+    private int mPublishedSlot = 1;
+
+    private int mReadSlot = 2;
+
+    private boolean mIsPublished = false;
+
+    private boolean mIsReading = false;
+
+    private long mPublishCount = 0;
+
+    private long mSkippedSnapshotCount = 0;
+
+    /**
+     * Get the slot of the writer. It is the same slot until {@link #publish()}.
+     *
+     * @return Snapshot to capture the frame into.
+     */
+    public synchronized FrameSnapshot getWriteSlot() {
+        return mSlots[mWriteSlot];
+    }
+
+    /**
+     * Publish the snapshot of the writer, replacing the published one if it was not taken.
+     */
+    public synchronized void publish() {
+        int slot = mPublishedSlot;
+        mPublishedSlot = mWriteSlot;
+        mWriteSlot = slot;
+        if (mIsPublished) {
+            mSkippedSnapshotCount++;
+        }
+        mIsPublished = true;
+        mPublishCount++;
+        notifyAll();
+    }
+
+    /**
+     * Take the newest published snapshot, waiting for one if none was published since the last
+     * call. The previous snapshot of the reader is released.
+     *
+     * @return Snapshot, valid until {@link #release()} or the next call.
+     * @throws InterruptedException If the reader was interrupted while waiting.
+     */
+    public synchronized FrameSnapshot take() throws InterruptedException {
+        mIsReading = false;
+        notifyAll();
+        while (!mIsPublished) {
+            wait();
+        }
+        int slot = mReadSlot;
+        mReadSlot = mPublishedSlot;
+        mPublishedSlot = slot;
+        mIsPublished = false;
+        mIsReading = true;
+        return mSlots[mReadSlot];
+    }
+
+    /**
+     * Release the snapshot of the reader once it is no longer used.
+     */
+    public synchronized void release() {
+        mIsReading = false;
+        notifyAll();
+    }
+
+    /**
+     * Drop the published snapshot, and wait until the reader released its own.
+     */
+    public synchronized void clear() {
+        mIsPublished = false;
+        boolean isInterrupted = false;
+        while (mIsReading) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the number of published snapshots.
+     *
+     * @return Number of calls to {@link #publish()}.
+     */
+    public synchronized long getPublishCount() {
+        return mPublishCount;
+    }
+
+    /**
+     * Get the number of published snapshots that were replaced before the reader took them.
+     *
+     * @return Number of skipped snapshots.
+     */
+    public synchronized long getSkippedSnapshotCount() {
+        return mSkippedSnapshotCount;
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.opengl.GLES20;
+import android.util.Log;
+import android.util.SparseArray;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Owner of the GL buffers, textures, programs and framebuffers of the demos. Each handle is registered with
+ * the display class that created it and the size of its storage, and is counted by reference:
+ * the creator holds the first reference, other users retain and release it, and the handle is
+ * deleted with the last reference. All the handles are deleted by {@link #releaseAll()} when
+ * the activity finishes, and forgotten by {@link #onContextCreated()} when the previous context
+ * was lost with them, so that they do not pile up over surface re-creations. The sizes of the
+ * buffers and textures are reported to {@link MemoryAccounting}.
+ * The methods must be called on the OpenGL thread, with the context current.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class GlResourceManager {
+    /**
+     * Task that deletes all the handles, to queue on the OpenGL thread before it pauses.
+     */
+    public static final Runnable RELEASE_ALL = new Runnable() {
+        @Override
+        public void run() {
+            releaseAll();
+        }
+    };
+
+    private static final String TAG = GlResourceManager.class.getSimpleName();
+
+    private static final int BYTES_PER_KILOBYTE = 1024;
+
+    private static final int BYTES_PER_RGBA_PIXEL = 4;
+
+    // A full mipmap chain is 4 / 3 of its level 0.
+    private static final int MIPMAP_CHAIN_NUMERATOR = 4;
+
+    private static final int MIPMAP_CHAIN_DENOMINATOR = 3;
+
+    private static final Map<Type, SparseArray<Resource>> RESOURCES = new EnumMap<>(Type.class);
+
+    private static final int[] NAMES = new int[1];
+
+    static {
+        for (Type type : Type.values()) {
+            RESOURCES.put(type, new SparseArray<Resource>());
+        }
+    }
+
+    /**
+     * Types of the GL handles.
+     */
+    public enum Type {
+        /**
+         * Vertex or index buffer.
+         */
+        BUFFER,
+
+        /**
+         * Texture.
+         */
+        TEXTURE,
+
+        /**
+         * Linked program, its shaders are deleted with it.
+         */
+        PROGRAM,
+
+        /**
+         * Framebuffer object, its attachments are handles of their own.
+         */
+        FRAMEBUFFER,
+
+        /**
+         * Renderbuffer, such as the depth attachment of a framebuffer.
+         */
+        RENDERBUFFER
+    }
+
+    private GlResourceManager() {
+    }
+
+    /**
+     * Generate buffers owned by a display.
+     *
+     * @param owner Tag of the display class.
+     * @param count Number of buffers.
+     * @param names Array receiving the buffer names.
+     * @param offset Offset of the first name in the array.
+     */
+    public static void genBuffers(String owner, int count, int[] names, int offset) {
+        GLES20.glGenBuffers(count, names, offset);
+        for (int i = 0; i < count; i++) {
+            register(Type.BUFFER, owner, names[offset + i]);
+        }
+    }
+
+    /**
+     * Generate textures owned by a display.
+     *
+     * @param owner Tag of the display class.
+     * @param count Number of textures.
+     * @param names Array receiving the texture names.
+     * @param offset Offset of the first name in the array.
+     */
+    public static void genTextures(String owner, int count, int[] names, int offset) {
+        GLES20.glGenTextures(count, names, offset);
+        for (int i = 0; i < count; i++) {
+            register(Type.TEXTURE, owner, names[offset + i]);
+        }
+    }
+
+    /**
+     * Generate framebuffers owned by a display.
+     *
+     * @param owner Tag of the display class.
+     * @param count Number of framebuffers.
+     * @param names Array receiving the framebuffer names.
+     * @param offset Offset of the first name in the array.
+     */
+    public static void genFramebuffers(String owner, int count, int[] names, int offset) {
+        GLES20.glGenFramebuffers(count, names, offset);
+        for (int i = 0; i < count; i++) {
+            register(Type.FRAMEBUFFER, owner, names[offset + i]);
+        }
+    }
+
+    /**
+     * Generate renderbuffers owned by a display.
+     *
+     * @param owner Tag of the display class.
+     * @param count Number of renderbuffers.
+     * @param names Array receiving the renderbuffer names.
+     * @param offset Offset of the first name in the array.
+     */
+    public static void genRenderbuffers(String owner, int count, int[] names, int offset) {
+        GLES20.glGenRenderbuffers(count, names, offset);
+        for (int i = 0; i < count; i++) {
+            register(Type.RENDERBUFFER, owner, names[offset + i]);
+        }
+    }
+
+    /**
+     * Register a program created by a display.
+     *
+     * @param owner Tag of the display class.
+     * @param program Program, nothing is registered if it is 0.
+     * @return The program.
+     */
+    public static int registerProgram(String owner, int program) {
+        if (program != 0) {
+            register(Type.PROGRAM, owner, program);
+        }
+        return program;
+    }
+
+    private static void register(Type type, String owner, int name) {
+        if (name == 0) {
+            return;
+        }
+        SparseArray<Resource> resources = RESOURCES.get(type);
+        if (resources.get(name) != null) {
+            // The name was deleted without the manager, by the driver or by the display.
+            Log.w(TAG, "register: " + type + " " + name + " is already owned by " + resources.get(name).mOwner);
+        }
+        forget(type, resources.get(name));
+        resources.put(name, new Resource(owner));
+    }
+
+    /**
+     * Set the size of the storage of a handle, after glBufferData or a texture upload.
+     *
+     * @param type Type of the handle.
+     * @param name Name of the handle.
+     * @param bytes Size in bytes.
+     */
+    public static void setSize(Type type, int name, long bytes) {
+        Resource resource = RESOURCES.get(type).get(name);
+        if (resource != null) {
+            account(type, resource.mOwner, bytes - resource.mBytes);
+            resource.mBytes = bytes;
+        }
+    }
+
+    /**
+     * Set the size of an RGBA texture uploaded from a bitmap.
+     *
+     * @param texture Name of the texture.
+     * @param width Width of the level 0.
+     * @param height Height of the level 0.
+     * @param hasMipmaps True if the mipmaps were generated, they add a third of the level 0.
+     */
+    public static void setTextureSize(int texture, int width, int height, boolean hasMipmaps) {
+        long bytes = (long) width * height * BYTES_PER_RGBA_PIXEL;
+        setSize(Type.TEXTURE, texture, hasMipmaps ? bytes * MIPMAP_CHAIN_NUMERATOR / MIPMAP_CHAIN_DENOMINATOR : bytes);
+    }
+
+    /**
+     * Add a reference to a handle used by another display than its owner.
+     *
+     * @param type Type of the handle.
+     * @param name Name of the handle.
+     */
+    public static void retain(Type type, int name) {
+        Resource resource = RESOURCES.get(type).get(name);
+        if (resource == null) {
+            Log.e(TAG, "retain: unknown " + type + " " + name);
+            return;
+        }
+        resource.mRefCount++;
+    }
+
+    /**
+     * Remove a reference to a handle, and delete it with the last one.
+     *
+     * @param type Type of the handle.
+     * @param name Name of the handle.
+     */
+    public static void release(Type type, int name) {
+        SparseArray<Resource> resources = RESOURCES.get(type);
+        Resource resource = resources.get(name);
+        if (resource == null) {
+            Log.e(TAG, "release: unknown " + type + " " + name);
+            return;
+        }
+        resource.mRefCount--;
+        if (resource.mRefCount <= 0) {
+            resources.remove(name);
+            forget(type, resource);
+            delete(type, name);
+        }
+    }
+
+    /**
+     * Release the reference of a display to each handle it created.
+     *
+     * @param owner Tag of the display class.
+     */
+    public static void releaseOwner(String owner) {
+        for (Type type : Type.values()) {
+            SparseArray<Resource> resources = RESOURCES.get(type);
+            for (int i = resources.size() - 1; i >= 0; i--) {
+                if (resources.valueAt(i).mOwner.equals(owner)) {
+                    release(type, resources.keyAt(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete all the handles, whatever their references.
+     * This method will be called when the activity finishes, before the OpenGL thread pauses.
+     */
+    public static void releaseAll() {
+        logUsage();
+        for (Type type : Type.values()) {
+            SparseArray<Resource> resources = RESOURCES.get(type);
+            for (int i = 0; i < resources.size(); i++) {
+                forget(type, resources.valueAt(i));
+                delete(type, resources.keyAt(i));
+            }
+            resources.clear();
+        }
+
+        // The displays are dropped with the finishing activity, and their direct buffers with them.
+        StagingBufferPool.get().trim();
+        MemoryAccounting.clear(MemoryAccounting.Category.DIRECT_BUFFER);
+        ShaderUtil.checkGlError(TAG, "release all");
+    }
+
+    /**
+     * Forget the handles of the previous context, they were deleted with it.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onSurfaceCreated},
+     * before the displays create their handles again.
+     */
+    public static void onContextCreated() {
+        int count = 0;
+        for (Type type : Type.values()) {
+            SparseArray<Resource> resources = RESOURCES.get(type);
+            count += resources.size();
+            for (int i = 0; i < resources.size(); i++) {
+                forget(type, resources.valueAt(i));
+            }
+            resources.clear();
+        }
+        if (count > 0) {
+            Log.i(TAG, "Context re-created, forgot " + count + " handles of the lost context.");
+        }
+    }
+
+    /**
+     * Get the size of the live handles of a display.
+     *
+     * @param owner Tag of the display class.
+     * @return Size in bytes of its buffers and textures.
+     */
+    public static long getLiveBytes(String owner) {
+        long bytes = 0;
+        for (Type type : Type.values()) {
+            SparseArray<Resource> resources = RESOURCES.get(type);
+            for (int i = 0; i < resources.size(); i++) {
+                Resource resource = resources.valueAt(i);
+                if (resource.mOwner.equals(owner)) {
+                    bytes += resource.mBytes;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Log the number and the size of the live handles of each display class.
+     */
+    public static void logUsage() {
+        Map<String, long[]> usages = new TreeMap<>();
+        for (Type type : Type.values()) {
+            SparseArray<Resource> resources = RESOURCES.get(type);
+            for (int i = 0; i < resources.size(); i++) {
+                Resource resource = resources.valueAt(i);
+                long[] usage = usages.get(resource.mOwner);
+                if (usage == null) {
+                    // Number of handles of each type, then the size.
+                    usage = new long[Type.values().length + 1];
+                    usages.put(resource.mOwner, usage);
+                }
+                usage[type.ordinal()]++;
+                usage[usage.length - 1] += resource.mBytes;
+            }
+        }
+        long total = 0;
+        for (Map.Entry<String, long[]> entry : usages.entrySet()) {
+            long[] usage = entry.getValue();
+            long bytes = usage[usage.length - 1];
+            total += bytes;
+            Log.i(TAG, entry.getKey() + ": " + usage[Type.BUFFER.ordinal()] + " buffers, "
+                + usage[Type.TEXTURE.ordinal()] + " textures, " + usage[Type.PROGRAM.ordinal()] + " programs, "
+                + bytes / BYTES_PER_KILOBYTE + " KB");
+        }
+        Log.i(TAG, "Live GPU memory: " + total / BYTES_PER_KILOBYTE + " KB");
+        MemoryAccounting.logReport();
+    }
+
+    private static void forget(Type type, Resource resource) {
+        if (resource != null) {
+            account(type, resource.mOwner, -resource.mBytes);
+        }
+    }
+
+    private static void account(Type type, String owner, long deltaBytes) {
+        if (type == Type.BUFFER) {
+            MemoryAccounting.add(MemoryAccounting.Category.GPU_BUFFER, owner, deltaBytes);
+        } else if (type == Type.TEXTURE || type == Type.RENDERBUFFER) {
+            MemoryAccounting.add(MemoryAccounting.Category.GPU_TEXTURE, owner, deltaBytes);
+        }
+    }
+
+    private static void delete(Type type, int name) {
+        NAMES[0] = name;
+        switch (type) {
+            case BUFFER:
+                GLES20.glDeleteBuffers(1, NAMES, 0);
+                break;
+            case TEXTURE:
+                GLES20.glDeleteTextures(1, NAMES, 0);
+                break;
+            case PROGRAM:
+                GLES20.glDeleteProgram(name);
+                break;
+            case FRAMEBUFFER:
+                GLES20.glDeleteFramebuffers(1, NAMES, 0);
+                break;
+            case RENDERBUFFER:
+                GLES20.glDeleteRenderbuffers(1, NAMES, 0);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Owner, size and references of a handle.
+     */
+    private static final class Resource {
+        private final String mOwner;
+
+        private long mBytes = 0;
+
+        private int mRefCount = 1;
+
+        Resource(String owner) {
+            mOwner = owner;
+        }
+    }
+}
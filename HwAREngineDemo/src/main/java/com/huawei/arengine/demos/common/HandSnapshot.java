@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import com.huawei.hiar.ARCoordinateSystemType;
+import com.huawei.hiar.ARHand;
+import com.huawei.hiar.ARTrackable;
+
+/**
+ * Data of one ARHand captured once per frame. Each getter of ARHand copies its data through JNI,
+ * so the displays and the text overlay read this snapshot instead of calling the getters again.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public class HandSnapshot {
+    private static final int SKELETON_CAPACITY = 64 * 3;
+
+    private static final int CONNECTION_CAPACITY = 64 * 2;
+
+    private static final int GESTURE_CAPACITY = 8;
+
+    private final PooledFloatArray mGestureHandBox = new PooledFloatArray(GESTURE_CAPACITY);
+
+    private final PooledFloatArray mGestureCenter = new PooledFloatArray(GESTURE_CAPACITY);
+
+    private final PooledFloatArray mGestureOrientation = new PooledFloatArray(GESTURE_CAPACITY);
+
+    private final PooledIntArray mGestureAction = new PooledIntArray(GESTURE_CAPACITY);
+
+    // Coordinates of the hand skeleton points (x, y, z).
+    private final PooledFloatArray mSkeletons = new PooledFloatArray(SKELETON_CAPACITY);
+
+    // Pairs of indexes of connected skeleton points.
+    private final PooledIntArray mSkeletonConnections = new PooledIntArray(CONNECTION_CAPACITY);
+
+    private int mHandId;
+
+    private boolean mIsTracking;
+
+    private int mGestureType;
+
+    private ARCoordinateSystemType mGestureCoordinateSystem;
+
+    private ARCoordinateSystemType mSkeletonCoordinateSystem;
+
+    private ARHand.ARHandType mHandType;
+
+    /**
+     * Copy the data of the hand. Each getter of ARHand is called only once.
+     *
+     * @param hand Hand of the current frame.
+     */
+    public void update(ARHand hand) {
+        mHandId = hand.getHandID();
+        mIsTracking = hand.getTrackingState() == ARTrackable.TrackingState.TRACKING;
+        mGestureType = hand.getGestureType();
+        mGestureCoordinateSystem = hand.getGestureCoordinateSystem();
+        mSkeletonCoordinateSystem = hand.getSkeletonCoordinateSystem();
+        mHandType = hand.getHandtype();
+        mGestureHandBox.set(hand.getGestureHandBox());
+        mGestureCenter.set(hand.getGestureCenter());
+        mGestureOrientation.set(hand.getGestureOrientation());
+        mGestureAction.set(hand.getGestureAction());
+        mSkeletons.set(hand.getHandskeletonArray());
+        mSkeletonConnections.set(hand.getHandSkeletonConnection());
+    }
+
+    /**
+     * Get the hand id.
+     *
+     * @return Hand id.
+     */
+    public int getHandId() {
+        return mHandId;
+    }
+
+    /**
+     * Check whether the hand is tracking.
+     *
+     * @return True if it is tracking.
+     */
+    public boolean isTracking() {
+        return mIsTracking;
+    }
+
+    /**
+     * Get the gesture type.
+     *
+     * @return Gesture type.
+     */
+    public int getGestureType() {
+        return mGestureType;
+    }
+
+    /**
+     * Get the gesture coordinate system.
+     *
+     * @return Gesture coordinate system.
+     */
+    public ARCoordinateSystemType getGestureCoordinateSystem() {
+        return mGestureCoordinateSystem;
+    }
+
+    /**
+     * Get the skeleton coordinate system.
+     *
+     * @return Skeleton coordinate system.
+     */
+    public ARCoordinateSystemType getSkeletonCoordinateSystem() {
+        return mSkeletonCoordinateSystem;
+    }
+
+    /**
+     * Get the hand type.
+     *
+     * @return Hand type.
+     */
+    public ARHand.ARHandType getHandType() {
+        return mHandType;
+    }
+
+    /**
+     * Get the gesture hand box.
+     *
+     * @return Gesture hand box.
+     */
+    public PooledFloatArray getGestureHandBox() {
+        return mGestureHandBox;
+    }
+
+    /**
+     * Get the gesture center.
+     *
+     * @return Gesture center.
+     */
+    public PooledFloatArray getGestureCenter() {
+        return mGestureCenter;
+    }
+
+    /**
+     * Get the gesture orientation.
+     *
+     * @return Gesture orientation.
+     */
+    public PooledFloatArray getGestureOrientation() {
+        return mGestureOrientation;
+    }
+
+    /**
+     * Get the gesture action.
+     *
+     * @return Gesture action.
+     */
+    public PooledIntArray getGestureAction() {
+        return mGestureAction;
+    }
+
+    /**
+     * Get the coordinates of the hand skeleton points.
+     *
+     * @return Skeleton points (x, y, z).
+     */
+    public PooledFloatArray getSkeletons() {
+        return mSkeletons;
+    }
+
+    /**
+     * Get the skeleton connections.
+     *
+     * @return Skeleton connections.
+     */
+    public PooledIntArray getSkeletonConnections() {
+        return mSkeletonConnections;
+    }
+}
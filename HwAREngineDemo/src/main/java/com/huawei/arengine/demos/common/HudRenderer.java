@@ -0,0 +1,438 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.opengl.GLES20;
+import android.opengl.Matrix;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Draw the overlay of a demo on the GL surface: the text of an {@link OverlayModel} at the top
+ * left, and a rolling graph of the frame times at the bottom left. The glyphs come from a
+ * {@link SdfFontAtlas}, and the graph bars use its solid cell, so the whole HUD is one dynamic
+ * vertex buffer, one texture and one draw call. The text quads are only rebuilt and uploaded
+ * when a visible value of the model changed, the graph quads are updated in each frame.
+ *
+ * @author HW
+ * @since 2020-04-27
+ */
+public class HudRenderer {
+    private static final String TAG = HudRenderer.class.getSimpleName();
+
+    private static final String LS = System.lineSeparator();
+
+    private static final String HUD_VERTEX =
+        "uniform mat4 inMVPMatrix;" + LS
+        + "attribute vec4 inPosition;" + LS
+        + "attribute vec4 inColor;" + LS
+        + "varying vec2 varTexCoord;" + LS
+        + "varying vec4 varColor;" + LS
+        + "void main() {" + LS
+        + "    gl_Position = inMVPMatrix * vec4(inPosition.xy, 0.0, 1.0);" + LS
+        + "    varTexCoord = inPosition.zw;" + LS
+        + "    varColor = inColor;" + LS
+        + "}";
+
+    private static final String HUD_FRAGMENT =
+        "precision mediump float;" + LS
+        + "uniform sampler2D inAtlas;" + LS
+        + "uniform float inSmoothing;" + LS
+        + "varying vec2 varTexCoord;" + LS
+        + "varying vec4 varColor;" + LS
+        + "void main() {" + LS
+        + "    float field = texture2D(inAtlas, varTexCoord).r;" + LS
+        + "    float coverage = smoothstep(0.5 - inSmoothing, 0.5 + inSmoothing, field);" + LS
+        + "    gl_FragColor = vec4(varColor.rgb, varColor.a * coverage);" + LS
+        + "}";
+
+    private static final int FLOATS_PER_VERTEX = 8; // x, y, u, v, r, g, b, a
+
+    private static final int POSITION_FLOATS = 4;
+
+    private static final int COLOR_FLOATS = 4;
+
+    private static final int VERTICES_PER_QUAD = 4;
+
+    private static final int INDICES_PER_QUAD = 6;
+
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private static final int BYTES_PER_SHORT = 2;
+
+    private static final int FLOATS_PER_QUAD = FLOATS_PER_VERTEX * VERTICES_PER_QUAD;
+
+    private static final int GRAPH_SAMPLES = 120;
+
+    // Background, line of the target frame time and one bar per sample.
+    private static final int GRAPH_QUADS = 2 + GRAPH_SAMPLES;
+
+    private static final int MAX_TEXT_QUADS = 2048;
+
+    private static final int MAX_QUADS = GRAPH_QUADS + MAX_TEXT_QUADS;
+
+    private static final float TARGET_FRAME_MS = 1000.0f / 60.0f;
+
+    private static final float SLOW_FRAME_MS = 1000.0f / 30.0f;
+
+    private static final float GRAPH_MAX_MS = 50.0f;
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    // Heights of the glyphs and of the graph relative to the height of the surface.
+    private static final float GLYPH_HEIGHT_RATIO = 1.0f / 64.0f;
+
+    private static final float MIN_GLYPH_HEIGHT = 16.0f;
+
+    private static final float LINE_SPACING = 1.2f;
+
+    private static final float GRAPH_HEIGHT_RATIO = 1.0f / 10.0f;
+
+    private static final float MARGIN = 8.0f;
+
+    private static final float[] TEXT_COLOR = {1.0f, 1.0f, 1.0f, 1.0f};
+
+    private static final float[] BACKGROUND_COLOR = {0.0f, 0.0f, 0.0f, 0.5f};
+
+    private static final float[] TARGET_COLOR = {1.0f, 1.0f, 1.0f, 0.6f};
+
+    private static final float[] FAST_COLOR = {0.2f, 0.9f, 0.3f, 1.0f};
+
+    private static final float[] MEDIUM_COLOR = {1.0f, 0.85f, 0.2f, 1.0f};
+
+    private static final float[] SLOW_COLOR = {1.0f, 0.25f, 0.2f, 1.0f};
+
+    private final SdfFontAtlas mAtlas = new SdfFontAtlas();
+
+    private long mMinTextIntervalNs;
+
+    private final CharFormatter mFormatter = new CharFormatter(1024);
+
+    private final float[] mVertices = new float[MAX_QUADS * FLOATS_PER_QUAD];
+
+    private final float[] mFrameTimesMs = new float[GRAPH_SAMPLES];
+
+    private final float[] mProjectionMatrix = new float[16];
+
+    private OverlayModel mTextModel;
+
+    private boolean mIsTextEmpty = true;
+
+    private boolean mIsTextDirty = true;
+
+    private long mLastTextNs = 0;
+
+    private long mLastFrameNs = 0;
+
+    private int mNextSample = 0;
+
+    private int mTextQuadCount = 0;
+
+    private int mWidth = 1;
+
+    private int mHeight = 1;
+
+    private float mGlyphScale = 1.0f;
+
+    private int mTexture;
+
+    private int mVbo;
+
+    private int mIbo;
+
+    private int mProgram;
+
+    private int mPosition;
+
+    private int mColor;
+
+    private int mMvpMatrix;
+
+    private int mAtlasUniform;
+
+    private int mSmoothing;
+
+    /**
+     * Constructor, the text is rebuilt as soon as a visible value changes.
+     */
+    public HudRenderer() {
+        this(0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param minTextIntervalMs Minimum interval between two updates of the text in milliseconds.
+     */
+    public HudRenderer(long minTextIntervalMs) {
+        mMinTextIntervalNs = minTextIntervalMs * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Change the minimum interval between two updates of the text, such as to refresh it less
+     * often when the frames are over their time budget. This method will be called on the OpenGL
+     * thread.
+     *
+     * @param minTextIntervalMs Minimum interval in milliseconds, 0 to update at every change.
+     */
+    public void setMinTextInterval(long minTextIntervalMs) {
+        mMinTextIntervalNs = minTextIntervalMs * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Create the atlas, the shaders and the buffers on the OpenGL Thread.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onSurfaceCreated}.
+     */
+    public void init() {
+        ShaderUtil.checkGlError(TAG, "before create");
+        mTexture = mAtlas.createTexture();
+
+        int[] buffers = new int[2];
+        GlResourceManager.genBuffers(TAG, buffers.length, buffers, 0);
+        mVbo = buffers[0];
+        mIbo = buffers[1];
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mVbo);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, MAX_QUADS * FLOATS_PER_QUAD * BYTES_PER_FLOAT, null,
+            GLES20.GL_DYNAMIC_DRAW);
+        GlResourceManager.setSize(GlResourceManager.Type.BUFFER, mVbo, MAX_QUADS * FLOATS_PER_QUAD * BYTES_PER_FLOAT);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+
+        // Two triangles per quad, the corners are top left, top right, bottom left, bottom right.
+        StagingBufferPool pool = StagingBufferPool.get();
+        StagingBufferPool.Slab slab = pool.acquire(MAX_QUADS * INDICES_PER_QUAD * BYTES_PER_SHORT);
+        ShortBuffer indices = slab.shorts();
+        for (int i = 0; i < MAX_QUADS; i++) {
+            int base = i * VERTICES_PER_QUAD;
+            indices.put((short) base).put((short) (base + 2)).put((short) (base + 1))
+                .put((short) (base + 1)).put((short) (base + 2)).put((short) (base + 3));
+        }
+        indices.flip();
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, mIbo);
+        GLES20.glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, MAX_QUADS * INDICES_PER_QUAD * BYTES_PER_SHORT,
+            indices, GLES20.GL_STATIC_DRAW);
+        pool.release(slab);
+        GlResourceManager.setSize(GlResourceManager.Type.BUFFER, mIbo, MAX_QUADS * INDICES_PER_QUAD * BYTES_PER_SHORT);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+        ShaderUtil.checkGlError(TAG, "buffers");
+
+        mProgram = GlResourceManager.registerProgram(TAG, ShaderUtil.createGlProgram(HUD_VERTEX, HUD_FRAGMENT));
+        mPosition = GLES20.glGetAttribLocation(mProgram, "inPosition");
+        mColor = GLES20.glGetAttribLocation(mProgram, "inColor");
+        mMvpMatrix = GLES20.glGetUniformLocation(mProgram, "inMVPMatrix");
+        mAtlasUniform = GLES20.glGetUniformLocation(mProgram, "inAtlas");
+        mSmoothing = GLES20.glGetUniformLocation(mProgram, "inSmoothing");
+        ShaderUtil.checkGlError(TAG, "program params");
+        mIsTextDirty = true;
+    }
+
+    /**
+     * Update the projection and the size of the glyphs.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onSurfaceChanged}.
+     *
+     * @param width Width of the surface.
+     * @param height Height of the surface.
+     */
+    public void onSurfaceChanged(int width, int height) {
+        mWidth = Math.max(width, 1);
+        mHeight = Math.max(height, 1);
+
+        // Pixel coordinates with the origin at the top left, like the views.
+        Matrix.orthoM(mProjectionMatrix, 0, 0.0f, mWidth, mHeight, 0.0f, -1.0f, 1.0f);
+        float glyphHeight = Math.max(MIN_GLYPH_HEIGHT, mHeight * GLYPH_HEIGHT_RATIO);
+        mGlyphScale = glyphHeight / SdfFontAtlas.GLYPH_SIZE;
+        mIsTextDirty = true;
+    }
+
+    /**
+     * Set the text to the visible fields of a model. The values are copied, and the text quads
+     * are only rebuilt when they changed, at most once per configured interval.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onDrawFrame}.
+     *
+     * @param model Model the renderer sets the values of, always with the same fields.
+     */
+    public void setText(OverlayModel model) {
+        if (mTextModel == null) {
+            mTextModel = new OverlayModel(model);
+        }
+        long now = System.nanoTime();
+        if (!mIsTextDirty && !mIsTextEmpty && now - mLastTextNs < mMinTextIntervalNs) {
+            return;
+        }
+        boolean isChanged = mTextModel.copyFrom(model) || mIsTextEmpty;
+        mIsTextEmpty = false;
+        if (isChanged || mIsTextDirty) {
+            mFormatter.clear();
+            mTextModel.format(mFormatter);
+            buildTextQuads();
+            mLastTextNs = now;
+        }
+    }
+
+    /**
+     * Remove the text, when nothing is tracked. The frame-time graph is still drawn.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onDrawFrame}.
+     */
+    public void clearText() {
+        if (!mIsTextEmpty) {
+            mIsTextEmpty = true;
+            mTextQuadCount = 0;
+        }
+    }
+
+    /**
+     * Record the time since the previous frame, and draw the graph and the text over the
+     * frame. The depth test is disabled while drawing, and restored.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onDrawFrame},
+     * after the other renderers.
+     */
+    public void onDrawFrame() {
+        long now = System.nanoTime();
+        if (mLastFrameNs != 0) {
+            mFrameTimesMs[mNextSample] = (float) (now - mLastFrameNs) / NANOS_PER_MILLI;
+            mNextSample = (mNextSample + 1) % GRAPH_SAMPLES;
+        }
+        mLastFrameNs = now;
+        buildGraphQuads();
+
+        ShaderUtil.checkGlError(TAG, "Before draw");
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mVbo);
+        upload();
+
+        boolean isDepthTest = GLES20.glIsEnabled(GLES20.GL_DEPTH_TEST);
+        GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+        GLES20.glEnable(GLES20.GL_BLEND);
+        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+
+        GLES20.glUseProgram(mProgram);
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTexture);
+        GLES20.glUniform1i(mAtlasUniform, 0);
+        GLES20.glUniformMatrix4fv(mMvpMatrix, 1, false, mProjectionMatrix, 0);
+
+        // One screen pixel covers 1 / mGlyphScale texels, the edge is smoothed over one pixel.
+        GLES20.glUniform1f(mSmoothing, 1.0f / (2.0f * SdfFontAtlas.SPREAD * mGlyphScale));
+        GLES20.glEnableVertexAttribArray(mPosition);
+        GLES20.glEnableVertexAttribArray(mColor);
+        GLES20.glVertexAttribPointer(mPosition, POSITION_FLOATS, GLES20.GL_FLOAT, false,
+            FLOATS_PER_VERTEX * BYTES_PER_FLOAT, 0);
+        GLES20.glVertexAttribPointer(mColor, COLOR_FLOATS, GLES20.GL_FLOAT, false,
+            FLOATS_PER_VERTEX * BYTES_PER_FLOAT, POSITION_FLOATS * BYTES_PER_FLOAT);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, mIbo);
+        GLES20.glDrawElements(GLES20.GL_TRIANGLES, (GRAPH_QUADS + mTextQuadCount) * INDICES_PER_QUAD,
+            GLES20.GL_UNSIGNED_SHORT, 0);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+        GLES20.glDisableVertexAttribArray(mPosition);
+        GLES20.glDisableVertexAttribArray(mColor);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
+
+        GLES20.glDisable(GLES20.GL_BLEND);
+        if (isDepthTest) {
+            GLES20.glEnable(GLES20.GL_DEPTH_TEST);
+        }
+        ShaderUtil.checkGlError(TAG, "Draw");
+    }
+
+    private void upload() {
+        // The graph changes in each frame, the text only when it was rebuilt.
+        int floatCount = GRAPH_QUADS * FLOATS_PER_QUAD;
+        if (mIsTextDirty) {
+            floatCount += mTextQuadCount * FLOATS_PER_QUAD;
+            mIsTextDirty = false;
+        }
+        StagingBufferPool pool = StagingBufferPool.get();
+        StagingBufferPool.Slab slab = pool.acquire(floatCount * BYTES_PER_FLOAT);
+        FloatBuffer vertices = slab.floats();
+        vertices.put(mVertices, 0, floatCount);
+        vertices.flip();
+        GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, floatCount * BYTES_PER_FLOAT, vertices);
+        pool.release(slab);
+    }
+
+    private void buildGraphQuads() {
+        float graphHeight = mHeight * GRAPH_HEIGHT_RATIO;
+        float barWidth = Math.max(1.0f, (mWidth - 2 * MARGIN) / (2.0f * GRAPH_SAMPLES));
+        float left = MARGIN;
+        float bottom = mHeight - MARGIN;
+        float top = bottom - graphHeight;
+        float pixelsPerMs = graphHeight / GRAPH_MAX_MS;
+        int quad = 0;
+        putSolidQuad(quad++, left, top, left + barWidth * GRAPH_SAMPLES, bottom, BACKGROUND_COLOR);
+        float targetY = bottom - TARGET_FRAME_MS * pixelsPerMs;
+        putSolidQuad(quad++, left, targetY - 1.0f, left + barWidth * GRAPH_SAMPLES, targetY, TARGET_COLOR);
+
+        // The oldest sample is on the left.
+        for (int i = 0; i < GRAPH_SAMPLES; i++) {
+            float frameMs = mFrameTimesMs[(mNextSample + i) % GRAPH_SAMPLES];
+            float barTop = bottom - Math.min(frameMs, GRAPH_MAX_MS) * pixelsPerMs;
+            float[] color = frameMs <= TARGET_FRAME_MS ? FAST_COLOR
+                : (frameMs <= SLOW_FRAME_MS ? MEDIUM_COLOR : SLOW_COLOR);
+            float barLeft = left + i * barWidth;
+            putSolidQuad(quad++, barLeft, barTop, barLeft + barWidth, bottom, color);
+        }
+    }
+
+    private void buildTextQuads() {
+        float cellSize = SdfFontAtlas.CELL_SIZE * mGlyphScale;
+        float advance = mAtlas.getAdvance() * mGlyphScale;
+        float lineHeight = SdfFontAtlas.GLYPH_SIZE * mGlyphScale * LINE_SPACING;
+
+        // The cells include the spread around the glyphs.
+        float spread = SdfFontAtlas.SPREAD * mGlyphScale;
+        float x = MARGIN - spread;
+        float y = MARGIN - spread;
+        char[] chars = mFormatter.array();
+        int count = 0;
+        for (int i = 0; i < mFormatter.length() && count < MAX_TEXT_QUADS; i++) {
+            char character = chars[i];
+            if (character == '\n') {
+                x = MARGIN - spread;
+                y += lineHeight;
+                continue;
+            }
+            if (character != ' ') {
+                int cell = SdfFontAtlas.getCell(character);
+                putGlyphQuad(GRAPH_QUADS + count, x, y, x + cellSize, y + cellSize, cell, TEXT_COLOR);
+                count++;
+            }
+            x += advance;
+        }
+        mTextQuadCount = count;
+        mIsTextDirty = true;
+    }
+
+    private void putSolidQuad(int quad, float left, float top, float right, float bottom, float[] color) {
+        // The center of the solid cell, so that the filtering never reaches the cells around it.
+        float u = SdfFontAtlas.getCellU(SdfFontAtlas.SOLID_CELL) + SdfFontAtlas.getCellWidthU() / 2.0f;
+        float v = SdfFontAtlas.getCellV(SdfFontAtlas.SOLID_CELL) + SdfFontAtlas.getCellHeightV() / 2.0f;
+        putQuad(quad, left, top, right, bottom, u, v, u, v, color);
+    }
+
+    private void putGlyphQuad(int quad, float left, float top, float right, float bottom, int cell, float[] color) {
+        float u0 = SdfFontAtlas.getCellU(cell);
+        float v0 = SdfFontAtlas.getCellV(cell);
+        putQuad(quad, left, top, right, bottom, u0, v0, u0 + SdfFontAtlas.getCellWidthU(),
+            v0 + SdfFontAtlas.getCellHeightV(), color);
+    }
+
+    private void putQuad(int quad, float left, float top, float right, float bottom, float u0, float v0, float u1,
+        float v1, float[] color) {
+        int offset = quad * FLOATS_PER_QUAD;
+        offset = putVertex(offset, left, top, u0, v0, color);
+        offset = putVertex(offset, right, top, u1, v0, color);
+        offset = putVertex(offset, left, bottom, u0, v1, color);
+        putVertex(offset, right, bottom, u1, v1, color);
+    }
+
+    private int putVertex(int offset, float x, float y, float u, float v, float[] color) {
+        mVertices[offset] = x;
+        mVertices[offset + 1] = y;
+        mVertices[offset + 2] = u;
+        mVertices[offset + 3] = v;
+        System.arraycopy(color, 0, mVertices, offset + 4, COLOR_FLOATS);
+        return offset + FLOATS_PER_VERTEX;
+    }
+}
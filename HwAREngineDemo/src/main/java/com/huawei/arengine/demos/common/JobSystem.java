@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+/**
+ * Fork-join pool for the per-item loops of a frame, such as the matrices of the planes and
+ * the objects or the filtering of the face vertices. {@link #parallelFor} splits the range of
+ * items into batches, the workers and the calling thread take the batches, and the call
+ * returns when all of them are done, so the results can be used right after it like the ones
+ * of the serial loop. A range smaller than two batches runs serially on the calling thread.
+ * The jobs are objects created once by the displays, and nothing is allocated per call.
+ * The calls are run one at a time; a call made by a job, on a worker or on the calling thread,
+ * runs serially.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class JobSystem {
+    private static final String TAG = JobSystem.class.getSimpleName();
+
+    // The GL thread takes a batch too, and the other cores are left to the camera and the
+    // render logic threads.
+    private static final int MAX_DEFAULT_WORKERS = 3;
+
+    // Batches per thread, so that a thread that is preempted does not delay the whole range.
+    private static final int BATCHES_PER_THREAD = 2;
+
+    private static JobSystem sShared;
+
+    private final Thread[] mWorkers;
+
+    private final Object mSubmitLock = new Object();
+
+    private final Object mLock = new Object();
+
+    // Set on the threads that are running a batch of this pool, the workers included.
+    private final ThreadLocal<boolean[]> mIsInJob = new ThreadLocal<boolean[]>() {
+        @Override
+        protected boolean[] initialValue() {
+            return new boolean[1];
+        }
+    };
+
+    private RangeJob mJob;
+
+    private int mGeneration = 0;
+
+    private int mCount;
+
+    private int mBatchSize;
+
+    private int mBatchCount;
+
+    private int mNextBatch;
+
+    private int mPendingBatches;
+
+    private Throwable mFailure;
+
+    private boolean mIsShutdown = false;
+
+    /**
+     * Loop body over a range of items. The ranges of a call are disjoint, and are run
+     * concurrently, so a job must only write the data of its items.
+     */
+    public interface RangeJob {
+        /**
+         * Process the items of a range.
+         *
+         * @param start First item.
+         * @param end Item after the last one.
+         */
+        void run(int start, int end);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param workerCount Number of worker threads, 0 to run all the jobs on the calling thread.
+     */
+    public JobSystem(int workerCount) {
+        mWorkers = new Thread[Math.max(workerCount, 0)];
+        for (int i = 0; i < mWorkers.length; i++) {
+            mWorkers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runWorker();
+                }
+            }, TAG + "-" + i);
+            mWorkers[i].setDaemon(true);
+            mWorkers[i].start();
+        }
+    }
+
+    /**
+     * Get the pool shared by the displays.
+     *
+     * @return The pool, created on the first call with one worker per spare core.
+     */
+    public static synchronized JobSystem get() {
+        if (sShared == null) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            sShared = new JobSystem(Math.min(cores - 1, MAX_DEFAULT_WORKERS));
+        }
+        return sShared;
+    }
+
+    /**
+     * Replace the pool shared by the displays, such as to compare the worker counts. The
+     * previous pool is shut down. This method must not be called while a job is running.
+     *
+     * @param workerCount Number of worker threads of the new pool.
+     */
+    public static synchronized void setSharedWorkerCount(int workerCount) {
+        if (sShared != null) {
+            sShared.shutdown();
+        }
+        sShared = new JobSystem(workerCount);
+    }
+
+    /**
+     * Get the number of worker threads.
+     *
+     * @return Number of workers, the calling thread is not counted.
+     */
+    public int getWorkerCount() {
+        return mWorkers.length;
+    }
+
+    /**
+     * Run a job over the items from 0 to count, and wait for it to complete.
+     *
+     * @param count Number of items.
+     * @param minBatchSize Smallest number of items worth handing to another thread.
+     * @param job Loop body.
+     */
+    public void parallelFor(int count, int minBatchSize, RangeJob job) {
+        if (count <= 0) {
+            return;
+        }
+        int batchSize = Math.max(minBatchSize, 1);
+        boolean[] isInJob = mIsInJob.get();
+        if (mWorkers.length == 0 || count < batchSize * 2 || isInJob[0]) {
+            job.run(0, count);
+            return;
+        }
+        synchronized (mSubmitLock) {
+            int batchCount = Math.min(count / batchSize, (mWorkers.length + 1) * BATCHES_PER_THREAD);
+            int generation;
+            synchronized (mLock) {
+                mJob = job;
+                mCount = count;
+                mBatchSize = (count + batchCount - 1) / batchCount;
+                mBatchCount = (count + mBatchSize - 1) / mBatchSize;
+                mNextBatch = 0;
+                mPendingBatches = mBatchCount;
+                mFailure = null;
+                generation = ++mGeneration;
+                mLock.notifyAll();
+            }
+            isInJob[0] = true;
+            try {
+                runBatches(generation, job);
+            } finally {
+                isInJob[0] = false;
+            }
+            Throwable failure;
+            synchronized (mLock) {
+                boolean isInterrupted = false;
+                while (mPendingBatches > 0) {
+                    try {
+                        mLock.wait();
+                    } catch (InterruptedException e) {
+                        // The batches taken by the workers use the data of the caller.
+                        isInterrupted = true;
+                    }
+                }
+                if (isInterrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                mJob = null;
+                failure = mFailure;
+                mFailure = null;
+            }
+            rethrow(failure);
+        }
+    }
+
+    /**
+     * Stop the worker threads, the later calls run serially.
+     */
+    public void shutdown() {
+        synchronized (mLock) {
+            mIsShutdown = true;
+            mLock.notifyAll();
+        }
+    }
+
+    private void runWorker() {
+        mIsInJob.get()[0] = true;
+        int seenGeneration = 0;
+        while (true) {
+            RangeJob job;
+            int generation;
+            synchronized (mLock) {
+                while (!mIsShutdown && (mGeneration == seenGeneration || mJob == null)) {
+                    try {
+                        mLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (mIsShutdown) {
+                    return;
+                }
+                job = mJob;
+                generation = mGeneration;
+            }
+            seenGeneration = generation;
+            runBatches(generation, job);
+        }
+    }
+
+    private void runBatches(int generation, RangeJob job) {
+        while (true) {
+            int start;
+            int end;
+            synchronized (mLock) {
+                // A late worker must not take the batches of the next call.
+                if (generation != mGeneration || mNextBatch == mBatchCount) {
+                    return;
+                }
+                start = mNextBatch * mBatchSize;
+                end = Math.min(start + mBatchSize, mCount);
+                mNextBatch++;
+            }
+            Throwable failure = null;
+            try {
+                job.run(start, end);
+            } catch (Throwable t) {
+                failure = t;
+            }
+            synchronized (mLock) {
+                if (failure != null && mFailure == null) {
+                    mFailure = failure;
+                }
+                mPendingBatches--;
+                if (mPendingBatches == 0) {
+                    mLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private static void rethrow(Throwable failure) {
+        if (failure == null) {
+            return;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new ArDemoRuntimeException("Job failed", failure);
+    }
+}
@@ -50,6 +50,88 @@ public class MatrixUtil {
         vector[2] *= length;
     }
 
+    /**
+     * Convert a pose to a model matrix, like ARPose.toMatrix().
+     *
+     * @param pose Pose values (tx, ty, tz, qx, qy, qz, qw), the quaternion must be normalized.
+     * @param matrix Matrix(4 * 4) in column-major order.
+     */
+    public static void poseToMatrix(float[] pose, float[] matrix) {
+        float qx = pose[3];
+        float qy = pose[4];
+        float qz = pose[5];
+        float qw = pose[6];
+        matrix[0] = 1.0f - 2.0f * (qy * qy + qz * qz);
+        matrix[1] = 2.0f * (qx * qy + qw * qz);
+        matrix[2] = 2.0f * (qx * qz - qw * qy);
+        matrix[3] = 0.0f;
+        matrix[4] = 2.0f * (qx * qy - qw * qz);
+        matrix[5] = 1.0f - 2.0f * (qx * qx + qz * qz);
+        matrix[6] = 2.0f * (qy * qz + qw * qx);
+        matrix[7] = 0.0f;
+        matrix[8] = 2.0f * (qx * qz + qw * qy);
+        matrix[9] = 2.0f * (qy * qz - qw * qx);
+        matrix[10] = 1.0f - 2.0f * (qx * qx + qy * qy);
+        matrix[11] = 0.0f;
+        matrix[12] = pose[0];
+        matrix[13] = pose[1];
+        matrix[14] = pose[2];
+        matrix[15] = 1.0f;
+    }
+
+    /**
+     * Convert a rigid model matrix back to a pose, the reverse of {@link #poseToMatrix}.
+     *
+     * @param matrix Matrix(4 * 4) in column-major order, without scale.
+     * @param offset Offset of the matrix in the array.
+     * @param pose Pose values (tx, ty, tz, qx, qy, qz, qw), with a normalized quaternion.
+     */
+    public static void matrixToPose(float[] matrix, int offset, float[] pose) {
+        float m00 = matrix[offset];
+        float m11 = matrix[offset + 5];
+        float m22 = matrix[offset + 10];
+        float trace = m00 + m11 + m22;
+        float qx;
+        float qy;
+        float qz;
+        float qw;
+
+        // Start from the largest component, so that the division is by a number far from 0.
+        if (trace > 0.0f) {
+            float scale = (float) Math.sqrt(trace + 1.0f) * 2.0f;
+            qw = 0.25f * scale;
+            qx = (matrix[offset + 6] - matrix[offset + 9]) / scale;
+            qy = (matrix[offset + 8] - matrix[offset + 2]) / scale;
+            qz = (matrix[offset + 1] - matrix[offset + 4]) / scale;
+        } else if (m00 > m11 && m00 > m22) {
+            float scale = (float) Math.sqrt(1.0f + m00 - m11 - m22) * 2.0f;
+            qw = (matrix[offset + 6] - matrix[offset + 9]) / scale;
+            qx = 0.25f * scale;
+            qy = (matrix[offset + 4] + matrix[offset + 1]) / scale;
+            qz = (matrix[offset + 8] + matrix[offset + 2]) / scale;
+        } else if (m11 > m22) {
+            float scale = (float) Math.sqrt(1.0f + m11 - m00 - m22) * 2.0f;
+            qw = (matrix[offset + 8] - matrix[offset + 2]) / scale;
+            qx = (matrix[offset + 4] + matrix[offset + 1]) / scale;
+            qy = 0.25f * scale;
+            qz = (matrix[offset + 9] + matrix[offset + 6]) / scale;
+        } else {
+            float scale = (float) Math.sqrt(1.0f + m22 - m00 - m11) * 2.0f;
+            qw = (matrix[offset + 1] - matrix[offset + 4]) / scale;
+            qx = (matrix[offset + 8] + matrix[offset + 2]) / scale;
+            qy = (matrix[offset + 9] + matrix[offset + 6]) / scale;
+            qz = 0.25f * scale;
+        }
+        float length = (float) Math.sqrt(qx * qx + qy * qy + qz * qz + qw * qw);
+        pose[0] = matrix[offset + 12];
+        pose[1] = matrix[offset + 13];
+        pose[2] = matrix[offset + 14];
+        pose[3] = qx / length;
+        pose[4] = qy / length;
+        pose[5] = qz / length;
+        pose[6] = qw / length;
+    }
+
     /**
      * Provide unit matrix(4 * 4).
      *
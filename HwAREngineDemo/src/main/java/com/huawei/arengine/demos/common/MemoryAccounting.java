@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Registry of the memory held by the displays, in GL buffers, GL textures and direct byte
+ * buffers. Every allocation and resize reports its change in bytes, with the tag of the display
+ * class that owns it, and the registry keeps the current and the peak bytes of each category and
+ * of each display. A category or a display that goes over its budget logs a warning once, and
+ * again only after it went back under the budget, so that the initial sizes can be tuned and an
+ * unbounded growth is noticed. The GL sizes are reported by {@link GlResourceManager}, the direct
+ * buffers by {@link #allocateDirect} and {@link #freeDirect}. The methods can be called on any
+ * thread, they do not allocate once a display has reported once.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class MemoryAccounting {
+    private static final String TAG = MemoryAccounting.class.getSimpleName();
+
+    private static final int BYTES_PER_KILOBYTE = 1024;
+
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+    private static final int CATEGORY_COUNT = Category.values().length;
+
+    private static final long[] CURRENT = new long[CATEGORY_COUNT];
+
+    private static final long[] PEAK = new long[CATEGORY_COUNT];
+
+    private static final long[] BUDGETS = new long[CATEGORY_COUNT];
+
+    private static final boolean[] IS_OVER_BUDGET = new boolean[CATEGORY_COUNT];
+
+    private static final Map<String, Usage> USAGES = new HashMap<>();
+
+    static {
+        BUDGETS[Category.GPU_BUFFER.ordinal()] = 16 * BYTES_PER_MEGABYTE;
+        BUDGETS[Category.GPU_TEXTURE.ordinal()] = 64 * BYTES_PER_MEGABYTE;
+        BUDGETS[Category.DIRECT_BUFFER.ordinal()] = 16 * BYTES_PER_MEGABYTE;
+    }
+
+    /**
+     * Categories of the accounted memory.
+     */
+    public enum Category {
+        /**
+         * Storage of the GL vertex and index buffers.
+         */
+        GPU_BUFFER,
+
+        /**
+         * Storage of the GL textures, with their mipmaps, and of the renderbuffers.
+         */
+        GPU_TEXTURE,
+
+        /**
+         * Native memory of the direct byte buffers.
+         */
+        DIRECT_BUFFER
+    }
+
+    private MemoryAccounting() {
+    }
+
+    /**
+     * Report a change of the memory held by a display.
+     *
+     * @param category Category of the memory.
+     * @param owner Tag of the display class.
+     * @param deltaBytes Bytes allocated, or freed if negative.
+     */
+    public static synchronized void add(Category category, String owner, long deltaBytes) {
+        if (deltaBytes == 0) {
+            return;
+        }
+        int index = category.ordinal();
+        CURRENT[index] += deltaBytes;
+        PEAK[index] = Math.max(PEAK[index], CURRENT[index]);
+        IS_OVER_BUDGET[index] = checkBudget(category.name(), CURRENT[index], BUDGETS[index], IS_OVER_BUDGET[index]);
+
+        Usage usage = USAGES.get(owner);
+        if (usage == null) {
+            usage = new Usage();
+            USAGES.put(owner, usage);
+        }
+        usage.mCurrent[index] += deltaBytes;
+        usage.mPeak[index] = Math.max(usage.mPeak[index], usage.mCurrent[index]);
+        long total = usage.getTotal();
+        usage.mPeakTotal = Math.max(usage.mPeakTotal, total);
+        if (usage.mBudget > 0) {
+            usage.mIsOverBudget = checkBudget(owner, total, usage.mBudget, usage.mIsOverBudget);
+        }
+    }
+
+    private static boolean checkBudget(String name, long bytes, long budget, boolean wasOverBudget) {
+        boolean isOverBudget = bytes > budget;
+        if (isOverBudget && !wasOverBudget) {
+            Log.w(TAG, name + " is over its budget: " + bytes / BYTES_PER_KILOBYTE + " KB of "
+                + budget / BYTES_PER_KILOBYTE + " KB.");
+        }
+        return isOverBudget;
+    }
+
+    /**
+     * Allocate a direct byte buffer in the native order, and report it.
+     *
+     * @param owner Tag of the display class.
+     * @param bytes Capacity in bytes.
+     * @return The buffer.
+     */
+    public static ByteBuffer allocateDirect(String owner, int bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        add(Category.DIRECT_BUFFER, owner, bytes);
+        return buffer;
+    }
+
+    /**
+     * Report a direct buffer that is no longer referenced, such as the one replaced by a larger
+     * buffer. Its memory is returned when the buffer is collected.
+     *
+     * @param owner Tag of the display class.
+     * @param bytes Capacity in bytes.
+     */
+    public static void freeDirect(String owner, int bytes) {
+        add(Category.DIRECT_BUFFER, owner, -bytes);
+    }
+
+    /**
+     * Set the current bytes of a category and of its displays to 0, when all its memory was
+     * dropped at once. The peaks are kept.
+     *
+     * @param category Category of the memory.
+     */
+    public static synchronized void clear(Category category) {
+        int index = category.ordinal();
+        CURRENT[index] = 0;
+        IS_OVER_BUDGET[index] = false;
+        for (Usage usage : USAGES.values()) {
+            usage.mCurrent[index] = 0;
+            usage.mIsOverBudget = usage.mBudget > 0 && usage.getTotal() > usage.mBudget;
+        }
+    }
+
+    /**
+     * Set the budget of a category.
+     *
+     * @param category Category of the memory.
+     * @param bytes Budget in bytes.
+     */
+    public static synchronized void setBudget(Category category, long bytes) {
+        BUDGETS[category.ordinal()] = bytes;
+    }
+
+    /**
+     * Set the budget of a display, for all the categories together.
+     *
+     * @param owner Tag of the display class.
+     * @param bytes Budget in bytes, 0 for none.
+     */
+    public static synchronized void setOwnerBudget(String owner, long bytes) {
+        Usage usage = USAGES.get(owner);
+        if (usage == null) {
+            usage = new Usage();
+            USAGES.put(owner, usage);
+        }
+        usage.mBudget = bytes;
+    }
+
+    /**
+     * Get the bytes currently held in a category.
+     *
+     * @param category Category of the memory.
+     * @return Size in bytes.
+     */
+    public static synchronized long getCurrentBytes(Category category) {
+        return CURRENT[category.ordinal()];
+    }
+
+    /**
+     * Get the most bytes held at once in a category.
+     *
+     * @param category Category of the memory.
+     * @return Size in bytes.
+     */
+    public static synchronized long getPeakBytes(Category category) {
+        return PEAK[category.ordinal()];
+    }
+
+    /**
+     * Get the bytes currently held by a display in a category.
+     *
+     * @param category Category of the memory.
+     * @param owner Tag of the display class.
+     * @return Size in bytes.
+     */
+    public static synchronized long getCurrentBytes(Category category, String owner) {
+        Usage usage = USAGES.get(owner);
+        return usage == null ? 0 : usage.mCurrent[category.ordinal()];
+    }
+
+    /**
+     * Get the most bytes held at once by a display in a category.
+     *
+     * @param category Category of the memory.
+     * @param owner Tag of the display class.
+     * @return Size in bytes.
+     */
+    public static synchronized long getPeakBytes(Category category, String owner) {
+        Usage usage = USAGES.get(owner);
+        return usage == null ? 0 : usage.mPeak[category.ordinal()];
+    }
+
+    /**
+     * Log the current, peak and budget bytes of each category, then the current and peak
+     * bytes of each display.
+     */
+    public static synchronized void logReport() {
+        for (Category category : Category.values()) {
+            int index = category.ordinal();
+            Log.i(TAG, category + ": " + CURRENT[index] / BYTES_PER_KILOBYTE + " KB, peak "
+                + PEAK[index] / BYTES_PER_KILOBYTE + " KB, budget " + BUDGETS[index] / BYTES_PER_KILOBYTE + " KB");
+        }
+        for (Map.Entry<String, Usage> entry : new TreeMap<>(USAGES).entrySet()) {
+            Usage usage = entry.getValue();
+            StringBuilder builder = new StringBuilder(entry.getKey()).append(':');
+            for (Category category : Category.values()) {
+                int index = category.ordinal();
+                builder.append(' ').append(category).append(' ')
+                    .append(usage.mCurrent[index] / BYTES_PER_KILOBYTE).append(" KB (peak ")
+                    .append(usage.mPeak[index] / BYTES_PER_KILOBYTE).append(" KB)");
+            }
+            builder.append(", total peak ").append(usage.mPeakTotal / BYTES_PER_KILOBYTE).append(" KB");
+            Log.i(TAG, builder.toString());
+        }
+    }
+
+    /**
+     * Memory held by a display.
+     */
+    private static final class Usage {
+        private final long[] mCurrent = new long[CATEGORY_COUNT];
+
+        private final long[] mPeak = new long[CATEGORY_COUNT];
+
+        private long mPeakTotal = 0;
+
+        private long mBudget = 0;
+
+        private boolean mIsOverBudget = false;
+
+        long getTotal() {
+            long total = 0;
+            for (long bytes : mCurrent) {
+                total += bytes;
+            }
+            return total;
+        }
+    }
+}
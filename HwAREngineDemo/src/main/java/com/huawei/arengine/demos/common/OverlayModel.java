@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import java.util.ArrayList;
+
+/**
+ * Typed fields of the text overlay of a demo. The renderer adds the fields once, then sets
+ * their values in each frame, and the values are only formatted to text by
+ * {@link HudRenderer} when they changed, for the visible fields.
+ *
+ * @author HW
+ * @since 2020-04-27
+ */
+public class OverlayModel {
+    private static final int TYPE_FLOAT = 0;
+
+    private static final int TYPE_INT = 1;
+
+    private static final int TYPE_TEXT = 2;
+
+    private static final int TYPE_FLOAT_ARRAY = 3;
+
+    private static final int TYPE_INT_ARRAY = 4;
+
+    private static final int INITIAL_ARRAY_CAPACITY = 16;
+
+    private final ArrayList<Field> mFields = new ArrayList<>();
+
+    /**
+     * Constructor of an empty model.
+     */
+    public OverlayModel() {
+    }
+
+    /**
+     * Constructor of a model with the same fields as another one, and no value.
+     *
+     * @param layout Model whose fields are copied.
+     */
+    public OverlayModel(OverlayModel layout) {
+        for (int i = 0; i < layout.mFields.size(); i++) {
+            Field field = layout.mFields.get(i);
+            mFields.add(new Field(field.mType, field.mLabel, field.mDecimals, field.mIsShowingValues));
+        }
+    }
+
+    /**
+     * Add a float field, shown as the label followed by the value.
+     *
+     * @param label Label, such as "FPS=".
+     * @param decimals Number of decimals shown.
+     * @return Index of the field.
+     */
+    public int addFloat(String label, int decimals) {
+        return addField(TYPE_FLOAT, label, decimals, false);
+    }
+
+    /**
+     * Add an integer field, shown as the label followed by the value.
+     *
+     * @param label Label.
+     * @return Index of the field.
+     */
+    public int addInt(String label) {
+        return addField(TYPE_INT, label, 0, false);
+    }
+
+    /**
+     * Add a text field for constant values such as the names of enums.
+     *
+     * @param label Label.
+     * @return Index of the field.
+     */
+    public int addText(String label) {
+        return addField(TYPE_TEXT, label, 0, false);
+    }
+
+    /**
+     * Add a float array field, shown as its length and optionally one line per value.
+     *
+     * @param label Label.
+     * @param decimals Number of decimals shown.
+     * @param isShowingValues True to show the values, false to show the length only.
+     * @return Index of the field.
+     */
+    public int addFloatArray(String label, int decimals, boolean isShowingValues) {
+        return addField(TYPE_FLOAT_ARRAY, label, decimals, isShowingValues);
+    }
+
+    /**
+     * Add an integer array field, shown as its length and optionally one line per value.
+     *
+     * @param label Label.
+     * @param isShowingValues True to show the values, false to show the length only.
+     * @return Index of the field.
+     */
+    public int addIntArray(String label, boolean isShowingValues) {
+        return addField(TYPE_INT_ARRAY, label, 0, isShowingValues);
+    }
+
+    private int addField(int type, String label, int decimals, boolean isShowingValues) {
+        mFields.add(new Field(type, label, decimals, isShowingValues));
+        return mFields.size() - 1;
+    }
+
+    /**
+     * Set the value of a float field.
+     *
+     * @param field Index of the field.
+     * @param value Value.
+     */
+    public void setFloat(int field, float value) {
+        mFields.get(field).mFloatValue = value;
+    }
+
+    /**
+     * Set the value of an integer field.
+     *
+     * @param field Index of the field.
+     * @param value Value.
+     */
+    public void setInt(int field, long value) {
+        mFields.get(field).mIntValue = value;
+    }
+
+    /**
+     * Set the value of a text field.
+     *
+     * @param field Index of the field.
+     * @param value Value, it should be a constant so that no text is built per frame.
+     */
+    public void setText(int field, String value) {
+        mFields.get(field).mTextValue = value;
+    }
+
+    /**
+     * Copy the values of a float array field.
+     *
+     * @param field Index of the field.
+     * @param values Values.
+     */
+    public void setFloats(int field, PooledFloatArray values) {
+        setFloats(field, values.array(), values.size());
+    }
+
+    /**
+     * Copy the values of a float array field.
+     *
+     * @param field Index of the field.
+     * @param values Values.
+     * @param count Number of values.
+     */
+    public void setFloats(int field, float[] values, int count) {
+        PooledFloatArray target = mFields.get(field).mFloatValues;
+        target.ensureCapacity(count);
+        System.arraycopy(values, 0, target.array(), 0, count);
+        target.setSize(count);
+    }
+
+    /**
+     * Copy the values of an integer array field.
+     *
+     * @param field Index of the field.
+     * @param values Values.
+     */
+    public void setInts(int field, PooledIntArray values) {
+        PooledIntArray target = mFields.get(field).mIntValues;
+        target.ensureCapacity(values.size());
+        System.arraycopy(values.array(), 0, target.array(), 0, values.size());
+        target.setSize(values.size());
+    }
+
+    /**
+     * Show or hide a field, a hidden field is neither compared nor formatted.
+     *
+     * @param field Index of the field.
+     * @param isVisible True to show the field.
+     */
+    public void setVisible(int field, boolean isVisible) {
+        mFields.get(field).mIsVisible = isVisible;
+    }
+
+    /**
+     * Copy the values of another model with the same fields.
+     *
+     * @param source Model to copy.
+     * @return True if a value of a visible field or the visibility of a field changed.
+     */
+    boolean copyFrom(OverlayModel source) {
+        boolean isChanged = false;
+        for (int i = 0; i < mFields.size(); i++) {
+            isChanged |= mFields.get(i).copyFrom(source.mFields.get(i));
+        }
+        return isChanged;
+    }
+
+    /**
+     * Format the visible fields, one line each, and one line per value for the arrays showing them.
+     *
+     * @param formatter Formatter to append the text to.
+     */
+    void format(CharFormatter formatter) {
+        for (int i = 0; i < mFields.size(); i++) {
+            Field field = mFields.get(i);
+            if (field.mIsVisible) {
+                field.format(formatter);
+            }
+        }
+    }
+
+    /**
+     * Definition and value of a field.
+     */
+    private static final class Field {
+        private final int mType;
+
+        private final String mLabel;
+
+        private final int mDecimals;
+
+        private final boolean mIsShowingValues;
+
+        private final PooledFloatArray mFloatValues;
+
+        private final PooledIntArray mIntValues;
+
+        private boolean mIsVisible = true;
+
+        private float mFloatValue = 0.0f;
+
+        private long mIntValue = 0;
+
+        private String mTextValue = null;
+
+        Field(int type, String label, int decimals, boolean isShowingValues) {
+            mType = type;
+            mLabel = label;
+            mDecimals = decimals;
+            mIsShowingValues = isShowingValues;
+            mFloatValues = type == TYPE_FLOAT_ARRAY ? new PooledFloatArray(INITIAL_ARRAY_CAPACITY) : null;
+            mIntValues = type == TYPE_INT_ARRAY ? new PooledIntArray(INITIAL_ARRAY_CAPACITY) : null;
+        }
+
+        boolean copyFrom(Field source) {
+            boolean isChanged = mIsVisible != source.mIsVisible;
+            mIsVisible = source.mIsVisible;
+            if (!mIsVisible) {
+                return isChanged;
+            }
+            switch (mType) {
+                case TYPE_FLOAT:
+                    isChanged |= Float.compare(mFloatValue, source.mFloatValue) != 0;
+                    mFloatValue = source.mFloatValue;
+                    break;
+                case TYPE_INT:
+                    isChanged |= mIntValue != source.mIntValue;
+                    mIntValue = source.mIntValue;
+                    break;
+                case TYPE_TEXT:
+                    // The values are constants, the references are compared.
+                    isChanged |= mTextValue != source.mTextValue;
+                    mTextValue = source.mTextValue;
+                    break;
+                case TYPE_FLOAT_ARRAY:
+                    isChanged |= copyFloats(source.mFloatValues, mFloatValues);
+                    break;
+                case TYPE_INT_ARRAY:
+                    isChanged |= copyInts(source.mIntValues, mIntValues);
+                    break;
+                default:
+                    break;
+            }
+            return isChanged;
+        }
+
+        private static boolean copyFloats(PooledFloatArray source, PooledFloatArray target) {
+            int size = source.size();
+            boolean isChanged = size != target.size();
+            target.ensureCapacity(size);
+            float[] sourceValues = source.array();
+            float[] targetValues = target.array();
+            for (int i = 0; i < size; i++) {
+                if (Float.compare(sourceValues[i], targetValues[i]) != 0) {
+                    isChanged = true;
+                    targetValues[i] = sourceValues[i];
+                }
+            }
+            target.setSize(size);
+            return isChanged;
+        }
+
+        private static boolean copyInts(PooledIntArray source, PooledIntArray target) {
+            int size = source.size();
+            boolean isChanged = size != target.size();
+            target.ensureCapacity(size);
+            int[] sourceValues = source.array();
+            int[] targetValues = target.array();
+            for (int i = 0; i < size; i++) {
+                if (sourceValues[i] != targetValues[i]) {
+                    isChanged = true;
+                    targetValues[i] = sourceValues[i];
+                }
+            }
+            target.setSize(size);
+            return isChanged;
+        }
+
+        void format(CharFormatter formatter) {
+            switch (mType) {
+                case TYPE_FLOAT:
+                    formatter.append(mLabel).append(mFloatValue, mDecimals).newLine();
+                    break;
+                case TYPE_INT:
+                    formatter.append(mLabel).append(mIntValue).newLine();
+                    break;
+                case TYPE_TEXT:
+                    formatter.append(mLabel).append(mTextValue).newLine();
+                    break;
+                case TYPE_FLOAT_ARRAY:
+                    formatLength(formatter, mFloatValues.size());
+                    for (int i = 0; mIsShowingValues && i < mFloatValues.size(); i++) {
+                        formatIndex(formatter, i).append(mFloatValues.get(i), mDecimals).append(']').newLine();
+                    }
+                    break;
+                case TYPE_INT_ARRAY:
+                    formatLength(formatter, mIntValues.size());
+                    for (int i = 0; mIsShowingValues && i < mIntValues.size(); i++) {
+                        formatIndex(formatter, i).append(mIntValues.get(i)).append(']').newLine();
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void formatLength(CharFormatter formatter, int length) {
+            formatter.append(mLabel).append(" length:[").append(length).append(']').newLine();
+        }
+
+        private CharFormatter formatIndex(CharFormatter formatter, int index) {
+            return formatter.append(mLabel).append('[').append(index).append("]:[");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+/**
+ * A int array that is reused between frames. The backing array only grows, so copying the
+ * data returned by AREngine into it does not allocate once it has reached the size of the data.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public final class PooledIntArray {
+    private int[] mData;
+
+    private int mSize = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param initialCapacity Initial length of the backing array.
+     */
+    public PooledIntArray(int initialCapacity) {
+        mData = new int[initialCapacity];
+    }
+
+    /**
+     * Replace the content with a copy of the specified array.
+     *
+     * @param source Array to copy, null is regarded as an empty array.
+     */
+    public void set(int[] source) {
+        int length = (source == null) ? 0 : source.length;
+        ensureCapacity(length);
+        if (length > 0) {
+            System.arraycopy(source, 0, mData, 0, length);
+        }
+        mSize = length;
+    }
+
+    /**
+     * Make the backing array at least as long as the specified capacity, keeping the content.
+     *
+     * @param capacity Required length of the backing array.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= mData.length) {
+            return;
+        }
+        int[] data = new int[Math.max(capacity, mData.length * 2)];
+        System.arraycopy(mData, 0, data, 0, mSize);
+        mData = data;
+    }
+
+    /**
+     * Set the number of valid elements, the backing array must already be large enough.
+     *
+     * @param size Number of valid elements.
+     */
+    public void setSize(int size) {
+        mSize = size;
+    }
+
+    /**
+     * Get the number of valid elements.
+     *
+     * @return Number of valid elements.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Get the backing array, only the first {@link #size()} elements are valid.
+     *
+     * @return Backing array.
+     */
+    public int[] array() {
+        return mData;
+    }
+
+    /**
+     * Get the element at the specified index.
+     *
+     * @param index Index between 0 and {@link #size()}.
+     * @return Element value.
+     */
+    public int get(int index) {
+        return mData[index];
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+/**
+ * Filter and extrapolate the coordinates of a tracked object, such as the joints of a skeleton
+ * or the vertices of a face mesh, to hide the latency between the camera frame and the display.
+ * Each coordinate goes through a One Euro filter, which smooths slow motion strongly and fast
+ * motion lightly, and is then moved along its filtered velocity to the expected display time.
+ * All the coordinates are processed in one pass, and nothing is allocated while the number of
+ * coordinates does not grow. The coordinates are independent, so a large set such as a face mesh
+ * can be split across a {@link JobSystem}.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public class PosePredictor {
+    private static final float NS_PER_SECOND = 1.0e9f;
+
+    // Longer gaps between two frames mean that the tracking was lost, the filter restarts.
+    private static final float MAX_FRAME_INTERVAL = 0.5f;
+
+    private static final float MAX_PREDICTION_TIME = 0.1f;
+
+    private static final float DEFAULT_PREDICTION_TIME = 0.033f;
+
+    private static final float TWO_PI = (float) (2.0 * Math.PI);
+
+    private static final int MIN_COORDINATE_BATCH = 512;
+
+    private final float mMinCutoff;
+
+    private final float mBeta;
+
+    private final float mDerivativeCutoff;
+
+    private final JobSystem.RangeJob mFilterJob = new JobSystem.RangeJob() {
+        @Override
+        public void run(int start, int end) {
+            filter(mValues, start, end);
+        }
+    };
+
+    private float mPredictionTime = DEFAULT_PREDICTION_TIME;
+
+    private float[] mFiltered = new float[0];
+
+    private float[] mVelocity = new float[0];
+
+    private float[] mResult = new float[0];
+
+    private int mCount = 0;
+
+    private long mTimestampNs = 0;
+
+    private boolean mIsValid = false;
+
+    // Inputs of the filter for the frame being processed.
+    private float[] mValues;
+
+    private float mInterval;
+
+    private float mDerivativeAlpha;
+
+    /**
+     * Constructor.
+     *
+     * @param minCutoff Cutoff frequency in Hz when the coordinates do not move, lower is smoother.
+     * @param beta Increase of the cutoff frequency per unit of speed, higher lags less.
+     * @param derivativeCutoff Cutoff frequency in Hz of the velocity.
+     */
+    public PosePredictor(float minCutoff, float beta, float derivativeCutoff) {
+        mMinCutoff = minCutoff;
+        mBeta = beta;
+        mDerivativeCutoff = derivativeCutoff;
+    }
+
+    /**
+     * Set how far ahead of the frame timestamp the coordinates are extrapolated.
+     *
+     * @param seconds Time between the camera frame and its display, limited to 0.1 s.
+     */
+    public void setPredictionTime(float seconds) {
+        mPredictionTime = Math.max(0.0f, Math.min(seconds, MAX_PREDICTION_TIME));
+    }
+
+    /**
+     * Forget the previous coordinates, the next ones are returned as they are.
+     */
+    public void reset() {
+        mIsValid = false;
+    }
+
+    /**
+     * Get the timestamp of the last coordinates.
+     *
+     * @return Timestamp in nanoseconds.
+     */
+    public long getTimestampNs() {
+        return mTimestampNs;
+    }
+
+    /**
+     * Filter the coordinates of a frame and extrapolate them to the display time. Calling it
+     * again with the same timestamp returns the same result without updating the filter.
+     *
+     * @param values Coordinates of the frame.
+     * @param count Number of valid coordinates.
+     * @param timestampNs Timestamp of the frame in nanoseconds.
+     * @return Predicted coordinates, the array is reused by the next call and may be longer than count.
+     */
+    public float[] predict(float[] values, int count, long timestampNs) {
+        return predict(values, count, timestampNs, null);
+    }
+
+    /**
+     * Filter the coordinates of a frame and extrapolate them to the display time, on the
+     * calling thread and the workers of a job system.
+     *
+     * @param values Coordinates of the frame.
+     * @param count Number of valid coordinates.
+     * @param timestampNs Timestamp of the frame in nanoseconds.
+     * @param jobs Job system, null to process the coordinates on the calling thread.
+     * @return Predicted coordinates, the array is reused by the next call and may be longer than count.
+     */
+    public float[] predict(float[] values, int count, long timestampNs, JobSystem jobs) {
+        if (count != mCount) {
+            ensureCapacity(count);
+            mCount = count;
+            mIsValid = false;
+        }
+        float interval = (timestampNs - mTimestampNs) / NS_PER_SECOND;
+        if (!mIsValid || interval > MAX_FRAME_INTERVAL || interval < 0.0f) {
+            restart(values, timestampNs);
+            return mResult;
+        }
+        if (interval == 0.0f) {
+            return mResult;
+        }
+        mTimestampNs = timestampNs;
+        mInterval = interval;
+        mDerivativeAlpha = alpha(interval, mDerivativeCutoff);
+        if (jobs == null) {
+            filter(values, 0, count);
+        } else {
+            mValues = values;
+            jobs.parallelFor(count, MIN_COORDINATE_BATCH, mFilterJob);
+            mValues = null;
+        }
+        return mResult;
+    }
+
+    private void filter(float[] values, int start, int end) {
+        float interval = mInterval;
+        float derivativeAlpha = mDerivativeAlpha;
+        float[] filtered = mFiltered;
+        float[] velocity = mVelocity;
+        float[] result = mResult;
+        for (int i = start; i < end; i++) {
+            float previous = filtered[i];
+            float speed = velocity[i] + derivativeAlpha * ((values[i] - previous) / interval - velocity[i]);
+            float cutoff = mMinCutoff + mBeta * Math.abs(speed);
+            float value = previous + alpha(interval, cutoff) * (values[i] - previous);
+            filtered[i] = value;
+            velocity[i] = speed;
+            result[i] = value + speed * mPredictionTime;
+        }
+    }
+
+    private void restart(float[] values, long timestampNs) {
+        System.arraycopy(values, 0, mFiltered, 0, mCount);
+        System.arraycopy(values, 0, mResult, 0, mCount);
+        for (int i = 0; i < mCount; i++) {
+            mVelocity[i] = 0.0f;
+        }
+        mTimestampNs = timestampNs;
+        mIsValid = true;
+    }
+
+    private void ensureCapacity(int count) {
+        if (mFiltered.length >= count) {
+            return;
+        }
+        mFiltered = new float[count];
+        mVelocity = new float[count];
+        mResult = new float[count];
+    }
+
+    // Smoothing factor of an exponential filter with the cutoff frequency for the sampling interval.
+    private static float alpha(float interval, float cutoff) {
+        float tau = 1.0f / (TWO_PI * cutoff);
+        return 1.0f / (1.0f + tau / interval);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.util.SparseArray;
+
+/**
+ * One {@link PosePredictor} per tracked object, such as a hand or a body, found by the id of
+ * the object. The predictors of the objects that are no longer tracked are removed.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public class PosePredictorPool {
+    private final SparseArray<PosePredictor> mPredictors = new SparseArray<>();
+
+    private final float mMinCutoff;
+
+    private final float mBeta;
+
+    private final float mDerivativeCutoff;
+
+    private float mPredictionTime = -1.0f;
+
+    /**
+     * Constructor, the parameters are used for all the predictors.
+     *
+     * @param minCutoff Cutoff frequency in Hz when the coordinates do not move.
+     * @param beta Increase of the cutoff frequency per unit of speed.
+     * @param derivativeCutoff Cutoff frequency in Hz of the velocity.
+     */
+    public PosePredictorPool(float minCutoff, float beta, float derivativeCutoff) {
+        mMinCutoff = minCutoff;
+        mBeta = beta;
+        mDerivativeCutoff = derivativeCutoff;
+    }
+
+    /**
+     * Get the predictor of an object, it is created the first time the object is seen.
+     *
+     * @param id Id of the object.
+     * @return Predictor of the object.
+     */
+    public PosePredictor get(int id) {
+        PosePredictor predictor = mPredictors.get(id);
+        if (predictor == null) {
+            predictor = new PosePredictor(mMinCutoff, mBeta, mDerivativeCutoff);
+            if (mPredictionTime >= 0.0f) {
+                predictor.setPredictionTime(mPredictionTime);
+            }
+            mPredictors.put(id, predictor);
+        }
+        return predictor;
+    }
+
+    /**
+     * Set the prediction time of all the predictors, see {@link PosePredictor#setPredictionTime(float)}.
+     *
+     * @param seconds Time between the camera frame and its display.
+     */
+    public void setPredictionTime(float seconds) {
+        mPredictionTime = seconds;
+        for (int i = 0; i < mPredictors.size(); i++) {
+            mPredictors.valueAt(i).setPredictionTime(seconds);
+        }
+    }
+
+    /**
+     * Remove the predictors that were not used for the frame.
+     *
+     * @param timestampNs Timestamp of the frame in nanoseconds.
+     */
+    public void removeStale(long timestampNs) {
+        for (int i = mPredictors.size() - 1; i >= 0; i--) {
+            if (mPredictors.valueAt(i).getTimestampNs() != timestampNs) {
+                mPredictors.removeAt(i);
+            }
+        }
+    }
+}
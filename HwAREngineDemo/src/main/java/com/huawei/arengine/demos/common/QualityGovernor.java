@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Step the rendering quality down when the frames take longer than a target time, and back up
+ * when there is room again. The time of each frame is collected into windows of
+ * {@link #WINDOW_FRAMES} frames, and the 90th percentile of a window is compared with the target,
+ * so that a single slow frame, such as a plane update or a garbage collection, does not change
+ * the quality. The quality goes one {@link Tier} down after {@link #DOWNGRADE_WINDOWS} windows over
+ * the target, and one tier up after a longer run of windows well under it. A tier that was raised
+ * and had to be lowered again soon after doubles the run needed for the next raise, so that the
+ * governor does not oscillate between two tiers on a device that is at the limit.
+ *
+ * <p>The governor is called on the OpenGL thread, the renderer applies the tier returned by
+ * {@link #getTier()} before it draws.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class QualityGovernor {
+    private static final String TAG = QualityGovernor.class.getSimpleName();
+
+    private static final int WINDOW_FRAMES = 30;
+
+    // Index of the 90th percentile in a sorted window.
+    private static final int PERCENTILE_INDEX = WINDOW_FRAMES * 9 / 10;
+
+    private static final int DOWNGRADE_WINDOWS = 2;
+
+    private static final int MIN_UPGRADE_WINDOWS = 4;
+
+    private static final int MAX_UPGRADE_WINDOWS = 64;
+
+    // Share of the target under which the frames must stay to raise the quality.
+    private static final float UPGRADE_RATIO = 0.7f;
+
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private static final Tier[] TIERS = {
+        new Tier("full", Integer.MAX_VALUE, 0.0f, 1.0f, 1, 0, 0.0f),
+        new Tier("high", 16, 0.5f, 0.85f, 8, 100, 0.02f),
+        new Tier("medium", 8, 1.0f, 0.7f, 32, 250, 0.05f),
+        new Tier("low", 4, 2.0f, 0.5f, 128, 500, 0.1f),
+    };
+
+    private final long mTargetFrameNs;
+
+    private final long[] mWindow = new long[WINDOW_FRAMES];
+
+    private final long[] mSortedWindow = new long[WINDOW_FRAMES];
+
+    private int mWindowSize = 0;
+
+    private int mTierIndex = 0;
+
+    private int mOverWindows = 0;
+
+    private int mUnderWindows = 0;
+
+    private int mUpgradeWindows = MIN_UPGRADE_WINDOWS;
+
+    // Windows since the last raise of the quality, to detect a raise that did not hold.
+    private int mWindowsSinceUpgrade = Integer.MAX_VALUE;
+
+    private long mLastPercentileNs = 0;
+
+    private long mTierChangeCount = 0;
+
+    /**
+     * Quality settings of one step. The settings only reduce the cost of the frame, the tracking
+     * and the content of the scene are the same in every tier.
+     */
+    public static final class Tier {
+        private final String mName;
+
+        private final int mLabelBudget;
+
+        private final float mTextureLodBias;
+
+        private final float mRenderScale;
+
+        private final int mErrorCheckInterval;
+
+        private final long mOverlayIntervalMs;
+
+        private final float mPointVoxelSize;
+
+        private Tier(String name, int labelBudget, float textureLodBias, float renderScale, int errorCheckInterval,
+            long overlayIntervalMs, float pointVoxelSize) {
+            mName = name;
+            mLabelBudget = labelBudget;
+            mTextureLodBias = textureLodBias;
+            mRenderScale = renderScale;
+            mErrorCheckInterval = errorCheckInterval;
+            mOverlayIntervalMs = overlayIntervalMs;
+            mPointVoxelSize = pointVoxelSize;
+        }
+
+        /**
+         * Get the name of the tier, for the logs.
+         *
+         * @return Name.
+         */
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * Get the number of plane labels drawn, the closest ones first.
+         *
+         * @return Maximum number of labels.
+         */
+        public int getLabelBudget() {
+            return mLabelBudget;
+        }
+
+        /**
+         * Get the bias added to the mipmap level of the object textures.
+         *
+         * @return Bias in mipmap levels, 0 for the level chosen by the driver.
+         */
+        public float getTextureLodBias() {
+            return mTextureLodBias;
+        }
+
+        /**
+         * Get the scale of the resolution of the virtual content, relative to the surface.
+         *
+         * @return Scale in (0, 1].
+         */
+        public float getRenderScale() {
+            return mRenderScale;
+        }
+
+        /**
+         * Get the interval of the OpenGL error checks, see
+         * {@link ShaderUtil#setErrorCheckInterval(int)}.
+         *
+         * @return 1 to check at every call.
+         */
+        public int getErrorCheckInterval() {
+            return mErrorCheckInterval;
+        }
+
+        /**
+         * Get the minimum interval between two updates of the text overlay.
+         *
+         * @return Interval in milliseconds.
+         */
+        public long getOverlayIntervalMs() {
+            return mOverlayIntervalMs;
+        }
+
+        /**
+         * Get the edge length of the voxels the point cloud is downsampled to.
+         *
+         * @return Voxel size in meters, 0 to draw all the points.
+         */
+        public float getPointVoxelSize() {
+            return mPointVoxelSize;
+        }
+    }
+
+    /**
+     * Constructor, starting at the full quality.
+     *
+     * @param targetFrameNs Target time of a frame from its vsync to the end of its draw, without
+     *     the update of the session, in nanoseconds.
+     */
+    public QualityGovernor(long targetFrameNs) {
+        mTargetFrameNs = targetFrameNs;
+    }
+
+    /**
+     * Add the time of a drawn frame.
+     *
+     * @param frameTimeNs Time of the frame from its vsync to the end of its draw, without the
+     *     update of the session, in nanoseconds.
+     * @return True if the tier changed with this frame.
+     */
+    public boolean onFrame(long frameTimeNs) {
+        mWindow[mWindowSize++] = frameTimeNs;
+        if (mWindowSize < WINDOW_FRAMES) {
+            return false;
+        }
+        mWindowSize = 0;
+        System.arraycopy(mWindow, 0, mSortedWindow, 0, WINDOW_FRAMES);
+        Arrays.sort(mSortedWindow);
+        mLastPercentileNs = mSortedWindow[PERCENTILE_INDEX];
+        if (mWindowsSinceUpgrade < Integer.MAX_VALUE) {
+            mWindowsSinceUpgrade++;
+        }
+
+        if (mLastPercentileNs > mTargetFrameNs) {
+            mUnderWindows = 0;
+            mOverWindows++;
+            if (mOverWindows >= DOWNGRADE_WINDOWS && mTierIndex < TIERS.length - 1) {
+                // A raise that did not last a run of windows was too early, one that lasted
+                // longer was right and the load changed since.
+                if (mWindowsSinceUpgrade <= mUpgradeWindows) {
+                    mUpgradeWindows = Math.min(mUpgradeWindows * 2, MAX_UPGRADE_WINDOWS);
+                } else if (mWindowsSinceUpgrade != Integer.MAX_VALUE) {
+                    mUpgradeWindows = MIN_UPGRADE_WINDOWS;
+                }
+                setTier(mTierIndex + 1);
+                mWindowsSinceUpgrade = Integer.MAX_VALUE;
+                return true;
+            }
+            return false;
+        }
+        mOverWindows = 0;
+        if (mLastPercentileNs < mTargetFrameNs * UPGRADE_RATIO) {
+            mUnderWindows++;
+            if (mUnderWindows >= mUpgradeWindows && mTierIndex > 0) {
+                setTier(mTierIndex - 1);
+                mWindowsSinceUpgrade = 0;
+                return true;
+            }
+        } else {
+            mUnderWindows = 0;
+        }
+        return false;
+    }
+
+    /**
+     * Go back to the full quality and forget the collected frames, such as when the view was
+     * paused.
+     */
+    public void reset() {
+        mWindowSize = 0;
+        mOverWindows = 0;
+        mUnderWindows = 0;
+        mUpgradeWindows = MIN_UPGRADE_WINDOWS;
+        mWindowsSinceUpgrade = Integer.MAX_VALUE;
+        mTierIndex = 0;
+    }
+
+    /**
+     * Get the settings of the current tier.
+     *
+     * @return Current tier.
+     */
+    public Tier getTier() {
+        return TIERS[mTierIndex];
+    }
+
+    /**
+     * Get the index of the current tier.
+     *
+     * @return 0 for the full quality, up to {@link #getTierCount()} - 1.
+     */
+    public int getTierIndex() {
+        return mTierIndex;
+    }
+
+    /**
+     * Get the number of tiers.
+     *
+     * @return Number of tiers.
+     */
+    public int getTierCount() {
+        return TIERS.length;
+    }
+
+    /**
+     * Get the number of changes of the tier since the governor was created.
+     *
+     * @return Number of changes.
+     */
+    public long getTierChangeCount() {
+        return mTierChangeCount;
+    }
+
+    /**
+     * Get the 90th percentile of the frame time of the last complete window.
+     *
+     * @return Time in nanoseconds, 0 before the first window.
+     */
+    public long getLastPercentileNs() {
+        return mLastPercentileNs;
+    }
+
+    private void setTier(int tierIndex) {
+        Log.i(TAG, String.format(Locale.ROOT, "Quality %s -> %s, p90 frame %.2f ms, target %.2f ms",
+            TIERS[mTierIndex].getName(), TIERS[tierIndex].getName(), mLastPercentileNs / NANOS_PER_MILLI,
+            mTargetFrameNs / NANOS_PER_MILLI));
+        mTierIndex = tierIndex;
+        mTierChangeCount++;
+        mOverWindows = 0;
+        mUnderWindows = 0;
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.opengl.GLES20;
+
+import java.nio.FloatBuffer;
+
+/**
+ * The GL calls of a frame, recorded on any thread and executed later on the OpenGL thread.
+ * A command is an opcode followed by its integer arguments in one int array, and the uniform
+ * values and the vertex data it uploads are copied into one float array, so recording a frame
+ * does not allocate once the arrays have grown to the size of a frame, and the recorded values
+ * do not depend on the arrays of the caller. The buffer is reused from frame to frame by
+ * {@link #reset()}. The handles and the uniform locations must belong to the context the buffer
+ * is executed in.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class RenderCommandBuffer {
+    private static final int OP_USE_PROGRAM = 1;
+
+    private static final int OP_BIND_BUFFER = 2;
+
+    private static final int OP_BUFFER_SUB_DATA = 3;
+
+    private static final int OP_ENABLE_ATTRIB = 4;
+
+    private static final int OP_DISABLE_ATTRIB = 5;
+
+    private static final int OP_ATTRIB_POINTER = 6;
+
+    private static final int OP_UNIFORM_1F = 7;
+
+    private static final int OP_UNIFORM_2FV = 8;
+
+    private static final int OP_UNIFORM_4FV = 9;
+
+    private static final int OP_UNIFORM_MATRIX_4FV = 10;
+
+    private static final int OP_DRAW_ARRAYS = 11;
+
+    private static final int OP_DRAW_ELEMENTS = 12;
+
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private static final int MATRIX_SIZE = 16;
+
+    private static final int INITIAL_INTS = 256;
+
+    private static final int INITIAL_FLOATS = 1024;
+
+    private int[] mInts = new int[INITIAL_INTS];
+
+    private float[] mFloats = new float[INITIAL_FLOATS];
+
+    private int mIntCount = 0;
+
+    private int mFloatCount = 0;
+
+    private int mDrawCount = 0;
+
+    /**
+     * Remove the recorded commands, keeping the arrays.
+     */
+    public void reset() {
+        mIntCount = 0;
+        mFloatCount = 0;
+        mDrawCount = 0;
+    }
+
+    /**
+     * Check whether nothing is recorded.
+     *
+     * @return True if no command was recorded since the last reset.
+     */
+    public boolean isEmpty() {
+        return mIntCount == 0;
+    }
+
+    /**
+     * Get the number of draw calls recorded.
+     *
+     * @return Number of glDrawArrays and glDrawElements commands.
+     */
+    public int getDrawCount() {
+        return mDrawCount;
+    }
+
+    /**
+     * Record glUseProgram.
+     *
+     * @param program Program.
+     */
+    public void useProgram(int program) {
+        addInts(OP_USE_PROGRAM, program);
+    }
+
+    /**
+     * Record glBindBuffer.
+     *
+     * @param target GL_ARRAY_BUFFER or GL_ELEMENT_ARRAY_BUFFER.
+     * @param buffer Buffer, 0 to unbind.
+     */
+    public void bindBuffer(int target, int buffer) {
+        addInts(OP_BIND_BUFFER, target, buffer);
+    }
+
+    /**
+     * Record glBufferSubData of floats into the buffer bound to the target. The floats are
+     * copied, and staged in a slab of {@link StagingBufferPool} when the command is executed.
+     *
+     * @param target Target the buffer is bound to.
+     * @param byteOffset Offset in the buffer, in bytes.
+     * @param data Floats to upload.
+     * @param count Number of floats, from the start of the array.
+     */
+    public void bufferSubData(int target, int byteOffset, float[] data, int count) {
+        int offset = addFloats(data, 0, count);
+        addInts(OP_BUFFER_SUB_DATA, target, byteOffset, offset, count);
+    }
+
+    /**
+     * Record glEnableVertexAttribArray.
+     *
+     * @param index Attribute location.
+     */
+    public void enableVertexAttribArray(int index) {
+        addInts(OP_ENABLE_ATTRIB, index);
+    }
+
+    /**
+     * Record glDisableVertexAttribArray.
+     *
+     * @param index Attribute location.
+     */
+    public void disableVertexAttribArray(int index) {
+        addInts(OP_DISABLE_ATTRIB, index);
+    }
+
+    /**
+     * Record glVertexAttribPointer of non-normalized floats in the bound array buffer.
+     *
+     * @param index Attribute location.
+     * @param size Number of floats per vertex.
+     * @param stride Stride in bytes.
+     * @param byteOffset Offset of the first vertex in the buffer, in bytes.
+     */
+    public void vertexAttribPointer(int index, int size, int stride, int byteOffset) {
+        addInts(OP_ATTRIB_POINTER, index, size, stride, byteOffset);
+    }
+
+    /**
+     * Record glUniform1f.
+     *
+     * @param location Uniform location.
+     * @param value Value.
+     */
+    public void uniform1f(int location, float value) {
+        int offset = reserveFloats(1);
+        mFloats[offset] = value;
+        addInts(OP_UNIFORM_1F, location, offset);
+    }
+
+    /**
+     * Record glUniform2fv.
+     *
+     * @param location Uniform location.
+     * @param count Number of vectors.
+     * @param values Values, copied.
+     */
+    public void uniform2fv(int location, int count, float[] values) {
+        int offset = addFloats(values, 0, count * 2);
+        addInts(OP_UNIFORM_2FV, location, count, offset);
+    }
+
+    /**
+     * Record glUniform4fv.
+     *
+     * @param location Uniform location.
+     * @param count Number of vectors.
+     * @param values Values, copied.
+     */
+    public void uniform4fv(int location, int count, float[] values) {
+        int offset = addFloats(values, 0, count * 4);
+        addInts(OP_UNIFORM_4FV, location, count, offset);
+    }
+
+    /**
+     * Record glUniformMatrix4fv of one matrix, not transposed.
+     *
+     * @param location Uniform location.
+     * @param matrix Matrix (4 * 4), copied.
+     */
+    public void uniformMatrix4fv(int location, float[] matrix) {
+        int offset = addFloats(matrix, 0, MATRIX_SIZE);
+        addInts(OP_UNIFORM_MATRIX_4FV, location, offset);
+    }
+
+    /**
+     * Record glDrawArrays.
+     *
+     * @param mode Primitive type.
+     * @param first First vertex.
+     * @param count Number of vertices.
+     */
+    public void drawArrays(int mode, int first, int count) {
+        addInts(OP_DRAW_ARRAYS, mode, first, count);
+        mDrawCount++;
+    }
+
+    /**
+     * Record glDrawElements of unsigned short indices in the bound element array buffer.
+     *
+     * @param mode Primitive type.
+     * @param count Number of indices.
+     * @param byteOffset Offset of the first index in the buffer, in bytes.
+     */
+    public void drawElements(int mode, int count, int byteOffset) {
+        addInts(OP_DRAW_ELEMENTS, mode, count, byteOffset);
+        mDrawCount++;
+    }
+
+    /**
+     * Execute the recorded commands. This method must be called on the OpenGL thread, it can
+     * be called again to draw the same frame.
+     */
+    public void execute() {
+        int[] ints = mInts;
+        float[] floats = mFloats;
+        int index = 0;
+        while (index < mIntCount) {
+            int op = ints[index];
+            switch (op) {
+                case OP_USE_PROGRAM:
+                    GLES20.glUseProgram(ints[index + 1]);
+                    index += 2;
+                    break;
+                case OP_BIND_BUFFER:
+                    GLES20.glBindBuffer(ints[index + 1], ints[index + 2]);
+                    index += 3;
+                    break;
+                case OP_BUFFER_SUB_DATA:
+                    executeBufferSubData(ints[index + 1], ints[index + 2], ints[index + 3], ints[index + 4]);
+                    index += 5;
+                    break;
+                case OP_ENABLE_ATTRIB:
+                    GLES20.glEnableVertexAttribArray(ints[index + 1]);
+                    index += 2;
+                    break;
+                case OP_DISABLE_ATTRIB:
+                    GLES20.glDisableVertexAttribArray(ints[index + 1]);
+                    index += 2;
+                    break;
+                case OP_ATTRIB_POINTER:
+                    GLES20.glVertexAttribPointer(ints[index + 1], ints[index + 2], GLES20.GL_FLOAT, false,
+                        ints[index + 3], ints[index + 4]);
+                    index += 5;
+                    break;
+                case OP_UNIFORM_1F:
+                    GLES20.glUniform1f(ints[index + 1], floats[ints[index + 2]]);
+                    index += 3;
+                    break;
+                case OP_UNIFORM_2FV:
+                    GLES20.glUniform2fv(ints[index + 1], ints[index + 2], floats, ints[index + 3]);
+                    index += 4;
+                    break;
+                case OP_UNIFORM_4FV:
+                    GLES20.glUniform4fv(ints[index + 1], ints[index + 2], floats, ints[index + 3]);
+                    index += 4;
+                    break;
+                case OP_UNIFORM_MATRIX_4FV:
+                    GLES20.glUniformMatrix4fv(ints[index + 1], 1, false, floats, ints[index + 2]);
+                    index += 3;
+                    break;
+                case OP_DRAW_ARRAYS:
+                    GLES20.glDrawArrays(ints[index + 1], ints[index + 2], ints[index + 3]);
+                    index += 4;
+                    break;
+                case OP_DRAW_ELEMENTS:
+                    GLES20.glDrawElements(ints[index + 1], ints[index + 2], GLES20.GL_UNSIGNED_SHORT, ints[index + 3]);
+                    index += 4;
+                    break;
+                default:
+                    throw new ArDemoRuntimeException("Unknown render command " + op);
+            }
+        }
+    }
+
+    private void executeBufferSubData(int target, int byteOffset, int floatOffset, int count) {
+        StagingBufferPool pool = StagingBufferPool.get();
+        StagingBufferPool.Slab slab = pool.acquire(count * BYTES_PER_FLOAT);
+        FloatBuffer data = slab.floats();
+        data.put(mFloats, floatOffset, count);
+        data.flip();
+        GLES20.glBufferSubData(target, byteOffset, count * BYTES_PER_FLOAT, data);
+        pool.release(slab);
+    }
+
+    private int addFloats(float[] values, int start, int count) {
+        int offset = reserveFloats(count);
+        System.arraycopy(values, start, mFloats, offset, count);
+        return offset;
+    }
+
+    private int reserveFloats(int count) {
+        if (mFloatCount + count > mFloats.length) {
+            float[] floats = new float[Math.max(mFloatCount + count, mFloats.length * 2)];
+            System.arraycopy(mFloats, 0, floats, 0, mFloatCount);
+            mFloats = floats;
+        }
+        int offset = mFloatCount;
+        mFloatCount += count;
+        return offset;
+    }
+
+    private void addInts(int op, int arg) {
+        int offset = reserveInts(2);
+        mInts[offset] = op;
+        mInts[offset + 1] = arg;
+    }
+
+    private void addInts(int op, int arg0, int arg1) {
+        int offset = reserveInts(3);
+        mInts[offset] = op;
+        mInts[offset + 1] = arg0;
+        mInts[offset + 2] = arg1;
+    }
+
+    private void addInts(int op, int arg0, int arg1, int arg2) {
+        int offset = reserveInts(4);
+        mInts[offset] = op;
+        mInts[offset + 1] = arg0;
+        mInts[offset + 2] = arg1;
+        mInts[offset + 3] = arg2;
+    }
+
+    private void addInts(int op, int arg0, int arg1, int arg2, int arg3) {
+        int offset = reserveInts(5);
+        mInts[offset] = op;
+        mInts[offset + 1] = arg0;
+        mInts[offset + 2] = arg1;
+        mInts[offset + 3] = arg2;
+        mInts[offset + 4] = arg3;
+    }
+
+    private int reserveInts(int count) {
+        if (mIntCount + count > mInts.length) {
+            int[] ints = new int[Math.max(mIntCount + count, mInts.length * 2)];
+            System.arraycopy(mInts, 0, ints, 0, mIntCount);
+            mInts = ints;
+        }
+        int offset = mIntCount;
+        mIntCount += count;
+        return offset;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+/**
+ * Exchange of {@link RenderCommandBuffer}s between the thread that records the frames and the
+ * OpenGL thread that executes them. There are three buffers: the one being recorded, the one
+ * submitted and not executed yet, and the one executed last, which the OpenGL thread executes
+ * again while no newer frame is submitted. A recorder that submits before the previous frame
+ * was taken waits for it, so every submitted frame is executed once, in order. A frame obtained
+ * before {@link #clear()} is dropped when it is submitted.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class RenderCommandQueue {
+    private static final int BUFFER_COUNT = 3;
+
+    private final RenderCommandBuffer[] mFreeBuffers = new RenderCommandBuffer[BUFFER_COUNT];
+
+    private int mFreeCount = 0;
+
+    private RenderCommandBuffer mPending;
+
+    private RenderCommandBuffer mCurrent;
+
+    // Incremented by clear(), the frames recorded before are stale.
+    private int mGeneration = 0;
+
+    private int mObtainedGeneration = 0;
+
+    /**
+     * Constructor.
+     */
+    public RenderCommandQueue() {
+        while (mFreeCount < BUFFER_COUNT) {
+            mFreeBuffers[mFreeCount++] = new RenderCommandBuffer();
+        }
+    }
+
+    /**
+     * Take an empty buffer to record a frame into. The recorder holds one buffer at a time, so
+     * one is always free.
+     *
+     * @return Empty buffer, to pass to {@link #submit(RenderCommandBuffer)}.
+     */
+    public synchronized RenderCommandBuffer obtain() {
+        RenderCommandBuffer buffer = mFreeBuffers[--mFreeCount];
+        mFreeBuffers[mFreeCount] = null;
+        buffer.reset();
+        mObtainedGeneration = mGeneration;
+        return buffer;
+    }
+
+    /**
+     * Submit a recorded frame, waiting until the previous one was taken by the OpenGL thread.
+     * The frame is dropped if the queue was cleared since it was obtained.
+     *
+     * @param buffer Buffer returned by {@link #obtain()}.
+     * @throws InterruptedException If the recorder was interrupted while waiting.
+     */
+    public synchronized void submit(RenderCommandBuffer buffer) throws InterruptedException {
+        while (mPending != null && mObtainedGeneration == mGeneration) {
+            wait();
+        }
+        if (mObtainedGeneration != mGeneration) {
+            recycle(buffer);
+            return;
+        }
+        mPending = buffer;
+    }
+
+    /**
+     * Take the latest submitted frame on the OpenGL thread.
+     *
+     * @return The frame submitted since the last call, else the frame returned last time, or
+     *     null if no frame was submitted.
+     */
+    public synchronized RenderCommandBuffer acquireLatest() {
+        if (mPending != null) {
+            recycle(mCurrent);
+            mCurrent = mPending;
+            mPending = null;
+            notifyAll();
+        }
+        return mCurrent;
+    }
+
+    /**
+     * Drop the submitted and the last executed frames, such as when their handles were deleted
+     * with the context.
+     */
+    public synchronized void clear() {
+        mGeneration++;
+        recycle(mPending);
+        recycle(mCurrent);
+        mPending = null;
+        mCurrent = null;
+        notifyAll();
+    }
+
+    private void recycle(RenderCommandBuffer buffer) {
+        if (buffer != null) {
+            mFreeBuffers[mFreeCount++] = buffer;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.util.Log;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logging for the render loops. A message is a constant format whose "{}" placeholders are
+ * replaced by integer or float arguments, so the caller neither builds a string nor boxes the
+ * arguments. The messages below {@link #MIN_COMPILED_LEVEL} are removed by the compiler, the
+ * ones below the runtime level cost one comparison, and the enabled ones are copied into a
+ * lock-free ring that a background thread formats and writes to logcat. When the ring is full
+ * the messages are dropped and counted, the render thread never waits for the writer.
+ *
+ * @author HW
+ * @since 2020-04-28
+ */
+public final class RenderLog {
+    /**
+     * Lowest level compiled into the application. The checks against this constant are folded
+     * by the compiler, raise it to remove the debug messages from a release build.
+     */
+    public static final int MIN_COMPILED_LEVEL = Log.DEBUG;
+
+    private static final String TAG = RenderLog.class.getSimpleName();
+
+    private static final boolean IS_DEBUG_COMPILED = Log.DEBUG >= MIN_COMPILED_LEVEL;
+
+    private static final boolean IS_INFO_COMPILED = Log.INFO >= MIN_COMPILED_LEVEL;
+
+    // Power of two, so that the slot of a sequence is a mask.
+    private static final int CAPACITY = 1024;
+
+    private static final int MASK = CAPACITY - 1;
+
+    private static final int KIND_NONE = 0;
+
+    private static final int KIND_LONG = 1;
+
+    private static final int KIND_FLOAT = 2;
+
+    private static final long IDLE_PARK_NS = 10000000L;
+
+    private static final String PLACEHOLDER = "{}";
+
+    // Slot i can be written for sequence s when it holds s, and read when it holds s + 1.
+    private static final AtomicLongArray SEQUENCES = new AtomicLongArray(CAPACITY);
+
+    private static final int[] LEVELS = new int[CAPACITY];
+
+    private static final String[] TAGS = new String[CAPACITY];
+
+    private static final String[] FORMATS = new String[CAPACITY];
+
+    private static final int[] KINDS = new int[CAPACITY * 2];
+
+    private static final long[] ARGS = new long[CAPACITY * 2];
+
+    private static final AtomicLong TAIL = new AtomicLong();
+
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    private static final AtomicBoolean IS_WRITER_STARTED = new AtomicBoolean(false);
+
+    private static volatile int sLevel = Log.INFO;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            SEQUENCES.set(i, i);
+        }
+    }
+
+    private RenderLog() {
+    }
+
+    /**
+     * Set the lowest level written at runtime.
+     *
+     * @param level Level of {@link Log}, such as {@link Log#DEBUG}.
+     */
+    public static void setLevel(int level) {
+        sLevel = level;
+    }
+
+    /**
+     * Check if the messages of a level are written, to skip computing their arguments.
+     *
+     * @param level Level of {@link Log}.
+     * @return True if the level is compiled and enabled at runtime.
+     */
+    public static boolean isEnabled(int level) {
+        return level >= MIN_COMPILED_LEVEL && level >= sLevel;
+    }
+
+    /**
+     * Log a debug message with an integer argument.
+     *
+     * @param tag Tag, a constant.
+     * @param format Message, a constant with one placeholder.
+     * @param arg Argument.
+     */
+    public static void d(String tag, String format, long arg) {
+        if (IS_DEBUG_COMPILED && Log.DEBUG >= sLevel) {
+            enqueue(Log.DEBUG, tag, format, KIND_LONG, arg, KIND_NONE, 0);
+        }
+    }
+
+    /**
+     * Log a debug message with two integer arguments.
+     *
+     * @param tag Tag, a constant.
+     * @param format Message, a constant with two placeholders.
+     * @param arg0 First argument.
+     * @param arg1 Second argument.
+     */
+    public static void d(String tag, String format, long arg0, long arg1) {
+        if (IS_DEBUG_COMPILED && Log.DEBUG >= sLevel) {
+            enqueue(Log.DEBUG, tag, format, KIND_LONG, arg0, KIND_LONG, arg1);
+        }
+    }
+
+    /**
+     * Log a debug message with a float argument.
+     *
+     * @param tag Tag, a constant.
+     * @param format Message, a constant with one placeholder.
+     * @param arg Argument.
+     */
+    public static void d(String tag, String format, float arg) {
+        if (IS_DEBUG_COMPILED && Log.DEBUG >= sLevel) {
+            enqueue(Log.DEBUG, tag, format, KIND_FLOAT, Float.floatToRawIntBits(arg), KIND_NONE, 0);
+        }
+    }
+
+    /**
+     * Log an info message with an integer argument.
+     *
+     * @param tag Tag, a constant.
+     * @param format Message, a constant with one placeholder.
+     * @param arg Argument.
+     */
+    public static void i(String tag, String format, long arg) {
+        if (IS_INFO_COMPILED && Log.INFO >= sLevel) {
+            enqueue(Log.INFO, tag, format, KIND_LONG, arg, KIND_NONE, 0);
+        }
+    }
+
+    /**
+     * Log an info message with a float argument.
+     *
+     * @param tag Tag, a constant.
+     * @param format Message, a constant with one placeholder.
+     * @param arg Argument.
+     */
+    public static void i(String tag, String format, float arg) {
+        if (IS_INFO_COMPILED && Log.INFO >= sLevel) {
+            enqueue(Log.INFO, tag, format, KIND_FLOAT, Float.floatToRawIntBits(arg), KIND_NONE, 0);
+        }
+    }
+
+    private static void enqueue(int level, String tag, String format, int kind0, long arg0, int kind1, long arg1) {
+        startWriter();
+        long sequence;
+        int slot;
+        while (true) {
+            sequence = TAIL.get();
+            slot = (int) (sequence & MASK);
+            long difference = SEQUENCES.get(slot) - sequence;
+            if (difference == 0 && TAIL.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+            if (difference < 0) {
+                // The writer did not read the slot of the previous lap yet.
+                DROPPED.incrementAndGet();
+                return;
+            }
+
+            // Another thread claimed the sequence, read the tail again.
+        }
+        LEVELS[slot] = level;
+        TAGS[slot] = tag;
+        FORMATS[slot] = format;
+        KINDS[slot * 2] = kind0;
+        ARGS[slot * 2] = arg0;
+        KINDS[slot * 2 + 1] = kind1;
+        ARGS[slot * 2 + 1] = arg1;
+
+        // Publish the slot to the writer, after the fields above.
+        SEQUENCES.lazySet(slot, sequence + 1);
+    }
+
+    private static void startWriter() {
+        if (IS_WRITER_STARTED.get() || !IS_WRITER_STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        Thread writer = new Thread(new Writer(), TAG);
+        writer.setDaemon(true);
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.start();
+    }
+
+    /**
+     * Format and write the messages of the ring, in the order they were claimed.
+     */
+    private static final class Writer implements Runnable {
+        private final StringBuilder mBuilder = new StringBuilder();
+
+        private long mHead = 0;
+
+        @Override
+        public void run() {
+            while (true) {
+                if (!writeNext()) {
+                    reportDropped();
+                    LockSupport.parkNanos(IDLE_PARK_NS);
+                }
+            }
+        }
+
+        private boolean writeNext() {
+            int slot = (int) (mHead & MASK);
+            if (SEQUENCES.get(slot) != mHead + 1) {
+                return false;
+            }
+            int level = LEVELS[slot];
+            String tag = TAGS[slot];
+            String format = FORMATS[slot];
+            int kind0 = KINDS[slot * 2];
+            long arg0 = ARGS[slot * 2];
+            int kind1 = KINDS[slot * 2 + 1];
+            long arg1 = ARGS[slot * 2 + 1];
+            TAGS[slot] = null;
+            FORMATS[slot] = null;
+
+            // Give the slot back to the producers for the next lap.
+            SEQUENCES.lazySet(slot, mHead + CAPACITY);
+            mHead++;
+
+            mBuilder.setLength(0);
+            int start = appendUntilPlaceholder(format, 0);
+            start = appendArg(format, start, kind0, arg0);
+            start = appendArg(format, start, kind1, arg1);
+            mBuilder.append(format, start, format.length());
+            Log.println(level, tag, mBuilder.toString());
+            return true;
+        }
+
+        private int appendUntilPlaceholder(String format, int start) {
+            int end = format.indexOf(PLACEHOLDER, start);
+            if (end < 0) {
+                mBuilder.append(format, start, format.length());
+                return format.length();
+            }
+            mBuilder.append(format, start, end);
+            return end;
+        }
+
+        private int appendArg(String format, int start, int kind, long arg) {
+            if (kind == KIND_NONE || start >= format.length()) {
+                return start;
+            }
+            if (kind == KIND_FLOAT) {
+                mBuilder.append(Float.intBitsToFloat((int) arg));
+            } else {
+                mBuilder.append(arg);
+            }
+            return appendUntilPlaceholder(format, start + PLACEHOLDER.length());
+        }
+
+        private void reportDropped() {
+            long dropped = DROPPED.getAndSet(0);
+            if (dropped > 0) {
+                Log.w(TAG, "Dropped " + dropped + " messages, the ring was full.");
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.util.Log;
+
+/**
+ * Thread that builds the draws of a frame while the OpenGL thread executes the previous one.
+ * The OpenGL thread updates the session, fills a {@link FrameSnapshot} taken from
+ * {@link #acquireSnapshot()} and posts it, then executes the commands returned by
+ * {@link #acquireCommands()}. This thread runs the {@link Logic} of the demo on the posted
+ * snapshot, such as the prediction and the skeleton building, and records its GL calls into a
+ * {@link RenderCommandQueue}. The snapshots are exchanged through a
+ * {@link FrameSnapshotTripleBuffer}, so the capture never waits for the logic thread, and the
+ * logic thread always builds the newest complete snapshot; a snapshot that was posted but not
+ * built yet is replaced by the next one.
+ * The frames are shown one frame later than they are captured, so the logic receives the
+ * expected display time of its frame.
+ *
+ * <p>The session update and the capture stay on the OpenGL thread: the update writes the camera
+ * image into a texture of the OpenGL context, and the trackables are only valid until the next
+ * update. A slow update still delays the frame; this thread only takes the logic off the OpenGL
+ * thread, it does not decouple the tracking from the display.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class RenderLogicThread {
+    private static final String TAG = RenderLogicThread.class.getSimpleName();
+
+    // Longest frame interval added to the capture time, to bound the prediction after a pause.
+    private static final long MAX_FRAME_INTERVAL_NS = 50000000L;
+
+    private final Logic mLogic;
+
+    private final String mName;
+
+    private final FrameSnapshotTripleBuffer mSnapshots = new FrameSnapshotTripleBuffer();
+
+    private final RenderCommandQueue mQueue = new RenderCommandQueue();
+
+    private final Object mLock = new Object();
+
+    private Thread mThread;
+
+    private long mLastTimestampNs = 0;
+
+    /**
+     * Per-frame logic of a demo, run on the logic thread.
+     */
+    public interface Logic {
+        /**
+         * Record the draws of a frame.
+         *
+         * @param snapshot Data of the frame, valid during the call.
+         * @param displayTimeNs Expected display time of the frame, in the time base of the
+         *     snapshot, to predict the trackables to.
+         * @param commands Buffer to record into.
+         */
+        void buildFrame(FrameSnapshot snapshot, long displayTimeNs, RenderCommandBuffer commands);
+    }
+
+    /**
+     * Constructor, the thread starts with the first posted frame.
+     *
+     * @param name Name of the thread.
+     * @param logic Per-frame logic.
+     */
+    public RenderLogicThread(String name, Logic logic) {
+        mName = name;
+        mLogic = logic;
+    }
+
+    /**
+     * Get a snapshot to capture the frame into, on the OpenGL thread. It is not used by the
+     * logic thread until it is posted.
+     *
+     * @return Snapshot.
+     */
+    public FrameSnapshot acquireSnapshot() {
+        return mSnapshots.getWriteSlot();
+    }
+
+    /**
+     * Hand the captured snapshot to the logic thread. It must not be used by the caller
+     * afterwards.
+     *
+     * @param snapshot Snapshot returned by {@link #acquireSnapshot()}.
+     */
+    public void post(FrameSnapshot snapshot) {
+        mSnapshots.publish();
+        synchronized (mLock) {
+            if (mThread == null) {
+                mThread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        runLoop();
+                    }
+                }, mName);
+                mThread.setDaemon(true);
+                mThread.start();
+            }
+        }
+    }
+
+    /**
+     * Get the commands to execute on the OpenGL thread.
+     *
+     * @return The latest built frame, or null before the first one.
+     */
+    public RenderCommandBuffer acquireCommands() {
+        return mQueue.acquireLatest();
+    }
+
+    /**
+     * Drop the frames in flight and wait for the logic thread to be idle, so that the
+     * displays can be initialized again. This method will be called by
+     * {@link android.opengl.GLSurfaceView.Renderer#onSurfaceCreated}, the built frames use the
+     * handles of the previous context.
+     */
+    public void reset() {
+        // The frame being built is completed first, then the frames built so far are dropped.
+        mSnapshots.clear();
+        mQueue.clear();
+        synchronized (mLock) {
+            mLastTimestampNs = 0;
+        }
+    }
+
+    /**
+     * Stop the logic thread. This method will be called by {@link android.app.Activity#onDestroy}.
+     */
+    public void quit() {
+        synchronized (mLock) {
+            if (mThread != null) {
+                mThread.interrupt();
+                mThread = null;
+            }
+        }
+    }
+
+    /**
+     * Get the number of captured snapshots that were replaced before the logic thread built them.
+     *
+     * @return Number of skipped snapshots.
+     */
+    public long getSkippedSnapshotCount() {
+        return mSnapshots.getSkippedSnapshotCount();
+    }
+
+    private void runLoop() {
+        try {
+            while (true) {
+                FrameSnapshot snapshot = mSnapshots.take();
+                long displayTimeNs;
+                synchronized (mLock) {
+                    displayTimeNs = getDisplayTimeNs(snapshot.getTimestampNs());
+                }
+                RenderCommandBuffer commands = mQueue.obtain();
+                try {
+                    mLogic.buildFrame(snapshot, displayTimeNs, commands);
+                } finally {
+                    mSnapshots.release();
+                }
+
+                // A frame built before a reset is dropped by the queue.
+                mQueue.submit(commands);
+            }
+        } catch (InterruptedException e) {
+            Log.i(TAG, mName + " stopped.");
+        }
+    }
+
+    private long getDisplayTimeNs(long timestampNs) {
+        long intervalNs = mLastTimestampNs == 0 ? 0 : timestampNs - mLastTimestampNs;
+        mLastTimestampNs = timestampNs;
+        return timestampNs + Math.max(0, Math.min(intervalNs, MAX_FRAME_INTERVAL_NS));
+    }
+}
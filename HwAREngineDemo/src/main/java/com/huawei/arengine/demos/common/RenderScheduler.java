@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.opengl.GLSurfaceView;
+import android.os.Debug;
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.microedition.khronos.egl.EGLConfig;
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Render a {@link GLSurfaceView} on demand instead of continuously. The view is set to
+ * {@link GLSurfaceView#RENDERMODE_WHEN_DIRTY}, and on each vsync of the display a
+ * {@link FramePacer} decides whether a new camera frame or an input event is worth a frame.
+ * The renderer reports the timestamp of its camera frame with {@link #onCameraFrame(long)}
+ * after the session update, and the time of each frame is measured around the renderer.
+ * {@link #getFrameStartNs()} gives the vsync that requested the frame being drawn, so that a
+ * frame that waited for a buffer of the surface counts the wait.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class RenderScheduler {
+    private static final String TAG = RenderScheduler.class.getSimpleName();
+
+    private final GLSurfaceView mSurfaceView;
+
+    private final FramePacer mPacer = new FramePacer();
+
+    private final Choreographer.FrameCallback mVsyncCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!mIsRunning) {
+                return;
+            }
+            if (mPacer.onVsync(frameTimeNanos)) {
+                // The requests of a frame not drawn yet are merged, the first vsync is kept.
+                mRequestedVsyncNs.compareAndSet(0, frameTimeNanos);
+                mSurfaceView.requestRender();
+            }
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    };
+
+    // Vsync time of the frame requested and not drawn yet, 0 if there is none.
+    private final AtomicLong mRequestedVsyncNs = new AtomicLong(0);
+
+    private boolean mIsRunning = false;
+
+    // Start of the frame being drawn, only used on the OpenGL thread.
+    private long mFrameStartNs = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param surfaceView View to render.
+     */
+    public RenderScheduler(GLSurfaceView surfaceView) {
+        mSurfaceView = surfaceView;
+    }
+
+    /**
+     * Set the renderer of the view, and switch the view to the on-demand render mode. This
+     * method replaces {@link GLSurfaceView#setRenderer} and {@link GLSurfaceView#setRenderMode}.
+     *
+     * @param renderer Renderer of the demo.
+     */
+    public void setRenderer(final GLSurfaceView.Renderer renderer) {
+        mSurfaceView.setRenderer(new GLSurfaceView.Renderer() {
+            @Override
+            public void onSurfaceCreated(GL10 gl, EGLConfig config) {
+                renderer.onSurfaceCreated(gl, config);
+            }
+
+            @Override
+            public void onSurfaceChanged(GL10 gl, int width, int height) {
+                renderer.onSurfaceChanged(gl, width, height);
+            }
+
+            @Override
+            public void onDrawFrame(GL10 gl) {
+                long startCpuNs = Debug.threadCpuTimeNanos();
+                long startNs = System.nanoTime();
+                long vsyncNs = mRequestedVsyncNs.getAndSet(0);
+
+                // A frame drawn for the surface, not for a vsync, starts now.
+                mFrameStartNs = vsyncNs != 0 && vsyncNs < startNs ? vsyncNs : startNs;
+                try {
+                    renderer.onDrawFrame(gl);
+                } finally {
+                    mPacer.onFrameDrawn(Debug.threadCpuTimeNanos() - startCpuNs, System.nanoTime() - startNs);
+                }
+            }
+        });
+        mSurfaceView.setRenderMode(GLSurfaceView.RENDERMODE_WHEN_DIRTY);
+    }
+
+    /**
+     * Report the camera frame of the frame being drawn, on the OpenGL thread.
+     *
+     * @param timestampNs Timestamp of the frame returned by the session update.
+     */
+    public void onCameraFrame(long timestampNs) {
+        mPacer.onCameraFrame(timestampNs);
+    }
+
+    /**
+     * Get the start of the frame being drawn, on the OpenGL thread. It is the time of the vsync
+     * that requested the frame, in the time base of {@link System#nanoTime()}, so it includes the
+     * time the OpenGL thread waited for the previous swap and for a free buffer of the surface.
+     *
+     * @return Start of the frame in nanoseconds.
+     */
+    public long getFrameStartNs() {
+        return mFrameStartNs;
+    }
+
+    /**
+     * Ask for a frame on the next vsync, on the UI thread. The input events are delivered
+     * before the vsync callbacks of the same vsync, so the frame is not delayed.
+     */
+    public void onInputEvent() {
+        mPacer.onInputEvent();
+    }
+
+    /**
+     * Start to schedule the frames. This method will be called by
+     * {@link android.app.Activity#onResume}, before {@link GLSurfaceView#onResume}.
+     */
+    public void start() {
+        if (mIsRunning) {
+            return;
+        }
+        mIsRunning = true;
+        mPacer.reset();
+        Choreographer.getInstance().postFrameCallback(mVsyncCallback);
+    }
+
+    /**
+     * Stop to schedule the frames and log the counters. This method will be called by
+     * {@link android.app.Activity#onPause}.
+     */
+    public void stop() {
+        if (!mIsRunning) {
+            return;
+        }
+        mIsRunning = false;
+        Choreographer.getInstance().removeFrameCallback(mVsyncCallback);
+        Log.i(TAG, mPacer.formatReport());
+    }
+
+    /**
+     * Get the pacer, for its counters.
+     *
+     * @return Pacer of the view.
+     */
+    public FramePacer getPacer() {
+        return mPacer;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+/**
+ * Filter and extrapolate a pose made of a translation and a rotation quaternion with a
+ * {@link PosePredictor}. The sign of the quaternion is kept consistent from frame to frame,
+ * since q and -q are the same rotation, and the predicted quaternion is normalized again.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public class RigidPosePredictor {
+    private static final int POSE_SIZE = 7;
+
+    private static final int QUATERNION_OFFSET = 3;
+
+    private final PosePredictor mPredictor;
+
+    private final float[] mPose = new float[POSE_SIZE];
+
+    private final float[] mPredictedPose = new float[POSE_SIZE];
+
+    /**
+     * Constructor.
+     *
+     * @param minCutoff Cutoff frequency in Hz when the pose does not move.
+     * @param beta Increase of the cutoff frequency per unit of speed.
+     * @param derivativeCutoff Cutoff frequency in Hz of the velocity.
+     */
+    public RigidPosePredictor(float minCutoff, float beta, float derivativeCutoff) {
+        mPredictor = new PosePredictor(minCutoff, beta, derivativeCutoff);
+    }
+
+    /**
+     * Filter the pose of a frame and extrapolate it to the display time.
+     *
+     * @param pose Pose values (tx, ty, tz, qx, qy, qz, qw).
+     * @param timestampNs Timestamp of the frame in nanoseconds.
+     * @return Predicted pose with a normalized quaternion, the array is reused by the next call.
+     */
+    public float[] predict(float[] pose, long timestampNs) {
+        System.arraycopy(pose, 0, mPose, 0, POSE_SIZE);
+        float dot = 0.0f;
+        for (int i = QUATERNION_OFFSET; i < POSE_SIZE; i++) {
+            dot += mPose[i] * mPredictedPose[i];
+        }
+        if (dot < 0.0f) {
+            for (int i = QUATERNION_OFFSET; i < POSE_SIZE; i++) {
+                mPose[i] = -mPose[i];
+            }
+        }
+        float[] predicted = mPredictor.predict(mPose, POSE_SIZE, timestampNs);
+        float length = 0.0f;
+        for (int i = QUATERNION_OFFSET; i < POSE_SIZE; i++) {
+            length += predicted[i] * predicted[i];
+        }
+        float scale = length > 0.0f ? 1.0f / (float) Math.sqrt(length) : 0.0f;
+        System.arraycopy(predicted, 0, mPredictedPose, 0, QUATERNION_OFFSET);
+        for (int i = QUATERNION_OFFSET; i < POSE_SIZE; i++) {
+            mPredictedPose[i] = predicted[i] * scale;
+        }
+        return mPredictedPose;
+    }
+}
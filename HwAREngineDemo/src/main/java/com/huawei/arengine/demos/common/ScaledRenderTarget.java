@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.opengl.GLES20;
+import android.util.Log;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Offscreen target that renders the virtual content at a fraction of the surface resolution,
+ * then composites it over the camera background drawn in the default framebuffer. The content
+ * is drawn between {@link #begin()} and {@link #end()}, with the same matrices as on the
+ * surface; only the viewport is smaller, so the fill cost of the content drops with the square
+ * of the scale.
+ *
+ * <p>The color texture and the depth renderbuffer have the size of the surface, and are only
+ * allocated on the first frame drawn at a reduced scale after the surface size changed. A
+ * smaller scale draws into the bottom left part of them, so the scale can change in any frame
+ * without allocating. At the full scale, the target is bypassed and the content is drawn
+ * straight into the default framebuffer, as before.
+ *
+ * <p>The texture holds premultiplied colors, and its alpha is the share of the background
+ * that the content hides: the composite blends with (ONE, ONE_MINUS_SRC_ALPHA). The methods
+ * must be called on the OpenGL thread.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class ScaledRenderTarget {
+    private static final String TAG = ScaledRenderTarget.class.getSimpleName();
+
+    private static final String LS = System.lineSeparator();
+
+    private static final String COMPOSITE_VERTEX =
+        "attribute vec2 inPosition;" + LS
+        + "uniform vec2 inUvScale;" + LS
+        + "varying vec2 varTexCoord;" + LS
+        + "void main() {" + LS
+        + "    gl_Position = vec4(inPosition, 0.0, 1.0);" + LS
+        + "    varTexCoord = (inPosition * 0.5 + 0.5) * inUvScale;" + LS
+        + "}";
+
+    private static final String COMPOSITE_FRAGMENT =
+        "precision mediump float;" + LS
+        + "uniform sampler2D inTexture;" + LS
+        + "varying vec2 varTexCoord;" + LS
+        + "void main() {" + LS
+        + "    gl_FragColor = texture2D(inTexture, varTexCoord);" + LS
+        + "}";
+
+    // Full screen quad, as a triangle strip.
+    private static final float[] QUAD = {-1.0f, -1.0f, 1.0f, -1.0f, -1.0f, 1.0f, 1.0f, 1.0f};
+
+    private static final int COORDS_PER_VERTEX = 2;
+
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private static final int BYTES_PER_DEPTH_PIXEL = 2;
+
+    // Smallest scale, under it the upscaled content is too blurred to be useful.
+    private static final float MIN_SCALE = 0.25f;
+
+    private final FloatBuffer mQuadBuffer =
+        MemoryAccounting.allocateDirect(TAG, BYTES_PER_FLOAT * QUAD.length).asFloatBuffer();
+
+    private final int[] mNames = new int[1];
+
+    private int mFramebuffer;
+
+    private int mColorTexture;
+
+    private int mDepthRenderbuffer;
+
+    private int mProgram;
+
+    private int mPosition;
+
+    private int mUvScale;
+
+    private int mTextureUniform;
+
+    private int mWidth = 1;
+
+    private int mHeight = 1;
+
+    // Size of the allocated attachments, 0 before the first allocation of a context.
+    private int mStorageWidth = 0;
+
+    private int mStorageHeight = 0;
+
+    private boolean mIsComplete = false;
+
+    private float mScale = 1.0f;
+
+    private boolean mIsBound = false;
+
+    /**
+     * Create the framebuffer, its attachments and the composite program on the OpenGL thread.
+     * Their storage is allocated when the target is first used.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onSurfaceCreated}.
+     */
+    public void init() {
+        mQuadBuffer.clear();
+        mQuadBuffer.put(QUAD).flip();
+        GlResourceManager.genFramebuffers(TAG, 1, mNames, 0);
+        mFramebuffer = mNames[0];
+        GlResourceManager.genTextures(TAG, 1, mNames, 0);
+        mColorTexture = mNames[0];
+        GlResourceManager.genRenderbuffers(TAG, 1, mNames, 0);
+        mDepthRenderbuffer = mNames[0];
+
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mColorTexture);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
+        mStorageWidth = 0;
+        mStorageHeight = 0;
+        mIsComplete = false;
+        mIsBound = false;
+
+        mProgram = GlResourceManager.registerProgram(TAG,
+            ShaderUtil.createGlProgram(COMPOSITE_VERTEX, COMPOSITE_FRAGMENT));
+        mPosition = GLES20.glGetAttribLocation(mProgram, "inPosition");
+        mUvScale = GLES20.glGetUniformLocation(mProgram, "inUvScale");
+        mTextureUniform = GLES20.glGetUniformLocation(mProgram, "inTexture");
+        ShaderUtil.checkGlError(TAG, "init");
+    }
+
+    /**
+     * Set the size of the surface, the attachments are allocated again on their next use.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onSurfaceChanged}.
+     *
+     * @param width Width of the surface.
+     * @param height Height of the surface.
+     */
+    public void onSurfaceChanged(int width, int height) {
+        mWidth = Math.max(width, 1);
+        mHeight = Math.max(height, 1);
+    }
+
+    /**
+     * Set the scale of the resolution of the content, relative to the surface. It takes effect
+     * with the next {@link #begin()}.
+     *
+     * @param scale Scale, clamped to [0.25, 1]; 1 draws the content straight on the surface.
+     */
+    public void setScale(float scale) {
+        mScale = Math.max(MIN_SCALE, Math.min(scale, 1.0f));
+    }
+
+    /**
+     * Get the scale of the resolution of the content.
+     *
+     * @return Scale set by {@link #setScale(float)}.
+     */
+    public float getScale() {
+        return mScale;
+    }
+
+    /**
+     * Start to draw the content: bind and clear the target, with a viewport of the scaled size.
+     * At the full scale, or if the target could not be allocated, nothing is bound and the
+     * content is drawn on the surface.
+     *
+     * @return True if the content is drawn into the target.
+     */
+    public boolean begin() {
+        if (mScale >= 1.0f || mFramebuffer == 0 || !ensureStorage()) {
+            return false;
+        }
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, mFramebuffer);
+        GLES20.glViewport(0, 0, getScaledWidth(), getScaledHeight());
+
+        // The whole attachments are cleared, so that the driver does not load their previous
+        // content, and the texels next to the scaled area are transparent for the filtering.
+        GLES20.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
+        mIsBound = true;
+        return true;
+    }
+
+    /**
+     * Stop to draw the content, and composite it over the surface. Nothing is done if
+     * {@link #begin()} returned false.
+     */
+    public void end() {
+        if (!mIsBound) {
+            return;
+        }
+        mIsBound = false;
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, 0);
+        GLES20.glViewport(0, 0, mWidth, mHeight);
+
+        boolean isDepthTest = GLES20.glIsEnabled(GLES20.GL_DEPTH_TEST);
+        GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+        GLES20.glDepthMask(false);
+        GLES20.glEnable(GLES20.GL_BLEND);
+        GLES20.glBlendFunc(GLES20.GL_ONE, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+
+        GLES20.glUseProgram(mProgram);
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mColorTexture);
+        GLES20.glUniform1i(mTextureUniform, 0);
+        GLES20.glUniform2f(mUvScale, (float) getScaledWidth() / mStorageWidth,
+            (float) getScaledHeight() / mStorageHeight);
+        GLES20.glEnableVertexAttribArray(mPosition);
+        GLES20.glVertexAttribPointer(mPosition, COORDS_PER_VERTEX, GLES20.GL_FLOAT, false, 0, mQuadBuffer);
+        GLES20.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, QUAD.length / COORDS_PER_VERTEX);
+        GLES20.glDisableVertexAttribArray(mPosition);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
+
+        GLES20.glDisable(GLES20.GL_BLEND);
+        GLES20.glDepthMask(true);
+        if (isDepthTest) {
+            GLES20.glEnable(GLES20.GL_DEPTH_TEST);
+        }
+        ShaderUtil.checkGlError(TAG, "composite");
+    }
+
+    private int getScaledWidth() {
+        return Math.max(1, Math.round(mStorageWidth * mScale));
+    }
+
+    private int getScaledHeight() {
+        return Math.max(1, Math.round(mStorageHeight * mScale));
+    }
+
+    private boolean ensureStorage() {
+        if (mStorageWidth == mWidth && mStorageHeight == mHeight) {
+            return mIsComplete;
+        }
+        mStorageWidth = mWidth;
+        mStorageHeight = mHeight;
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mColorTexture);
+        GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, mWidth, mHeight, 0, GLES20.GL_RGBA,
+            GLES20.GL_UNSIGNED_BYTE, null);
+        GlResourceManager.setTextureSize(mColorTexture, mWidth, mHeight, false);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
+        GLES20.glBindRenderbuffer(GLES20.GL_RENDERBUFFER, mDepthRenderbuffer);
+        GLES20.glRenderbufferStorage(GLES20.GL_RENDERBUFFER, GLES20.GL_DEPTH_COMPONENT16, mWidth, mHeight);
+        GlResourceManager.setSize(GlResourceManager.Type.RENDERBUFFER, mDepthRenderbuffer,
+            (long) mWidth * mHeight * BYTES_PER_DEPTH_PIXEL);
+        GLES20.glBindRenderbuffer(GLES20.GL_RENDERBUFFER, 0);
+
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, mFramebuffer);
+        GLES20.glFramebufferTexture2D(GLES20.GL_FRAMEBUFFER, GLES20.GL_COLOR_ATTACHMENT0, GLES20.GL_TEXTURE_2D,
+            mColorTexture, 0);
+        GLES20.glFramebufferRenderbuffer(GLES20.GL_FRAMEBUFFER, GLES20.GL_DEPTH_ATTACHMENT, GLES20.GL_RENDERBUFFER,
+            mDepthRenderbuffer);
+        int status = GLES20.glCheckFramebufferStatus(GLES20.GL_FRAMEBUFFER);
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, 0);
+        mIsComplete = status == GLES20.GL_FRAMEBUFFER_COMPLETE;
+        if (!mIsComplete) {
+            Log.e(TAG, "Framebuffer incomplete: " + status + ", the content is drawn at the full scale.");
+        }
+        ShaderUtil.checkGlError(TAG, "storage");
+        return mIsComplete;
+    }
+}
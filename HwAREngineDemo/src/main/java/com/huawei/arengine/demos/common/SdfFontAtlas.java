@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.opengl.GLES20;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Signed distance field atlas of the printable ASCII characters of the monospace font. Each
+ * texel stores the distance to the outline of its glyph, 0.5 on the outline, so the glyphs stay
+ * sharp when the texture is scaled. The atlas is rendered and converted once on the CPU, and
+ * the last cell is fully inside, to draw solid rectangles with the same texture.
+ *
+ * @author HW
+ * @since 2020-04-27
+ */
+final class SdfFontAtlas {
+    /**
+     * First character of the atlas.
+     */
+    static final char FIRST_CHAR = ' ';
+
+    /**
+     * Last character of the atlas.
+     */
+    static final char LAST_CHAR = '~';
+
+    /**
+     * Index of the solid cell.
+     */
+    static final int SOLID_CELL = LAST_CHAR - FIRST_CHAR + 1;
+
+    /**
+     * Size of a cell in texels.
+     */
+    static final int CELL_SIZE = 32;
+
+    /**
+     * Largest distance stored, in texels, on each side of the outline.
+     */
+    static final int SPREAD = 4;
+
+    /**
+     * Height of the glyphs in texels, without the spread.
+     */
+    static final int GLYPH_SIZE = CELL_SIZE - 2 * SPREAD;
+
+    private static final String TAG = SdfFontAtlas.class.getSimpleName();
+
+    private static final int COLUMNS = 16;
+
+    private static final int ROWS = 8;
+
+    private static final int WIDTH = COLUMNS * CELL_SIZE;
+
+    private static final int HEIGHT = ROWS * CELL_SIZE;
+
+    private static final int ALPHA_SHIFT = 24;
+
+    private static final int INSIDE_ALPHA = 128;
+
+    private static final int MAX_TEXEL = 255;
+
+    private float mAdvance = GLYPH_SIZE;
+
+    /**
+     * Render the atlas and upload it as a luminance texture. This takes some milliseconds,
+     * it is done once when the surface is created.
+     *
+     * @return Texture name.
+     */
+    int createTexture() {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTypeface(Typeface.MONOSPACE);
+        paint.setTextSize(GLYPH_SIZE);
+        paint.setColor(Color.WHITE);
+        mAdvance = paint.measureText("M");
+
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        char[] glyph = new char[1];
+        for (int i = 0; i < SOLID_CELL; i++) {
+            glyph[0] = (char) (FIRST_CHAR + i);
+            float left = (i % COLUMNS) * CELL_SIZE + SPREAD;
+            float baseline = (i / COLUMNS) * CELL_SIZE + SPREAD - paint.ascent();
+            canvas.drawText(glyph, 0, 1, left, baseline, paint);
+        }
+        int[] pixels = new int[WIDTH * HEIGHT];
+        bitmap.getPixels(pixels, 0, WIDTH, 0, 0, WIDTH, HEIGHT);
+        bitmap.recycle();
+
+        StagingBufferPool pool = StagingBufferPool.get();
+        StagingBufferPool.Slab slab = pool.acquire(WIDTH * HEIGHT);
+        ByteBuffer texels = slab.bytes();
+        byte[] field = new byte[WIDTH * HEIGHT];
+        for (int i = 0; i < SOLID_CELL; i++) {
+            computeCellDistances(pixels, field, (i % COLUMNS) * CELL_SIZE, (i / COLUMNS) * CELL_SIZE);
+        }
+        fillSolidCell(field);
+        texels.put(field).flip();
+
+        int[] textures = new int[1];
+        GlResourceManager.genTextures(TAG, 1, textures, 0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textures[0]);
+        GLES20.glPixelStorei(GLES20.GL_UNPACK_ALIGNMENT, 1);
+        GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_LUMINANCE, WIDTH, HEIGHT, 0,
+            GLES20.GL_LUMINANCE, GLES20.GL_UNSIGNED_BYTE, texels);
+        pool.release(slab);
+        GlResourceManager.setSize(GlResourceManager.Type.TEXTURE, textures[0], WIDTH * HEIGHT);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
+        ShaderUtil.checkGlError(TAG, "atlas texture");
+        return textures[0];
+    }
+
+    /**
+     * Get the horizontal advance of the glyphs.
+     *
+     * @return Advance in texels, the same for all the glyphs of the monospace font.
+     */
+    float getAdvance() {
+        return mAdvance;
+    }
+
+    /**
+     * Get the cell of a character.
+     *
+     * @param character Character.
+     * @return Index of its cell, the one of '?' if it is not in the atlas.
+     */
+    static int getCell(char character) {
+        if (character < FIRST_CHAR || character > LAST_CHAR) {
+            return '?' - FIRST_CHAR;
+        }
+        return character - FIRST_CHAR;
+    }
+
+    /**
+     * Get the texture coordinates of the corner of a cell.
+     *
+     * @param cell Index of the cell.
+     * @return Texture coordinate u of its left side.
+     */
+    static float getCellU(int cell) {
+        return (float) ((cell % COLUMNS) * CELL_SIZE) / WIDTH;
+    }
+
+    /**
+     * Get the texture coordinates of the corner of a cell.
+     *
+     * @param cell Index of the cell.
+     * @return Texture coordinate v of its top side.
+     */
+    static float getCellV(int cell) {
+        return (float) ((cell / COLUMNS) * CELL_SIZE) / HEIGHT;
+    }
+
+    /**
+     * Get the size of a cell in texture coordinates.
+     *
+     * @return Width of a cell in u.
+     */
+    static float getCellWidthU() {
+        return (float) CELL_SIZE / WIDTH;
+    }
+
+    /**
+     * Get the size of a cell in texture coordinates.
+     *
+     * @return Height of a cell in v.
+     */
+    static float getCellHeightV() {
+        return (float) CELL_SIZE / HEIGHT;
+    }
+
+    /**
+     * Convert the coverage of the texels of a cell to signed distances. The nearest texel on the
+     * other side of the outline is searched within the spread, which is enough for the small
+     * cells of the atlas and keeps the conversion simple.
+     */
+    private static void computeCellDistances(int[] pixels, byte[] field, int cellX, int cellY) {
+        int maxSquared = SPREAD * SPREAD;
+        for (int y = cellY; y < cellY + CELL_SIZE; y++) {
+            for (int x = cellX; x < cellX + CELL_SIZE; x++) {
+                boolean isInside = isInside(pixels, x, y);
+                int nearestSquared = maxSquared;
+                for (int dy = -SPREAD; dy <= SPREAD; dy++) {
+                    for (int dx = -SPREAD; dx <= SPREAD; dx++) {
+                        int squared = dx * dx + dy * dy;
+                        if (squared >= nearestSquared) {
+                            continue;
+                        }
+                        int sampleX = x + dx;
+                        int sampleY = y + dy;
+                        boolean isSampleInside = sampleX >= cellX && sampleX < cellX + CELL_SIZE
+                            && sampleY >= cellY && sampleY < cellY + CELL_SIZE && isInside(pixels, sampleX, sampleY);
+                        if (isSampleInside != isInside) {
+                            nearestSquared = squared;
+                        }
+                    }
+                }
+
+                // The outline lies between the texel and its nearest texel on the other side.
+                float distance = (float) Math.sqrt(nearestSquared) - 0.5f;
+                float signed = isInside ? distance : -distance;
+                float value = 0.5f + signed / (2.0f * SPREAD);
+                field[y * WIDTH + x] = (byte) Math.round(Math.max(0.0f, Math.min(1.0f, value)) * MAX_TEXEL);
+            }
+        }
+    }
+
+    private static boolean isInside(int[] pixels, int x, int y) {
+        return (pixels[y * WIDTH + x] >>> ALPHA_SHIFT) >= INSIDE_ALPHA;
+    }
+
+    private static void fillSolidCell(byte[] field) {
+        int cellX = (SOLID_CELL % COLUMNS) * CELL_SIZE;
+        int cellY = (SOLID_CELL / COLUMNS) * CELL_SIZE;
+        for (int y = cellY; y < cellY + CELL_SIZE; y++) {
+            for (int x = cellX; x < cellX + CELL_SIZE; x++) {
+                field[y * WIDTH + x] = (byte) MAX_TEXEL;
+            }
+        }
+    }
+}
@@ -14,9 +14,82 @@ import android.util.Log;
  * @since 2020-04-05
  */
 public class ShaderUtil {
+    private static final String TAG = ShaderUtil.class.getSimpleName();
+
+    // Only one of this number of checks reads the errors, set on the OpenGL thread.
+    private static int sErrorCheckInterval = 1;
+
+    private static int sErrorCheckCount = 0;
+
     private ShaderUtil() {
     }
 
+    /**
+     * Set how often {@link #checkGlError} reads the errors of the driver. Each read waits for the
+     * driver, so a frame over its time budget can check a sample of the calls only; an error is
+     * then reported by a later check, with the label of that check. This method will be called
+     * on the OpenGL thread.
+     *
+     * @param interval 1 to check at every call, n to check at one call out of n.
+     */
+    public static void setErrorCheckInterval(int interval) {
+        sErrorCheckInterval = Math.max(1, interval);
+    }
+
+    /**
+     * Compile the shaders and link them into a program.
+     *
+     * @param vertexCode Vertex shader code.
+     * @param fragmentCode Fragment shader code.
+     * @return Program id, 0 if the compilation or the link failed.
+     */
+    public static int createGlProgram(String vertexCode, String fragmentCode) {
+        int vertex = loadShader(GLES20.GL_VERTEX_SHADER, vertexCode);
+        if (vertex == 0) {
+            return 0;
+        }
+        int fragment = loadShader(GLES20.GL_FRAGMENT_SHADER, fragmentCode);
+        if (fragment == 0) {
+            GLES20.glDeleteShader(vertex);
+            return 0;
+        }
+        int program = GLES20.glCreateProgram();
+        if (program != 0) {
+            GLES20.glAttachShader(program, vertex);
+            GLES20.glAttachShader(program, fragment);
+            GLES20.glLinkProgram(program);
+            int[] linkStatus = new int[1];
+            GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, linkStatus, 0);
+            if (linkStatus[0] != GLES20.GL_TRUE) {
+                Log.e(TAG, "Could not link program " + GLES20.glGetProgramInfoLog(program));
+                GLES20.glDeleteProgram(program);
+                program = 0;
+            }
+        }
+
+        // The attached shaders are only flagged for deletion, they are deleted with the program.
+        GLES20.glDeleteShader(vertex);
+        GLES20.glDeleteShader(fragment);
+        return program;
+    }
+
+    private static int loadShader(int shaderType, String source) {
+        int shader = GLES20.glCreateShader(shaderType);
+        if (0 != shader) {
+            GLES20.glShaderSource(shader, source);
+            GLES20.glCompileShader(shader);
+            int[] compiled = new int[1];
+            GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compiled, 0);
+            if (compiled[0] == 0) {
+                Log.e(TAG, "glError: Could not compile shader " + shaderType);
+                Log.e(TAG, "GLES20 Error: " + GLES20.glGetShaderInfoLog(shader));
+                GLES20.glDeleteShader(shader);
+                shader = 0;
+            }
+        }
+        return shader;
+    }
+
     /**
      * Check openGL runtime error.
      *
@@ -24,6 +97,9 @@ public class ShaderUtil {
      * @param label Programe label.
      */
     public static void checkGlError(String tag, String label) {
+        if (sErrorCheckInterval > 1 && ++sErrorCheckCount % sErrorCheckInterval != 0) {
+            return;
+        }
         int lastError = GLES20.GL_NO_ERROR;
         int error = GLES20.glGetError();
         while (error != GLES20.GL_NO_ERROR) {
@@ -0,0 +1,447 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import android.opengl.GLES20;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Render the joints and the bones of skeletons, such as hands and bodies. The joints of a
+ * frame are passed to the shaders as a uniform array, the bones are camera-facing quads
+ * expanded in the vertex shader from the indexes of their two joints, and the joints are
+ * round point sprites. The thickness does not depend on glLineWidth, which many drivers
+ * clamp to 1 pixel, and the vertex stream of the bones is only uploaded when the
+ * connections of the skeletons change. The draws are recorded into a
+ * {@link RenderCommandBuffer}, so the skeletons can be built on another thread than the
+ * OpenGL thread; the frames recorded by one renderer must be executed in order.
+ *
+ * @author HW
+ * @since 2020-03-16
+ */
+public class SkeletonRenderer {
+    private static final String TAG = SkeletonRenderer.class.getSimpleName();
+
+    private static final String LS = System.lineSeparator();
+
+    // OpenGL ES 2.0 guarantees 128 vertex uniform vectors, the matrix and the other
+    // uniforms use 6 of them.
+    private static final int MAX_JOINTS = 96;
+
+    private static final int MAX_BONES = 128;
+
+    // The w component of a joint is 1 for points in camera space that are projected, 0 for
+    // points that are already in normalized device coordinates, and -1 for points that were
+    // not detected.
+    private static final String JOINT_FUNCTIONS =
+        "uniform mat4 inMVPMatrix;" + LS
+        + "uniform vec4 inJoints[" + MAX_JOINTS + "];" + LS
+        + "vec4 toClip(vec4 joint) {" + LS
+        + "    if (joint.w > 0.5) {" + LS
+        + "        return inMVPMatrix * vec4(joint.xyz, 1.0);" + LS
+        + "    }" + LS
+        + "    return vec4(joint.xyz, 1.0);" + LS
+        + "}" + LS;
+
+    private static final String JOINT_VERTEX =
+        JOINT_FUNCTIONS
+        + "uniform float inPointSize;" + LS
+        + "attribute float inJointIndex;" + LS
+        + "void main() {" + LS
+        + "    vec4 joint = inJoints[int(inJointIndex + 0.5)];" + LS
+        + "    gl_PointSize = inPointSize;" + LS
+        + "    if (joint.w < -0.5) {" + LS
+        + "        gl_Position = vec4(2.0, 2.0, 2.0, 1.0);" + LS
+        + "        return;" + LS
+        + "    }" + LS
+        + "    gl_Position = toClip(joint);" + LS
+        + "}";
+
+    private static final String JOINT_FRAGMENT =
+        "precision mediump float;" + LS
+        + "uniform vec4 inColor;" + LS
+        + "void main() {" + LS
+        + "    vec2 offset = gl_PointCoord - vec2(0.5);" + LS
+        + "    if (dot(offset, offset) > 0.25) {" + LS
+        + "        discard;" + LS
+        + "    }" + LS
+        + "    gl_FragColor = inColor;" + LS
+        + "}";
+
+    // inBone: index of the start joint, index of the end joint, side of the quad (-1 or 1),
+    // position along the bone (0 at the start joint, 1 at the end joint).
+    private static final String BONE_VERTEX =
+        JOINT_FUNCTIONS
+        + "uniform float inLineWidth;" + LS
+        + "uniform vec2 inViewport;" + LS
+        + "attribute vec4 inBone;" + LS
+        + "void main() {" + LS
+        + "    vec4 start = toClip(inJoints[int(inBone.x + 0.5)]);" + LS
+        + "    vec4 end = toClip(inJoints[int(inBone.y + 0.5)]);" + LS
+        + "    vec2 direction = (end.xy / end.w - start.xy / start.w) * inViewport;" + LS
+        + "    float pixels = length(direction);" + LS
+        + "    direction = pixels > 0.0001 ? direction / pixels : vec2(1.0, 0.0);" + LS
+        + "    vec2 normal = vec2(-direction.y, direction.x);" + LS
+        + "    vec4 position = mix(start, end, inBone.w);" + LS
+        + "    position.xy += normal * inBone.z * inLineWidth / inViewport * position.w;" + LS
+        + "    gl_Position = position;" + LS
+        + "}";
+
+    private static final String BONE_FRAGMENT =
+        "precision mediump float;" + LS
+        + "uniform vec4 inColor;" + LS
+        + "void main() {" + LS
+        + "    gl_FragColor = inColor;" + LS
+        + "}";
+
+    private static final int FLOATS_PER_JOINT = 4; // x, y, z, projected flag
+
+    private static final int FLOATS_PER_BONE_VERTEX = 4;
+
+    private static final int VERTICES_PER_BONE = 4;
+
+    private static final int INDICES_PER_BONE = 6;
+
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private static final int BYTES_PER_SHORT = 2;
+
+    private static final int FLOATS_PER_BONE = FLOATS_PER_BONE_VERTEX * VERTICES_PER_BONE;
+
+    // Side and position along the bone of the four corners of a bone quad.
+    private static final float[] BONE_CORNERS = {-1.0f, 0.0f, 1.0f, 0.0f, -1.0f, 1.0f, 1.0f, 1.0f};
+
+    private final float[] mJointColor = {0.0f, 0.0f, 1.0f, 1.0f};
+
+    private final float[] mBoneColor = {0.0f, 0.0f, 0.0f, 1.0f};
+
+    private final float[] mJoints = new float[MAX_JOINTS * FLOATS_PER_JOINT];
+
+    private final float[] mBoneVertices = new float[MAX_BONES * FLOATS_PER_BONE];
+
+    // Copy of the bone vertices in the vertex buffer, used to skip unchanged uploads.
+    private final float[] mUploadedBoneVertices = new float[MAX_BONES * FLOATS_PER_BONE];
+
+    // Viewport of the frame being recorded, copied from mViewportSize by beginFrame().
+    private final float[] mViewport = {1.0f, 1.0f};
+
+    // Commands of beginFrame(float[]), executed by endFrame().
+    private final RenderCommandBuffer mImmediateCommands = new RenderCommandBuffer();
+
+    private RenderCommandBuffer mCommands = mImmediateCommands;
+
+    private float[] mProjectionMatrix;
+
+    // Width in the high 32 bits and height in the low 32 bits, written on the OpenGL thread and
+    // read by the thread that records the frames, so that the two are always read together.
+    private volatile long mViewportSize = (1L << Integer.SIZE) | 1L;
+
+    private float mJointSize = 30.0f;
+
+    private float mBoneWidth = 18.0f;
+
+    private int mJointCount = 0;
+
+    private int mBoneCount = 0;
+
+    private int mUploadedBoneCount = -1;
+
+    private int mJointIndexVbo;
+
+    private int mBoneVbo;
+
+    private int mBoneIbo;
+
+    private int mJointProgram;
+
+    private int mJointIndex;
+
+    private int mJointMvpMatrix;
+
+    private int mJointJoints;
+
+    private int mJointPointSize;
+
+    private int mJointColorUniform;
+
+    private int mBoneProgram;
+
+    private int mBone;
+
+    private int mBoneMvpMatrix;
+
+    private int mBoneJoints;
+
+    private int mBoneLineWidth;
+
+    private int mBoneViewport;
+
+    private int mBoneColorUniform;
+
+    /**
+     * Create the shaders and the vertex buffers on the OpenGL Thread.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onSurfaceCreated}.
+     */
+    public void init() {
+        ShaderUtil.checkGlError(TAG, "before create");
+        int[] buffers = new int[3];
+        GlResourceManager.genBuffers(TAG, buffers.length, buffers, 0);
+        mJointIndexVbo = buffers[0];
+        mBoneVbo = buffers[1];
+        mBoneIbo = buffers[2];
+
+        // Joint i of the uniform array is drawn by vertex i, so the indexes never change.
+        StagingBufferPool pool = StagingBufferPool.get();
+        StagingBufferPool.Slab slab = pool.acquire(MAX_JOINTS * BYTES_PER_FLOAT);
+        FloatBuffer jointIndexes = slab.floats();
+        for (int i = 0; i < MAX_JOINTS; i++) {
+            jointIndexes.put(i);
+        }
+        jointIndexes.flip();
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mJointIndexVbo);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, MAX_JOINTS * BYTES_PER_FLOAT, jointIndexes,
+            GLES20.GL_STATIC_DRAW);
+        pool.release(slab);
+        GlResourceManager.setSize(GlResourceManager.Type.BUFFER, mJointIndexVbo, MAX_JOINTS * BYTES_PER_FLOAT);
+
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mBoneVbo);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, MAX_BONES * FLOATS_PER_BONE * BYTES_PER_FLOAT, null,
+            GLES20.GL_DYNAMIC_DRAW);
+        GlResourceManager.setSize(GlResourceManager.Type.BUFFER, mBoneVbo,
+            MAX_BONES * FLOATS_PER_BONE * BYTES_PER_FLOAT);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        mUploadedBoneCount = -1;
+
+        // Two triangles per bone quad.
+        slab = pool.acquire(MAX_BONES * INDICES_PER_BONE * BYTES_PER_SHORT);
+        ShortBuffer boneIndices = slab.shorts();
+        for (int i = 0; i < MAX_BONES; i++) {
+            int base = i * VERTICES_PER_BONE;
+            boneIndices.put((short) base).put((short) (base + 1)).put((short) (base + 2))
+                .put((short) (base + 2)).put((short) (base + 1)).put((short) (base + 3));
+        }
+        boneIndices.flip();
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, mBoneIbo);
+        GLES20.glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, MAX_BONES * INDICES_PER_BONE * BYTES_PER_SHORT,
+            boneIndices, GLES20.GL_STATIC_DRAW);
+        pool.release(slab);
+        GlResourceManager.setSize(GlResourceManager.Type.BUFFER, mBoneIbo,
+            MAX_BONES * INDICES_PER_BONE * BYTES_PER_SHORT);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+        ShaderUtil.checkGlError(TAG, "buffers");
+
+        mJointProgram = GlResourceManager.registerProgram(TAG,
+            ShaderUtil.createGlProgram(JOINT_VERTEX, JOINT_FRAGMENT));
+        mJointIndex = GLES20.glGetAttribLocation(mJointProgram, "inJointIndex");
+        mJointMvpMatrix = GLES20.glGetUniformLocation(mJointProgram, "inMVPMatrix");
+        mJointJoints = GLES20.glGetUniformLocation(mJointProgram, "inJoints");
+        mJointPointSize = GLES20.glGetUniformLocation(mJointProgram, "inPointSize");
+        mJointColorUniform = GLES20.glGetUniformLocation(mJointProgram, "inColor");
+
+        mBoneProgram = GlResourceManager.registerProgram(TAG,
+            ShaderUtil.createGlProgram(BONE_VERTEX, BONE_FRAGMENT));
+        mBone = GLES20.glGetAttribLocation(mBoneProgram, "inBone");
+        mBoneMvpMatrix = GLES20.glGetUniformLocation(mBoneProgram, "inMVPMatrix");
+        mBoneJoints = GLES20.glGetUniformLocation(mBoneProgram, "inJoints");
+        mBoneLineWidth = GLES20.glGetUniformLocation(mBoneProgram, "inLineWidth");
+        mBoneViewport = GLES20.glGetUniformLocation(mBoneProgram, "inViewport");
+        mBoneColorUniform = GLES20.glGetUniformLocation(mBoneProgram, "inColor");
+        ShaderUtil.checkGlError(TAG, "program params");
+    }
+
+    /**
+     * Update the viewport size used to convert the bone width from pixels. The size is taken by
+     * the next {@link #beginFrame}, which can run on another thread.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onSurfaceChanged}.
+     *
+     * @param width Width of the surface.
+     * @param height Height of the surface.
+     */
+    public void onSurfaceChanged(int width, int height) {
+        mViewportSize = ((long) Math.max(width, 1) << Integer.SIZE) | Math.max(height, 1);
+    }
+
+    /**
+     * Set the color and the size of the joints.
+     *
+     * @param color Color (r, g, b, a).
+     * @param size Point size in pixels, the joints are not drawn if it is not positive.
+     */
+    public void setJointStyle(float[] color, float size) {
+        System.arraycopy(color, 0, mJointColor, 0, mJointColor.length);
+        mJointSize = size;
+    }
+
+    /**
+     * Set the color and the width of the bones.
+     *
+     * @param color Color (r, g, b, a).
+     * @param width Line width in pixels.
+     */
+    public void setBoneStyle(float[] color, float width) {
+        System.arraycopy(color, 0, mBoneColor, 0, mBoneColor.length);
+        mBoneWidth = width;
+    }
+
+    /**
+     * Start adding the skeletons of a frame, drawn on the OpenGL thread by {@link #endFrame()}.
+     *
+     * @param projectionMatrix Projection matrix(4 * 4) applied to the joints in camera space.
+     */
+    public void beginFrame(float[] projectionMatrix) {
+        beginFrame(projectionMatrix, mImmediateCommands);
+    }
+
+    /**
+     * Start recording the skeletons of a frame, on any thread. The draws are recorded into the
+     * specified buffer by {@link #endFrame()}, and drawn when the buffer is executed.
+     *
+     * @param projectionMatrix Projection matrix(4 * 4) applied to the joints in camera space.
+     * @param commands Buffer to record into.
+     */
+    public void beginFrame(float[] projectionMatrix, RenderCommandBuffer commands) {
+        mProjectionMatrix = projectionMatrix;
+        mCommands = commands;
+        long viewportSize = mViewportSize;
+        mViewport[0] = (int) (viewportSize >>> Integer.SIZE);
+        mViewport[1] = (int) viewportSize;
+        mJointCount = 0;
+        mBoneCount = 0;
+    }
+
+    /**
+     * Add the joints and the bones of one skeleton. The skeletons added so far are drawn
+     * first if the new one does not fit into the joint uniform array.
+     *
+     * @param joints Joint coordinates (x, y, z).
+     * @param jointCount Number of joints.
+     * @param isExists Whether each joint was detected, 0 means not detected. Null if all joints exist.
+     * @param connections Pairs of indexes of connected joints.
+     * @param connectionCount Number of valid elements of connections, twice the number of bones.
+     * @param isCameraSpace True if the joints are in camera space and must be projected, false if
+     *     they are already in normalized device coordinates.
+     */
+    public void addSkeleton(float[] joints, int jointCount, int[] isExists, int[] connections,
+        int connectionCount, boolean isCameraSpace) {
+        int count = Math.min(jointCount, MAX_JOINTS);
+        int boneCount = Math.min(connectionCount / 2, MAX_BONES);
+        if (mJointCount + count > MAX_JOINTS || mBoneCount + boneCount > MAX_BONES) {
+            flush();
+        }
+        int firstJoint = mJointCount;
+        float flag = isCameraSpace ? 1.0f : 0.0f;
+        for (int i = 0; i < count; i++) {
+            int base = mJointCount++ * FLOATS_PER_JOINT;
+            mJoints[base] = joints[i * 3];
+            mJoints[base + 1] = joints[i * 3 + 1];
+            mJoints[base + 2] = joints[i * 3 + 2];
+            mJoints[base + 3] = (isExists != null && isExists[i] == 0) ? -1.0f : flag;
+        }
+
+        // connections:[p0,p1;p0,p3;p0,p5;p1,p2], two indexes make a bone, so j = j + 2.
+        for (int j = 0; j < boneCount * 2; j += 2) {
+            int start = connections[j];
+            int end = connections[j + 1];
+            if (start >= count || end >= count) {
+                continue;
+            }
+            if (isExists != null && (isExists[start] == 0 || isExists[end] == 0)) {
+                continue;
+            }
+            int base = mBoneCount++ * FLOATS_PER_BONE;
+            for (int corner = 0; corner < VERTICES_PER_BONE; corner++) {
+                int offset = base + corner * FLOATS_PER_BONE_VERTEX;
+                mBoneVertices[offset] = firstJoint + start;
+                mBoneVertices[offset + 1] = firstJoint + end;
+                mBoneVertices[offset + 2] = BONE_CORNERS[corner * 2];
+                mBoneVertices[offset + 3] = BONE_CORNERS[corner * 2 + 1];
+            }
+        }
+    }
+
+    /**
+     * Draw the skeletons added since {@link #beginFrame(float[])}, or finish recording them
+     * after {@link #beginFrame(float[], RenderCommandBuffer)}.
+     */
+    public void endFrame() {
+        flush();
+        if (mCommands == mImmediateCommands) {
+            ShaderUtil.checkGlError(TAG, "Before draw");
+            mImmediateCommands.execute();
+            mImmediateCommands.reset();
+            ShaderUtil.checkGlError(TAG, "Draw");
+        }
+        mCommands = mImmediateCommands;
+    }
+
+    private void flush() {
+        if (mJointCount == 0) {
+            return;
+        }
+        if (mBoneCount > 0) {
+            drawBones();
+        }
+        if (mJointSize > 0.0f) {
+            drawJoints();
+        }
+        mJointCount = 0;
+        mBoneCount = 0;
+    }
+
+    private void drawBones() {
+        RenderCommandBuffer commands = mCommands;
+        commands.bindBuffer(GLES20.GL_ARRAY_BUFFER, mBoneVbo);
+        uploadBonesIfChanged();
+
+        commands.useProgram(mBoneProgram);
+        commands.uniformMatrix4fv(mBoneMvpMatrix, mProjectionMatrix);
+        commands.uniform4fv(mBoneJoints, mJointCount, mJoints);
+        commands.uniform1f(mBoneLineWidth, mBoneWidth);
+        commands.uniform2fv(mBoneViewport, 1, mViewport);
+        commands.uniform4fv(mBoneColorUniform, 1, mBoneColor);
+        commands.enableVertexAttribArray(mBone);
+        commands.vertexAttribPointer(mBone, FLOATS_PER_BONE_VERTEX, FLOATS_PER_BONE_VERTEX * BYTES_PER_FLOAT, 0);
+        commands.bindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, mBoneIbo);
+        commands.drawElements(GLES20.GL_TRIANGLES, mBoneCount * INDICES_PER_BONE, 0);
+        commands.bindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+        commands.disableVertexAttribArray(mBone);
+        commands.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+    }
+
+    private void uploadBonesIfChanged() {
+        int floatCount = mBoneCount * FLOATS_PER_BONE;
+        if (mBoneCount == mUploadedBoneCount && isSameBones(floatCount)) {
+            return;
+        }
+        System.arraycopy(mBoneVertices, 0, mUploadedBoneVertices, 0, floatCount);
+        mUploadedBoneCount = mBoneCount;
+        mCommands.bufferSubData(GLES20.GL_ARRAY_BUFFER, 0, mBoneVertices, floatCount);
+    }
+
+    private boolean isSameBones(int floatCount) {
+        for (int i = 0; i < floatCount; i++) {
+            if (mBoneVertices[i] != mUploadedBoneVertices[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void drawJoints() {
+        RenderCommandBuffer commands = mCommands;
+        commands.useProgram(mJointProgram);
+        commands.uniformMatrix4fv(mJointMvpMatrix, mProjectionMatrix);
+        commands.uniform4fv(mJointJoints, mJointCount, mJoints);
+        commands.uniform1f(mJointPointSize, mJointSize);
+        commands.uniform4fv(mJointColorUniform, 1, mJointColor);
+        commands.bindBuffer(GLES20.GL_ARRAY_BUFFER, mJointIndexVbo);
+        commands.enableVertexAttribArray(mJointIndex);
+        commands.vertexAttribPointer(mJointIndex, 1, BYTES_PER_FLOAT, 0);
+        commands.drawArrays(GLES20.GL_POINTS, 0, mJointCount);
+        commands.disableVertexAttribArray(mJointIndex);
+        commands.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Slab allocator of the direct buffers that the displays fill before glBufferData and
+ * glBufferSubData. A display acquires a slab of the size class above the bytes it uploads,
+ * writes the vertex data into it, uploads it and releases it, so the displays of a thread share
+ * a few slabs instead of each one holding its own staging buffer, and a growing upload takes a
+ * larger class instead of reallocating. The sizes are powers of two from
+ * {@link #MIN_SLAB_BYTES} to {@link #MAX_SLAB_BYTES}, a larger upload gets a slab of its own
+ * that is dropped on release. The pool of a thread is only used by it, so it is not
+ * synchronized; the displays use the pool of the OpenGL thread.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class StagingBufferPool {
+    /**
+     * Size of the smallest slab.
+     */
+    public static final int MIN_SLAB_BYTES = 1 << 8;
+
+    /**
+     * Size of the largest pooled slab.
+     */
+    public static final int MAX_SLAB_BYTES = 1 << 20;
+
+    private static final String TAG = StagingBufferPool.class.getSimpleName();
+
+    private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_SLAB_BYTES);
+
+    private static final int CLASS_COUNT = Integer.numberOfTrailingZeros(MAX_SLAB_BYTES) - MIN_SHIFT + 1;
+
+    // Free slabs kept per size class, the slabs released beyond this are dropped.
+    private static final int MAX_FREE_SLABS = 4;
+
+    private static final int UNPOOLED = -1;
+
+    private static final ThreadLocal<StagingBufferPool> POOLS = new ThreadLocal<StagingBufferPool>() {
+        @Override
+        protected StagingBufferPool initialValue() {
+            return new StagingBufferPool();
+        }
+    };
+
+    private final Slab[][] mFreeSlabs = new Slab[CLASS_COUNT][MAX_FREE_SLABS];
+
+    private final int[] mFreeCounts = new int[CLASS_COUNT];
+
+    private long mAcquireCount = 0;
+
+    private long mAllocationCount = 0;
+
+    private StagingBufferPool() {
+    }
+
+    /**
+     * Get the pool of the calling thread.
+     *
+     * @return The pool, created on the first call of the thread.
+     */
+    public static StagingBufferPool get() {
+        return POOLS.get();
+    }
+
+    /**
+     * Take a slab of at least the specified size, from the free slabs of its class if possible.
+     *
+     * @param bytes Number of bytes to stage.
+     * @return The slab, to give back with {@link #release(Slab)} after the upload.
+     */
+    public Slab acquire(int bytes) {
+        mAcquireCount++;
+        int sizeClass = getSizeClass(bytes);
+        if (sizeClass != UNPOOLED && mFreeCounts[sizeClass] > 0) {
+            mFreeCounts[sizeClass]--;
+            Slab slab = mFreeSlabs[sizeClass][mFreeCounts[sizeClass]];
+            mFreeSlabs[sizeClass][mFreeCounts[sizeClass]] = null;
+            return slab;
+        }
+        mAllocationCount++;
+        int capacity = sizeClass == UNPOOLED ? bytes : MIN_SLAB_BYTES << sizeClass;
+        return new Slab(MemoryAccounting.allocateDirect(TAG, capacity), sizeClass);
+    }
+
+    /**
+     * Give back a slab after its data was uploaded. It must not be used afterwards.
+     *
+     * @param slab Slab returned by {@link #acquire(int)}.
+     */
+    public void release(Slab slab) {
+        int sizeClass = slab.mSizeClass;
+        if (sizeClass == UNPOOLED || mFreeCounts[sizeClass] == MAX_FREE_SLABS) {
+            MemoryAccounting.freeDirect(TAG, slab.capacity());
+            return;
+        }
+        mFreeSlabs[sizeClass][mFreeCounts[sizeClass]] = slab;
+        mFreeCounts[sizeClass]++;
+    }
+
+    /**
+     * Drop the free slabs, when the displays of the thread are released.
+     */
+    public void trim() {
+        for (int sizeClass = 0; sizeClass < CLASS_COUNT; sizeClass++) {
+            for (int i = 0; i < mFreeCounts[sizeClass]; i++) {
+                MemoryAccounting.freeDirect(TAG, mFreeSlabs[sizeClass][i].capacity());
+                mFreeSlabs[sizeClass][i] = null;
+            }
+            mFreeCounts[sizeClass] = 0;
+        }
+    }
+
+    /**
+     * Get the number of slabs acquired since the pool was created.
+     *
+     * @return Number of calls to {@link #acquire(int)}.
+     */
+    public long getAcquireCount() {
+        return mAcquireCount;
+    }
+
+    /**
+     * Get the number of slabs allocated since the pool was created, the other acquired slabs
+     * were reused.
+     *
+     * @return Number of direct buffers allocated.
+     */
+    public long getAllocationCount() {
+        return mAllocationCount;
+    }
+
+    private static int getSizeClass(int bytes) {
+        if (bytes > MAX_SLAB_BYTES) {
+            return UNPOOLED;
+        }
+        if (bytes <= MIN_SLAB_BYTES) {
+            return 0;
+        }
+
+        // Index of the power of two at or above the size, counted from the smallest slab.
+        return Integer.SIZE - Integer.numberOfLeadingZeros(bytes - 1) - MIN_SHIFT;
+    }
+
+    /**
+     * Direct buffer in the native order, with float and short views created once.
+     */
+    public static final class Slab {
+        private final ByteBuffer mBytes;
+
+        private final FloatBuffer mFloats;
+
+        private final ShortBuffer mShorts;
+
+        private final int mSizeClass;
+
+        Slab(ByteBuffer bytes, int sizeClass) {
+            mBytes = bytes;
+            mFloats = bytes.asFloatBuffer();
+            mShorts = bytes.asShortBuffer();
+            mSizeClass = sizeClass;
+        }
+
+        /**
+         * Get the bytes of the slab, cleared for writing.
+         *
+         * @return Byte view of the slab.
+         */
+        public ByteBuffer bytes() {
+            mBytes.clear();
+            return mBytes;
+        }
+
+        /**
+         * Get the slab as floats, cleared for writing.
+         *
+         * @return Float view of the slab.
+         */
+        public FloatBuffer floats() {
+            mFloats.clear();
+            return mFloats;
+        }
+
+        /**
+         * Get the slab as shorts, cleared for writing.
+         *
+         * @return Short view of the slab.
+         */
+        public ShortBuffer shorts() {
+            mShorts.clear();
+            return mShorts;
+        }
+
+        /**
+         * Get the size of the slab.
+         *
+         * @return Capacity in bytes, at least the size it was acquired for.
+         */
+        public int capacity() {
+            return mBytes.capacity();
+        }
+    }
+}
@@ -8,10 +8,9 @@ import android.opengl.GLES11Ext;
 import android.opengl.GLES20;
 import android.util.Log;
 
+import com.huawei.arengine.demos.common.engine.ArEngineFrame;
 import com.huawei.hiar.ARFrame;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 
 import javax.microedition.khronos.opengles.GL10;
@@ -108,7 +107,7 @@ public class TextureRenderUtil {
      */
     public void init() {
         int[] textures = new int[1];
-        GLES20.glGenTextures(1, textures, 0);
+        GlResourceManager.genTextures(TAG, 1, textures, 0);
         mExternalTextureId = textures[0];
         generateExternalTexture();
         createProgram();
@@ -149,6 +148,27 @@ public class TextureRenderUtil {
         if (frame.hasDisplayGeometryChanged()) {
             frame.transformDisplayUvCoords(mTexBuffer, mTexTransformedBuffer);
         }
+        drawBackground();
+    }
+
+    /**
+     * Call this interface every frame.This method should be called
+     * when {@link android.opengl.GLSurfaceView.Renderer#onDrawFrame}.
+     *
+     * @param frame Frame of the session facade.
+     */
+    public void onDrawFrame(ArEngineFrame frame) {
+        ShaderUtil.checkGlError(TAG, "before draw");
+        if (frame == null) {
+            return;
+        }
+        if (frame.hasDisplayGeometryChanged()) {
+            frame.transformDisplayUvCoords(mTexBuffer, mTexTransformedBuffer);
+        }
+        drawBackground();
+    }
+
+    private void drawBackground() {
         clear();
 
         GLES20.glDisable(GLES20.GL_DEPTH_TEST);
@@ -192,7 +212,7 @@ public class TextureRenderUtil {
     }
 
     private void createProgram() {
-        mProgram = createGlProgram();
+        mProgram = GlResourceManager.registerProgram(TAG, createGlProgram());
         mPosition = GLES20.glGetAttribLocation(mProgram, "vPosition");
         mCoord = GLES20.glGetAttribLocation(mProgram, "vCoord");
         mMatrix = GLES20.glGetUniformLocation(mProgram, "vMatrix");
@@ -207,6 +227,7 @@ public class TextureRenderUtil {
         }
         int fragment = loadShader(GLES20.GL_FRAGMENT_SHADER, BASE_FRAGMENT);
         if (fragment == 0) {
+            GLES20.glDeleteShader(vertex);
             return 0;
         }
         int program = GLES20.glCreateProgram();
@@ -222,6 +243,10 @@ public class TextureRenderUtil {
                 program = 0;
             }
         }
+
+        // The attached shaders are only flagged for deletion, they are deleted with the program.
+        GLES20.glDeleteShader(vertex);
+        GLES20.glDeleteShader(fragment);
         return program;
     }
 
@@ -248,23 +273,17 @@ public class TextureRenderUtil {
 
     private void initBuffers() {
         // Initialize vertex buffer size.
-        ByteBuffer byteBufferForVer = ByteBuffer.allocateDirect(32);
-        byteBufferForVer.order(ByteOrder.nativeOrder());
-        mVerBuffer = byteBufferForVer.asFloatBuffer();
+        mVerBuffer = MemoryAccounting.allocateDirect(TAG, 32).asFloatBuffer();
         mVerBuffer.put(POS);
         mVerBuffer.position(0);
 
         // Initialize texture buffer size.
-        ByteBuffer byteBufferForTex = ByteBuffer.allocateDirect(32);
-        byteBufferForTex.order(ByteOrder.nativeOrder());
-        mTexBuffer = byteBufferForTex.asFloatBuffer();
+        mTexBuffer = MemoryAccounting.allocateDirect(TAG, 32).asFloatBuffer();
         mTexBuffer.put(COORD);
         mTexBuffer.position(0);
 
         // Initialize transformed texture buffer size.
-        ByteBuffer byteBufferForTransformedTex = ByteBuffer.allocateDirect(32);
-        byteBufferForTransformedTex.order(ByteOrder.nativeOrder());
-        mTexTransformedBuffer = byteBufferForTransformedTex.asFloatBuffer();
+        mTexTransformedBuffer = MemoryAccounting.allocateDirect(TAG, 32).asFloatBuffer();
     }
 
     /**
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common;
+
+/**
+ * Filter the skeletons of the tracked hands or bodies, extrapolate them to the display time and
+ * draw them with a {@link SkeletonRenderer}. It holds the filter parameters and the per-frame
+ * flow of the hand and body demos, and has no dependency on AREngine, so the benchmarks run the
+ * same code on recorded or synthetic skeletons.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public final class TrackedSkeletonRenderer {
+    // One Euro filter parameters of the skeleton points, in meters.
+    private static final float SKELETON_MIN_CUTOFF = 1.0f;
+
+    private static final float SKELETON_BETA = 5.0f;
+
+    private static final float SKELETON_DERIVATIVE_CUTOFF = 1.0f;
+
+    // Latency between the camera frame and its display when the frame is drawn as it is captured.
+    private static final float SKELETON_PREDICTION_TIME = 0.033f;
+
+    private static final float NS_PER_SECOND = 1.0e9f;
+
+    private static final float[] BODY_BONE_COLOR = {1.0f, 0.0f, 0.0f, 1.0f};
+
+    private static final float BODY_BONE_WIDTH = 18.0f;
+
+    // Each skeleton point of a hand has three coordinates.
+    private static final int HAND_POINT_FLOATS = 3;
+
+    private final SkeletonRenderer mRenderer = new SkeletonRenderer();
+
+    private final PosePredictorPool mPredictors = new PosePredictorPool(SKELETON_MIN_CUTOFF, SKELETON_BETA,
+        SKELETON_DERIVATIVE_CUTOFF);
+
+    private final boolean mIsBody;
+
+    private long mTimestampNs;
+
+    private TrackedSkeletonRenderer(boolean isBody) {
+        mIsBody = isBody;
+    }
+
+    /**
+     * Create the renderer of the hand skeletons, with the style of the hand demo.
+     *
+     * @return Renderer to which {@link #addHand} gives the hands.
+     */
+    public static TrackedSkeletonRenderer createForHands() {
+        return new TrackedSkeletonRenderer(false);
+    }
+
+    /**
+     * Create the renderer of the body skeletons, with the style of the body demo.
+     *
+     * @return Renderer to which {@link #addBody} gives the bodies.
+     */
+    public static TrackedSkeletonRenderer createForBodies() {
+        return new TrackedSkeletonRenderer(true);
+    }
+
+    /**
+     * Create the OpenGL resources of the renderer.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onSurfaceCreated}.
+     */
+    public void init() {
+        mRenderer.init();
+        if (mIsBody) {
+            mRenderer.setBoneStyle(BODY_BONE_COLOR, BODY_BONE_WIDTH);
+        }
+    }
+
+    /**
+     * Set the size of the surface.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onSurfaceChanged}.
+     *
+     * @param width Width of the surface in pixels.
+     * @param height Height of the surface in pixels.
+     */
+    public void onSurfaceChanged(int width, int height) {
+        mRenderer.onSurfaceChanged(width, height);
+    }
+
+    /**
+     * Start the skeletons of a frame, drawn on the OpenGL thread by {@link #endFrame()}.
+     *
+     * @param projectionMatrix Projection matrix(4 * 4) of the camera.
+     * @param timestampNs Timestamp of the camera frame.
+     * @param displayTimeNs Expected display time of the frame.
+     */
+    public void beginFrame(float[] projectionMatrix, long timestampNs, long displayTimeNs) {
+        setFrameTime(timestampNs, displayTimeNs);
+        mRenderer.beginFrame(projectionMatrix);
+    }
+
+    /**
+     * Start recording the skeletons of a frame into a buffer, on any thread.
+     *
+     * @param projectionMatrix Projection matrix(4 * 4) of the camera.
+     * @param timestampNs Timestamp of the camera frame.
+     * @param displayTimeNs Expected display time of the frame.
+     * @param commands Buffer to record the draws into.
+     */
+    public void beginFrame(float[] projectionMatrix, long timestampNs, long displayTimeNs,
+        RenderCommandBuffer commands) {
+        setFrameTime(timestampNs, displayTimeNs);
+        mRenderer.beginFrame(projectionMatrix, commands);
+    }
+
+    /**
+     * Predict and add the skeleton of a tracked hand. The points of a hand are always projected.
+     *
+     * @param handId Hand id.
+     * @param points Skeleton points (x, y, z).
+     * @param pointFloats Number of floats of the points.
+     * @param connections Pairs of connected points.
+     * @param connectionCount Number of ints of the connections.
+     */
+    public void addHand(int handId, float[] points, int pointFloats, int[] connections, int connectionCount) {
+        float[] predicted = mPredictors.get(handId).predict(points, pointFloats, mTimestampNs);
+        mRenderer.addSkeleton(predicted, pointFloats / HAND_POINT_FLOATS, null, connections, connectionCount, true);
+    }
+
+    /**
+     * Predict and add the skeleton of a tracked body.
+     *
+     * @param bodyId Body id.
+     * @param points Skeleton points (x, y, z).
+     * @param pointFloats Number of floats of the points.
+     * @param isExists Whether each point was detected.
+     * @param pointCount Number of points.
+     * @param connections Pairs of connected points.
+     * @param connectionCount Number of ints of the connections.
+     * @param is3dCamera True if the points are in the 3D camera coordinate system.
+     */
+    public void addBody(int bodyId, float[] points, int pointFloats, int[] isExists, int pointCount,
+        int[] connections, int connectionCount, boolean is3dCamera) {
+        float[] predicted = mPredictors.get(bodyId).predict(points, pointFloats, mTimestampNs);
+        mRenderer.addSkeleton(predicted, pointCount, isExists, connections, connectionCount, is3dCamera);
+    }
+
+    /**
+     * Draw or finish recording the skeletons of the frame, and forget the predictors of the
+     * trackables that were not added.
+     */
+    public void endFrame() {
+        mPredictors.removeStale(mTimestampNs);
+        mRenderer.endFrame();
+    }
+
+    private void setFrameTime(long timestampNs, long displayTimeNs) {
+        mTimestampNs = timestampNs;
+        mPredictors.setPredictionTime(SKELETON_PREDICTION_TIME + (displayTimeNs - timestampNs) / NS_PER_SECOND);
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+/**
+ * Fixed position in the world that the engine keeps tracking.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public interface ArEngineAnchor extends ArEngineTrackable {
+    /**
+     * Get the pose of the anchor in the world coordinate system.
+     *
+     * @return Pose, valid until the next update of the session.
+     */
+    ArEnginePose getPose();
+
+    /**
+     * Stop tracking the anchor.
+     */
+    void detach();
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+/**
+ * Body tracked by the engine, with the skeleton data used for rendering.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public interface ArEngineBody extends ArEngineTrackable {
+    /**
+     * Get the body id.
+     *
+     * @return Body id.
+     */
+    int getBodyId();
+
+    /**
+     * Check whether the skeleton points are in the 3D camera coordinate system.
+     *
+     * @return True for 3D camera coordinates, false for 2D screen coordinates.
+     */
+    boolean is3dCamera();
+
+    /**
+     * Get the coordinates of the skeleton points (x, y, z), in the coordinate system given by
+     * {@link #is3dCamera()}.
+     *
+     * @return Skeleton points.
+     */
+    float[] getSkeletonPoints();
+
+    /**
+     * Get whether each skeleton point was detected, 0 means not detected.
+     *
+     * @return One flag per skeleton point.
+     */
+    int[] getSkeletonPointIsExist();
+
+    /**
+     * Get the pairs of indexes of the connected skeleton points.
+     *
+     * @return Skeleton connections.
+     */
+    int[] getBodySkeletonConnection();
+}
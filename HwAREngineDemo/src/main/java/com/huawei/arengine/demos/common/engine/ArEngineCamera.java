@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+/**
+ * Camera of a frame.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public interface ArEngineCamera extends ArEngineTrackable {
+    /**
+     * Get the pose of the physical camera in the world coordinate system.
+     *
+     * @return Pose, valid until the next update of the session.
+     */
+    ArEnginePose getPose();
+
+    /**
+     * Get the pose of the camera rotated to the orientation of the display.
+     *
+     * @return Pose, valid until the next update of the session.
+     */
+    ArEnginePose getDisplayOrientedPose();
+
+    /**
+     * Get the view matrix, the inverse of the display oriented pose.
+     *
+     * @param matrix Destination of the matrix(4 * 4).
+     * @param offset Offset of the matrix in the array.
+     */
+    void getViewMatrix(float[] matrix, int offset);
+
+    /**
+     * Get the projection matrix.
+     *
+     * @param matrix Destination of the matrix(4 * 4).
+     * @param offset Offset of the matrix in the array.
+     * @param near Distance of the near clipping plane.
+     * @param far Distance of the far clipping plane.
+     */
+    void getProjectionMatrix(float[] matrix, int offset, float near, float far);
+}
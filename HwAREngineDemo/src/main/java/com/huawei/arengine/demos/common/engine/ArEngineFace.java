@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Face tracked by the engine, with the mesh data used for rendering.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public interface ArEngineFace extends ArEngineTrackable {
+    /**
+     * Get the pose of the face in the camera coordinate system.
+     *
+     * @return Pose, valid until the next update of the session.
+     */
+    ArEnginePose getPose();
+
+    /**
+     * Get the vertices of the face mesh (x, y, z), in the coordinate system of the pose.
+     *
+     * @return Vertices, valid until the next update of the session.
+     */
+    FloatBuffer getVertices();
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+import java.nio.FloatBuffer;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Frame returned by {@link ArEngineSession#update()}.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public interface ArEngineFrame {
+    /**
+     * Get the timestamp of the camera image of the frame.
+     *
+     * @return Timestamp in nanoseconds.
+     */
+    long getTimestampNs();
+
+    /**
+     * Get the camera of the frame.
+     *
+     * @return Camera.
+     */
+    ArEngineCamera getCamera();
+
+    /**
+     * Get the planes that changed in this frame.
+     *
+     * @return Updated planes.
+     */
+    Collection<ArEnginePlane> getUpdatedPlanes();
+
+    /**
+     * Acquire the feature points of the frame, which must be released after use.
+     *
+     * @return Point cloud.
+     */
+    ArEnginePointCloud acquirePointCloud();
+
+    /**
+     * Get the intensity of the ambient light.
+     *
+     * @return Pixel intensity, 1 if the light estimate is not valid.
+     */
+    float getLightPixelIntensity();
+
+    /**
+     * Check whether the size or the rotation of the display changed since the last frame.
+     *
+     * @return True if it changed.
+     */
+    boolean hasDisplayGeometryChanged();
+
+    /**
+     * Transform the texture coordinates of the background to the display geometry.
+     *
+     * @param uvCoords Texture coordinates of the full screen quad.
+     * @param outUvCoords Transformed texture coordinates.
+     */
+    void transformDisplayUvCoords(FloatBuffer uvCoords, FloatBuffer outUvCoords);
+
+    /**
+     * Find the trackables along the ray from a point of the screen.
+     *
+     * @param x X coordinate of the point in pixels.
+     * @param y Y coordinate of the point in pixels.
+     * @return Hit results sorted by distance.
+     */
+    List<ArEngineHitResult> hitTest(float x, float y);
+}
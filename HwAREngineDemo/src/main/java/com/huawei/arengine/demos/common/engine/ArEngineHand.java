@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+/**
+ * Hand tracked by the engine, with the skeleton data used for rendering.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public interface ArEngineHand extends ArEngineTrackable {
+    /**
+     * Get the hand id.
+     *
+     * @return Hand id.
+     */
+    int getHandId();
+
+    /**
+     * Get the coordinates of the skeleton points (x, y, z), projected to the screen.
+     *
+     * @return Skeleton points.
+     */
+    float[] getHandskeletonArray();
+
+    /**
+     * Get the pairs of indexes of the connected skeleton points.
+     *
+     * @return Skeleton connections.
+     */
+    int[] getHandSkeletonConnection();
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+/**
+ * Intersection of a ray from the screen with a trackable.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public interface ArEngineHitResult {
+    /**
+     * Get the pose of the intersection.
+     *
+     * @return Hit pose.
+     */
+    ArEnginePose getHitPose();
+
+    /**
+     * Get the trackable that was hit.
+     *
+     * @return An {@link ArEnginePlane}, an {@link ArEnginePoint}, or another trackable.
+     */
+    ArEngineTrackable getTrackable();
+
+    /**
+     * Create an anchor at the hit pose, attached to the trackable.
+     *
+     * @return Anchor.
+     */
+    ArEngineAnchor createAnchor();
+}
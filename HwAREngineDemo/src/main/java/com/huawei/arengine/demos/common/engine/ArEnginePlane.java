@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Plane recognized by the engine. An implementation must return the same instance for the same
+ * plane in every frame, since the planes are used as keys of caches.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public interface ArEnginePlane extends ArEngineTrackable {
+    /**
+     * Get the pose of the center of the plane, its y axis is the normal vector of the plane.
+     *
+     * @return Center pose.
+     */
+    ArEnginePose getCenterPose();
+
+    /**
+     * Get the boundary polygon in the local x-z plane of the center pose (x1, z1, x2, z2, ...).
+     *
+     * @return Boundary polygon.
+     */
+    FloatBuffer getPlanePolygon();
+
+    /**
+     * Check whether the plane was merged into another plane.
+     *
+     * @return True if it was merged.
+     */
+    boolean isSubsumed();
+
+    /**
+     * Check whether the orientation of the plane is known, such as horizontal upward facing.
+     *
+     * @return False if its type is ARPlane.PlaneType.UNKNOWN_FACING.
+     */
+    boolean hasKnownType();
+
+    /**
+     * Get the index of the semantic label, the ordinal of ARPlane.SemanticPlaneLabel.
+     *
+     * @return Label index.
+     */
+    int getLabelIndex();
+
+    /**
+     * Check whether a pose is inside the boundary polygon.
+     *
+     * @param pose Pose to check.
+     * @return True if it is inside.
+     */
+    boolean isPoseInPolygon(ArEnginePose pose);
+}
@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+/**
+ * Feature point returned by a hit test.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public interface ArEnginePoint extends ArEngineTrackable {
+    /**
+     * Check whether the engine estimated the normal of the surface at the point.
+     *
+     * @return True if the orientation mode is ESTIMATED_SURFACE_NORMAL.
+     */
+    boolean hasSurfaceNormal();
+}
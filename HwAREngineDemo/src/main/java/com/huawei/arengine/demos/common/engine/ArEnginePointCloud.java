@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Feature points of a frame. It must be released after use.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public interface ArEnginePointCloud {
+    /**
+     * Get the timestamp of the points, which only changes when the points changed.
+     *
+     * @return Timestamp in nanoseconds.
+     */
+    long getTimestampNs();
+
+    /**
+     * Get the points (x, y, z, confidence).
+     *
+     * @return Points, valid until the point cloud is released.
+     */
+    FloatBuffer getPoints();
+
+    /**
+     * Release the point cloud.
+     */
+    void release();
+}
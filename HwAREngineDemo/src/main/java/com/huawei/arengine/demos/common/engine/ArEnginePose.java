@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+/**
+ * Translation and rotation of a trackable, with the methods of ARPose used by the demos.
+ * Unlike ARPose, an instance is reused by its owner from frame to frame, so a pose returned
+ * by the facade is only valid until the next update of the session.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public final class ArEnginePose {
+    private float mTx;
+
+    private float mTy;
+
+    private float mTz;
+
+    private float mQx;
+
+    private float mQy;
+
+    private float mQz;
+
+    private float mQw = 1.0f;
+
+    /**
+     * Set the pose.
+     *
+     * @param tx Translation along the x axis.
+     * @param ty Translation along the y axis.
+     * @param tz Translation along the z axis.
+     * @param qx X of the rotation quaternion.
+     * @param qy Y of the rotation quaternion.
+     * @param qz Z of the rotation quaternion.
+     * @param qw W of the rotation quaternion, the quaternion must be normalized.
+     */
+    public void set(float tx, float ty, float tz, float qx, float qy, float qz, float qw) {
+        mTx = tx;
+        mTy = ty;
+        mTz = tz;
+        mQx = qx;
+        mQy = qy;
+        mQz = qz;
+        mQw = qw;
+    }
+
+    /**
+     * Copy another pose.
+     *
+     * @param pose Pose to copy.
+     */
+    public void set(ArEnginePose pose) {
+        set(pose.mTx, pose.mTy, pose.mTz, pose.mQx, pose.mQy, pose.mQz, pose.mQw);
+    }
+
+    public float tx() {
+        return mTx;
+    }
+
+    public float ty() {
+        return mTy;
+    }
+
+    public float tz() {
+        return mTz;
+    }
+
+    public float qx() {
+        return mQx;
+    }
+
+    public float qy() {
+        return mQy;
+    }
+
+    public float qz() {
+        return mQz;
+    }
+
+    public float qw() {
+        return mQw;
+    }
+
+    /**
+     * Copy the translation (x, y, z).
+     *
+     * @param dest Destination array.
+     * @param offset Offset of the translation in the array.
+     */
+    public void getTranslation(float[] dest, int offset) {
+        dest[offset] = mTx;
+        dest[offset + 1] = mTy;
+        dest[offset + 2] = mTz;
+    }
+
+    /**
+     * Copy the rotation quaternion (x, y, z, w).
+     *
+     * @param dest Destination array.
+     * @param offset Offset of the quaternion in the array.
+     */
+    public void getRotationQuaternion(float[] dest, int offset) {
+        dest[offset] = mQx;
+        dest[offset + 1] = mQy;
+        dest[offset + 2] = mQz;
+        dest[offset + 3] = mQw;
+    }
+
+    /**
+     * Get an axis of the local coordinate system of the pose, like ARPose.getTransformedAxis().
+     *
+     * @param axis Index of the axis, 0 for x, 1 for y and 2 for z.
+     * @param scale Length of the returned vector.
+     * @param dest Destination array of the vector (x, y, z).
+     * @param offset Offset of the vector in the array.
+     */
+    public void getTransformedAxis(int axis, float scale, float[] dest, int offset) {
+        switch (axis) {
+            case 0:
+                dest[offset] = scale * (1.0f - 2.0f * (mQy * mQy + mQz * mQz));
+                dest[offset + 1] = scale * 2.0f * (mQx * mQy + mQw * mQz);
+                dest[offset + 2] = scale * 2.0f * (mQx * mQz - mQw * mQy);
+                break;
+            case 1:
+                dest[offset] = scale * 2.0f * (mQx * mQy - mQw * mQz);
+                dest[offset + 1] = scale * (1.0f - 2.0f * (mQx * mQx + mQz * mQz));
+                dest[offset + 2] = scale * 2.0f * (mQy * mQz + mQw * mQx);
+                break;
+            case 2:
+                dest[offset] = scale * 2.0f * (mQx * mQz + mQw * mQy);
+                dest[offset + 1] = scale * 2.0f * (mQy * mQz - mQw * mQx);
+                dest[offset + 2] = scale * (1.0f - 2.0f * (mQx * mQx + mQy * mQy));
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid axis " + axis);
+        }
+    }
+
+    /**
+     * Convert the pose to a model matrix, like ARPose.toMatrix().
+     *
+     * @param matrix Matrix(4 * 4) in column-major order.
+     * @param offset Offset of the matrix in the array.
+     */
+    public void toMatrix(float[] matrix, int offset) {
+        getTransformedAxis(0, 1.0f, matrix, offset);
+        getTransformedAxis(1, 1.0f, matrix, offset + 4);
+        getTransformedAxis(2, 1.0f, matrix, offset + 8);
+        matrix[offset + 3] = 0.0f;
+        matrix[offset + 7] = 0.0f;
+        matrix[offset + 11] = 0.0f;
+        matrix[offset + 12] = mTx;
+        matrix[offset + 13] = mTy;
+        matrix[offset + 14] = mTz;
+        matrix[offset + 15] = 1.0f;
+    }
+
+    /**
+     * Convert the inverse of the pose to a matrix, which is the view matrix when the pose is the
+     * pose of the camera. It gives the same result as ARPose.inverse().toMatrix() without
+     * creating a pose.
+     *
+     * @param matrix Matrix(4 * 4) in column-major order.
+     * @param offset Offset of the matrix in the array.
+     */
+    public void toInverseMatrix(float[] matrix, int offset) {
+        toMatrix(matrix, offset);
+
+        // The inverse of a rotation is its transpose.
+        for (int column = 0; column < 3; column++) {
+            for (int row = column + 1; row < 3; row++) {
+                float value = matrix[offset + column * 4 + row];
+                matrix[offset + column * 4 + row] = matrix[offset + row * 4 + column];
+                matrix[offset + row * 4 + column] = value;
+            }
+        }
+        for (int row = 0; row < 3; row++) {
+            matrix[offset + 12 + row] = -(matrix[offset + row] * mTx + matrix[offset + 4 + row] * mTy
+                + matrix[offset + 8 + row] * mTz);
+        }
+    }
+}
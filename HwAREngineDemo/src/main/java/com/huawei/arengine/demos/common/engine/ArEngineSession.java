@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+import java.util.Collection;
+
+/**
+ * Facade of an AR session. The render logic reads the session, the frames and the trackables
+ * through this interface, so that it runs either on AREngine with {@link HwArEngineSession} or
+ * without a device with {@link SyntheticArEngineSession}.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public interface ArEngineSession {
+    /**
+     * Set the OpenGL texture that receives the camera image.
+     *
+     * @param textureId Texture name of a GL_TEXTURE_EXTERNAL_OES texture.
+     */
+    void setCameraTextureName(int textureId);
+
+    /**
+     * Set the rotation and the size of the display.
+     *
+     * @param displayRotation Rotation of the display, such as Surface.ROTATION_0.
+     * @param width Width of the display in pixels.
+     * @param height Height of the display in pixels.
+     */
+    void setDisplayGeometry(int displayRotation, int width, int height);
+
+    /**
+     * Update the state of the session and get the frame of the latest camera image.
+     *
+     * @return Frame, valid until the next update.
+     */
+    ArEngineFrame update();
+
+    /**
+     * Get all the planes of the session.
+     *
+     * @return Planes.
+     */
+    Collection<ArEnginePlane> getAllPlanes();
+
+    /**
+     * Get all the anchors of the session.
+     *
+     * @return Anchors.
+     */
+    Collection<ArEngineAnchor> getAllAnchors();
+
+    /**
+     * Get the hands of the session.
+     *
+     * @return Hands.
+     */
+    Collection<ArEngineHand> getAllHands();
+
+    /**
+     * Get the bodies of the session.
+     *
+     * @return Bodies.
+     */
+    Collection<ArEngineBody> getAllBodies();
+
+    /**
+     * Get the faces of the session.
+     *
+     * @return Faces.
+     */
+    Collection<ArEngineFace> getAllFaces();
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+/**
+ * Object tracked by the engine, such as a plane or a hand.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public interface ArEngineTrackable {
+    /**
+     * Tracking state of a trackable, the same values as ARTrackable.TrackingState.
+     */
+    enum TrackingState {
+        TRACKING,
+        PAUSED,
+        STOPPED
+    }
+
+    /**
+     * Get the tracking state.
+     *
+     * @return Tracking state.
+     */
+    TrackingState getTrackingState();
+}
@@ -0,0 +1,563 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+import com.huawei.hiar.ARAnchor;
+import com.huawei.hiar.ARBody;
+import com.huawei.hiar.ARCamera;
+import com.huawei.hiar.ARCoordinateSystemType;
+import com.huawei.hiar.ARFace;
+import com.huawei.hiar.ARFaceGeometry;
+import com.huawei.hiar.ARFrame;
+import com.huawei.hiar.ARHand;
+import com.huawei.hiar.ARHitResult;
+import com.huawei.hiar.ARLightEstimate;
+import com.huawei.hiar.ARPlane;
+import com.huawei.hiar.ARPoint;
+import com.huawei.hiar.ARPointCloud;
+import com.huawei.hiar.ARPose;
+import com.huawei.hiar.ARSession;
+import com.huawei.hiar.ARTrackable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * {@link ArEngineSession} on top of an ARSession of AREngine. Each trackable of AREngine keeps
+ * the same wrapper from frame to frame, and the wrappers, the poses and the returned
+ * collections are reused, so the adapter does not add allocations to the frame loop.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public class HwArEngineSession implements ArEngineSession {
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private final ARSession mSession;
+
+    private final HwFrame mFrame = new HwFrame();
+
+    private final HashMap<ARPlane, HwPlane> mPlanes = new HashMap<>();
+
+    private final HashMap<ARAnchor, HwAnchor> mAnchors = new HashMap<>();
+
+    private final HashMap<ARHand, HwHand> mHands = new HashMap<>();
+
+    private final HashMap<ARBody, HwBody> mBodies = new HashMap<>();
+
+    private final HashMap<ARFace, HwFace> mFaces = new HashMap<>();
+
+    private final ArrayList<ArEnginePlane> mPlaneList = new ArrayList<>();
+
+    private final ArrayList<ArEngineAnchor> mAnchorList = new ArrayList<>();
+
+    private final ArrayList<ArEngineHand> mHandList = new ArrayList<>();
+
+    private final ArrayList<ArEngineBody> mBodyList = new ArrayList<>();
+
+    private final ArrayList<ArEngineFace> mFaceList = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param session Configured session of AREngine.
+     */
+    public HwArEngineSession(ARSession session) {
+        mSession = session;
+    }
+
+    /**
+     * Get the wrapped session, for the calls that are not part of the facade.
+     *
+     * @return Session of AREngine.
+     */
+    public ARSession getSession() {
+        return mSession;
+    }
+
+    @Override
+    public void setCameraTextureName(int textureId) {
+        mSession.setCameraTextureName(textureId);
+    }
+
+    @Override
+    public void setDisplayGeometry(int displayRotation, int width, int height) {
+        mSession.setDisplayGeometry(displayRotation, width, height);
+    }
+
+    @Override
+    public ArEngineFrame update() {
+        mFrame.mFrame = mSession.update();
+        mFrame.mCamera.mCamera = mFrame.mFrame.getCamera();
+        return mFrame;
+    }
+
+    @Override
+    public Collection<ArEnginePlane> getAllPlanes() {
+        wrapPlanes(mSession.getAllTrackables(ARPlane.class), mPlaneList);
+        return mPlaneList;
+    }
+
+    @Override
+    public Collection<ArEngineAnchor> getAllAnchors() {
+        mAnchorList.clear();
+        for (ARAnchor anchor : mSession.getAllAnchors()) {
+            mAnchorList.add(wrapAnchor(anchor));
+        }
+        return mAnchorList;
+    }
+
+    @Override
+    public Collection<ArEngineHand> getAllHands() {
+        mHandList.clear();
+        for (ARHand hand : mSession.getAllTrackables(ARHand.class)) {
+            HwHand wrapper = mHands.get(hand);
+            if (wrapper == null) {
+                wrapper = new HwHand(hand);
+                mHands.put(hand, wrapper);
+            }
+            mHandList.add(wrapper);
+        }
+        return mHandList;
+    }
+
+    @Override
+    public Collection<ArEngineBody> getAllBodies() {
+        mBodyList.clear();
+        for (ARBody body : mSession.getAllTrackables(ARBody.class)) {
+            HwBody wrapper = mBodies.get(body);
+            if (wrapper == null) {
+                wrapper = new HwBody(body);
+                mBodies.put(body, wrapper);
+            }
+            mBodyList.add(wrapper);
+        }
+        return mBodyList;
+    }
+
+    @Override
+    public Collection<ArEngineFace> getAllFaces() {
+        mFaceList.clear();
+        for (ARFace face : mSession.getAllTrackables(ARFace.class)) {
+            HwFace wrapper = mFaces.get(face);
+            if (wrapper == null) {
+                wrapper = new HwFace(face);
+                mFaces.put(face, wrapper);
+            }
+            mFaceList.add(wrapper);
+        }
+        return mFaceList;
+    }
+
+    private void wrapPlanes(Collection<ARPlane> planes, ArrayList<ArEnginePlane> wrappers) {
+        wrappers.clear();
+        for (ARPlane plane : planes) {
+            HwPlane wrapper = mPlanes.get(plane);
+            if (wrapper == null) {
+                wrapper = new HwPlane(plane);
+                mPlanes.put(plane, wrapper);
+            }
+            wrappers.add(wrapper);
+
+            // A merged or stopped plane is reported for the last time.
+            if (plane.getSubsumedBy() != null || plane.getTrackingState() == ARTrackable.TrackingState.STOPPED) {
+                mPlanes.remove(plane);
+            }
+        }
+    }
+
+    private HwAnchor wrapAnchor(ARAnchor anchor) {
+        HwAnchor wrapper = mAnchors.get(anchor);
+        if (wrapper == null) {
+            wrapper = new HwAnchor(anchor);
+            mAnchors.put(anchor, wrapper);
+        }
+        return wrapper;
+    }
+
+    private static ArEngineTrackable.TrackingState convert(ARTrackable.TrackingState state) {
+        switch (state) {
+            case TRACKING:
+                return ArEngineTrackable.TrackingState.TRACKING;
+            case PAUSED:
+                return ArEngineTrackable.TrackingState.PAUSED;
+            default:
+                return ArEngineTrackable.TrackingState.STOPPED;
+        }
+    }
+
+    private static void copyPose(ARPose source, ArEnginePose target) {
+        target.set(source.tx(), source.ty(), source.tz(), source.qx(), source.qy(), source.qz(), source.qw());
+    }
+
+    private static ARPose toArPose(ArEnginePose pose) {
+        return new ARPose(new float[] {pose.tx(), pose.ty(), pose.tz()},
+            new float[] {pose.qx(), pose.qy(), pose.qz(), pose.qw()});
+    }
+
+    private class HwFrame implements ArEngineFrame {
+        private final HwCamera mCamera = new HwCamera();
+
+        private final HwPointCloud mPointCloud = new HwPointCloud();
+
+        private final ArrayList<ArEnginePlane> mUpdatedPlanes = new ArrayList<>();
+
+        private ARFrame mFrame;
+
+        @Override
+        public long getTimestampNs() {
+            return mFrame.getTimestampNs();
+        }
+
+        @Override
+        public ArEngineCamera getCamera() {
+            return mCamera;
+        }
+
+        @Override
+        public Collection<ArEnginePlane> getUpdatedPlanes() {
+            wrapPlanes(mFrame.getUpdatedTrackables(ARPlane.class), mUpdatedPlanes);
+            return mUpdatedPlanes;
+        }
+
+        @Override
+        public ArEnginePointCloud acquirePointCloud() {
+            mPointCloud.mPointCloud = mFrame.acquirePointCloud();
+            return mPointCloud;
+        }
+
+        @Override
+        public float getLightPixelIntensity() {
+            ARLightEstimate lightEstimate = mFrame.getLightEstimate();
+            if (lightEstimate.getState() == ARLightEstimate.State.NOT_VALID) {
+                return 1.0f;
+            }
+            return lightEstimate.getPixelIntensity();
+        }
+
+        @Override
+        public boolean hasDisplayGeometryChanged() {
+            return mFrame.hasDisplayGeometryChanged();
+        }
+
+        @Override
+        public void transformDisplayUvCoords(FloatBuffer uvCoords, FloatBuffer outUvCoords) {
+            mFrame.transformDisplayUvCoords(uvCoords, outUvCoords);
+        }
+
+        @Override
+        public List<ArEngineHitResult> hitTest(float x, float y) {
+            List<ARHitResult> hitResults = mFrame.hitTest(x, y);
+            List<ArEngineHitResult> wrappers = new ArrayList<>(hitResults.size());
+            for (ARHitResult hitResult : hitResults) {
+                wrappers.add(new HwHitResult(hitResult));
+            }
+            return wrappers;
+        }
+    }
+
+    private static class HwCamera implements ArEngineCamera {
+        private final ArEnginePose mPose = new ArEnginePose();
+
+        private final ArEnginePose mDisplayOrientedPose = new ArEnginePose();
+
+        private ARCamera mCamera;
+
+        @Override
+        public TrackingState getTrackingState() {
+            return convert(mCamera.getTrackingState());
+        }
+
+        @Override
+        public ArEnginePose getPose() {
+            copyPose(mCamera.getPose(), mPose);
+            return mPose;
+        }
+
+        @Override
+        public ArEnginePose getDisplayOrientedPose() {
+            copyPose(mCamera.getDisplayOrientedPose(), mDisplayOrientedPose);
+            return mDisplayOrientedPose;
+        }
+
+        @Override
+        public void getViewMatrix(float[] matrix, int offset) {
+            mCamera.getViewMatrix(matrix, offset);
+        }
+
+        @Override
+        public void getProjectionMatrix(float[] matrix, int offset, float near, float far) {
+            mCamera.getProjectionMatrix(matrix, offset, near, far);
+        }
+    }
+
+    private static class HwPointCloud implements ArEnginePointCloud {
+        private ARPointCloud mPointCloud;
+
+        @Override
+        public long getTimestampNs() {
+            return mPointCloud.getTimestampNs();
+        }
+
+        @Override
+        public FloatBuffer getPoints() {
+            return mPointCloud.getPoints();
+        }
+
+        @Override
+        public void release() {
+            mPointCloud.release();
+            mPointCloud = null;
+        }
+    }
+
+    private static class HwPlane implements ArEnginePlane {
+        private final ARPlane mPlane;
+
+        private final ArEnginePose mCenterPose = new ArEnginePose();
+
+        HwPlane(ARPlane plane) {
+            mPlane = plane;
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return convert(mPlane.getTrackingState());
+        }
+
+        @Override
+        public ArEnginePose getCenterPose() {
+            copyPose(mPlane.getCenterPose(), mCenterPose);
+            return mCenterPose;
+        }
+
+        @Override
+        public FloatBuffer getPlanePolygon() {
+            return mPlane.getPlanePolygon();
+        }
+
+        @Override
+        public boolean isSubsumed() {
+            return mPlane.getSubsumedBy() != null;
+        }
+
+        @Override
+        public boolean hasKnownType() {
+            return mPlane.getType() != ARPlane.PlaneType.UNKNOWN_FACING;
+        }
+
+        @Override
+        public int getLabelIndex() {
+            // Enumeration does not provide a method to get enumeration ordinal.
+            return Math.abs(mPlane.getLabel().ordinal());
+        }
+
+        @Override
+        public boolean isPoseInPolygon(ArEnginePose pose) {
+            return mPlane.isPoseInPolygon(toArPose(pose));
+        }
+    }
+
+    private static class HwPoint implements ArEnginePoint {
+        private final ARPoint mPoint;
+
+        HwPoint(ARPoint point) {
+            mPoint = point;
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return convert(mPoint.getTrackingState());
+        }
+
+        @Override
+        public boolean hasSurfaceNormal() {
+            return mPoint.getOrientationMode() == ARPoint.OrientationMode.ESTIMATED_SURFACE_NORMAL;
+        }
+    }
+
+    private class HwHitResult implements ArEngineHitResult {
+        private final ARHitResult mHitResult;
+
+        private final ArEnginePose mHitPose = new ArEnginePose();
+
+        private final ArEngineTrackable mTrackable;
+
+        HwHitResult(ARHitResult hitResult) {
+            mHitResult = hitResult;
+            copyPose(hitResult.getHitPose(), mHitPose);
+            ARTrackable trackable = hitResult.getTrackable();
+            if (trackable instanceof ARPlane) {
+                HwPlane plane = mPlanes.get(trackable);
+                mTrackable = plane != null ? plane : new HwPlane((ARPlane) trackable);
+            } else if (trackable instanceof ARPoint) {
+                mTrackable = new HwPoint((ARPoint) trackable);
+            } else {
+                final ARTrackable other = trackable;
+                mTrackable = new ArEngineTrackable() {
+                    @Override
+                    public TrackingState getTrackingState() {
+                        return convert(other.getTrackingState());
+                    }
+                };
+            }
+        }
+
+        @Override
+        public ArEnginePose getHitPose() {
+            return mHitPose;
+        }
+
+        @Override
+        public ArEngineTrackable getTrackable() {
+            return mTrackable;
+        }
+
+        @Override
+        public ArEngineAnchor createAnchor() {
+            return wrapAnchor(mHitResult.createAnchor());
+        }
+    }
+
+    private class HwAnchor implements ArEngineAnchor {
+        private final ARAnchor mAnchor;
+
+        private final ArEnginePose mPose = new ArEnginePose();
+
+        HwAnchor(ARAnchor anchor) {
+            mAnchor = anchor;
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return convert(mAnchor.getTrackingState());
+        }
+
+        @Override
+        public ArEnginePose getPose() {
+            copyPose(mAnchor.getPose(), mPose);
+            return mPose;
+        }
+
+        @Override
+        public void detach() {
+            mAnchor.detach();
+            mAnchors.remove(mAnchor);
+        }
+    }
+
+    private static class HwHand implements ArEngineHand {
+        private final ARHand mHand;
+
+        HwHand(ARHand hand) {
+            mHand = hand;
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return convert(mHand.getTrackingState());
+        }
+
+        @Override
+        public int getHandId() {
+            return mHand.getHandID();
+        }
+
+        @Override
+        public float[] getHandskeletonArray() {
+            return mHand.getHandskeletonArray();
+        }
+
+        @Override
+        public int[] getHandSkeletonConnection() {
+            return mHand.getHandSkeletonConnection();
+        }
+    }
+
+    private static class HwBody implements ArEngineBody {
+        private final ARBody mBody;
+
+        HwBody(ARBody body) {
+            mBody = body;
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return convert(mBody.getTrackingState());
+        }
+
+        @Override
+        public int getBodyId() {
+            return mBody.getBodyId();
+        }
+
+        @Override
+        public boolean is3dCamera() {
+            return mBody.getCoordinateSystemType() == ARCoordinateSystemType.COORDINATE_SYSTEM_TYPE_3D_CAMERA;
+        }
+
+        @Override
+        public float[] getSkeletonPoints() {
+            return is3dCamera() ? mBody.getSkeletonPoint3D() : mBody.getSkeletonPoint2D();
+        }
+
+        @Override
+        public int[] getSkeletonPointIsExist() {
+            return is3dCamera() ? mBody.getSkeletonPointIsExist3D() : mBody.getSkeletonPointIsExist2D();
+        }
+
+        @Override
+        public int[] getBodySkeletonConnection() {
+            return mBody.getBodySkeletonConnection();
+        }
+    }
+
+    private static class HwFace implements ArEngineFace {
+        private final ARFace mFace;
+
+        private final ArEnginePose mPose = new ArEnginePose();
+
+        private FloatBuffer mVertices = ByteBuffer.allocateDirect(0).order(ByteOrder.nativeOrder()).asFloatBuffer();
+
+        HwFace(ARFace face) {
+            mFace = face;
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return convert(mFace.getTrackingState());
+        }
+
+        @Override
+        public ArEnginePose getPose() {
+            copyPose(mFace.getPose(), mPose);
+            return mPose;
+        }
+
+        @Override
+        public FloatBuffer getVertices() {
+            // The buffer of the geometry is only valid until the geometry is released, so it is copied.
+            ARFaceGeometry faceGeometry = mFace.getFaceGeometry();
+            try {
+                FloatBuffer vertices = faceGeometry.getVertices();
+                if (mVertices.capacity() < vertices.remaining()) {
+                    mVertices = ByteBuffer.allocateDirect(BYTES_PER_FLOAT * vertices.remaining())
+                        .order(ByteOrder.nativeOrder()).asFloatBuffer();
+                }
+                mVertices.clear();
+                mVertices.put(vertices);
+                mVertices.flip();
+            } finally {
+                faceGeometry.release();
+            }
+            return mVertices;
+        }
+    }
+}
@@ -0,0 +1,801 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.common.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@link ArEngineSession} that generates a scene instead of tracking the camera image, so that
+ * the render logic can be run and measured without a device, with many more trackables than a
+ * real scene has, such as 1,000 planes and 500 anchors.
+ *
+ * <p>The scene is scripted by the frame index, and the random layout is seeded, so two runs
+ * with the same configuration produce the same frames. Each frame is 1/30 s after the previous
+ * one, whatever the time needed to render it:
+ * <ul>
+ * <li>the camera turns around the origin at the height of the eyes;</li>
+ * <li>the planes are laid out on a grid with the six semantic labels. Their polygons grow during
+ * the first seconds, and a part of them is refined and reported as updated in every frame. From
+ * time to time, a plane is merged into another one and replaced by a new plane;</li>
+ * <li>the points of the point cloud move slightly in every frame;</li>
+ * <li>the anchors are spread on the floor and bob up and down;</li>
+ * <li>the hands, the bodies and the faces move their joints and vertices along sine waves.</li>
+ * </ul>
+ * Hit tests return no result.
+ *
+ * <p>The trackables are only created or removed when the counts change, and the frame, the
+ * poses, the buffers and the collections are reused, so the engine itself does not allocate in
+ * the frame loop and the allocations that are measured belong to the render logic.
+ *
+ * @author HW
+ * @since 2020-04-20
+ */
+public class SyntheticArEngineSession implements ArEngineSession {
+    private static final long FRAME_INTERVAL_NS = 33333333L;
+
+    private static final float FRAME_INTERVAL_S = 1.0f / 30.0f;
+
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private static final int FLOATS_PER_POINT = 4;
+
+    private static final float CAMERA_HEIGHT = 1.5f;
+
+    private static final float CAMERA_RADIUS = 2.0f;
+
+    // Angular speed of the camera around the origin, in radians per second.
+    private static final float CAMERA_SPEED = 0.3f;
+
+    private static final float FIELD_OF_VIEW_Y = (float) Math.toRadians(60.0);
+
+    private static final int LABEL_COUNT = 6;
+
+    private static final int WALL_LABEL = 1;
+
+    private static final int PLANE_GRID_COLUMNS = 32;
+
+    private static final float PLANE_SPACING = 1.5f;
+
+    private static final int PLANE_POLYGON_VERTICES = 8;
+
+    private static final float PLANE_MIN_RADIUS = 0.2f;
+
+    private static final float PLANE_MAX_RADIUS = 0.6f;
+
+    // Frames during which the polygon of a new plane grows.
+    private static final int PLANE_GROWTH_FRAMES = 90;
+
+    // One plane out of this number is refined, and reported as updated, in every frame.
+    private static final int PLANE_REFINE_DIVISOR = 10;
+
+    // A plane is merged into another one every this number of frames.
+    private static final int PLANE_MERGE_INTERVAL = 60;
+
+    private static final int ANCHOR_GRID_COLUMNS = 25;
+
+    private static final float ANCHOR_SPACING = 0.4f;
+
+    private static final float POINT_CLOUD_EXTENT = 4.0f;
+
+    private static final int HAND_FINGERS = 5;
+
+    private static final int HAND_JOINTS_PER_FINGER = 4;
+
+    private static final int HAND_JOINT_COUNT = 1 + HAND_FINGERS * HAND_JOINTS_PER_FINGER;
+
+    // Pairs of joints of the body: head, arms, spine, legs, then feet, hands and face.
+    private static final int[] BODY_CONNECTIONS = {
+        0, 1, 1, 2, 2, 3, 3, 4, 1, 5, 5, 6, 6, 7, 1, 8, 8, 9, 9, 10, 10, 11, 8, 12, 12, 13, 13, 14,
+        11, 15, 14, 16, 4, 17, 7, 18, 0, 19, 0, 20, 19, 21, 20, 22
+    };
+
+    private static final int BODY_JOINT_COUNT = 23;
+
+    private static final int FACE_GRID_SIZE = 40;
+
+    private final Random mRandom;
+
+    private final SyntheticFrame mFrame = new SyntheticFrame();
+
+    private final ArrayList<SyntheticPlane> mPlanes = new ArrayList<>();
+
+    private final ArrayList<ArEnginePlane> mAllPlanes = new ArrayList<>();
+
+    private final ArrayList<ArEngineAnchor> mAnchors = new ArrayList<>();
+
+    private final ArrayList<ArEngineHand> mHands = new ArrayList<>();
+
+    private final ArrayList<ArEngineBody> mBodies = new ArrayList<>();
+
+    private final ArrayList<ArEngineFace> mFaces = new ArrayList<>();
+
+    private int mPlaneCount = 0;
+
+    private int mPointCount = 0;
+
+    private int mAnchorCount = 0;
+
+    private int mHandCount = 0;
+
+    private int mBodyCount = 0;
+
+    private int mFaceCount = 0;
+
+    private int mDisplayWidth = 1080;
+
+    private int mDisplayHeight = 2340;
+
+    private boolean mIsDisplayGeometryChanged = true;
+
+    private long mFrameIndex = 0;
+
+    // Number of planes created so far, used as the position of the next plane on the grid.
+    private int mCreatedPlaneCount = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param seed Seed of the random layout of the scene.
+     */
+    public SyntheticArEngineSession(long seed) {
+        mRandom = new Random(seed);
+    }
+
+    /**
+     * Set the number of planes, applied at the next update.
+     *
+     * @param planeCount Number of planes.
+     */
+    public void setPlaneCount(int planeCount) {
+        mPlaneCount = Math.max(planeCount, 0);
+    }
+
+    /**
+     * Set the number of points of the point cloud, applied at the next update.
+     *
+     * @param pointCount Number of points.
+     */
+    public void setPointCount(int pointCount) {
+        mPointCount = Math.max(pointCount, 0);
+    }
+
+    /**
+     * Set the number of anchors, applied at the next update.
+     *
+     * @param anchorCount Number of anchors.
+     */
+    public void setAnchorCount(int anchorCount) {
+        mAnchorCount = Math.max(anchorCount, 0);
+    }
+
+    /**
+     * Set the number of hands, applied at the next update.
+     *
+     * @param handCount Number of hands.
+     */
+    public void setHandCount(int handCount) {
+        mHandCount = Math.max(handCount, 0);
+    }
+
+    /**
+     * Set the number of bodies, applied at the next update.
+     *
+     * @param bodyCount Number of bodies.
+     */
+    public void setBodyCount(int bodyCount) {
+        mBodyCount = Math.max(bodyCount, 0);
+    }
+
+    /**
+     * Set the number of faces, applied at the next update.
+     *
+     * @param faceCount Number of faces.
+     */
+    public void setFaceCount(int faceCount) {
+        mFaceCount = Math.max(faceCount, 0);
+    }
+
+    @Override
+    public void setCameraTextureName(int textureId) {
+    }
+
+    @Override
+    public void setDisplayGeometry(int displayRotation, int width, int height) {
+        mDisplayWidth = width;
+        mDisplayHeight = height;
+        mIsDisplayGeometryChanged = true;
+    }
+
+    @Override
+    public ArEngineFrame update() {
+        mFrameIndex++;
+        float time = mFrameIndex * FRAME_INTERVAL_S;
+        mFrame.mTimestampNs = mFrameIndex * FRAME_INTERVAL_NS;
+        mFrame.mIsDisplayGeometryChanged = mIsDisplayGeometryChanged;
+        mIsDisplayGeometryChanged = false;
+        mFrame.mCamera.update(time, (float) mDisplayWidth / Math.max(mDisplayHeight, 1));
+        updatePlanes();
+        mFrame.mPointCloud.update(mPointCount, mRandom);
+        updateAnchors(time);
+        updateHands(time);
+        updateBodies(time);
+        updateFaces(time);
+        return mFrame;
+    }
+
+    @Override
+    public Collection<ArEnginePlane> getAllPlanes() {
+        mAllPlanes.clear();
+        mAllPlanes.addAll(mPlanes);
+        return mAllPlanes;
+    }
+
+    @Override
+    public Collection<ArEngineAnchor> getAllAnchors() {
+        return mAnchors;
+    }
+
+    @Override
+    public Collection<ArEngineHand> getAllHands() {
+        return mHands;
+    }
+
+    @Override
+    public Collection<ArEngineBody> getAllBodies() {
+        return mBodies;
+    }
+
+    @Override
+    public Collection<ArEngineFace> getAllFaces() {
+        return mFaces;
+    }
+
+    private void updatePlanes() {
+        ArrayList<ArEnginePlane> updatedPlanes = mFrame.mUpdatedPlanes;
+        updatedPlanes.clear();
+
+        // Planes merged in the previous frame have been reported, they are replaced by new planes.
+        for (int i = mPlanes.size() - 1; i >= 0; i--) {
+            if (mPlanes.get(i).mIsSubsumed || i >= mPlaneCount) {
+                mPlanes.get(i).mIsSubsumed = true;
+                updatedPlanes.add(mPlanes.remove(i));
+            }
+        }
+        while (mPlanes.size() < mPlaneCount) {
+            mPlanes.add(new SyntheticPlane(mCreatedPlaneCount++, mFrameIndex, mRandom));
+        }
+        int size = mPlanes.size();
+        if (size == 0) {
+            return;
+        }
+        if (mFrameIndex % PLANE_MERGE_INTERVAL == 0) {
+            SyntheticPlane merged = mPlanes.get((int) (mFrameIndex / PLANE_MERGE_INTERVAL % size));
+            merged.mIsSubsumed = true;
+            updatedPlanes.add(merged);
+        }
+        int refineCount = Math.max(size / PLANE_REFINE_DIVISOR, 1);
+        int refineStart = (int) (mFrameIndex * refineCount % size);
+        for (int i = 0; i < size; i++) {
+            SyntheticPlane plane = mPlanes.get(i);
+            if (plane.mIsSubsumed) {
+                continue;
+            }
+            boolean isRefined = ((i - refineStart + size) % size) < refineCount;
+            if (plane.update(mFrameIndex, isRefined)) {
+                updatedPlanes.add(plane);
+            }
+        }
+    }
+
+    private void updateAnchors(float time) {
+        while (mAnchors.size() > mAnchorCount) {
+            mAnchors.remove(mAnchors.size() - 1);
+        }
+        while (mAnchors.size() < mAnchorCount) {
+            mAnchors.add(new SyntheticAnchor(mAnchors.size()));
+        }
+        for (int i = 0; i < mAnchors.size(); i++) {
+            ((SyntheticAnchor) mAnchors.get(i)).update(time);
+        }
+    }
+
+    private void updateHands(float time) {
+        while (mHands.size() > mHandCount) {
+            mHands.remove(mHands.size() - 1);
+        }
+        while (mHands.size() < mHandCount) {
+            mHands.add(new SyntheticHand(mHands.size()));
+        }
+        for (int i = 0; i < mHands.size(); i++) {
+            ((SyntheticHand) mHands.get(i)).update(time);
+        }
+    }
+
+    private void updateBodies(float time) {
+        while (mBodies.size() > mBodyCount) {
+            mBodies.remove(mBodies.size() - 1);
+        }
+        while (mBodies.size() < mBodyCount) {
+            mBodies.add(new SyntheticBody(mBodies.size()));
+        }
+        for (int i = 0; i < mBodies.size(); i++) {
+            ((SyntheticBody) mBodies.get(i)).update(time);
+        }
+    }
+
+    private void updateFaces(float time) {
+        while (mFaces.size() > mFaceCount) {
+            mFaces.remove(mFaces.size() - 1);
+        }
+        while (mFaces.size() < mFaceCount) {
+            mFaces.add(new SyntheticFace(mFaces.size()));
+        }
+        for (int i = 0; i < mFaces.size(); i++) {
+            ((SyntheticFace) mFaces.get(i)).update(time);
+        }
+    }
+
+    private static FloatBuffer allocateFloats(int count) {
+        return ByteBuffer.allocateDirect(BYTES_PER_FLOAT * count).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    private static class SyntheticFrame implements ArEngineFrame {
+        private final SyntheticCamera mCamera = new SyntheticCamera();
+
+        private final SyntheticPointCloud mPointCloud = new SyntheticPointCloud();
+
+        private final ArrayList<ArEnginePlane> mUpdatedPlanes = new ArrayList<>();
+
+        private long mTimestampNs;
+
+        private boolean mIsDisplayGeometryChanged;
+
+        @Override
+        public long getTimestampNs() {
+            return mTimestampNs;
+        }
+
+        @Override
+        public ArEngineCamera getCamera() {
+            return mCamera;
+        }
+
+        @Override
+        public Collection<ArEnginePlane> getUpdatedPlanes() {
+            return mUpdatedPlanes;
+        }
+
+        @Override
+        public ArEnginePointCloud acquirePointCloud() {
+            return mPointCloud;
+        }
+
+        @Override
+        public float getLightPixelIntensity() {
+            return 1.0f;
+        }
+
+        @Override
+        public boolean hasDisplayGeometryChanged() {
+            return mIsDisplayGeometryChanged;
+        }
+
+        @Override
+        public void transformDisplayUvCoords(FloatBuffer uvCoords, FloatBuffer outUvCoords) {
+            int position = uvCoords.position();
+            outUvCoords.clear();
+            outUvCoords.put(uvCoords);
+            outUvCoords.flip();
+            uvCoords.position(position);
+        }
+
+        @Override
+        public List<ArEngineHitResult> hitTest(float x, float y) {
+            return Collections.emptyList();
+        }
+    }
+
+    private static class SyntheticCamera implements ArEngineCamera {
+        private final ArEnginePose mPose = new ArEnginePose();
+
+        private float mAspect = 1.0f;
+
+        void update(float time, float aspect) {
+            mAspect = aspect;
+
+            // Looking towards the origin, the forward direction of the camera is its -z axis.
+            float angle = CAMERA_SPEED * time;
+            mPose.set(CAMERA_RADIUS * (float) Math.sin(angle), CAMERA_HEIGHT, CAMERA_RADIUS * (float) Math.cos(angle),
+                0.0f, (float) Math.sin(angle / 2.0f), 0.0f, (float) Math.cos(angle / 2.0f));
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return TrackingState.TRACKING;
+        }
+
+        @Override
+        public ArEnginePose getPose() {
+            return mPose;
+        }
+
+        @Override
+        public ArEnginePose getDisplayOrientedPose() {
+            return mPose;
+        }
+
+        @Override
+        public void getViewMatrix(float[] matrix, int offset) {
+            mPose.toInverseMatrix(matrix, offset);
+        }
+
+        @Override
+        public void getProjectionMatrix(float[] matrix, int offset, float near, float far) {
+            float focal = 1.0f / (float) Math.tan(FIELD_OF_VIEW_Y / 2.0f);
+            for (int i = 0; i < 16; i++) {
+                matrix[offset + i] = 0.0f;
+            }
+            matrix[offset] = focal / mAspect;
+            matrix[offset + 5] = focal;
+            matrix[offset + 10] = (far + near) / (near - far);
+            matrix[offset + 11] = -1.0f;
+            matrix[offset + 14] = 2.0f * far * near / (near - far);
+        }
+    }
+
+    private static class SyntheticPointCloud implements ArEnginePointCloud {
+        private FloatBuffer mPoints = allocateFloats(0);
+
+        private long mTimestampNs;
+
+        void update(int pointCount, Random random) {
+            int floatCount = pointCount * FLOATS_PER_POINT;
+            if (mPoints.capacity() != floatCount) {
+                mPoints = allocateFloats(floatCount);
+                for (int i = 0; i < floatCount; i += FLOATS_PER_POINT) {
+                    mPoints.put(i, (random.nextFloat() - 0.5f) * POINT_CLOUD_EXTENT);
+                    mPoints.put(i + 1, random.nextFloat() * CAMERA_HEIGHT);
+                    mPoints.put(i + 2, (random.nextFloat() - 0.5f) * POINT_CLOUD_EXTENT);
+                    mPoints.put(i + 3, random.nextFloat());
+                }
+            }
+
+            // Each point moves a little, like the refined depth of a real point cloud.
+            for (int i = 0; i < floatCount; i += FLOATS_PER_POINT) {
+                mPoints.put(i + 1, mPoints.get(i + 1) + (random.nextFloat() - 0.5f) * 0.002f);
+            }
+            mPoints.clear();
+            mTimestampNs++;
+        }
+
+        @Override
+        public long getTimestampNs() {
+            return mTimestampNs;
+        }
+
+        @Override
+        public FloatBuffer getPoints() {
+            return mPoints;
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+
+    private static class SyntheticPlane implements ArEnginePlane {
+        private final ArEnginePose mCenterPose = new ArEnginePose();
+
+        private final FloatBuffer mPolygon = allocateFloats(PLANE_POLYGON_VERTICES * 2);
+
+        private final int mLabelIndex;
+
+        private final long mCreatedFrame;
+
+        private final float mMaxRadius;
+
+        private boolean mIsSubsumed = false;
+
+        SyntheticPlane(int index, long frameIndex, Random random) {
+            mLabelIndex = index % LABEL_COUNT;
+            mCreatedFrame = frameIndex;
+            mMaxRadius = PLANE_MIN_RADIUS + random.nextFloat() * (PLANE_MAX_RADIUS - PLANE_MIN_RADIUS);
+            float x = (index % PLANE_GRID_COLUMNS - PLANE_GRID_COLUMNS / 2) * PLANE_SPACING;
+            float z = -(index / PLANE_GRID_COLUMNS) * PLANE_SPACING;
+            float y = mLabelIndex * 0.5f;
+            if (mLabelIndex == WALL_LABEL) {
+                // A wall is vertical, its normal vector, the y axis, points to +z.
+                float half = (float) Math.sqrt(0.5);
+                mCenterPose.set(x, y, z, half, 0.0f, 0.0f, half);
+            } else {
+                mCenterPose.set(x, y, z, 0.0f, 0.0f, 0.0f, 1.0f);
+            }
+            setPolygon(PLANE_MIN_RADIUS);
+        }
+
+        /**
+         * Grow or refine the plane.
+         *
+         * @return True if the plane changed, so it is reported as updated.
+         */
+        boolean update(long frameIndex, boolean isRefined) {
+            long age = frameIndex - mCreatedFrame;
+            if (age <= PLANE_GROWTH_FRAMES) {
+                setPolygon(PLANE_MIN_RADIUS + (mMaxRadius - PLANE_MIN_RADIUS) * age / PLANE_GROWTH_FRAMES);
+                return true;
+            }
+            if (isRefined) {
+                // Refining the pose does not change the polygon.
+                mCenterPose.set(mCenterPose.tx(), mCenterPose.ty() + 0.0001f * (float) Math.sin(frameIndex),
+                    mCenterPose.tz(), mCenterPose.qx(), mCenterPose.qy(), mCenterPose.qz(), mCenterPose.qw());
+                return true;
+            }
+            return false;
+        }
+
+        private void setPolygon(float radius) {
+            mPolygon.clear();
+            for (int i = 0; i < PLANE_POLYGON_VERTICES; i++) {
+                double angle = 2.0 * Math.PI * i / PLANE_POLYGON_VERTICES;
+                mPolygon.put(radius * (float) Math.cos(angle)).put(radius * (float) Math.sin(angle));
+            }
+            mPolygon.flip();
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return TrackingState.TRACKING;
+        }
+
+        @Override
+        public ArEnginePose getCenterPose() {
+            return mCenterPose;
+        }
+
+        @Override
+        public FloatBuffer getPlanePolygon() {
+            mPolygon.rewind();
+            return mPolygon;
+        }
+
+        @Override
+        public boolean isSubsumed() {
+            return mIsSubsumed;
+        }
+
+        @Override
+        public boolean hasKnownType() {
+            return true;
+        }
+
+        @Override
+        public int getLabelIndex() {
+            return mLabelIndex;
+        }
+
+        @Override
+        public boolean isPoseInPolygon(ArEnginePose pose) {
+            return false;
+        }
+    }
+
+    private static class SyntheticAnchor implements ArEngineAnchor {
+        private final ArEnginePose mPose = new ArEnginePose();
+
+        private final float mX;
+
+        private final float mZ;
+
+        private final float mPhase;
+
+        private boolean mIsDetached = false;
+
+        SyntheticAnchor(int index) {
+            mX = (index % ANCHOR_GRID_COLUMNS - ANCHOR_GRID_COLUMNS / 2) * ANCHOR_SPACING;
+            mZ = -(index / ANCHOR_GRID_COLUMNS) * ANCHOR_SPACING;
+            mPhase = index;
+        }
+
+        void update(float time) {
+            mPose.set(mX, 0.05f * (float) Math.sin(time + mPhase), mZ, 0.0f, 0.0f, 0.0f, 1.0f);
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return mIsDetached ? TrackingState.STOPPED : TrackingState.TRACKING;
+        }
+
+        @Override
+        public ArEnginePose getPose() {
+            return mPose;
+        }
+
+        @Override
+        public void detach() {
+            mIsDetached = true;
+        }
+    }
+
+    private static class SyntheticHand implements ArEngineHand {
+        private final float[] mSkeleton = new float[HAND_JOINT_COUNT * 3];
+
+        private final int[] mConnections = new int[HAND_FINGERS * HAND_JOINTS_PER_FINGER * 2];
+
+        private final int mHandId;
+
+        SyntheticHand(int handId) {
+            mHandId = handId;
+
+            // Each finger is a chain of joints starting at the wrist, joint 0.
+            int index = 0;
+            for (int finger = 0; finger < HAND_FINGERS; finger++) {
+                int previous = 0;
+                for (int joint = 0; joint < HAND_JOINTS_PER_FINGER; joint++) {
+                    int current = 1 + finger * HAND_JOINTS_PER_FINGER + joint;
+                    mConnections[index++] = previous;
+                    mConnections[index++] = current;
+                    previous = current;
+                }
+            }
+        }
+
+        void update(float time) {
+            // The hand waves in front of the camera, the fingers open and close.
+            float centerX = -0.1f + 0.2f * mHandId + 0.05f * (float) Math.sin(time);
+            float centerY = -0.05f + 0.05f * (float) Math.cos(time * 0.7f);
+            float spread = 0.3f + 0.15f * (float) Math.sin(time * 2.0f);
+            mSkeleton[0] = centerX;
+            mSkeleton[1] = centerY;
+            mSkeleton[2] = -0.4f;
+            for (int finger = 0; finger < HAND_FINGERS; finger++) {
+                double angle = Math.PI / 2.0 + (finger - 2) * spread;
+                for (int joint = 0; joint < HAND_JOINTS_PER_FINGER; joint++) {
+                    int offset = 3 * (1 + finger * HAND_JOINTS_PER_FINGER + joint);
+                    float length = 0.02f * (joint + 1);
+                    mSkeleton[offset] = centerX + length * (float) Math.cos(angle);
+                    mSkeleton[offset + 1] = centerY + length * (float) Math.sin(angle);
+                    mSkeleton[offset + 2] = -0.4f;
+                }
+            }
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return TrackingState.TRACKING;
+        }
+
+        @Override
+        public int getHandId() {
+            return mHandId;
+        }
+
+        @Override
+        public float[] getHandskeletonArray() {
+            return mSkeleton;
+        }
+
+        @Override
+        public int[] getHandSkeletonConnection() {
+            return mConnections;
+        }
+    }
+
+    private static class SyntheticBody implements ArEngineBody {
+        private final float[] mPoints = new float[BODY_JOINT_COUNT * 3];
+
+        private final int[] mIsExists = new int[BODY_JOINT_COUNT];
+
+        private final float[] mRestPoints = new float[BODY_JOINT_COUNT * 3];
+
+        private final int mBodyId;
+
+        SyntheticBody(int bodyId) {
+            mBodyId = bodyId;
+            for (int i = 0; i < BODY_JOINT_COUNT; i++) {
+                mIsExists[i] = 1;
+            }
+
+            // Rest pose of a standing person, laid out from the head down, two meters in front of the camera.
+            float offsetX = 0.8f * bodyId;
+            for (int i = 0; i < BODY_JOINT_COUNT; i++) {
+                mRestPoints[3 * i] = offsetX + 0.15f * (float) Math.sin(i * 1.3);
+                mRestPoints[3 * i + 1] = 0.8f - 1.6f * i / BODY_JOINT_COUNT;
+                mRestPoints[3 * i + 2] = -2.0f;
+            }
+        }
+
+        void update(float time) {
+            for (int i = 0; i < BODY_JOINT_COUNT; i++) {
+                float swing = 0.05f * (float) Math.sin(time * 2.0f + i);
+                mPoints[3 * i] = mRestPoints[3 * i] + swing;
+                mPoints[3 * i + 1] = mRestPoints[3 * i + 1];
+                mPoints[3 * i + 2] = mRestPoints[3 * i + 2] + swing;
+            }
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return TrackingState.TRACKING;
+        }
+
+        @Override
+        public int getBodyId() {
+            return mBodyId;
+        }
+
+        @Override
+        public boolean is3dCamera() {
+            return true;
+        }
+
+        @Override
+        public float[] getSkeletonPoints() {
+            return mPoints;
+        }
+
+        @Override
+        public int[] getSkeletonPointIsExist() {
+            return mIsExists;
+        }
+
+        @Override
+        public int[] getBodySkeletonConnection() {
+            return BODY_CONNECTIONS;
+        }
+    }
+
+    private static class SyntheticFace implements ArEngineFace {
+        private final ArEnginePose mPose = new ArEnginePose();
+
+        private final FloatBuffer mVertices = allocateFloats(FACE_GRID_SIZE * FACE_GRID_SIZE * 3);
+
+        private final int mFaceIndex;
+
+        SyntheticFace(int faceIndex) {
+            mFaceIndex = faceIndex;
+        }
+
+        void update(float time) {
+            // The head turns from side to side half a meter in front of the camera.
+            float angle = 0.3f * (float) Math.sin(time + mFaceIndex);
+            mPose.set(0.2f * mFaceIndex, 0.0f, -0.5f, 0.0f, (float) Math.sin(angle / 2.0f), 0.0f,
+                (float) Math.cos(angle / 2.0f));
+
+            // A curved grid that breathes, each vertex moves in every frame like the face mesh.
+            mVertices.clear();
+            float depth = 0.01f * (float) Math.sin(time * 3.0f);
+            for (int row = 0; row < FACE_GRID_SIZE; row++) {
+                float y = 0.2f * row / (FACE_GRID_SIZE - 1) - 0.1f;
+                for (int column = 0; column < FACE_GRID_SIZE; column++) {
+                    float x = 0.16f * column / (FACE_GRID_SIZE - 1) - 0.08f;
+                    mVertices.put(x).put(y).put(-3.0f * (x * x + y * y) + depth);
+                }
+            }
+            mVertices.flip();
+        }
+
+        @Override
+        public TrackingState getTrackingState() {
+            return TrackingState.TRACKING;
+        }
+
+        @Override
+        public ArEnginePose getPose() {
+            return mPose;
+        }
+
+        @Override
+        public FloatBuffer getVertices() {
+            return mVertices;
+        }
+    }
+}
@@ -10,11 +10,13 @@ import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
 import android.view.WindowManager;
-import android.widget.TextView;
 import android.widget.Toast;
 
 import com.huawei.arengine.demos.R;
 import com.huawei.arengine.demos.common.DisplayRotationUtil;
+import com.huawei.arengine.demos.common.FrameRecorder;
+import com.huawei.arengine.demos.common.GlResourceManager;
+import com.huawei.arengine.demos.common.RenderScheduler;
 import com.huawei.arengine.demos.java.body3d.rendering.RenderUtil;
 import com.huawei.hiar.ARBodyTrackingConfig;
 import com.huawei.hiar.ARConfigBase;
@@ -46,11 +48,13 @@ public class BodyActivity extends Activity {
 
     private RenderUtil mRenderUtil;
 
+    private FrameRecorder mFrameRecorder;
+
+    private RenderScheduler mRenderScheduler;
+
     private DisplayRotationUtil mDisplayRotationUtil;
 
     // Tap handling and UI.
-    private TextView mTextView;
-
     private boolean isRemindInstall = true;
 
     private String message = null;
@@ -59,7 +63,6 @@ public class BodyActivity extends Activity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.body3d_activity_main);
-        mTextView = findViewById(R.id.bodyTextView);
         mSurfaceView = findViewById(R.id.bodySurfaceview);
         mDisplayRotationUtil = new DisplayRotationUtil(this);
 
@@ -74,10 +77,11 @@ public class BodyActivity extends Activity {
 
         mRenderUtil = new RenderUtil(this);
         mRenderUtil.setDisplayRotationUtil(mDisplayRotationUtil);
-        mRenderUtil.setTextView(mTextView);
 
-        mSurfaceView.setRenderer(mRenderUtil);
-        mSurfaceView.setRenderMode(GLSurfaceView.RENDERMODE_CONTINUOUSLY);
+        // Draw when the camera has a new frame, instead of on every vsync of the display.
+        mRenderScheduler = new RenderScheduler(mSurfaceView);
+        mRenderScheduler.setRenderer(mRenderUtil);
+        mRenderUtil.setRenderScheduler(mRenderScheduler);
 
         // Judge whether the current device supports Huawei arengine. If not, end the application.
         if (!isSupportHuaweiArEngine()) {
@@ -131,6 +135,9 @@ public class BodyActivity extends Activity {
             mArSession = null;
             return;
         }
+        mFrameRecorder = FrameRecorder.open(this, "body");
+        mRenderUtil.setFrameRecorder(mFrameRecorder);
+        mRenderScheduler.start();
         mSurfaceView.onResume();
         mDisplayRotationUtil.registerDisplayListener();
     }
@@ -191,7 +198,17 @@ public class BodyActivity extends Activity {
         super.onPause();
         if (mArSession != null) {
             mDisplayRotationUtil.unregisterDisplayListener();
+            if (isFinishing()) {
+                // Delete the GL handles while the context is still current, before the thread pauses.
+                mSurfaceView.queueEvent(GlResourceManager.RELEASE_ALL);
+            }
+            mRenderScheduler.stop();
             mSurfaceView.onPause();
+            mRenderUtil.setFrameRecorder(null);
+            if (mFrameRecorder != null) {
+                mFrameRecorder.close();
+                mFrameRecorder = null;
+            }
             mArSession.pause();
         }
     }
@@ -203,6 +220,7 @@ public class BodyActivity extends Activity {
             mArSession.stop();
             mArSession = null;
         }
+        mRenderUtil.release();
     }
 
     @Override
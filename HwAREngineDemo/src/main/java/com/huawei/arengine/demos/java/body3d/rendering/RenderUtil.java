@@ -5,20 +5,30 @@
 package com.huawei.arengine.demos.java.body3d.rendering;
 
 import android.app.Activity;
-import android.graphics.Color;
 import android.opengl.GLES20;
 import android.opengl.GLSurfaceView;
 import android.util.Log;
-import android.widget.TextView;
 
+import com.huawei.arengine.demos.common.BodySnapshot;
 import com.huawei.arengine.demos.common.DisplayRotationUtil;
-import com.huawei.arengine.demos.common.TextDisplayUtil;
+import com.huawei.arengine.demos.common.FrameLogFormat;
+import com.huawei.arengine.demos.common.FrameRecorder;
+import com.huawei.arengine.demos.common.FrameSnapshot;
+import com.huawei.arengine.demos.common.GlResourceManager;
+import com.huawei.arengine.demos.common.HudRenderer;
+import com.huawei.arengine.demos.common.PooledFloatArray;
+import com.huawei.arengine.demos.common.PooledIntArray;
+import com.huawei.arengine.demos.common.RenderCommandBuffer;
+import com.huawei.arengine.demos.common.RenderLogicThread;
+import com.huawei.arengine.demos.common.RenderScheduler;
+import com.huawei.arengine.demos.common.ShaderUtil;
+import com.huawei.arengine.demos.common.TrackedSkeletonRenderer;
+import com.huawei.arengine.demos.common.OverlayModel;
 import com.huawei.arengine.demos.common.TextureRenderUtil;
 import com.huawei.hiar.ARBody;
 import com.huawei.hiar.ARCamera;
 import com.huawei.hiar.ARFrame;
 import com.huawei.hiar.ARSession;
-import com.huawei.hiar.ARTrackable;
 
 import java.util.Collection;
 
@@ -42,6 +52,8 @@ public class RenderUtil implements GLSurfaceView.Renderer {
 
     private static final float UPDATE_INTERVAL = 0.5f;
 
+    private static final int FPS_DECIMALS = 1;
+
     private int frames = 0;
 
     private long lastInterval;
@@ -52,15 +64,31 @@ public class RenderUtil implements GLSurfaceView.Renderer {
 
     private Activity mActivity;
 
-    private TextView mTextView;
-
     private TextureRenderUtil mTextureRenderUtil = new TextureRenderUtil();
 
-    private TextDisplayUtil mTextDisplayUtil = new TextDisplayUtil();
+    // Fields of the text overlay, in the order they are shown.
+    private final OverlayModel mOverlay = new OverlayModel();
+
+    private final int mFpsField = mOverlay.addFloat("FPS=", FPS_DECIMALS);
+
+    private final int mBodyActionField = mOverlay.addInt("bodyAction=");
+
+    private final HudRenderer mHudRenderer = new HudRenderer();
+
+    // Builds the skeletons of a frame while the OpenGL thread draws the previous one.
+    private final RenderLogicThread mRenderLogic = new RenderLogicThread("BodyRenderLogic",
+        new RenderLogicThread.Logic() {
+            @Override
+            public void buildFrame(FrameSnapshot snapshot, long displayTimeNs, RenderCommandBuffer commands) {
+                buildBodySkeletons(snapshot, displayTimeNs, commands);
+            }
+        });
+
+    private volatile FrameRecorder mFrameRecorder;
 
-    private BodySkeletonDisplay mBodySkeletonDisplay = new BodySkeletonDisplay();
+    private volatile RenderScheduler mRenderScheduler;
 
-    private BodySkeletonLineDisplay mBodySkeletonLineDisplay = new BodySkeletonLineDisplay();
+    private TrackedSkeletonRenderer mSkeletonRenderer = TrackedSkeletonRenderer.createForBodies();
 
     private DisplayRotationUtil mDisplayRotationUtil;
 
@@ -87,6 +115,24 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         mSession = arSession;
     }
 
+    /**
+     * Set the recorder of the trackable data, or null to stop recording.
+     *
+     * @param frameRecorder FrameRecorder.
+     */
+    public void setFrameRecorder(FrameRecorder frameRecorder) {
+        mFrameRecorder = frameRecorder;
+    }
+
+    /**
+     * Set the scheduler of the view, which is told the camera frame of each drawn frame.
+     *
+     * @param renderScheduler RenderScheduler.
+     */
+    public void setRenderScheduler(RenderScheduler renderScheduler) {
+        mRenderScheduler = renderScheduler;
+    }
+
     /**
      * Set displayRotationUtil, this object will be used in onSurfaceChanged and onDrawFrame.
      *
@@ -101,62 +147,32 @@ public class RenderUtil implements GLSurfaceView.Renderer {
     }
 
     /**
-     * Set TextView, this object will be invoked in the UI thread to display data correctly.
-     *
-     * @param textView TextView.
+     * Stop the thread that builds the skeletons.
+     * This method will be called by {@link Activity#onDestroy}.
      */
-    public void setTextView(TextView textView) {
-        if (textView == null) {
-            Log.e(TAG, "setTextView error, textView is null!");
-            return;
-        }
-        mTextView = textView;
+    public void release() {
+        mRenderLogic.quit();
     }
 
     @Override
     public void onSurfaceCreated(GL10 gl, EGLConfig config) {
+        // The frames built for a previous context use its handles, which were deleted with it.
+        mRenderLogic.reset();
+        GlResourceManager.onContextCreated();
+
         // Clear color, set window color.
         GLES20.glClearColor(0.1f, 0.1f, 0.1f, 1.0f);
-        mBodySkeletonDisplay.init();
-        mBodySkeletonLineDisplay.init();
+        mSkeletonRenderer.init();
         mTextureRenderUtil.init();
-        mTextDisplayUtil.setListener(new TextDisplayUtil.OnTextInfoChangeListener() {
-            @Override
-            public boolean textInfoChanged(String text, float positionX, float positionY) {
-                showBodyTypeTextView(text, positionX, positionY);
-                return true;
-            }
-        });
-    }
-
-    /**
-     * Create a thread for UI display text, which will be used by gesture gesture rendering callback.
-     *
-     * @param text Gesture information for display on screen
-     * @param positionX The left padding in pixels.
-     * @param positionY The left padding in pixels
-     */
-    private void showBodyTypeTextView(final String text, final float positionX, final float positionY) {
-        mActivity.runOnUiThread(new Runnable() {
-            @Override
-            public void run() {
-                mTextView.setTextColor(Color.WHITE);
-
-                // Set the size of the font used for display.
-                mTextView.setTextSize(10f);
-                if (text != null) {
-                    mTextView.setText(text);
-                    mTextView.setPadding((int) positionX, (int) positionY, 0, 0);
-                } else {
-                    mTextView.setText("");
-                }
-            }
-        });
+        mHudRenderer.init();
+        GlResourceManager.logUsage();
     }
 
     @Override
     public void onSurfaceChanged(GL10 unused, int width, int height) {
         mTextureRenderUtil.onSurfaceChanged(width, height);
+        mSkeletonRenderer.onSurfaceChanged(width, height);
+        mHudRenderer.onSurfaceChanged(width, height);
         GLES20.glViewport(0, 0, width, height);
         mDisplayRotationUtil.updateViewportRotation(width, height);
     }
@@ -176,6 +192,10 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         try {
             mSession.setCameraTextureName(mTextureRenderUtil.getExternalTextureId());
             ARFrame frame = mSession.update();
+            RenderScheduler scheduler = mRenderScheduler;
+            if (scheduler != null) {
+                scheduler.onCameraFrame(frame.getTimestampNs());
+            }
             ARCamera camera = frame.getCamera();
             mTextureRenderUtil.onDrawFrame(frame);
 
@@ -186,41 +206,98 @@ public class RenderUtil implements GLSurfaceView.Renderer {
             camera.getProjectionMatrix(projectionMatrix, PROJ_MATRIX_OFFSET, PROJ_MATRIX_NEAR, PROJ_MATRIX_FAR);
 
             Collection<ARBody> bodies = mSession.getAllTrackables(ARBody.class);
-            if (bodies.size() == 0) {
-                mTextDisplayUtil.onDrawFrame(null);
-                return;
+
+            // Read the data of each body once, the displays and the text below use the snapshot.
+            FrameSnapshot snapshot = mRenderLogic.acquireSnapshot();
+            snapshot.update(frame);
+            snapshot.updateBodies(bodies);
+            snapshot.setProjectionMatrix(projectionMatrix);
+            recordFrame(snapshot);
+            if (snapshot.getBodyCount() == 0) {
+                mHudRenderer.clearText();
             }
-            for (ARBody body : bodies) {
-                if (body.getTrackingState() != ARTrackable.TrackingState.TRACKING) {
+            for (int i = 0; i < snapshot.getBodyCount(); i++) {
+                BodySnapshot body = snapshot.getBody(i);
+                if (!body.isTracking()) {
                     continue;
                 }
 
                 // Update information about the hand used for screen show.
-                StringBuilder sb = new StringBuilder();
-                updateMessageData(sb, body);
+                updateMessageData(body);
 
                 // Show the updated hand related information on the screen.
-                mTextDisplayUtil.onDrawFrame(sb);
+                mHudRenderer.setText(mOverlay);
             }
-            mBodySkeletonDisplay.onDrawFrame(bodies, projectionMatrix);
-            mBodySkeletonLineDisplay.onDrawFrame(bodies, projectionMatrix);
+
+            // The snapshot is not used on this thread afterwards.
+            mRenderLogic.post(snapshot);
+            drawBuiltFrame();
+            mHudRenderer.onDrawFrame();
         } catch (Throwable t) {
             // Avoid crashing the application due to unhandled exceptions.
             Log.e(TAG, "Exception on the OpenGL thread", t);
         }
     }
 
+    /**
+     * Draw the skeletons of the latest frame built by the logic thread.
+     */
+    private void drawBuiltFrame() {
+        RenderCommandBuffer commands = mRenderLogic.acquireCommands();
+        if (commands == null) {
+            return;
+        }
+        commands.execute();
+        ShaderUtil.checkGlError(TAG, "Draw bodies");
+    }
+
+    /**
+     * Record the joints and the bones of all the tracked bodies in one batch, on the logic thread.
+     * The skeleton points are extrapolated to the display time so that they do not lag behind
+     * fast motion. The projection matrix of the snapshot is used for the bodies in 3D camera
+     * coordinates.
+     *
+     * @param snapshot Body data of the frame.
+     * @param displayTimeNs Expected display time of the frame.
+     * @param commands Buffer to record the draws into.
+     */
+    private void buildBodySkeletons(FrameSnapshot snapshot, long displayTimeNs, RenderCommandBuffer commands) {
+        mSkeletonRenderer.beginFrame(snapshot.getProjectionMatrix(), snapshot.getTimestampNs(), displayTimeNs,
+            commands);
+        for (int i = 0; i < snapshot.getBodyCount(); i++) {
+            BodySnapshot body = snapshot.getBody(i);
+            if (!body.isTracking()) {
+                continue;
+            }
+            PooledIntArray isExists = body.getSkeletonPointIsExist();
+            PooledIntArray connections = body.getSkeletonConnections();
+            PooledFloatArray points = body.getSkeletonPoints();
+            mSkeletonRenderer.addBody(body.getBodyId(), points.array(), points.size(), isExists.array(),
+                isExists.size(), connections.array(), connections.size(), body.is3dCamera());
+        }
+        mSkeletonRenderer.endFrame();
+    }
+
+    private void recordFrame(FrameSnapshot snapshot) {
+        FrameRecorder recorder = mFrameRecorder;
+        if (recorder == null) {
+            return;
+        }
+        float[] projectionMatrix = snapshot.getProjectionMatrix();
+        recorder.beginFrame(snapshot.getTimestampNs());
+        recorder.write(FrameLogFormat.TYPE_CAMERA_PROJECTION, 0, projectionMatrix, projectionMatrix.length);
+        recorder.write(snapshot);
+        recorder.endFrame();
+    }
+
     /**
      * Update gesture related data for display.
      *
-     * @param sb string buffer.
-     * @param body ARBody
+     * @param body Body data of the current frame.
      */
-    private void updateMessageData(StringBuilder sb, ARBody body) {
-        float fpsResult = doFpsCalculate();
-        sb.append("FPS=" + fpsResult + System.lineSeparator());
-        int bodyAction = body.getBodyAction();
-        sb.append("bodyAction=" + bodyAction + System.lineSeparator());
+    private void updateMessageData(BodySnapshot body) {
+        mOverlay.setFloat(mFpsField, doFpsCalculate());
+        mOverlay.setInt(mBodyActionField, body.getBodyAction());
     }
 
     private float doFpsCalculate() {
@@ -13,11 +13,13 @@ import android.util.DisplayMetrics;
 import android.util.Log;
 import android.view.Surface;
 import android.view.View;
-import android.widget.TextView;
 import android.widget.Toast;
 
 import com.huawei.arengine.demos.R;
 import com.huawei.arengine.demos.common.DisplayRotationUtil;
+import com.huawei.arengine.demos.common.FrameRecorder;
+import com.huawei.arengine.demos.common.GlResourceManager;
+import com.huawei.arengine.demos.common.RenderScheduler;
 import com.huawei.arengine.demos.java.face.rendering.RenderUtil;
 import com.huawei.hiar.ARConfigBase;
 import com.huawei.hiar.AREnginesApk;
@@ -54,6 +56,10 @@ public class FaceActivity extends Activity {
 
     private RenderUtil mRenderUtil;
 
+    private FrameRecorder mFrameRecorder;
+
+    private RenderScheduler mRenderScheduler;
+
     private DisplayRotationUtil mDisplayRotationUtil;
 
     // External open camera only supports face when health is not configured
@@ -73,8 +79,6 @@ public class FaceActivity extends Activity {
 
     private ARConfigBase mArConfig;
 
-    private TextView mTextView;
-
     private String message = null;
 
     // Initialization textureID
@@ -84,7 +88,6 @@ public class FaceActivity extends Activity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.face_activity_main);
-        mTextView = findViewById(R.id.faceTextView);
         glSurfaceView = findViewById(R.id.faceSurfaceview);
 
         mDisplayRotationUtil = new DisplayRotationUtil(this);
@@ -99,10 +102,11 @@ public class FaceActivity extends Activity {
 
         mRenderUtil = new RenderUtil(this,this);
         mRenderUtil.setDisplayRotationUtil(mDisplayRotationUtil);
-        mRenderUtil.setTextView(mTextView);
 
-        glSurfaceView.setRenderer(mRenderUtil);
-        glSurfaceView.setRenderMode(GLSurfaceView.RENDERMODE_CONTINUOUSLY);
+        // Draw when the camera has a new frame, instead of on every vsync of the display.
+        mRenderScheduler = new RenderScheduler(glSurfaceView);
+        mRenderScheduler.setRenderer(mRenderUtil);
+        mRenderUtil.setRenderScheduler(mRenderScheduler);
 
         // Judge whether the current device supports Huawei arengine. If not, end the application.
         if (!isSupportHuaweiArEngine()) {
@@ -162,6 +166,9 @@ public class FaceActivity extends Activity {
         mRenderUtil.setArSession(mArSession);
         mRenderUtil.setOpenCameraOutsideFlag(isOpenCameraOutside);
         mRenderUtil.setTextureId(textureId);
+        mFrameRecorder = FrameRecorder.open(this, "face");
+        mRenderUtil.setFrameRecorder(mFrameRecorder);
+        mRenderScheduler.start();
         glSurfaceView.onResume();
     }
 
@@ -306,7 +313,17 @@ public class FaceActivity extends Activity {
 
         if (mArSession != null) {
             mDisplayRotationUtil.unregisterDisplayListener();
+            if (isFinishing()) {
+                // Delete the GL handles while the context is still current, before the thread pauses.
+                glSurfaceView.queueEvent(GlResourceManager.RELEASE_ALL);
+            }
+            mRenderScheduler.stop();
             glSurfaceView.onPause();
+            mRenderUtil.setFrameRecorder(null);
+            if (mFrameRecorder != null) {
+                mFrameRecorder.close();
+                mFrameRecorder = null;
+            }
             mArSession.pause();
             Log.i(TAG, "[faceDemo]Session paused!");
         }
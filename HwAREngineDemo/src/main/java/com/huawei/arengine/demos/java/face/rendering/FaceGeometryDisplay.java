@@ -9,14 +9,14 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.opengl.GLES20;
 import android.opengl.GLUtils;
-import android.opengl.Matrix;
 import android.util.Log;
 
+import com.huawei.arengine.demos.common.FaceMotionPredictor;
+import com.huawei.arengine.demos.common.FaceSnapshot;
+import com.huawei.arengine.demos.common.GlResourceManager;
+import com.huawei.arengine.demos.common.RenderLog;
 import com.huawei.arengine.demos.common.ShaderUtil;
-import com.huawei.hiar.ARCamera;
-import com.huawei.hiar.ARFace;
-import com.huawei.hiar.ARFaceGeometry;
-import com.huawei.hiar.ARPose;
+import com.huawei.arengine.demos.common.StagingBufferPool;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -67,6 +67,8 @@ public class FaceGeometryDisplay {
         + "    }" + LS
         + "}";
 
+    private static final int BYTES_PER_FLOAT = 4;
+
     // Bytes occupied by each 3D coordinate point.
     // Each float occupies 4 bytes, and each point has 3 dimensional coordinate components.
     private static final int BYTES_PER_POINT = 4 * 3;
@@ -74,23 +76,22 @@ public class FaceGeometryDisplay {
     // Bytes occupied by each 2D coordinate point.
     private static final int BYTES_PER_COORD = 4 * 2;
 
-    private static final int BUFFER_OBJECT_NUMBER = 2;
+    private static final int BUFFER_OBJECT_NUMBER = 3;
 
-    private static final int POSITION_COMPONENTS_NUMBER = 4;
+    private static final int POSITION_COMPONENTS_NUMBER = 3;
 
     private static final int TEXCOORD_COMPONENTS_NUMBER = 2;
 
-    private static final float PROJECTION_MATRIX_NEAR = 0.1f;
-
-    private static final float PROJECTION_MATRIX_FAR = 100.0f;
-
+    // Vertex positions, streamed every frame.
     private int mVerticeId;
 
-    private int mVerticeBufferSize = 8000; // Initialize vertice VBO Size, real is 7365.
+    // Texture coordinates and triangle indices, uploaded when the mesh topology changes.
+    private int mTexCoordId;
 
     private int mTriangleId;
 
-    private int mTriangleBufferSize = 5000; // Initialize triangle VBO size, real is 4434.
+    // Topology version of the face snapshot whose static data is in the buffers.
+    private int mStaticTopologyVersion = -1;
 
     private int mProgram;
 
@@ -115,33 +116,31 @@ public class FaceGeometryDisplay {
     // The size of the matrix is 16(4 * 4).
     private float[] mModelViewProjections = new float[16];
 
+    private FaceMotionPredictor mMotionPredictor = new FaceMotionPredictor();
+
+    private float[] mVertices = new float[0];
+
+
     /**
      * Allocates and initializes OpenGL resources needed by the plane renderer.
      * This method will be called by {@link RenderUtil#onSurfaceCreated}.
      *
      * @param context Needed to access shader source.
      */
-    void init(Context context) {
+    public void init(Context context) {
         int[] texNames = new int[1];
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
-        GLES20.glGenTextures(1, texNames, 0);
+        GlResourceManager.genTextures(TAG, 1, texNames, 0);
         mTextureName = texNames[0];
 
         int[] buffers = new int[BUFFER_OBJECT_NUMBER];
-        GLES20.glGenBuffers(BUFFER_OBJECT_NUMBER, buffers, 0);
+        GlResourceManager.genBuffers(TAG, BUFFER_OBJECT_NUMBER, buffers, 0);
         mVerticeId = buffers[0];
-        mTriangleId = buffers[1];
-
-        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mVerticeId);
-        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, mVerticeBufferSize * BYTES_PER_POINT, null, GLES20.GL_DYNAMIC_DRAW);
-        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
-
-        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, mTriangleId);
+        mTexCoordId = buffers[1];
+        mTriangleId = buffers[2];
 
-        // The bytes of each float is 4.
-        GLES20.glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, mTriangleBufferSize * 4, null,
-            GLES20.GL_DYNAMIC_DRAW);
-        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+        // The buffers of a new context have no storage, the static data is uploaded again.
+        mStaticTopologyVersion = -1;
         ShaderUtil.checkGlError(TAG, "buffer alloc");
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextureName);
 
@@ -162,12 +161,13 @@ public class FaceGeometryDisplay {
         GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
         GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, textureBitmap, 0);
         GLES20.glGenerateMipmap(GLES20.GL_TEXTURE_2D);
+        GlResourceManager.setTextureSize(mTextureName, textureBitmap.getWidth(), textureBitmap.getHeight(), true);
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
         ShaderUtil.checkGlError(TAG, "texture loading");
     }
 
     private void createProgram() {
-        mProgram = createGlProgram();
+        mProgram = GlResourceManager.registerProgram(TAG, createGlProgram());
         ShaderUtil.checkGlError(TAG, "program");
         mPositionAttribute = GLES20.glGetAttribLocation(mProgram, "inPosition");
         mColorUniform = GLES20.glGetUniformLocation(mProgram, "inColor");
@@ -185,6 +185,7 @@ public class FaceGeometryDisplay {
         }
         int fragment = loadShader(GLES20.GL_FRAGMENT_SHADER, FACE_GEOMETRY_FRAGMENT);
         if (fragment == 0) {
+            GLES20.glDeleteShader(vertex);
             return 0;
         }
         int program = GLES20.glCreateProgram();
@@ -200,6 +201,10 @@ public class FaceGeometryDisplay {
                 program = 0;
             }
         }
+
+        // The attached shaders are only flagged for deletion, they are deleted with the program.
+        GLES20.glDeleteShader(vertex);
+        GLES20.glDeleteShader(fragment);
         return program;
     }
 
@@ -224,82 +229,100 @@ public class FaceGeometryDisplay {
      * Updating face geometry data in buffer.
      * This method will be called by {@link RenderUtil#onDrawFrame}.
      *
-     * @param camera ARCamera.
-     * @param face ARFace.
+     * @param projectionMatrix Projection matrix(4 * 4) of the camera of the frame.
+     * @param face Face data of the current frame.
+     * @param timestampNs Timestamp of the frame, used to extrapolate the face to the display time.
      */
-    public void onDrawFrame(ARCamera camera, ARFace face) {
-        ARFaceGeometry faceGeometry = face.getFaceGeometry();
-        updateFaceGeometryData(faceGeometry);
-        updateModelViewProjectionData(camera, face);
+    public void onDrawFrame(float[] projectionMatrix, FaceSnapshot face, long timestampNs) {
+        updateFaceGeometryData(face, timestampNs);
+        updateModelViewProjectionData(projectionMatrix, face, timestampNs);
         drawFaceGeometry();
-        faceGeometry.release();
     }
 
     /**
-     * Update rendered face data, including face geometry vertices and triangle indices.
+     * Update rendered face data. The texture coordinates and the triangle indices of the face mesh do not
+     * change while the face is tracked, so they are uploaded only when the topology of the mesh changes,
+     * and only the vertex positions are streamed every frame.
      *
-     * @param faceGeometry ARFaceGeometry
+     * @param face Face data of the current frame.
+     * @param timestampNs Timestamp of the frame.
      */
-    private void updateFaceGeometryData(ARFaceGeometry faceGeometry) {
+    private void updateFaceGeometryData(FaceSnapshot face, long timestampNs) {
         ShaderUtil.checkGlError(TAG, "before update data");
-        FloatBuffer faceVertices = faceGeometry.getVertices();
+        StagingBufferPool pool = StagingBufferPool.get();
+        StagingBufferPool.Slab slab = pool.acquire(face.getVertices().limit() * BYTES_PER_FLOAT);
+        FloatBuffer faceVertices = predictVertices(face.getVertices(), timestampNs, slab.floats());
 
         // Each 3D point has 3 coordinates.
         mPointsNum = faceVertices.limit() / 3;
+        mTrianglesNum = face.getTriangleCount();
+        int uploadedBytes = 0;
+        if (face.getTopologyVersion() != mStaticTopologyVersion) {
+            uploadedBytes += updateStaticData(face);
+        }
 
-        FloatBuffer textureCoordinates = faceGeometry.getTextureCoordinates();
+        // Orphan the previous storage, so the driver does not wait for the draw of the last frame.
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mVerticeId);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, mPointsNum * BYTES_PER_POINT, faceVertices,
+            GLES20.GL_STREAM_DRAW);
+        GlResourceManager.setSize(GlResourceManager.Type.BUFFER, mVerticeId, mPointsNum * BYTES_PER_POINT);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        pool.release(slab);
+        uploadedBytes += mPointsNum * BYTES_PER_POINT;
 
-        // Each 2D point has 2 coordinates.
-        int texNum = textureCoordinates.limit() / 2;
-        Log.d(TAG, "updateData: texture coordinates size:" + texNum);
+        // Positions, texture coordinates and triangle indices were all uploaded every frame before.
+        int fullUploadBytes = mPointsNum * (BYTES_PER_POINT + BYTES_PER_COORD) + mTrianglesNum * BYTES_PER_POINT;
+        RenderLog.d(TAG, "updateData: uploaded bytes:{} full upload bytes:{}", uploadedBytes, fullUploadBytes);
+        ShaderUtil.checkGlError(TAG, "after update data");
+    }
 
-        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mVerticeId);
-        if (mVerticeBufferSize < (mPointsNum + texNum) * BYTES_PER_POINT) {
-            while (mVerticeBufferSize < (mPointsNum + texNum) * BYTES_PER_POINT) {
-                mVerticeBufferSize *= 2; // If vertice VBO size is not big enough, double it.
-            }
-            GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, mVerticeBufferSize, null, GLES20.GL_DYNAMIC_DRAW);
+    private FloatBuffer predictVertices(FloatBuffer vertices, long timestampNs, FloatBuffer target) {
+        int count = vertices.limit();
+        if (mVertices.length < count) {
+            mVertices = new float[count];
         }
-        GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, mPointsNum * BYTES_PER_POINT, faceVertices);
+        vertices.position(0);
+        vertices.get(mVertices, 0, count);
+        vertices.position(0);
+        float[] predicted = mMotionPredictor.predictVertices(mVertices, count, timestampNs);
+        target.put(predicted, 0, count);
+        target.flip();
+        return target;
+    }
 
-        // Coordinate offset use mPointsNum * BYTES_PER_POINT.
-        GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, mPointsNum * BYTES_PER_POINT, texNum * BYTES_PER_COORD,
-                textureCoordinates);
-        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+    private int updateStaticData(FaceSnapshot face) {
+        FloatBuffer textureCoordinates = face.getTextureCoordinates();
 
-        mTrianglesNum = faceGeometry.getTriangleCount();
-        IntBuffer faceTriangleIndices = faceGeometry.getTriangleIndices();
-        Log.d(TAG, "updateData: faceTriangleIndices.size:" + faceTriangleIndices.limit());
+        // Each 2D point has 2 coordinates.
+        int texNum = textureCoordinates.limit() / 2;
+        RenderLog.d(TAG, "updateData: texture coordinates size:{}", texNum);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mTexCoordId);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, texNum * BYTES_PER_COORD, textureCoordinates,
+            GLES20.GL_STATIC_DRAW);
+        GlResourceManager.setSize(GlResourceManager.Type.BUFFER, mTexCoordId, texNum * BYTES_PER_COORD);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
 
+        IntBuffer faceTriangleIndices = face.getTriangleIndices();
+        RenderLog.d(TAG, "updateData: faceTriangleIndices.size:{}", faceTriangleIndices.limit());
         GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, mTriangleId);
-        if (mTriangleBufferSize < mTrianglesNum * BYTES_PER_POINT) {
-            while (mTriangleBufferSize < mTrianglesNum * BYTES_PER_POINT) {
-                mTriangleBufferSize *= 2; // If triangle VBO size is not big enough ,double it.
-            }
-            GLES20.glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, mTriangleBufferSize, null, GLES20.GL_DYNAMIC_DRAW);
-        }
-        GLES20.glBufferSubData(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0, mTrianglesNum * BYTES_PER_POINT, faceTriangleIndices);
+        GLES20.glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, mTrianglesNum * BYTES_PER_POINT, faceTriangleIndices,
+            GLES20.GL_STATIC_DRAW);
+        GlResourceManager.setSize(GlResourceManager.Type.BUFFER, mTriangleId, mTrianglesNum * BYTES_PER_POINT);
         GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
-        ShaderUtil.checkGlError(TAG, "after update data");
+        mStaticTopologyVersion = face.getTopologyVersion();
+        return texNum * BYTES_PER_COORD + mTrianglesNum * BYTES_PER_POINT;
     }
 
     /**
      * Update model view projection data, every frame is called.
      *
-     * @param camera ARCamera
-     * @param face ARFace
+     * @param projectionMatrix Projection matrix(4 * 4) of the camera.
+     * @param face Face data of the current frame.
+     * @param timestampNs Timestamp of the frame.
      */
-    private void updateModelViewProjectionData(ARCamera camera, ARFace face) {
-        // The size of the matrix is 16(4 * 4).
-        float[] projectionMatrixs = new float[16];
-        camera.getProjectionMatrix(projectionMatrixs, 0, PROJECTION_MATRIX_NEAR, PROJECTION_MATRIX_FAR);
-        ARPose facePose = face.getPose();
-
-        // The size of the matrix is 16(4 * 4).
-        float[] facePoseViewMatrixs = new float[16];
-
-        facePose.toMatrix(facePoseViewMatrixs, 0);
-        Matrix.multiplyMM(mModelViewProjections, 0, projectionMatrixs, 0, facePoseViewMatrixs, 0);
+    private void updateModelViewProjectionData(float[] projectionMatrix, FaceSnapshot face, long timestampNs) {
+        mMotionPredictor.predictModelViewProjection(face.getPose(), timestampNs, projectionMatrix,
+            mModelViewProjections);
     }
 
     /**
@@ -307,7 +330,7 @@ public class FaceGeometryDisplay {
      */
     private void drawFaceGeometry() {
         ShaderUtil.checkGlError(TAG, "Before draw");
-        Log.d(TAG, "draw: mPointsNum:" + mPointsNum + " mTrianglesNum:" + mTrianglesNum);
+        RenderLog.d(TAG, "draw: mPointsNum:{} mTrianglesNum:{}", mPointsNum, mTrianglesNum);
 
         // Attach the object texture.
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
@@ -326,6 +349,7 @@ public class FaceGeometryDisplay {
         GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mVerticeId);
         GLES20.glVertexAttribPointer(mPositionAttribute, POSITION_COMPONENTS_NUMBER, GLES20.GL_FLOAT, false,
             BYTES_PER_POINT, 0);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mTexCoordId);
         GLES20.glVertexAttribPointer(mTextureCoordAttribute, TEXCOORD_COMPONENTS_NUMBER, GLES20.GL_FLOAT, false,
             BYTES_PER_COORD, 0);
         GLES20.glUniform4f(mColorUniform, 1.0f, 0.0f, 0.0f, 1.0f);
@@ -6,21 +6,25 @@ package com.huawei.arengine.demos.java.face.rendering;
 
 import android.app.Activity;
 import android.content.Context;
-import android.graphics.Color;
 import android.opengl.GLES20;
 import android.opengl.GLSurfaceView;
 import android.util.Log;
-import android.widget.TextView;
 
 import com.huawei.arengine.demos.common.DisplayRotationUtil;
-import com.huawei.arengine.demos.common.TextDisplayUtil;
+import com.huawei.arengine.demos.common.FaceSnapshot;
+import com.huawei.arengine.demos.common.FrameLogFormat;
+import com.huawei.arengine.demos.common.FrameRecorder;
+import com.huawei.arengine.demos.common.FrameSnapshot;
+import com.huawei.arengine.demos.common.GlResourceManager;
+import com.huawei.arengine.demos.common.HudRenderer;
+import com.huawei.arengine.demos.common.OverlayModel;
+import com.huawei.arengine.demos.common.RenderLog;
+import com.huawei.arengine.demos.common.RenderScheduler;
 import com.huawei.arengine.demos.common.TextureRenderUtil;
 import com.huawei.hiar.ARCamera;
 import com.huawei.hiar.ARFace;
 import com.huawei.hiar.ARFrame;
-import com.huawei.hiar.ARPose;
 import com.huawei.hiar.ARSession;
-import com.huawei.hiar.ARTrackable.TrackingState;
 
 import java.util.Collection;
 
@@ -38,6 +42,14 @@ public class RenderUtil implements GLSurfaceView.Renderer {
 
     private static final float UPDATE_INTERVAL = 0.5f;
 
+    private static final int FPS_DECIMALS = 1;
+
+    private static final int POSE_DECIMALS = 4;
+
+    private static final float PROJ_MATRIX_NEAR = 0.1f;
+
+    private static final float PROJ_MATRIX_FAR = 100.0f;
+
     private int frames = 0;
 
     private long lastInterval;
@@ -50,8 +62,6 @@ public class RenderUtil implements GLSurfaceView.Renderer {
 
     private Activity mActivity;
 
-    private TextView mTextView;
-
     private boolean isOpenCameraOutside = true;
 
     private int mTextureId = -1; // Initialize texture ID.
@@ -60,7 +70,25 @@ public class RenderUtil implements GLSurfaceView.Renderer {
 
     private FaceGeometryDisplay mFaceGeometryDisplay = new FaceGeometryDisplay();
 
-    private TextDisplayUtil mTextDisplayUtil = new TextDisplayUtil();
+    // Fields of the text overlay, in the order they are shown.
+    private final OverlayModel mOverlay = new OverlayModel();
+
+    private final int mFpsField = mOverlay.addFloat("FPS=", FPS_DECIMALS);
+
+    // Face pose (tx, ty, tz, qx, qy, qz, qw).
+    private final int mFacePoseField = mOverlay.addFloatArray("face pose", POSE_DECIMALS, true);
+
+    private final int mTextureCoordinatesField = mOverlay.addInt("textureCoordinates length=");
+
+    private final HudRenderer mHudRenderer = new HudRenderer();
+
+    private FrameSnapshot mFrameSnapshot = new FrameSnapshot();
+
+    private volatile FrameRecorder mFrameRecorder;
+
+    private volatile RenderScheduler mRenderScheduler;
+
+    private float[] mProjectionMatrix = new float[16];
 
     private DisplayRotationUtil mDisplayRotationUtil;
 
@@ -113,6 +141,24 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         mTextureId = textureId;
     }
 
+    /**
+     * Set the recorder of the trackable data, or null to stop recording.
+     *
+     * @param frameRecorder FrameRecorder.
+     */
+    public void setFrameRecorder(FrameRecorder frameRecorder) {
+        mFrameRecorder = frameRecorder;
+    }
+
+    /**
+     * Set the scheduler of the view, which is told the camera frame of each drawn frame.
+     *
+     * @param renderScheduler RenderScheduler.
+     */
+    public void setRenderScheduler(RenderScheduler renderScheduler) {
+        mRenderScheduler = renderScheduler;
+    }
+
     /**
      * Set displayRotationUtil, this object will be used in onSurfaceChanged and onDrawFrame.
      * This method will be called when {@link Activity#onResume}.
@@ -127,21 +173,11 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         mDisplayRotationUtil = displayRotationUtil;
     }
 
-    /**
-     * Set TextView, this object will be invoked in the UI thread to display data correctly.
-     * This method will be called when {@link Activity#onCreate}.
-     * @param textView TextView.
-     */
-    public void setTextView(TextView textView) {
-        if (textView == null) {
-            Log.e(TAG, "setTextView error, textView is null!");
-            return;
-        }
-        mTextView = textView;
-    }
-
     @Override
     public void onSurfaceCreated(GL10 gl, EGLConfig config) {
+        // The handles of a previous context were deleted with it.
+        GlResourceManager.onContextCreated();
+
         // Clear color, set window color.
         GLES20.glClearColor(0.1f, 0.1f, 0.1f, 1.0f);
 
@@ -153,44 +189,14 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         Log.i(TAG, "[faceDemo]onSurfaceCreated textureId=" + mTextureId);
 
         mFaceGeometryDisplay.init(mContext);
-
-        mTextDisplayUtil.setListener(new TextDisplayUtil.OnTextInfoChangeListener() {
-            @Override
-            public boolean textInfoChanged(String text, float positionX, float positionY) {
-                showTextViewOnUiThread(text, positionX, positionY);
-                return true;
-            }
-        });
-    }
-
-    /**
-     * Create a thread for UI display text, which will be used by gesture gesture rendering callback.
-     *
-     * @param text Gesture information for display on screen
-     * @param positionX The left padding in pixels.
-     * @param positionY The left padding in pixels
-     */
-    private void showTextViewOnUiThread(final String text, final float positionX, final float positionY) {
-        mActivity.runOnUiThread(new Runnable() {
-            @Override
-            public void run() {
-                mTextView.setTextColor(Color.WHITE);
-
-                // Set the size of the font used for display.
-                mTextView.setTextSize(10f);
-                if (text != null) {
-                    mTextView.setText(text);
-                    mTextView.setPadding((int) positionX, (int) positionY, 0, 0);
-                } else {
-                    mTextView.setText("");
-                }
-            }
-        });
+        mHudRenderer.init();
+        GlResourceManager.logUsage();
     }
 
     @Override
     public void onSurfaceChanged(GL10 unused, int width, int height) {
         mTextureRenderUtil.onSurfaceChanged(width, height);
+        mHudRenderer.onSurfaceChanged(width, height);
         GLES20.glViewport(0, 0, width, height);
         mDisplayRotationUtil.updateViewportRotation(width, height);
     }
@@ -210,23 +216,35 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         try {
             mArSession.setCameraTextureName(mTextureRenderUtil.getExternalTextureId());
             ARFrame frame = mArSession.update();
+            RenderScheduler scheduler = mRenderScheduler;
+            if (scheduler != null) {
+                scheduler.onCameraFrame(frame.getTimestampNs());
+            }
             mTextureRenderUtil.onDrawFrame(frame);
             ARCamera camera = frame.getCamera();
             float fpsResult = doFpsCalculate();
             Collection<ARFace> faces = mArSession.getAllTrackables(ARFace.class);
-            if (faces.size() == 0) {
-                mTextDisplayUtil.onDrawFrame(null);
+
+            // Read the data of each face once, the display and the text below use the snapshot.
+            mFrameSnapshot.update(frame);
+            mFrameSnapshot.updateFaces(faces);
+            camera.getProjectionMatrix(mProjectionMatrix, 0, PROJ_MATRIX_NEAR, PROJ_MATRIX_FAR);
+            recordFrame();
+            if (mFrameSnapshot.getFaceCount() == 0) {
+                mHudRenderer.clearText();
+                mHudRenderer.onDrawFrame();
                 return;
             }
-            Log.d(TAG, "face number: " + faces.size());
-            for (ARFace face : faces) {
-                if (face.getTrackingState() == TrackingState.TRACKING) {
-                    StringBuilder sb = new StringBuilder();
-                    updateMessageData(sb, fpsResult, face);
-                    mTextDisplayUtil.onDrawFrame(sb);
-                    mFaceGeometryDisplay.onDrawFrame(camera, face);
+            RenderLog.d(TAG, "face number: {}", mFrameSnapshot.getFaceCount());
+            for (int i = 0; i < mFrameSnapshot.getFaceCount(); i++) {
+                FaceSnapshot face = mFrameSnapshot.getFace(i);
+                if (face.isTracking()) {
+                    updateMessageData(fpsResult, face);
+                    mHudRenderer.setText(mOverlay);
+                    mFaceGeometryDisplay.onDrawFrame(mProjectionMatrix, face, mFrameSnapshot.getTimestampNs());
                 }
             }
+            mHudRenderer.onDrawFrame();
         } catch (Throwable t) {
             // Avoid crashing the application due to unhandled exceptions.
             Log.e(TAG, "Exception on the OpenGL thread", t);
@@ -234,29 +252,32 @@ public class RenderUtil implements GLSurfaceView.Renderer {
     }
 
     /**
-     * Update gesture related data for display.
+     * Write the projection matrix and the snapshot of the frame, when a recording is open.
+     */
+    private void recordFrame() {
+        FrameRecorder recorder = mFrameRecorder;
+        if (recorder == null) {
+            return;
+        }
+        recorder.beginFrame(mFrameSnapshot.getTimestampNs());
+        recorder.write(FrameLogFormat.TYPE_CAMERA_PROJECTION, 0, mProjectionMatrix, mProjectionMatrix.length);
+        recorder.write(mFrameSnapshot);
+        recorder.endFrame();
+    }
+
+    /**
+     * Update the face data of the text overlay.
      *
-     * @param sb string buffer.
      * @param fpsResult FPS information, the calculated interval is 0.5 seconds.
-     * @param face ARFace
+     * @param face Face data of the current frame.
      */
-    private void updateMessageData(StringBuilder sb, float fpsResult, ARFace face) {
-        sb.append("FPS=" + fpsResult + System.lineSeparator());
-        ARPose pose = face.getPose();
-        if (pose != null) {
-            sb.append("face pose information:");
-            sb.append("face pose tx:[" + pose.tx() + "]" + System.lineSeparator());
-            sb.append("face pose ty:[" + pose.ty() + "]" + System.lineSeparator());
-            sb.append("face pose tz:[" + pose.tz() + "]" + System.lineSeparator());
-            sb.append("face pose qx:[" + pose.qx() + "]" + System.lineSeparator());
-            sb.append("face pose qy:[" + pose.qy() + "]" + System.lineSeparator());
-            sb.append("face pose qz:[" + pose.qz() + "]" + System.lineSeparator());
-            sb.append("face pose qw:[" + pose.qw() + "]" + System.lineSeparator());
-        }
-        sb.append(System.lineSeparator());
+    private void updateMessageData(float fpsResult, FaceSnapshot face) {
+        mOverlay.setFloat(mFpsField, fpsResult);
+        float[] pose = face.getPose();
+        mOverlay.setFloats(mFacePoseField, pose, pose.length);
 
-        float[] textureCoordinates = face.getFaceGeometry().getTextureCoordinates().array();
-        sb.append("textureCoordinates length:[ " + textureCoordinates.length + " ]");
+        // The texture coordinates were copied with the snapshot, there is no need to get the geometry again.
+        mOverlay.setInt(mTextureCoordinatesField, face.getTextureCoordinates().limit());
     }
 
     private float doFpsCalculate() {
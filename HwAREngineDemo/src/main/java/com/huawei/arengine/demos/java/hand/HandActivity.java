@@ -9,11 +9,13 @@ import android.opengl.GLSurfaceView;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
-import android.widget.TextView;
 import android.widget.Toast;
 
 import com.huawei.arengine.demos.R;
 import com.huawei.arengine.demos.common.DisplayRotationUtil;
+import com.huawei.arengine.demos.common.FrameRecorder;
+import com.huawei.arengine.demos.common.GlResourceManager;
+import com.huawei.arengine.demos.common.RenderScheduler;
 import com.huawei.arengine.demos.java.hand.rendering.RenderUtil;
 import com.huawei.hiar.ARConfigBase;
 import com.huawei.hiar.AREnginesApk;
@@ -47,11 +49,13 @@ public class HandActivity extends Activity {
 
     private RenderUtil mRenderUtil;
 
+    private FrameRecorder mFrameRecorder;
+
+    private RenderScheduler mRenderScheduler;
+
     private DisplayRotationUtil mDisplayRotationUtil;
 
     // Tap handling and UI.
-    private TextView mTextView;
-
     private boolean isRemindInstall = true;
 
     private String message = null;
@@ -60,7 +64,6 @@ public class HandActivity extends Activity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.hand_activity_main);
-        mTextView = findViewById(R.id.handTextView);
         mSurfaceView = findViewById(R.id.handSurfaceview);
 
         mDisplayRotationUtil = new DisplayRotationUtil(this);
@@ -76,10 +79,11 @@ public class HandActivity extends Activity {
 
         mRenderUtil = new RenderUtil(this);
         mRenderUtil.setDisplayRotationUtil(mDisplayRotationUtil);
-        mRenderUtil.setTextView(mTextView);
 
-        mSurfaceView.setRenderer(mRenderUtil);
-        mSurfaceView.setRenderMode(GLSurfaceView.RENDERMODE_CONTINUOUSLY);
+        // Draw when the camera has a new frame, instead of on every vsync of the display.
+        mRenderScheduler = new RenderScheduler(mSurfaceView);
+        mRenderScheduler.setRenderer(mRenderUtil);
+        mRenderUtil.setRenderScheduler(mRenderScheduler);
 
         // Judge whether the current device supports Huawei arengine. If not, end the application.
         if (!isSupportHuaweiArEngine()) {
@@ -133,6 +137,9 @@ public class HandActivity extends Activity {
             return;
         }
         mDisplayRotationUtil.registerDisplayListener();
+        mFrameRecorder = FrameRecorder.open(this, "hand");
+        mRenderUtil.setFrameRecorder(mFrameRecorder);
+        mRenderScheduler.start();
         mSurfaceView.onResume();
     }
 
@@ -206,7 +213,17 @@ public class HandActivity extends Activity {
         super.onPause();
         if (mArSession != null) {
             mDisplayRotationUtil.unregisterDisplayListener();
+            if (isFinishing()) {
+                // Delete the GL handles while the context is still current, before the thread pauses.
+                mSurfaceView.queueEvent(GlResourceManager.RELEASE_ALL);
+            }
+            mRenderScheduler.stop();
             mSurfaceView.onPause();
+            mRenderUtil.setFrameRecorder(null);
+            if (mFrameRecorder != null) {
+                mFrameRecorder.close();
+                mFrameRecorder = null;
+            }
             mArSession.pause();
         }
     }
@@ -219,6 +236,7 @@ public class HandActivity extends Activity {
             mArSession.stop();
             mArSession = null;
         }
+        mRenderUtil.release();
     }
 
     @Override
@@ -4,48 +4,34 @@
 
 package com.huawei.arengine.demos.java.hand.rendering;
 
-import android.opengl.GLES20;
-import android.util.Log;
-
+import com.huawei.arengine.demos.common.FrameSnapshot;
+import com.huawei.arengine.demos.common.HandSnapshot;
 import com.huawei.arengine.demos.common.MatrixUtil;
-import com.huawei.arengine.demos.common.ShaderUtil;
-import com.huawei.hiar.ARHand;
-import com.huawei.hiar.ARTrackable;
-
-import java.nio.FloatBuffer;
-import java.util.Collection;
+import com.huawei.arengine.demos.common.RenderCommandBuffer;
+import com.huawei.arengine.demos.common.SkeletonRenderer;
 
 /**
  * This class shows how to get maximum surrounding rectangle of the hand in the tracking
  * state, through this class, the maximum rectangle can be presented on the screen.
+ * The four edges are drawn as the bones of a skeleton, so they keep their width on drivers
+ * that clamp glLineWidth.
  *
  * @author HW
  * @since 2020-03-16
  */
 class HandBoxDisplay {
-    private static final String TAG = HandBoxDisplay.class.getSimpleName();
-
-    // Bytes occupied by each 3D coordinate point.
-    // Each float occupies 4 bytes, and each point has 3 dimensional coordinate components.
-    private static final int BYTES_PER_POINT = 4 * 3;
-    private static final int INITIAL_BUFFER_POINTS = 150;
-    private static final int COORDINATE_DIMENSION = 3;
-
-    private int mVbo;
-
-    private int mVboSize;
-
-    private int mProgram;
+    private static final int BOX_CORNERS = 4;
 
-    private int mPosition;
+    private static final float[] BOX_COLOR = {1.0f, 0.0f, 0.0f, 1.0f};
 
-    private int mColor;
+    private static final float BOX_LINE_WIDTH = 18.0f;
 
-    private int mModelViewProjectionMatrix;
+    // The four edges of the box, two corner indexes per edge.
+    private static final int[] BOX_EDGES = {0, 1, 1, 2, 2, 3, 3, 0};
 
-    private int mPointSize;
+    private final float[] mBoxCorners = new float[BOX_CORNERS * 3];
 
-    private int mNumPoints = 0;
+    private final SkeletonRenderer mSkeletonRenderer = new SkeletonRenderer();
 
     private float[] mMVPMatrixs;
 
@@ -54,49 +40,46 @@ class HandBoxDisplay {
      * This method will be called by {@link RenderUtil#onSurfaceCreated}.
      */
     void init() {
-        ShaderUtil.checkGlError(TAG, "before create");
         mMVPMatrixs = MatrixUtil.getOriginalMatrix();
-        int[] buffers = new int[1];
-        GLES20.glGenBuffers(1, buffers, 0);
-        mVbo = buffers[0];
-        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mVbo);
-
-        mVboSize = INITIAL_BUFFER_POINTS * BYTES_PER_POINT;
-        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, mVboSize, null, GLES20.GL_DYNAMIC_DRAW);
-        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
-        createProgram();
+        mSkeletonRenderer.init();
+        mSkeletonRenderer.setJointStyle(BOX_COLOR, 0.0f);
+        mSkeletonRenderer.setBoneStyle(BOX_COLOR, BOX_LINE_WIDTH);
     }
 
-    private void createProgram() {
-        mProgram = HandShaderUtil.createGlProgram();
-        ShaderUtil.checkGlError(TAG, "program");
-        mPosition = GLES20.glGetAttribLocation(mProgram, "inPosition");
-        mColor = GLES20.glGetUniformLocation(mProgram, "inColor");
-        mPointSize = GLES20.glGetUniformLocation(mProgram, "inPointSize");
-        mModelViewProjectionMatrix = GLES20.glGetUniformLocation(mProgram, "inMVPMatrix");
-        ShaderUtil.checkGlError(TAG, "program params");
+    /**
+     * Update the viewport size used for the line width.
+     * This method will be called by {@link RenderUtil#onSurfaceChanged}.
+     *
+     * @param width Width of the surface.
+     * @param height Height of the surface.
+     */
+    void onSurfaceChanged(int width, int height) {
+        mSkeletonRenderer.onSurfaceChanged(width, height);
     }
 
     /**
-     * Rendering the largest rectangular box of gestures and hand related information.
-     * This method will be called by {@link RenderUtil#onDrawFrame}.
+     * Record the largest rectangular box of gestures and hand related information.
+     * This method will be called on the logic thread of {@link RenderUtil}.
      *
-     * @param hands Hand data.
+     * @param frameSnapshot Hand data of the current frame.
+     * @param commands Buffer to record the draws into.
      */
-    void onDrawFrame(Collection<ARHand> hands) {
-        if (hands.size() == 0) {
+    void onDrawFrame(FrameSnapshot frameSnapshot, RenderCommandBuffer commands) {
+        if (frameSnapshot.getHandCount() == 0) {
             return;
         }
-        for (ARHand hand : hands) {
-            float[] gestureHandBoxPoints = hand.getGestureHandBox();
-            if (hand.getTrackingState() == ARTrackable.TrackingState.TRACKING) {
+        mSkeletonRenderer.beginFrame(mMVPMatrixs, commands);
+        for (int i = 0; i < frameSnapshot.getHandCount(); i++) {
+            HandSnapshot hand = frameSnapshot.getHand(i);
+            if (hand.isTracking()) {
                 // Update the maximum box coordinate point data surrounding the hand.
-                updateHandBoxData(gestureHandBoxPoints);
-
-                // Draw the largest rectangular box around the hand.
-                drawHandBox();
+                updateHandBoxData(hand.getGestureHandBox().array());
+                mSkeletonRenderer.addSkeleton(mBoxCorners, BOX_CORNERS, null, BOX_EDGES, BOX_EDGES.length, false);
             }
         }
+
+        // Draw the largest rectangular boxes around the hands.
+        mSkeletonRenderer.endFrame();
     }
 
     /**
@@ -105,58 +88,16 @@ class HandBoxDisplay {
      * @param gesturePoints Gesture hand box data.
      */
     private void updateHandBoxData(float[] gesturePoints) {
-        float[] glGesturePoints = {
-            // Get the coordinates of four points of the rectangular frame surrounding the palm.
-            gesturePoints[0], gesturePoints[1], gesturePoints[2],
-            gesturePoints[3], gesturePoints[1], gesturePoints[2],
-            gesturePoints[3], gesturePoints[4], gesturePoints[5],
-            gesturePoints[0], gesturePoints[4], gesturePoints[5],
-        };
-        int gesturePointsNum = glGesturePoints.length / COORDINATE_DIMENSION;
-        FloatBuffer mVertices = FloatBuffer.wrap(glGesturePoints);
-        ShaderUtil.checkGlError(TAG, "before update");
-
-        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mVbo);
-
-        mNumPoints = gesturePointsNum;
-        if (mVboSize < mNumPoints * BYTES_PER_POINT) {
-            while (mVboSize < mNumPoints * BYTES_PER_POINT) {
-                mVboSize *= 2; // If the VBO is not large enough to fit the new point cloud, resize it.
-            }
-            GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, mVboSize, null, GLES20.GL_DYNAMIC_DRAW);
-        }
-        Log.d(TAG, "gesture.getGestureHandPointsNum()" + mNumPoints);
-        GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, mNumPoints * BYTES_PER_POINT,
-                mVertices);
-        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
-        ShaderUtil.checkGlError(TAG, "after update");
+        // Get the coordinates of four points of the rectangular frame surrounding the palm.
+        setCorner(0, gesturePoints[0], gesturePoints[1], gesturePoints[2]);
+        setCorner(1, gesturePoints[3], gesturePoints[1], gesturePoints[2]);
+        setCorner(2, gesturePoints[3], gesturePoints[4], gesturePoints[5]);
+        setCorner(3, gesturePoints[0], gesturePoints[4], gesturePoints[5]);
     }
 
-    /**
-     * Transfer color, point size, line width and other data to shader, and draw hand gesture.
-     */
-    private void drawHandBox() {
-        ShaderUtil.checkGlError(TAG, "Before draw");
-        GLES20.glUseProgram(mProgram);
-        GLES20.glEnableVertexAttribArray(mPosition);
-        GLES20.glEnableVertexAttribArray(mColor);
-        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mVbo);
-        GLES20.glVertexAttribPointer(
-                mPosition, COORDINATE_DIMENSION, GLES20.GL_FLOAT, false, BYTES_PER_POINT, 0);
-        GLES20.glUniform4f(mColor, 1.0f, 0.0f, 0.0f, 1.0f);
-
-        GLES20.glUniformMatrix4fv(mModelViewProjectionMatrix, 1, false, mMVPMatrixs, 0);
-
-        // Set the size of rendered points.
-        GLES20.glUniform1f(mPointSize, 50.0f);
-
-        // Set the width of the rendered line.
-        GLES20.glLineWidth(18.0f);
-        GLES20.glDrawArrays(GLES20.GL_LINE_LOOP, 0, mNumPoints);
-        GLES20.glDisableVertexAttribArray(mPosition);
-        GLES20.glDisableVertexAttribArray(mColor);
-        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
-
-        ShaderUtil.checkGlError(TAG, "Draw");
+    private void setCorner(int index, float x, float y, float z) {
+        mBoxCorners[index * 3] = x;
+        mBoxCorners[index * 3 + 1] = y;
+        mBoxCorners[index * 3 + 2] = z;
     }
 }
@@ -5,21 +5,32 @@
 package com.huawei.arengine.demos.java.hand.rendering;
 
 import android.app.Activity;
-import android.graphics.Color;
 import android.opengl.GLES20;
 import android.opengl.GLSurfaceView;
 import android.util.Log;
-import android.widget.TextView;
 
 import com.huawei.arengine.demos.common.DisplayRotationUtil;
-import com.huawei.arengine.demos.common.TextDisplayUtil;
+import com.huawei.arengine.demos.common.FrameLogFormat;
+import com.huawei.arengine.demos.common.FrameRecorder;
+import com.huawei.arengine.demos.common.FrameSnapshot;
+import com.huawei.arengine.demos.common.GlResourceManager;
+import com.huawei.arengine.demos.common.HandSnapshot;
+import com.huawei.arengine.demos.common.HudRenderer;
+import com.huawei.arengine.demos.common.OverlayModel;
+import com.huawei.arengine.demos.common.PooledFloatArray;
+import com.huawei.arengine.demos.common.PooledIntArray;
+import com.huawei.arengine.demos.common.RenderCommandBuffer;
+import com.huawei.arengine.demos.common.RenderLog;
+import com.huawei.arengine.demos.common.RenderLogicThread;
+import com.huawei.arengine.demos.common.RenderScheduler;
+import com.huawei.arengine.demos.common.ShaderUtil;
 import com.huawei.arengine.demos.common.TextureRenderUtil;
+import com.huawei.arengine.demos.common.TrackedSkeletonRenderer;
 import com.huawei.arengine.demos.java.hand.HandActivity;
 import com.huawei.hiar.ARCamera;
 import com.huawei.hiar.ARFrame;
 import com.huawei.hiar.ARHand;
 import com.huawei.hiar.ARSession;
-import com.huawei.hiar.ARTrackable;
 
 import java.time.ZonedDateTime;
 import java.util.Collection;
@@ -44,6 +55,10 @@ public class RenderUtil implements GLSurfaceView.Renderer {
 
     private static final float UPDATE_INTERVAL = 0.5f;
 
+    private static final int FPS_DECIMALS = 1;
+
+    private static final int GESTURE_DECIMALS = 4;
+
     private int frames = 0;
 
     private long lastInterval;
@@ -54,17 +69,54 @@ public class RenderUtil implements GLSurfaceView.Renderer {
 
     private Activity mActivity;
 
-    private TextView mTextView;
-
     private TextureRenderUtil mTextureRenderUtil = new TextureRenderUtil();
 
     private HandBoxDisplay handBoxDisplay = new HandBoxDisplay();
 
-    private HandSkeletonDisplay mHandSkeletonDisplay = new HandSkeletonDisplay();
+    private TrackedSkeletonRenderer mSkeletonRenderer = TrackedSkeletonRenderer.createForHands();
+
+    // Fields of the text overlay, in the order they are shown.
+    private final OverlayModel mOverlay = new OverlayModel();
+
+    private final int mFpsField = mOverlay.addFloat("FPS=", FPS_DECIMALS);
+
+    private final int mGestureTypeField = mOverlay.addInt("GestureType=");
+
+    private final int mGestureCoordinateField = mOverlay.addText("GestureCoordinateSystem=");
+
+    private final int mGestureOrientationField = mOverlay.addFloatArray("gestureOrientation", GESTURE_DECIMALS, true);
+
+    private final int mGestureActionField = mOverlay.addIntArray("gestureAction", true);
+
+    private final int mGestureCenterField = mOverlay.addFloatArray("gestureCenter", GESTURE_DECIMALS, true);
 
-    private HandSkeletonLineDisplay mHandSkeletonLineDisplay = new HandSkeletonLineDisplay();
+    private final int mGestureHandBoxField = mOverlay.addFloatArray("GestureHandBox", GESTURE_DECIMALS, true);
 
-    private TextDisplayUtil mTextDisplayUtil = new TextDisplayUtil();
+    private final int mHandTypeField = mOverlay.addText("Handtype=");
+
+    private final int mSkeletonCoordinateField = mOverlay.addText("SkeletonCoordinateSystem=");
+
+    private final int mSkeletonField = mOverlay.addFloatArray("HandskeletonArray", GESTURE_DECIMALS, false);
+
+    private final int mSkeletonConnectionField = mOverlay.addIntArray("HandSkeletonConnection", false);
+
+    private final int mAccessIntervalField = mOverlay.addInt("* AR Engine Access Interval (milliseconds): ");
+
+    private final HudRenderer mHudRenderer = new HudRenderer();
+
+    // Builds the skeletons of a frame while the OpenGL thread draws the previous one.
+    private final RenderLogicThread mRenderLogic = new RenderLogicThread("HandRenderLogic",
+        new RenderLogicThread.Logic() {
+            @Override
+            public void buildFrame(FrameSnapshot snapshot, long displayTimeNs, RenderCommandBuffer commands) {
+                handBoxDisplay.onDrawFrame(snapshot, commands);
+                buildHandSkeletons(snapshot, displayTimeNs, commands);
+            }
+        });
+
+    private volatile FrameRecorder mFrameRecorder;
+
+    private volatile RenderScheduler mRenderScheduler;
 
     private DisplayRotationUtil mDisplayRotationUtil;
 
@@ -93,6 +145,24 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         mSession = arSession;
     }
 
+    /**
+     * Set the recorder of the trackable data, or null to stop recording.
+     *
+     * @param frameRecorder FrameRecorder.
+     */
+    public void setFrameRecorder(FrameRecorder frameRecorder) {
+        mFrameRecorder = frameRecorder;
+    }
+
+    /**
+     * Set the scheduler of the view, which is told the camera frame of each drawn frame.
+     *
+     * @param renderScheduler RenderScheduler.
+     */
+    public void setRenderScheduler(RenderScheduler renderScheduler) {
+        mRenderScheduler = renderScheduler;
+    }
+
     /**
      * Set displayRotationUtil, this object will be used in onSurfaceChanged and onDrawFrame.
      *
@@ -107,63 +177,34 @@ public class RenderUtil implements GLSurfaceView.Renderer {
     }
 
     /**
-     * Set TextView, this object will be invoked in the UI thread to display data correctly.
-     *
-     * @param textView TextView.
+     * Stop the thread that builds the skeletons.
+     * This method will be called by {@link Activity#onDestroy}.
      */
-    public void setTextView(TextView textView) {
-        if (textView == null) {
-            Log.e(TAG, "setTextView error, textView is null!");
-            return;
-        }
-        mTextView = textView;
+    public void release() {
+        mRenderLogic.quit();
     }
 
     @Override
     public void onSurfaceCreated(GL10 gl, EGLConfig config) {
+        // The frames built for a previous context use its handles, which were deleted with it.
+        mRenderLogic.reset();
+        GlResourceManager.onContextCreated();
+
         // Clear color, set window color.
         GLES20.glClearColor(0.1f, 0.1f, 0.1f, 1.0f);
-        mHandSkeletonDisplay.init();
-        mHandSkeletonLineDisplay.init();
+        mSkeletonRenderer.init();
         handBoxDisplay.init();
         mTextureRenderUtil.init();
-        mTextDisplayUtil.setListener(new TextDisplayUtil.OnTextInfoChangeListener() {
-            @Override
-            public boolean textInfoChanged(String text, float positionX, float positionY) {
-                showHandTypeTextView(text, positionX, positionY);
-                return true;
-            }
-        });
-    }
-
-    /**
-     * Create a thread for UI display text, which will be used by gesture gesture rendering callback.
-     *
-     * @param text Gesture information for display on screen
-     * @param positionX The left padding in pixels.
-     * @param positionY The left padding in pixels
-     */
-    private void showHandTypeTextView(final String text, final float positionX, final float positionY) {
-        mActivity.runOnUiThread(new Runnable() {
-            @Override
-            public void run() {
-                mTextView.setTextColor(Color.WHITE);
-
-                // Set the size of the font used for display.
-                mTextView.setTextSize(10f);
-                if (text != null) {
-                    mTextView.setText(text);
-                    mTextView.setPadding((int) positionX, (int) positionY, 0, 0);
-                } else {
-                    mTextView.setText("");
-                }
-            }
-        });
+        mHudRenderer.init();
+        GlResourceManager.logUsage();
     }
 
     @Override
     public void onSurfaceChanged(GL10 unused, int width, int height) {
         mTextureRenderUtil.onSurfaceChanged(width, height);
+        mSkeletonRenderer.onSurfaceChanged(width, height);
+        handBoxDisplay.onSurfaceChanged(width, height);
+        mHudRenderer.onSurfaceChanged(width, height);
         GLES20.glViewport(0, 0, width, height);
         mDisplayRotationUtil.updateViewportRotation(width, height);
     }
@@ -183,6 +224,10 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         try {
             mSession.setCameraTextureName(mTextureRenderUtil.getExternalTextureId());
             ARFrame arFrame = mSession.update();
+            RenderScheduler scheduler = mRenderScheduler;
+            if (scheduler != null) {
+                scheduler.onCameraFrame(arFrame.getTimestampNs());
+            }
             ARCamera arCamera = arFrame.getCamera();
             mTextureRenderUtil.onDrawFrame(arFrame);
 
@@ -194,37 +239,45 @@ public class RenderUtil implements GLSurfaceView.Renderer {
 
             Collection<ARHand> hands = mSession.getAllTrackables(ARHand.class);
 
+            // Read the data of each hand once, the displays and the text below use the snapshot.
+            FrameSnapshot snapshot = mRenderLogic.acquireSnapshot();
+            snapshot.update(arFrame);
+            snapshot.updateHands(hands);
+            snapshot.setProjectionMatrix(projectionMatrix);
+            recordFrame(snapshot);
+
             // Alan-point2: this is where the hands data come back from the AR engine.
             // (also see Alan-point1 in HandActivity.java)
             // How long does AR engine takes to return the hand data
             //long interval = ZonedDateTime.now().toInstant().toEpochMilli() - HandActivity.mARGengineInstalledTime;
             long thisInstant = ZonedDateTime.now().toInstant().toEpochMilli();
             long interval = thisInstant - mPrevious;
-            Log.d(TAG, "[onDrawFrame()]: interval = " + interval + " milliseconds"); // setSession error, arSession is null!");
+            RenderLog.d(TAG, "[onDrawFrame()]: interval = {} milliseconds", interval);
             mPrevious = thisInstant;
 
-            if (hands.size() == 0) {
-                mTextDisplayUtil.onDrawFrame(null);
-                return;
+            if (snapshot.getHandCount() == 0) {
+                mHudRenderer.clearText();
             }
-            for (ARHand hand : hands) {
-                if (hand.getTrackingState() != ARTrackable.TrackingState.TRACKING) {
+            for (int i = 0; i < snapshot.getHandCount(); i++) {
+                HandSnapshot hand = snapshot.getHand(i);
+                if (!hand.isTracking()) {
                     continue;
                 }
 
                 // Update information about the hand used for screen show.
-                StringBuilder sb = new StringBuilder();
-                updateMessageData(sb, hand);
+                updateMessageData(hand);
 
                 // added by Alan
-                addAREngineAccessHandDuration(sb, interval);
+                mOverlay.setInt(mAccessIntervalField, interval);
 
                 // Show the updated hand related information on the screen.
-                mTextDisplayUtil.onDrawFrame(sb);
+                mHudRenderer.setText(mOverlay);
             }
-            handBoxDisplay.onDrawFrame(hands);
-            mHandSkeletonLineDisplay.onDrawFrame(hands, projectionMatrix);
-            mHandSkeletonDisplay.onDrawFrame(hands, projectionMatrix);
+
+            // The snapshot is not used on this thread afterwards.
+            mRenderLogic.post(snapshot);
+            drawBuiltFrame();
+            mHudRenderer.onDrawFrame();
         } catch (Throwable t) {
             // Avoid crashing the application due to unhandled exceptions.
             Log.e(TAG, "Exception on the OpenGL thread", t);
@@ -232,83 +285,113 @@ public class RenderUtil implements GLSurfaceView.Renderer {
     }
 
     /**
-     * Update gesture related data for display.
-     *
-     * @param sb string buffer.
-     * @param hand ARHand
+     * Draw the hand boxes and the skeletons of the latest frame built by the logic thread.
      */
-    private void updateMessageData(StringBuilder sb, ARHand hand) {
-        float fpsResult = doFpsCalculate();
-        sb.append("FPS=" + fpsResult + System.lineSeparator());
-        addHandNormalStringBuffer(sb, hand);
-        addGestureActionStringBuffer(sb, hand);
-        addGestureCenterStringBuffer(sb, hand);
-        float[] gestureHandBoxPoints = hand.getGestureHandBox();
-
-        sb.append("GestureHandBox length:[" + gestureHandBoxPoints.length + "]" + System.lineSeparator());
-        for (int i = 0; i < gestureHandBoxPoints.length; i++) {
-            Log.i(TAG, "gesturePoints:" + gestureHandBoxPoints[i]);
-            sb.append("gesturePoints[" + i + "]:[" + gestureHandBoxPoints[i] + "]" + System.lineSeparator());
+    private void drawBuiltFrame() {
+        RenderCommandBuffer commands = mRenderLogic.acquireCommands();
+        if (commands == null) {
+            return;
         }
-        addHandSkeletonStringBuffer(sb, hand);
+        commands.execute();
+        ShaderUtil.checkGlError(TAG, "Draw hands");
     }
 
-    private void addHandNormalStringBuffer(StringBuilder sb, ARHand hand) {
-        sb.append("GestureType=" + hand.getGestureType() + System.lineSeparator());
-        sb.append("GestureCoordinateSystem=" + hand.getGestureCoordinateSystem() + System.lineSeparator());
-        float[] gestureOrientation = hand.getGestureOrientation();
-        sb.append("gestureOrientation length:[" + gestureOrientation.length + "]" + System.lineSeparator());
-        for (int i = 0; i < gestureOrientation.length; i++) {
-            Log.i(TAG, "gestureOrientation:" + gestureOrientation[i]);
-            sb.append("gestureOrientation[" + i + "]:[" + gestureOrientation[i] + "]" + System.lineSeparator());
+    /**
+     * Record the joints and the bones of all the tracked hands in one batch, on the logic thread.
+     * The skeleton points are extrapolated to the display time so that they do not lag behind
+     * fast motion.
+     *
+     * @param snapshot Hand data of the frame.
+     * @param displayTimeNs Expected display time of the frame.
+     * @param commands Buffer to record the draws into.
+     */
+    private void buildHandSkeletons(FrameSnapshot snapshot, long displayTimeNs, RenderCommandBuffer commands) {
+        mSkeletonRenderer.beginFrame(snapshot.getProjectionMatrix(), snapshot.getTimestampNs(), displayTimeNs,
+            commands);
+        for (int i = 0; i < snapshot.getHandCount(); i++) {
+            HandSnapshot hand = snapshot.getHand(i);
+            if (!hand.isTracking()) {
+                continue;
+            }
+            PooledFloatArray skeletons = hand.getSkeletons();
+            PooledIntArray connections = hand.getSkeletonConnections();
+            mSkeletonRenderer.addHand(hand.getHandId(), skeletons.array(), skeletons.size(), connections.array(),
+                connections.size());
         }
-        sb.append(System.lineSeparator());
+        mSkeletonRenderer.endFrame();
     }
 
-    private void addGestureActionStringBuffer(StringBuilder sb, ARHand hand) {
-        int[] gestureAction = hand.getGestureAction();
-        sb.append("gestureAction length:[" + gestureAction.length + "]" + System.lineSeparator());
-        for (int i = 0; i < gestureAction.length; i++) {
-            Log.i(TAG, "gestureAction:" + gestureAction[i]);
-            sb.append("gestureAction[" + i + "]:[" + gestureAction[i] + "]" + System.lineSeparator());
+    private void recordFrame(FrameSnapshot snapshot) {
+        FrameRecorder recorder = mFrameRecorder;
+        if (recorder == null) {
+            return;
         }
-        sb.append(System.lineSeparator());
+        float[] projectionMatrix = snapshot.getProjectionMatrix();
+        recorder.beginFrame(snapshot.getTimestampNs());
+        recorder.write(FrameLogFormat.TYPE_CAMERA_PROJECTION, 0, projectionMatrix, projectionMatrix.length);
+        recorder.write(snapshot);
+        recorder.endFrame();
     }
 
-    private void addGestureCenterStringBuffer(StringBuilder sb, ARHand hand) {
-        float[] gestureCenter = hand.getGestureCenter();
-        sb.append("gestureCenter length:[" + gestureCenter.length + "]" + System.lineSeparator());
-        for (int i = 0; i < gestureCenter.length; i++) {
-            Log.i(TAG, "gestureCenter:" + gestureCenter[i]);
-            sb.append("gestureCenter[" + i + "]:[" + gestureCenter[i] + "]" + System.lineSeparator());
-        }
-        sb.append(System.lineSeparator());
+    /**
+     * Update gesture related data for display. Only the values are copied, the overlay formats
+     * them when it refreshes.
+     *
+     * @param hand Hand data of the current frame.
+     */
+    private void updateMessageData(HandSnapshot hand) {
+        mOverlay.setFloat(mFpsField, doFpsCalculate());
+        mOverlay.setInt(mGestureTypeField, hand.getGestureType());
+        mOverlay.setText(mGestureCoordinateField, nameOf(hand.getGestureCoordinateSystem()));
+        mOverlay.setFloats(mGestureOrientationField, hand.getGestureOrientation());
+        mOverlay.setInts(mGestureActionField, hand.getGestureAction());
+        mOverlay.setFloats(mGestureCenterField, hand.getGestureCenter());
+        mOverlay.setFloats(mGestureHandBoxField, hand.getGestureHandBox());
+        mOverlay.setText(mHandTypeField, nameOf(hand.getHandType()));
+        mOverlay.setText(mSkeletonCoordinateField, nameOf(hand.getSkeletonCoordinateSystem()));
+        mOverlay.setFloats(mSkeletonField, hand.getSkeletons());
+        mOverlay.setInts(mSkeletonConnectionField, hand.getSkeletonConnections());
+        logHandData(hand);
     }
 
-    private void addHandSkeletonStringBuffer(StringBuilder sb, ARHand hand) {
-        sb.append(System.lineSeparator() + "Handtype=" + hand.getHandtype() + System.lineSeparator());
-        sb.append("SkeletonCoordinateSystem=" + hand.getSkeletonCoordinateSystem());
-        sb.append(System.lineSeparator());
-        float[] skeletonArray = hand.getHandskeletonArray();
-        sb.append("HandskeletonArray length:[" + skeletonArray.length + "]" + System.lineSeparator());
-        Log.i(TAG, "skeletonArray.length:" + skeletonArray.length);
-        for (int i = 0; i < skeletonArray.length; i++) {
-            Log.i(TAG, "skeletonArray:" + skeletonArray[i]);
-        }
-        sb.append(System.lineSeparator());
-        int[] handSkeletonConnection = hand.getHandSkeletonConnection();
-        sb.append("HandSkeletonConnection length:[" + handSkeletonConnection.length + "]"
-                + System.lineSeparator());
-        Log.i(TAG, "handSkeletonConnection.length:" + handSkeletonConnection.length);
-        for (int i = 0; i < handSkeletonConnection.length; i++) {
-            Log.i(TAG, "handSkeletonConnection:" + handSkeletonConnection[i]);
-        }
-        sb.append(System.lineSeparator() + "-----------------------------------------------------");
+    private static String nameOf(Enum<?> value) {
+        return value == null ? null : value.name();
     }
 
-    // added by Alan
-    private void addAREngineAccessHandDuration(StringBuilder sb, long intervalInMs) {
-      sb.append(System.lineSeparator() + "* AR Engine Access Interval: " + intervalInMs + " milliseconds");
+    /**
+     * Dump the gestures and the skeleton of a hand. It is about a hundred messages per frame, so
+     * it is at the debug level, under the default runtime level of RenderLog.
+     */
+    private void logHandData(HandSnapshot hand) {
+        if (!RenderLog.isEnabled(Log.DEBUG)) {
+            return;
+        }
+        PooledFloatArray gestureOrientation = hand.getGestureOrientation();
+        for (int i = 0; i < gestureOrientation.size(); i++) {
+            RenderLog.d(TAG, "gestureOrientation:{}", gestureOrientation.get(i));
+        }
+        PooledIntArray gestureAction = hand.getGestureAction();
+        for (int i = 0; i < gestureAction.size(); i++) {
+            RenderLog.d(TAG, "gestureAction:{}", gestureAction.get(i));
+        }
+        PooledFloatArray gestureCenter = hand.getGestureCenter();
+        for (int i = 0; i < gestureCenter.size(); i++) {
+            RenderLog.d(TAG, "gestureCenter:{}", gestureCenter.get(i));
+        }
+        PooledFloatArray gestureHandBoxPoints = hand.getGestureHandBox();
+        for (int i = 0; i < gestureHandBoxPoints.size(); i++) {
+            RenderLog.d(TAG, "gesturePoints:{}", gestureHandBoxPoints.get(i));
+        }
+        PooledFloatArray skeletonArray = hand.getSkeletons();
+        RenderLog.d(TAG, "skeletonArray.length:{}", skeletonArray.size());
+        for (int i = 0; i < skeletonArray.size(); i++) {
+            RenderLog.d(TAG, "skeletonArray:{}", skeletonArray.get(i));
+        }
+        PooledIntArray handSkeletonConnection = hand.getSkeletonConnections();
+        RenderLog.d(TAG, "handSkeletonConnection.length:{}", handSkeletonConnection.size());
+        for (int i = 0; i < handSkeletonConnection.size(); i++) {
+            RenderLog.d(TAG, "handSkeletonConnection:{}", handSkeletonConnection.get(i));
+        }
     }
 
     private float doFpsCalculate() {
@@ -6,7 +6,9 @@ package com.huawei.arengine.demos.java.world;
 
 import android.opengl.Matrix;
 
-import com.huawei.hiar.ARAnchor;
+import com.huawei.arengine.demos.common.engine.ArEngineAnchor;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class provides information about the attributes of virtual objects and how to set the attributes of objects.
@@ -21,12 +23,26 @@ public class VirtualObject {
 
     private static final float SCALE_FACTOR = 0.15f;
 
-    private ARAnchor mArAnchor;
+    // Source of the ids, in the order the objects are created.
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final int mId = NEXT_ID.getAndIncrement();
+
+    private ArEngineAnchor mArAnchor;
 
     private float[] mObjectColors;
 
     private float[] mModelMatrix = new float[MATRIX_SIZE];
 
+    // Matrices of the frame, see updateAnchorMatrix() and updateMatrices().
+    private final float[] mAnchorMatrix = new float[MATRIX_SIZE];
+
+    private final float[] mModelAnchorMatrix = new float[MATRIX_SIZE];
+
+    private final float[] mModelViewMatrix = new float[MATRIX_SIZE];
+
+    private final float[] mModelViewProjectionMatrix = new float[MATRIX_SIZE];
+
     private boolean mIsSelectedFlag = false;
 
     /**
@@ -35,12 +51,22 @@ public class VirtualObject {
      * @param arAnchor Anchors provided by HW
      * @param color4f Object color data
      */
-    public VirtualObject(ARAnchor arAnchor, float[] color4f) {
+    public VirtualObject(ArEngineAnchor arAnchor, float[] color4f) {
         mArAnchor = arAnchor;
         mObjectColors = color4f;
         init();
     }
 
+    /**
+     * Get the id of the object, assigned in the order the objects are created, so that it is
+     * the same in each run of a scene and two objects never share it.
+     *
+     * @return Id of the object.
+     */
+    public int getId() {
+        return mId;
+    }
+
     @Override
     protected void finalize() throws Throwable {
         // If the anchor object is destructed, alert arengine to stop tracking the anchor
@@ -67,7 +93,7 @@ public class VirtualObject {
      *
      * @param arAnchor Anchors provided by HW
      */
-    public void setAnchor(ARAnchor arAnchor) {
+    public void setAnchor(ArEngineAnchor arAnchor) {
         if (mArAnchor != null) {
             mArAnchor.detach();
         }
@@ -77,9 +103,9 @@ public class VirtualObject {
     /**
      * Get anchor properties of instantiated objects.
      *
-     * @return ARAnchor(Anchors provided by HW)
+     * @return Anchor of the object
      */
-    public ARAnchor getAnchor() {
+    public ArEngineAnchor getAnchor() {
         return mArAnchor;
     }
 
@@ -137,6 +163,48 @@ public class VirtualObject {
         return rets;
     }
 
+    /**
+     * Read the pose of the anchor for the frame, on the thread that updates the session.
+     */
+    public void updateAnchorMatrix() {
+        if (mArAnchor != null) {
+            mArAnchor.getPose().toMatrix(mAnchorMatrix, 0);
+        } else {
+            Matrix.setIdentityM(mAnchorMatrix, 0);
+        }
+    }
+
+    /**
+     * Compute the matrices of the frame from the pose read by {@link #updateAnchorMatrix()}.
+     * Only the matrices of this object are written, so the objects can be updated concurrently.
+     *
+     * @param cameraView A 4x4 view matrix, in column-major order.
+     * @param cameraProjection A 4x4 projection matrix, in column-major order.
+     */
+    public void updateMatrices(float[] cameraView, float[] cameraProjection) {
+        Matrix.multiplyMM(mModelAnchorMatrix, 0, mAnchorMatrix, 0, mModelMatrix, 0);
+        Matrix.multiplyMM(mModelViewMatrix, 0, cameraView, 0, mModelAnchorMatrix, 0);
+        Matrix.multiplyMM(mModelViewProjectionMatrix, 0, cameraProjection, 0, mModelViewMatrix, 0);
+    }
+
+    /**
+     * Get the model view matrix computed by {@link #updateMatrices(float[], float[])}.
+     *
+     * @return Model view matrix (4 * 4).
+     */
+    public float[] getModelViewMatrix() {
+        return mModelViewMatrix;
+    }
+
+    /**
+     * Get the model view projection matrix computed by {@link #updateMatrices(float[], float[])}.
+     *
+     * @return Model view projection matrix (4 * 4).
+     */
+    public float[] getModelViewProjectionMatrix() {
+        return mModelViewProjectionMatrix;
+    }
+
     public boolean getIsSelectedFlag() {
         return mIsSelectedFlag;
     }
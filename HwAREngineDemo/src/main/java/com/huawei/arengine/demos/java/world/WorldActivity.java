@@ -16,6 +16,10 @@ import android.widget.Toast;
 
 import com.huawei.arengine.demos.R;
 import com.huawei.arengine.demos.common.DisplayRotationUtil;
+import com.huawei.arengine.demos.common.FrameRecorder;
+import com.huawei.arengine.demos.common.GlResourceManager;
+import com.huawei.arengine.demos.common.RenderScheduler;
+import com.huawei.arengine.demos.common.engine.HwArEngineSession;
 import com.huawei.arengine.demos.java.world.rendering.RenderUtil;
 import com.huawei.hiar.AREnginesApk;
 import com.huawei.hiar.AREnginesSelector;
@@ -53,6 +57,10 @@ public class WorldActivity extends Activity {
 
     private RenderUtil mRenderUtil;
 
+    private FrameRecorder mFrameRecorder;
+
+    private RenderScheduler mRenderScheduler;
+
     private GestureDetector mGestureDetector;
 
     private DisplayRotationUtil mDisplayRotationUtil;
@@ -81,8 +89,10 @@ public class WorldActivity extends Activity {
         mRenderUtil.setDisplayRotationUtil(mDisplayRotationUtil);
         mRenderUtil.setQueuedSingleTaps(mQueuedSingleTaps);
 
-        mSurfaceView.setRenderer(mRenderUtil);
-        mSurfaceView.setRenderMode(GLSurfaceView.RENDERMODE_CONTINUOUSLY);
+        // Draw when the camera has a new frame, instead of on every vsync of the display.
+        mRenderScheduler = new RenderScheduler(mSurfaceView);
+        mRenderScheduler.setRenderer(mRenderUtil);
+        mRenderUtil.setRenderScheduler(mRenderScheduler);
 
         // Judge whether the current device supports Huawei arengine. If not, end the application.
         if (!isSupportHuaweiArEngine()) {
@@ -123,6 +133,7 @@ public class WorldActivity extends Activity {
 
     private void onGestureEvent(GestureEvent e) {
         mQueuedSingleTaps.offer(e);
+        mRenderScheduler.onInputEvent();
     }
 
     @Override
@@ -151,7 +162,7 @@ public class WorldActivity extends Activity {
                     config.setSemanticMode(supportedSemanticMode);
                 }
                 mArSession.configure(config);
-                mRenderUtil.setArSession(mArSession);
+                mRenderUtil.setArSession(new HwArEngineSession(mArSession));
             } catch (Exception capturedException) {
                 exception = capturedException;
                 setMessageWhenError(capturedException);
@@ -169,6 +180,12 @@ public class WorldActivity extends Activity {
             return;
         }
         mDisplayRotationUtil.registerDisplayListener();
+        mFrameRecorder = FrameRecorder.open(this, "world");
+        mRenderUtil.setFrameRecorder(mFrameRecorder);
+
+        // The OpenGL thread is paused until the view resumes, so the tier can be reset here.
+        mRenderUtil.getQualityGovernor().reset();
+        mRenderScheduler.start();
         mSurfaceView.onResume();
     }
 
@@ -241,7 +258,17 @@ public class WorldActivity extends Activity {
         super.onPause();
         if (mArSession != null) {
             mDisplayRotationUtil.unregisterDisplayListener();
+            if (isFinishing()) {
+                // Delete the GL handles while the context is still current, before the thread pauses.
+                mSurfaceView.queueEvent(GlResourceManager.RELEASE_ALL);
+            }
+            mRenderScheduler.stop();
             mSurfaceView.onPause();
+            mRenderUtil.setFrameRecorder(null);
+            if (mFrameRecorder != null) {
+                mFrameRecorder.close();
+                mFrameRecorder = null;
+            }
             mArSession.pause();
         }
     }
@@ -9,20 +9,16 @@ import android.opengl.GLES20;
 import android.opengl.GLUtils;
 import android.opengl.Matrix;
 import android.util.Log;
-import android.util.Pair;
 
+import com.huawei.arengine.demos.common.GlResourceManager;
+import com.huawei.arengine.demos.common.MemoryAccounting;
+import com.huawei.arengine.demos.common.RenderLog;
 import com.huawei.arengine.demos.common.ShaderUtil;
-import com.huawei.hiar.ARPlane;
-import com.huawei.hiar.ARPose;
-import com.huawei.hiar.ARTrackable;
+import com.huawei.arengine.demos.common.engine.ArEnginePose;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.ShortBuffer;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Comparator;
 
 /**
  * This class demonstrates how to use the data ARPlane, including how to
@@ -50,6 +46,24 @@ public class LabelDisplay {
 
     private static final int PLANE_ANGLE_MATRIX_SIZE = 4;
 
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private static final int BYTES_PER_SHORT = 2;
+
+    private static final float HALF_WIDTH = LABEL_WIDTH / 2.0f;
+
+    private static final float HALF_HEIGHT = LABEL_HEIGHT / 2.0f;
+
+    private static final float[] VERTICES = {
+        -HALF_WIDTH, -HALF_HEIGHT, 1,
+        -HALF_WIDTH, HALF_HEIGHT, 1,
+        HALF_WIDTH, HALF_HEIGHT, 1,
+        HALF_WIDTH, -HALF_HEIGHT, 1,
+    };
+
+    // Sets the order in which OpenGL draws points, resulting in two triangles that form a plane.
+    private static final short[] INDICES = {0, 1, 2, 0, 2, 3 };
+
     private final int[] textures = new int[TEXTURES_SIZE];
 
     // Temporary lists/matrices allocated here to reduce number of allocations for each frame.
@@ -62,6 +76,17 @@ public class LabelDisplay {
     // 2x2 rotation matrix applied to uv coordinates.
     private final float[] planeAngleUvMatrix = new float[PLANE_ANGLE_MATRIX_SIZE];
 
+    private final float[] cameraViewMatrix = new float[MATRIX_SIZE];
+
+    private final PlaneSorter mPlaneSorter = new PlaneSorter();
+
+    // The quad of every label, filled once instead of for each plane of each frame.
+    private final FloatBuffer mVertexBuffer =
+        MemoryAccounting.allocateDirect(TAG, BYTES_PER_FLOAT * VERTICES.length).asFloatBuffer();
+
+    private final ShortBuffer mIndexBuffer =
+        MemoryAccounting.allocateDirect(TAG, BYTES_PER_SHORT * INDICES.length).asShortBuffer();
+
     private int mProgram;
 
     private int glPositionParameter;
@@ -72,6 +97,8 @@ public class LabelDisplay {
 
     private int glPlaneUvMatrix;
 
+    private int mLabelBudget = Integer.MAX_VALUE;
+
     /**
      * Created and compiler label display shader on the OpenGL Thread.
      * This method will be called when {@link RenderUtil#onSurfaceCreated}.
@@ -83,8 +110,12 @@ public class LabelDisplay {
             Log.e(TAG, "no bitmap");
         }
         createProgram();
+        mVertexBuffer.clear();
+        mVertexBuffer.put(VERTICES).flip();
+        mIndexBuffer.clear();
+        mIndexBuffer.put(INDICES).flip();
         int idx = 0;
-        GLES20.glGenTextures(textures.length, textures, 0);
+        GlResourceManager.genTextures(TAG, textures.length, textures, 0);
         for (Bitmap labelBitmap : labelBitmaps) {
             // for semantic label plane
             GLES20.glActiveTexture(GLES20.GL_TEXTURE0 + idx);
@@ -96,6 +127,7 @@ public class LabelDisplay {
                 GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
             GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, labelBitmap, 0);
             GLES20.glGenerateMipmap(GLES20.GL_TEXTURE_2D);
+            GlResourceManager.setTextureSize(textures[idx], labelBitmap.getWidth(), labelBitmap.getHeight(), true);
             GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
             idx++;
             ShaderUtil.checkGlError(TAG, "Texture loading");
@@ -103,8 +135,18 @@ public class LabelDisplay {
         ShaderUtil.checkGlError(TAG, "Program parameters");
     }
 
+    /**
+     * Set the number of labels drawn in a frame. The planes are sorted by distance, so the
+     * labels of the closest planes are kept.
+     *
+     * @param labelBudget Maximum number of labels.
+     */
+    void setLabelBudget(int labelBudget) {
+        mLabelBudget = labelBudget;
+    }
+
     private void createProgram() {
-        mProgram = WorldShaderUtil.getLabelProgram();
+        mProgram = GlResourceManager.registerProgram(TAG, WorldShaderUtil.getLabelProgram());
         ShaderUtil.checkGlError(TAG, "program");
         glPositionParameter = GLES20.glGetAttribLocation(mProgram, "inPosXZAlpha");
         glModelViewProjectionMatrix =
@@ -118,56 +160,19 @@ public class LabelDisplay {
      * Render the type of plane at the center of the currently recognized plane
      * This method will be called when {@link RenderUtil#onDrawFrame}.
      *
-     * @param allPlanes All currently recognized planes.
+     * @param planeDataCache Cached data of all currently recognized planes.
      * @param cameraPose Current camera position and attitude
      * @param cameraProjection Projection matrix of current camera
      */
-    public void onDrawFrame(Collection<ARPlane> allPlanes, ARPose cameraPose, float[] cameraProjection) {
-        ArrayList<ARPlane> sortedPlanes = getSortedPlanes(allPlanes, cameraPose);
-        float[] cameraViewMatrix = new float[MATRIX_SIZE];
-        cameraPose.inverse().toMatrix(cameraViewMatrix, 0);
-        drawSortedPlans(sortedPlanes, cameraViewMatrix, cameraProjection);
-    }
-
-    private ArrayList<ARPlane> getSortedPlanes(Collection<ARPlane> allPlanes, ARPose cameraPose) {
+    void onDrawFrame(PlaneDataCache planeDataCache, ArEnginePose cameraPose, float[] cameraProjection) {
         // Planes must be sorted by distance from camera so that we draw closer planes first, and
         // they occlude the farther planes.
-        ArrayList<Pair<ARPlane, Float>> pairPlanes = new ArrayList<>();
-        for (ARPlane plane : allPlanes) {
-            if ((plane.getType() == ARPlane.PlaneType.UNKNOWN_FACING)
-                || plane.getTrackingState() != ARTrackable.TrackingState.TRACKING
-                || plane.getSubsumedBy() != null) {
-                continue;
-            }
-
-            // store the current plane's normal vector.
-            float[] planeNormalVector = new float[3];
-            ARPose planeCenterPose = plane.getCenterPose();
-            planeCenterPose.getTransformedAxis(1, 1.0f, planeNormalVector, 0);
-
-            // Calculate the distance from the camera to the plane. If it is a negative number,
-            // it means it is on the back of the plane (the normal vector distinguishes the front and the back)
-            float distanceBetweenPlaneAndCamera = (cameraPose.tx() - planeCenterPose.tx()) * planeNormalVector[0]
-                + (cameraPose.ty() - planeCenterPose.ty()) * planeNormalVector[1]
-                + (cameraPose.tz() - planeCenterPose.tz()) * planeNormalVector[2];
-            pairPlanes.add(new Pair<>(plane, distanceBetweenPlaneAndCamera));
-        }
-
-        pairPlanes.sort(new Comparator<Pair<ARPlane, Float>>() {
-            @Override
-            public int compare(Pair<ARPlane, Float> planA, Pair<ARPlane, Float> planB) {
-                return planB.second.compareTo(planA.second);
-            }
-        });
-
-        ArrayList<ARPlane> sortedPlanes = new ArrayList<>();
-        for (Pair<ARPlane, Float> eachPlane: pairPlanes) {
-            sortedPlanes.add(eachPlane.first);
-        }
-        return sortedPlanes;
+        mPlaneSorter.update(planeDataCache, cameraPose);
+        cameraPose.toInverseMatrix(cameraViewMatrix, 0);
+        drawSortedPlans(cameraViewMatrix, cameraProjection);
     }
 
-    private void drawSortedPlans(ArrayList<ARPlane> sortedPlanes, float[] cameraViews, float[] cameraProjection) {
+    private void drawSortedPlans(float[] cameraViews, float[] cameraProjection) {
         // Start by clearing the alpha channel of the color buffer to 1.0.
         GLES20.glClearColor(1, 1, 1, 1);
         GLES20.glColorMask(false, false, false, true);
@@ -188,11 +193,10 @@ public class LabelDisplay {
         // Enable vertex arrays
         GLES20.glEnableVertexAttribArray(glPositionParameter);
 
-        for (ARPlane plane: sortedPlanes) {
-            float[] planeMatrix = new float[MATRIX_SIZE];
-            plane.getCenterPose().toMatrix(planeMatrix, 0);
-
-            System.arraycopy(planeMatrix, 0, modelMatrix, 0, MATRIX_SIZE);
+        int labelCount = Math.min(mPlaneSorter.size(), mLabelBudget);
+        for (int i = 0; i < labelCount; i++) {
+            PlaneDataCache.PlaneData planeData = mPlaneSorter.get(i);
+            System.arraycopy(planeData.getCenterMatrix(), 0, modelMatrix, 0, MATRIX_SIZE);
 
             float scaleU = 1.0f / LABEL_WIDTH;
 
@@ -204,10 +208,8 @@ public class LabelDisplay {
             planeAngleUvMatrix[3] = scaleV;
 
             // Attach the texture.
-            // Enumeration does not provide a method to get enumeration ordinal.
-            int idx = plane.getLabel().ordinal();
-            Log.d(TAG, "plane getLabel:" + idx);
-            idx = Math.abs(idx);
+            int idx = planeData.getLabelIndex();
+            RenderLog.d(TAG, "plane getLabel:{}", idx);
             GLES20.glActiveTexture(GLES20.GL_TEXTURE0 + idx);
             GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textures[idx]);
             GLES20.glUniform1i(glTexture, idx);
@@ -230,44 +232,12 @@ public class LabelDisplay {
         Matrix.multiplyMM(modelViewMatrix, 0, cameraViews, 0, modelMatrix, 0);
         Matrix.multiplyMM(modelViewProjectionMatrix, 0, cameraProjection, 0, modelViewMatrix, 0);
 
-        // Take the general length and width.
-        float halfWidth = LABEL_WIDTH / 2.0f;
-        float halfHeight = LABEL_HEIGHT / 2.0f;
-        float[] vertices = {
-            -halfWidth, -halfHeight, 1,
-            -halfWidth, halfHeight, 1,
-            halfWidth, halfHeight, 1,
-            halfWidth, -halfHeight, 1,
-        };
-
-        // The size of each float is 4 bits.
-        FloatBuffer vetBuffer = ByteBuffer.allocateDirect(4 * vertices.length).
-            order(ByteOrder.nativeOrder()).asFloatBuffer();
-        vetBuffer.rewind();
-        for (int i = 0; i < vertices.length; ++i) {
-            vetBuffer.put(vertices[i]);
-        }
-        vetBuffer.rewind();
-
-        // The size of each float is 4 bits.
         GLES20.glVertexAttribPointer(glPositionParameter, COORDS_PER_VERTEX, GLES20.GL_FLOAT,
-            false, 4 * COORDS_PER_VERTEX, vetBuffer);
-
-        // Sets the order in which OpenGL draws points, resulting in two triangles that form a plane.
-        short[] indices = {0, 1, 2, 0, 2, 3 };
-
-        // The size of each float is 2 bits.
-        ShortBuffer idxBuffer = ByteBuffer.allocateDirect(2 * indices.length).
-            order(ByteOrder.nativeOrder()).asShortBuffer();
-        idxBuffer.rewind();
-        for (int i = 0; i < indices.length; ++i) {
-            idxBuffer.put(indices[i]);
-        }
-        idxBuffer.rewind();
+            false, BYTES_PER_FLOAT * COORDS_PER_VERTEX, mVertexBuffer);
 
         GLES20.glUniformMatrix4fv(glModelViewProjectionMatrix, 1, false, modelViewProjectionMatrix, 0);
 
-        GLES20.glDrawElements(GLES20.GL_TRIANGLE_STRIP, idxBuffer.limit(), GLES20.GL_UNSIGNED_SHORT, idxBuffer);
+        GLES20.glDrawElements(GLES20.GL_TRIANGLE_STRIP, mIndexBuffer.limit(), GLES20.GL_UNSIGNED_SHORT, mIndexBuffer);
         ShaderUtil.checkGlError(TAG, "Drawing plane");
     }
 }
\ No newline at end of file
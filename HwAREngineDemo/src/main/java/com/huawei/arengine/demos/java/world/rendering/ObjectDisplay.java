@@ -13,14 +13,14 @@ import android.opengl.Matrix;
 import android.util.Log;
 import android.view.MotionEvent;
 
+import com.huawei.arengine.demos.common.GlResourceManager;
 import com.huawei.arengine.demos.common.MatrixUtil;
+import com.huawei.arengine.demos.common.MemoryAccounting;
 import com.huawei.arengine.demos.common.ShaderUtil;
 import com.huawei.arengine.demos.java.world.VirtualObject;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
@@ -81,6 +81,11 @@ public class ObjectDisplay {
 
     private int mLightingParametersUniform;
 
+    private int mLodBiasUniform;
+
+    // Bias of the mipmap level of the texture, a coarser level is cheaper to sample.
+    private float mTextureLodBias = 0.0f;
+
     // Shader location: object color property (to change the primary color of the object).
     private int mColorUniform;
 
@@ -108,6 +113,16 @@ public class ObjectDisplay {
         mHeight = height;
     }
 
+    /**
+     * Set the bias added to the mipmap level of the object texture. The object has a single
+     * mesh, so its level of detail is the one of its texture.
+     *
+     * @param textureLodBias Bias in mipmap levels, 0 for the level chosen by the driver.
+     */
+    void setTextureLodBias(float textureLodBias) {
+        mTextureLodBias = textureLodBias;
+    }
+
     /**
      * Create shader program, read virtual object data, and pass in object data in OpenGLES
      * This method will be called when {@link RenderUtil#onSurfaceCreated}.
@@ -119,11 +134,11 @@ public class ObjectDisplay {
 
         // Get two buffer IDS, coordinate and index.
         int[] buffers = new int[2];
-        GLES20.glGenBuffers(2, buffers, 0);
+        GlResourceManager.genBuffers(TAG, buffers.length, buffers, 0);
         mVertexBufferId = buffers[0];
         mIndexBufferId = buffers[1];
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
-        GLES20.glGenTextures(mTextures.length, mTextures, 0);
+        GlResourceManager.genTextures(TAG, mTextures.length, mTextures, 0);
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures[0]);
         GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR_MIPMAP_LINEAR);
         initGlTextureData(context);
@@ -131,7 +146,7 @@ public class ObjectDisplay {
     }
 
     private void createProgram() {
-        mProgram = WorldShaderUtil.getObjectProgram();
+        mProgram = GlResourceManager.registerProgram(TAG, WorldShaderUtil.getObjectProgram());
         ShaderUtil.checkGlError(TAG, "program creation");
         mModelViewUniform = GLES20.glGetUniformLocation(mProgram, "inViewMatrix");
         mModelViewProjectionUniform = GLES20.glGetUniformLocation(mProgram, "inMVPMatrix");
@@ -141,6 +156,7 @@ public class ObjectDisplay {
         mTextureUniform = GLES20.glGetUniformLocation(mProgram, "inObjectTexture");
         mLightingParametersUniform = GLES20.glGetUniformLocation(mProgram, "inLight");
         mColorUniform = GLES20.glGetUniformLocation(mProgram, "inObjectColor");
+        mLodBiasUniform = GLES20.glGetUniformLocation(mProgram, "inLodBias");
         ShaderUtil.checkGlError(TAG, "Program parameters");
         Matrix.setIdentityM(mModelMatrixs, 0);
     }
@@ -155,6 +171,7 @@ public class ObjectDisplay {
         }
         GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, textureBitmap, 0);
         GLES20.glGenerateMipmap(GLES20.GL_TEXTURE_2D);
+        GlResourceManager.setTextureSize(mTextures[0], textureBitmap.getWidth(), textureBitmap.getHeight(), true);
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
         textureBitmap.recycle();
         ShaderUtil.checkGlError(TAG, "load texture");
@@ -170,6 +187,7 @@ public class ObjectDisplay {
         final int totalBytes = mNormalsBaseAddress + FLOAT_BYTE_SIZE * objectData.normals.limit();
         GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mVertexBufferId);
         GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, totalBytes, null, GLES20.GL_STATIC_DRAW);
+        GlResourceManager.setSize(GlResourceManager.Type.BUFFER, mVertexBufferId, totalBytes);
         GLES20.glBufferSubData(
             GLES20.GL_ARRAY_BUFFER, 0, FLOAT_BYTE_SIZE * objectData.objectVertices.limit(), objectData.objectVertices);
         GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, mTexCoordsBaseAddress,
@@ -181,6 +199,8 @@ public class ObjectDisplay {
         mIndexCount = objectData.indices.limit();
         GLES20.glBufferData(
             GLES20.GL_ELEMENT_ARRAY_BUFFER, INDEX_COUNT_RATIO * mIndexCount, objectData.indices, GLES20.GL_STATIC_DRAW);
+        GlResourceManager.setSize(GlResourceManager.Type.BUFFER, mIndexBufferId, INDEX_COUNT_RATIO * mIndexCount);
+        MemoryAccounting.freeDirect(TAG, 2 * objectData.indices.capacity());
         GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
         ShaderUtil.checkGlError(TAG, "obj buffer load");
     }
@@ -202,8 +222,7 @@ public class ObjectDisplay {
         calculateBoundingBox(objectVertices);
 
         // Prevent memory shortage and double it.
-        ShortBuffer indices = ByteBuffer.allocateDirect(2 * objectIndices.limit())
-            .order(ByteOrder.nativeOrder()).asShortBuffer();
+        ShortBuffer indices = MemoryAccounting.allocateDirect(TAG, 2 * objectIndices.limit()).asShortBuffer();
         while (objectIndices.hasRemaining()) {
             indices.put((short) objectIndices.get());
         }
@@ -242,20 +261,17 @@ public class ObjectDisplay {
     }
 
     /**
-     * Draw a virtual object at the specified position on the specified surface.
+     * Draw a virtual object at the specified position on the specified surface, with the
+     * matrices computed by {@link VirtualObject#updateMatrices(float[], float[])} for the frame.
      *
-     * @param cameraView A 4x4 view matrix, in column-major order.
-     * @param cameraProjection A 4x4 projection matrix, in column-major order.
      * @param lightIntensity Light intensity.
      * @param obj The colour of an object.
      */
-    public void onDrawFrame(float[] cameraView, float[] cameraProjection, float lightIntensity, VirtualObject obj) {
+    public void onDrawFrame(float lightIntensity, VirtualObject obj) {
         ShaderUtil.checkGlError(TAG, "before draw");
-        mModelMatrixs = obj.getModelAnchorMatrix();
-        Matrix.multiplyMM(mModelViewMatrixs, 0, cameraView, 0, mModelMatrixs, 0);
-        Matrix.multiplyMM(mModelViewProjectionMatrixs, 0, cameraProjection, 0, mModelViewMatrixs, 0);
+        float[] modelViewMatrix = obj.getModelViewMatrix();
         GLES20.glUseProgram(mProgram);
-        Matrix.multiplyMV(mViewLightDirections, 0, mModelViewMatrixs, 0, LIGHT_DIRECTIONS, 0);
+        Matrix.multiplyMV(mViewLightDirections, 0, modelViewMatrix, 0, LIGHT_DIRECTIONS, 0);
         MatrixUtil.normalizeVec3(mViewLightDirections);
 
         // Lighting direction data has three dimensions(0,1,2).
@@ -268,6 +284,7 @@ public class ObjectDisplay {
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures[0]);
         GLES20.glUniform1i(mTextureUniform, 0);
+        GLES20.glUniform1f(mLodBiasUniform, mTextureLodBias);
         GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mVertexBufferId);
 
         // The coordinate dimension of the read virtual 3D object is 3
@@ -283,9 +300,9 @@ public class ObjectDisplay {
             mTexCoordAttribute, 2, GLES20.GL_FLOAT, false, 0, mTexCoordsBaseAddress);
         GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
         GLES20.glUniformMatrix4fv(
-            mModelViewUniform, 1, false, mModelViewMatrixs, 0);
+            mModelViewUniform, 1, false, modelViewMatrix, 0);
         GLES20.glUniformMatrix4fv(
-            mModelViewProjectionUniform, 1, false, mModelViewProjectionMatrixs, 0);
+            mModelViewProjectionUniform, 1, false, obj.getModelViewProjectionMatrix(), 0);
         GLES20.glEnableVertexAttribArray(mPositionAttribute);
         GLES20.glEnableVertexAttribArray(mNormalAttribute);
         GLES20.glEnableVertexAttribArray(mTexCoordAttribute);
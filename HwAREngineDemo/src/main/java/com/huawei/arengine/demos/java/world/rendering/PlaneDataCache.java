@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.java.world.rendering;
+
+import com.huawei.arengine.demos.common.engine.ArEnginePlane;
+import com.huawei.arengine.demos.common.engine.ArEnginePose;
+import com.huawei.arengine.demos.common.engine.ArEngineTrackable;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * Cache of the data derived from each plane, such as the center matrix, the normal vector, the
+ * label index and the boundary polygon. Only the planes reported as updated by the engine are
+ * queried again, so the number of calls into AREngine per frame depends on how much the scene
+ * changes rather than on its size.
+ * Planes that are subsumed by another plane or that stopped tracking are evicted.
+ *
+ * @author HW
+ * @since 2020-04-08
+ */
+class PlaneDataCache {
+    private static final int MATRIX_SIZE = 16;
+
+    private final HashMap<ArEnginePlane, PlaneData> mPlaneDatas = new HashMap<>();
+
+    private final ArrayList<PlaneData> mActivePlaneDatas = new ArrayList<>();
+
+    // Evicted entries, reused for new planes to avoid allocating their arrays again.
+    private final ArrayList<PlaneData> mFreePlaneDatas = new ArrayList<>();
+
+    private long mFrameIndex = 0;
+
+    // Id given to the next plane added to the cache.
+    private int mNextPlaneId = 0;
+
+    /**
+     * Update the cache with the planes that changed in this frame.
+     * This method will be called when {@link RenderUtil#onDrawFrame}.
+     *
+     * @param updatedPlanes Planes reported as updated by ARFrame, or all planes for the first frame.
+     */
+    void update(Collection<ArEnginePlane> updatedPlanes) {
+        mFrameIndex++;
+        for (ArEnginePlane plane : updatedPlanes) {
+            PlaneData planeData = mPlaneDatas.get(plane);
+            if (plane.isSubsumed() || plane.getTrackingState() == ArEngineTrackable.TrackingState.STOPPED) {
+                if (planeData != null) {
+                    evict(planeData);
+                }
+                continue;
+            }
+            if (planeData == null) {
+                planeData = obtain(plane);
+            }
+            planeData.update(plane, mFrameIndex);
+        }
+    }
+
+    /**
+     * Remove all the cached planes, for example when the session is changed.
+     */
+    void clear() {
+        for (int i = mActivePlaneDatas.size() - 1; i >= 0; i--) {
+            evict(mActivePlaneDatas.get(i));
+        }
+        mFrameIndex = 0;
+    }
+
+    /**
+     * Forget the vertex regions and the uploads of the cached planes, when the buffer that
+     * held them belongs to a lost OpenGL context. The planes are uploaded again when drawn.
+     */
+    void invalidateGpuState() {
+        for (int i = 0; i < mActivePlaneDatas.size(); i++) {
+            PlaneData planeData = mActivePlaneDatas.get(i);
+            planeData.mVertexOffset = -1;
+            planeData.mVertexCapacity = 0;
+            planeData.mUploadedVersion = -1;
+        }
+    }
+
+    /**
+     * Check whether the cache has not received any frame since it was created or cleared.
+     *
+     * @return True if no frame has been processed.
+     */
+    boolean isEmptyFrame() {
+        return mFrameIndex == 0;
+    }
+
+    /**
+     * Get the number of cached planes.
+     *
+     * @return Number of planes.
+     */
+    int size() {
+        return mActivePlaneDatas.size();
+    }
+
+    /**
+     * Get the cached plane data at the specified index.
+     *
+     * @param index Index between 0 and {@link #size()}.
+     * @return Plane data.
+     */
+    PlaneData get(int index) {
+        return mActivePlaneDatas.get(index);
+    }
+
+    /**
+     * Check whether at least one plane with a known type is being tracked.
+     *
+     * @return True if such a plane exists.
+     */
+    boolean hasTrackingLabeledPlane() {
+        for (int i = 0; i < mActivePlaneDatas.size(); i++) {
+            if (mActivePlaneDatas.get(i).isTrackingLabeled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the index of the current frame, increased by every {@link #update}.
+     *
+     * @return Frame index.
+     */
+    long getFrameIndex() {
+        return mFrameIndex;
+    }
+
+    private PlaneData obtain(ArEnginePlane plane) {
+        int freeSize = mFreePlaneDatas.size();
+        PlaneData planeData = freeSize > 0 ? mFreePlaneDatas.remove(freeSize - 1) : new PlaneData();
+        planeData.mPlane = plane;
+        planeData.mId = mNextPlaneId++;
+        planeData.mActiveIndex = mActivePlaneDatas.size();
+        mActivePlaneDatas.add(planeData);
+        mPlaneDatas.put(plane, planeData);
+        return planeData;
+    }
+
+    private void evict(PlaneData planeData) {
+        mPlaneDatas.remove(planeData.mPlane);
+
+        // Swap with the last entry to remove it in constant time.
+        int lastIndex = mActivePlaneDatas.size() - 1;
+        PlaneData last = mActivePlaneDatas.remove(lastIndex);
+        if (last != planeData) {
+            last.mActiveIndex = planeData.mActiveIndex;
+            mActivePlaneDatas.set(planeData.mActiveIndex, last);
+        }
+        planeData.mPlane = null;
+        planeData.mActiveIndex = -1;
+        planeData.mPolygonSize = 0;
+        planeData.mPolygonHash = 0;
+        planeData.mPolygonVersion = 0;
+        planeData.mVertexOffset = -1;
+        planeData.mVertexCapacity = 0;
+        planeData.mUploadedVersion = -1;
+        mFreePlaneDatas.add(planeData);
+    }
+
+    /**
+     * Data derived from a plane at the last frame it was updated.
+     *
+     * @author HW
+     * @since 2020-04-08
+     */
+    static class PlaneData {
+        private static final int INITIAL_POLYGON_CAPACITY = 32;
+
+        private final float[] mCenterMatrix = new float[MATRIX_SIZE];
+
+        // Translation of the center pose (x, y, z).
+        private final float[] mCenter = new float[3];
+
+        // Y axis of the center pose, which is the normal vector of the plane.
+        private final float[] mNormal = new float[3];
+
+        private ArEnginePlane mPlane;
+
+        private int mId;
+
+        private int mActiveIndex = -1;
+
+        private boolean mIsLabeled;
+
+        private boolean mIsTracking;
+
+        private int mLabelIndex;
+
+        private long mLastUpdateFrame;
+
+        // Boundary polygon in the local x-z plane of the center pose (x1, z1, x2, z2, ...).
+        private float[] mPolygon = new float[INITIAL_POLYGON_CAPACITY];
+
+        // Number of floats used in mPolygon.
+        private int mPolygonSize;
+
+        private int mPolygonHash;
+
+        // Increased every time the boundary polygon really changes.
+        private int mPolygonVersion;
+
+        // Region of the shared vertex buffer owned by this plane, managed by PlaneDisplay.
+        private int mVertexOffset = -1;
+
+        private int mVertexCapacity;
+
+        private int mUploadedVersion = -1;
+
+        private void update(ArEnginePlane plane, long frameIndex) {
+            ArEnginePose centerPose = plane.getCenterPose();
+            centerPose.toMatrix(mCenterMatrix, 0);
+            centerPose.getTransformedAxis(1, 1.0f, mNormal, 0);
+            mCenter[0] = centerPose.tx();
+            mCenter[1] = centerPose.ty();
+            mCenter[2] = centerPose.tz();
+            mIsLabeled = plane.hasKnownType();
+            mIsTracking = plane.getTrackingState() == ArEngineTrackable.TrackingState.TRACKING;
+            mLabelIndex = plane.getLabelIndex();
+            mLastUpdateFrame = frameIndex;
+            updatePolygon(plane.getPlanePolygon());
+        }
+
+        private void updatePolygon(FloatBuffer polygon) {
+            int size = polygon.limit();
+            int hash = 1;
+            for (int i = 0; i < size; i++) {
+                hash = 31 * hash + Float.floatToIntBits(polygon.get(i));
+            }
+
+            // An updated plane does not always have a new boundary, for example when only its pose is refined.
+            if (size == mPolygonSize && hash == mPolygonHash) {
+                return;
+            }
+            if (size > mPolygon.length) {
+                mPolygon = new float[Math.max(size, mPolygon.length * 2)];
+            }
+            for (int i = 0; i < size; i++) {
+                mPolygon[i] = polygon.get(i);
+            }
+            mPolygonSize = size;
+            mPolygonHash = hash;
+            mPolygonVersion++;
+        }
+
+        ArEnginePlane getPlane() {
+            return mPlane;
+        }
+
+        float[] getCenterMatrix() {
+            return mCenterMatrix;
+        }
+
+        float[] getCenter() {
+            return mCenter;
+        }
+
+        float[] getNormal() {
+            return mNormal;
+        }
+
+        int getLabelIndex() {
+            return mLabelIndex;
+        }
+
+        long getLastUpdateFrame() {
+            return mLastUpdateFrame;
+        }
+
+        int getId() {
+            return mId;
+        }
+
+        float[] getPolygon() {
+            return mPolygon;
+        }
+
+        int getPolygonSize() {
+            return mPolygonSize;
+        }
+
+        int getPolygonVersion() {
+            return mPolygonVersion;
+        }
+
+        int getVertexOffset() {
+            return mVertexOffset;
+        }
+
+        int getVertexCapacity() {
+            return mVertexCapacity;
+        }
+
+        void setVertexRegion(int vertexOffset, int vertexCapacity) {
+            mVertexOffset = vertexOffset;
+            mVertexCapacity = vertexCapacity;
+        }
+
+        int getUploadedVersion() {
+            return mUploadedVersion;
+        }
+
+        void setUploadedVersion(int uploadedVersion) {
+            mUploadedVersion = uploadedVersion;
+        }
+
+        boolean isTracking() {
+            return mIsTracking;
+        }
+
+        boolean isTrackingLabeled() {
+            return mIsLabeled && mIsTracking;
+        }
+    }
+}
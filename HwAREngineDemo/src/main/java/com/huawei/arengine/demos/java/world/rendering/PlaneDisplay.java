@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.java.world.rendering;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.opengl.GLES20;
+import android.opengl.GLUtils;
+import android.opengl.Matrix;
+import android.util.Log;
+
+import com.huawei.arengine.demos.common.GlResourceManager;
+import com.huawei.arengine.demos.common.JobSystem;
+import com.huawei.arengine.demos.common.RenderLog;
+import com.huawei.arengine.demos.common.ShaderUtil;
+import com.huawei.arengine.demos.common.StagingBufferPool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.FloatBuffer;
+
+/**
+ * This class demonstrates how to use the boundary polygon of ARPlane to draw the area of
+ * each recognized plane. The convex polygon of each plane is triangulated as a fan around its
+ * centroid and stored in its own region of one dynamic vertex buffer shared by all planes.
+ * A region is uploaded again only when the polygon of its plane changed, which is detected by
+ * {@link PlaneDataCache} from the vertex count and the hash of the polygon. The matrices of
+ * the planes are computed before the draws, on the {@link JobSystem} for large scenes.
+ *
+ * @author HW
+ * @since 2020-04-08
+ */
+public class PlaneDisplay {
+    private static final String TAG = PlaneDisplay.class.getSimpleName();
+
+    private static final int FLOATS_PER_VERTEX = 3; // x, z, alpha
+
+    private static final int FLOAT_BYTE_SIZE = 4;
+
+    private static final int MATRIX_SIZE = 16;
+
+    private static final int INITIAL_VERTEX_CAPACITY = 1024;
+
+    private static final int MIN_MATRIX_BATCH = 64;
+
+    // Each grid cell of the texture covers 1 / GRID_SCALE meters.
+    private static final float GRID_SCALE = 1.0f / 0.5f;
+
+    // Alpha of the polygon boundary, the plane fades out from its centroid towards the edges.
+    private static final float EDGE_ALPHA = 0.3f;
+
+    // Colors (r, g, b, a) of the planes, indexed by the label index of the plane.
+    private static final float[][] PLANE_COLORS = {
+        {1.0f, 1.0f, 1.0f, 0.8f}, // other
+        {0.26f, 0.52f, 0.96f, 0.8f}, // wall
+        {0.20f, 0.66f, 0.33f, 0.8f}, // floor
+        {0.98f, 0.74f, 0.02f, 0.8f}, // seat
+        {0.92f, 0.26f, 0.21f, 0.8f}, // table
+        {0.61f, 0.15f, 0.69f, 0.8f}, // ceiling
+    };
+
+    private final int[] mTextures = new int[1];
+
+    private final int[] mBuffers = new int[1];
+
+    private final JobSystem.RangeJob mMatrixJob = new JobSystem.RangeJob() {
+        @Override
+        public void run(int start, int end) {
+            computeMatrices(start, end);
+        }
+    };
+
+    // Model view and model view projection matrices of the planes, 16 floats per plane of the cache.
+    private float[] mModelViewMatrices = new float[0];
+
+    private float[] mModelViewProjectionMatrices = new float[0];
+
+    // Inputs of the matrix job, set for the frame being drawn.
+    private PlaneDataCache mMatrixPlanes;
+
+    private float[] mCameraView;
+
+    private float[] mCameraProjection;
+
+    // Number of vertices allocated in the vertex buffer, and the number assigned to planes.
+    private int mVertexCapacity = 0;
+
+    private int mVertexUsed = 0;
+
+    private int mProgram;
+
+    private int glPositionParameter;
+
+    private int glModelViewProjectionMatrix;
+
+    private int glModelMatrix;
+
+    private int glGridScale;
+
+    private int glTexture;
+
+    private int glPlaneColor;
+
+    /**
+     * Create the plane shader, the grid texture and the shared vertex buffer on the OpenGL Thread.
+     * The new buffer has no storage, so the caller also invalidates the regions of the cached
+     * planes with {@link PlaneDataCache#invalidateGpuState()}.
+     * This method will be called when {@link RenderUtil#onSurfaceCreated}.
+     *
+     * @param context Context.
+     */
+    public void init(Context context) {
+        createProgram();
+        GlResourceManager.genBuffers(TAG, mBuffers.length, mBuffers, 0);
+        mVertexCapacity = 0;
+        mVertexUsed = 0;
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+        GlResourceManager.genTextures(TAG, mTextures.length, mTextures, 0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures[0]);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR_MIPMAP_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_REPEAT);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_REPEAT);
+        initGlTextureData(context);
+        ShaderUtil.checkGlError(TAG, "Program parameters");
+    }
+
+    private void createProgram() {
+        mProgram = GlResourceManager.registerProgram(TAG, WorldShaderUtil.getPlaneProgram());
+        ShaderUtil.checkGlError(TAG, "program");
+        glPositionParameter = GLES20.glGetAttribLocation(mProgram, "inPosXZAlpha");
+        glModelViewProjectionMatrix = GLES20.glGetUniformLocation(mProgram, "inMVPMatrix");
+        glModelMatrix = GLES20.glGetUniformLocation(mProgram, "inModelMatrix");
+        glGridScale = GLES20.glGetUniformLocation(mProgram, "inGridScale");
+        glTexture = GLES20.glGetUniformLocation(mProgram, "inTexture");
+        glPlaneColor = GLES20.glGetUniformLocation(mProgram, "inPlaneColor");
+        ShaderUtil.checkGlError(TAG, "program params");
+    }
+
+    private void initGlTextureData(Context context) {
+        Bitmap textureBitmap;
+        try (InputStream inputStream = context.getAssets().open("trigrid.png")) {
+            textureBitmap = BitmapFactory.decodeStream(inputStream);
+        } catch (IllegalArgumentException | IOException e) {
+            Log.e(TAG, "Get data failed!");
+            return;
+        }
+        GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, textureBitmap, 0);
+        GLES20.glGenerateMipmap(GLES20.GL_TEXTURE_2D);
+        GlResourceManager.setTextureSize(mTextures[0], textureBitmap.getWidth(), textureBitmap.getHeight(), true);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
+        textureBitmap.recycle();
+        ShaderUtil.checkGlError(TAG, "load texture");
+    }
+
+    /**
+     * Draw the area of all the tracked planes.
+     * This method will be called when {@link RenderUtil#onDrawFrame}.
+     *
+     * @param planeDataCache Cached data of all currently recognized planes.
+     * @param cameraView A 4x4 view matrix, in column-major order.
+     * @param cameraProjection A 4x4 projection matrix, in column-major order.
+     */
+    void onDrawFrame(PlaneDataCache planeDataCache, float[] cameraView, float[] cameraProjection) {
+        if (planeDataCache.size() == 0) {
+            return;
+        }
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mBuffers[0]);
+        updateVertexBuffer(planeDataCache);
+        updateMatrices(planeDataCache, cameraView, cameraProjection);
+
+        // Disable depth write, the planes are transparent.
+        GLES20.glDepthMask(false);
+        GLES20.glEnable(GLES20.GL_BLEND);
+        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+
+        GLES20.glUseProgram(mProgram);
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures[0]);
+        GLES20.glUniform1i(glTexture, 0);
+        GLES20.glUniform1f(glGridScale, GRID_SCALE);
+        GLES20.glEnableVertexAttribArray(glPositionParameter);
+        GLES20.glVertexAttribPointer(glPositionParameter, FLOATS_PER_VERTEX, GLES20.GL_FLOAT,
+            false, FLOAT_BYTE_SIZE * FLOATS_PER_VERTEX, 0);
+
+        for (int i = 0; i < planeDataCache.size(); i++) {
+            PlaneDataCache.PlaneData planeData = planeDataCache.get(i);
+            if (!isDrawn(planeData)) {
+                continue;
+            }
+            GLES20.glUniformMatrix4fv(glModelViewProjectionMatrix, 1, false, mModelViewProjectionMatrices,
+                i * MATRIX_SIZE);
+            GLES20.glUniformMatrix4fv(glModelMatrix, 1, false, planeData.getCenterMatrix(), 0);
+            float[] color = PLANE_COLORS[planeData.getLabelIndex() % PLANE_COLORS.length];
+            GLES20.glUniform4fv(glPlaneColor, 1, color, 0);
+            GLES20.glDrawArrays(GLES20.GL_TRIANGLE_FAN, planeData.getVertexOffset(), getVertexCount(planeData));
+        }
+
+        // Clean up the state we set
+        GLES20.glDisableVertexAttribArray(glPositionParameter);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
+        GLES20.glDisable(GLES20.GL_BLEND);
+        GLES20.glDepthMask(true);
+        ShaderUtil.checkGlError(TAG, "Drawing planes");
+    }
+
+    private void updateMatrices(PlaneDataCache planeDataCache, float[] cameraView, float[] cameraProjection) {
+        int floatCount = planeDataCache.size() * MATRIX_SIZE;
+        if (mModelViewMatrices.length < floatCount) {
+            mModelViewMatrices = new float[floatCount * 2];
+            mModelViewProjectionMatrices = new float[floatCount * 2];
+        }
+        mMatrixPlanes = planeDataCache;
+        mCameraView = cameraView;
+        mCameraProjection = cameraProjection;
+        JobSystem.get().parallelFor(planeDataCache.size(), MIN_MATRIX_BATCH, mMatrixJob);
+        mMatrixPlanes = null;
+    }
+
+    private void computeMatrices(int start, int end) {
+        for (int i = start; i < end; i++) {
+            PlaneDataCache.PlaneData planeData = mMatrixPlanes.get(i);
+            if (!isDrawn(planeData)) {
+                continue;
+            }
+            int offset = i * MATRIX_SIZE;
+            Matrix.multiplyMM(mModelViewMatrices, offset, mCameraView, 0, planeData.getCenterMatrix(), 0);
+            Matrix.multiplyMM(mModelViewProjectionMatrices, offset, mCameraProjection, 0,
+                mModelViewMatrices, offset);
+        }
+    }
+
+    private void updateVertexBuffer(PlaneDataCache planeDataCache) {
+        for (int i = 0; i < planeDataCache.size(); i++) {
+            PlaneDataCache.PlaneData planeData = planeDataCache.get(i);
+            if (planeData.getUploadedVersion() == planeData.getPolygonVersion()) {
+                continue;
+            }
+            int vertexCount = getVertexCount(planeData);
+            if (vertexCount == 0) {
+                planeData.setUploadedVersion(planeData.getPolygonVersion());
+                continue;
+            }
+            if (vertexCount > planeData.getVertexCapacity()) {
+                // Reserve some room so that a growing plane does not need a new region every frame.
+                int capacity = vertexCount + vertexCount / 2;
+                if (mVertexUsed + capacity > mVertexCapacity) {
+                    rebuildVertexBuffer(planeDataCache);
+                    return;
+                }
+                planeData.setVertexRegion(mVertexUsed, capacity);
+                mVertexUsed += capacity;
+            }
+            uploadPlane(planeData);
+        }
+    }
+
+    /**
+     * Allocate the vertex buffer again and upload all the planes to it, which also reclaims the
+     * regions of the evicted planes. This only happens when the buffer is full.
+     */
+    private void rebuildVertexBuffer(PlaneDataCache planeDataCache) {
+        int required = 0;
+        for (int i = 0; i < planeDataCache.size(); i++) {
+            int vertexCount = getVertexCount(planeDataCache.get(i));
+            required += vertexCount + vertexCount / 2;
+        }
+        mVertexCapacity = Math.max(INITIAL_VERTEX_CAPACITY, Math.max(mVertexCapacity, required * 2));
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, FLOAT_BYTE_SIZE * FLOATS_PER_VERTEX * mVertexCapacity,
+            null, GLES20.GL_DYNAMIC_DRAW);
+        GlResourceManager.setSize(GlResourceManager.Type.BUFFER, mBuffers[0],
+            (long) FLOAT_BYTE_SIZE * FLOATS_PER_VERTEX * mVertexCapacity);
+        RenderLog.d(TAG, "Rebuild plane vertex buffer, capacity: {}", mVertexCapacity);
+
+        mVertexUsed = 0;
+        for (int i = 0; i < planeDataCache.size(); i++) {
+            PlaneDataCache.PlaneData planeData = planeDataCache.get(i);
+            int vertexCount = getVertexCount(planeData);
+            if (vertexCount == 0) {
+                planeData.setVertexRegion(-1, 0);
+                planeData.setUploadedVersion(planeData.getPolygonVersion());
+                continue;
+            }
+            int capacity = vertexCount + vertexCount / 2;
+            planeData.setVertexRegion(mVertexUsed, capacity);
+            mVertexUsed += capacity;
+            uploadPlane(planeData);
+        }
+    }
+
+    private void uploadPlane(PlaneDataCache.PlaneData planeData) {
+        int vertexCount = getVertexCount(planeData);
+        float[] polygon = planeData.getPolygon();
+        int polygonSize = planeData.getPolygonSize();
+        float centerX = 0.0f;
+        float centerZ = 0.0f;
+        for (int i = 0; i < polygonSize; i += 2) {
+            centerX += polygon[i];
+            centerZ += polygon[i + 1];
+        }
+        int boundaryCount = polygonSize / 2;
+        centerX /= boundaryCount;
+        centerZ /= boundaryCount;
+
+        // The polygon is convex, so a fan around the centroid is a valid triangulation.
+        // The first boundary vertex is repeated at the end to close the fan.
+        StagingBufferPool pool = StagingBufferPool.get();
+        StagingBufferPool.Slab slab = pool.acquire(FLOAT_BYTE_SIZE * FLOATS_PER_VERTEX * vertexCount);
+        FloatBuffer vertices = slab.floats();
+        vertices.put(centerX).put(centerZ).put(1.0f);
+        for (int i = 0; i < polygonSize; i += 2) {
+            vertices.put(polygon[i]).put(polygon[i + 1]).put(EDGE_ALPHA);
+        }
+        vertices.put(polygon[0]).put(polygon[1]).put(EDGE_ALPHA);
+        vertices.flip();
+        GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER,
+            FLOAT_BYTE_SIZE * FLOATS_PER_VERTEX * planeData.getVertexOffset(),
+            FLOAT_BYTE_SIZE * vertices.limit(), vertices);
+        pool.release(slab);
+        planeData.setUploadedVersion(planeData.getPolygonVersion());
+    }
+
+    private static boolean isDrawn(PlaneDataCache.PlaneData planeData) {
+        return planeData.isTracking() && planeData.getVertexOffset() >= 0 && getVertexCount(planeData) > 0;
+    }
+
+    private static int getVertexCount(PlaneDataCache.PlaneData planeData) {
+        // Centroid, boundary vertices, and the first boundary vertex again; nothing for an empty polygon.
+        int boundaryCount = planeData.getPolygonSize() / 2;
+        return boundaryCount == 0 ? 0 : boundaryCount + 2;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.java.world.rendering;
+
+import com.huawei.arengine.demos.common.JobSystem;
+import com.huawei.arengine.demos.common.engine.ArEnginePose;
+
+/**
+ * Orders the visible planes by their distance to the camera. The cached plane data and the
+ * distances are kept in persistent arrays, and the order of the previous frame is used as the
+ * starting point of an insertion sort. Since the order rarely changes between two frames, the
+ * sort is close to O(n) and no object is allocated after the arrays have grown to the scene size.
+ * The distances of large scenes are computed on the {@link JobSystem}.
+ *
+ * @author HW
+ * @since 2020-04-08
+ */
+class PlaneSorter {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final int MIN_DISTANCE_BATCH = 256;
+
+    private final JobSystem.RangeJob mDistanceJob = new JobSystem.RangeJob() {
+        @Override
+        public void run(int start, int end) {
+            computeDistances(start, end);
+        }
+    };
+
+    private PlaneDataCache.PlaneData[] mPlaneDatas = new PlaneDataCache.PlaneData[INITIAL_CAPACITY];
+
+    private float[] mDistances = new float[INITIAL_CAPACITY];
+
+    // Indexes into mPlaneDatas, sorted by distance. Kept between frames as the initial order.
+    private int[] mOrder = new int[INITIAL_CAPACITY];
+
+    private int mCount = 0;
+
+    private float mCameraX;
+
+    private float mCameraY;
+
+    private float mCameraZ;
+
+    /**
+     * Collect the planes that can be labeled and sort them by the distance to the camera,
+     * the farthest plane comes first.
+     *
+     * @param planeDataCache Cached data of all currently recognized planes.
+     * @param cameraPose Current camera position and attitude.
+     */
+    void update(PlaneDataCache planeDataCache, ArEnginePose cameraPose) {
+        int previousCount = mCount;
+        int count = 0;
+        for (int i = 0; i < planeDataCache.size(); i++) {
+            PlaneDataCache.PlaneData planeData = planeDataCache.get(i);
+            if (!planeData.isTrackingLabeled()) {
+                continue;
+            }
+            ensureCapacity(count + 1);
+            mPlaneDatas[count] = planeData;
+            count++;
+        }
+        mCameraX = cameraPose.tx();
+        mCameraY = cameraPose.ty();
+        mCameraZ = cameraPose.tz();
+        JobSystem.get().parallelFor(count, MIN_DISTANCE_BATCH, mDistanceJob);
+
+        // Release references of planes that are no longer visible.
+        for (int i = count; i < previousCount; i++) {
+            mPlaneDatas[i] = null;
+        }
+        mCount = count;
+
+        // Reuse the order of the previous frame if no plane disappeared, new planes are appended.
+        int start = (count >= previousCount) ? previousCount : 0;
+        for (int i = start; i < count; i++) {
+            mOrder[i] = i;
+        }
+        insertionSort();
+    }
+
+    /**
+     * Get the number of sorted planes.
+     *
+     * @return Number of planes.
+     */
+    int size() {
+        return mCount;
+    }
+
+    /**
+     * Get the data of the plane at the specified position of the sorted order.
+     *
+     * @param position Position in the sorted order.
+     * @return Cached plane data.
+     */
+    PlaneDataCache.PlaneData get(int position) {
+        return mPlaneDatas[mOrder[position]];
+    }
+
+    private void computeDistances(int start, int end) {
+        for (int i = start; i < end; i++) {
+            float[] center = mPlaneDatas[i].getCenter();
+            float[] normal = mPlaneDatas[i].getNormal();
+
+            // Calculate the distance from the camera to the plane. If it is a negative number,
+            // it means it is on the back of the plane (the normal vector distinguishes the front and the back)
+            mDistances[i] = (mCameraX - center[0]) * normal[0]
+                + (mCameraY - center[1]) * normal[1]
+                + (mCameraZ - center[2]) * normal[2];
+        }
+    }
+
+    private void insertionSort() {
+        for (int i = 1; i < mCount; i++) {
+            int index = mOrder[i];
+            float distance = mDistances[index];
+            int j = i - 1;
+            while (j >= 0 && mDistances[mOrder[j]] < distance) {
+                mOrder[j + 1] = mOrder[j];
+                j--;
+            }
+            mOrder[j + 1] = index;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= mPlaneDatas.length) {
+            return;
+        }
+        int newCapacity = mPlaneDatas.length * 2;
+        PlaneDataCache.PlaneData[] planeDatas = new PlaneDataCache.PlaneData[newCapacity];
+        System.arraycopy(mPlaneDatas, 0, planeDatas, 0, mPlaneDatas.length);
+        mPlaneDatas = planeDatas;
+        float[] distances = new float[newCapacity];
+        System.arraycopy(mDistances, 0, distances, 0, mDistances.length);
+        mDistances = distances;
+        int[] order = new int[newCapacity];
+        System.arraycopy(mOrder, 0, order, 0, mOrder.length);
+        mOrder = order;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.java.world.rendering;
+
+import android.opengl.GLES20;
+import android.opengl.Matrix;
+
+import com.huawei.arengine.demos.common.GlResourceManager;
+import com.huawei.arengine.demos.common.ShaderUtil;
+import com.huawei.arengine.demos.common.StagingBufferPool;
+import com.huawei.arengine.demos.common.engine.ArEnginePointCloud;
+
+import java.nio.FloatBuffer;
+
+/**
+ * This class demonstrates how to use ARPointCloud to show the feature points that the
+ * engine tracks, which gives feedback about where virtual objects can be placed.
+ * The points are written to a vertex buffer of a fixed size, split into several segments used
+ * in turn, so that the driver never has to wait for the segment of a previous frame that is
+ * still being drawn. At most {@link #MAX_POINTS} points are drawn, and the points can be
+ * downsampled to one point per voxel so that a dense cloud stays within that budget.
+ *
+ * @author HW
+ * @since 2020-04-08
+ */
+public class PointCloudDisplay {
+    private static final String TAG = PointCloudDisplay.class.getSimpleName();
+
+    private static final int FLOATS_PER_POINT = 4; // x, y, z, confidence
+
+    private static final int FLOAT_BYTE_SIZE = 4;
+
+    private static final int BYTES_PER_POINT = FLOATS_PER_POINT * FLOAT_BYTE_SIZE;
+
+    private static final int MATRIX_SIZE = 16;
+
+    private static final int MAX_POINTS = 4096;
+
+    private static final int SEGMENT_COUNT = 3;
+
+    // The voxel hash table has 2^13 slots, which is twice the point budget.
+    private static final int VOXEL_TABLE_BITS = 13;
+
+    private static final int VOXEL_TABLE_SIZE = 1 << VOXEL_TABLE_BITS;
+
+    // Each voxel index is stored in 21 bits of the voxel key.
+    private static final int VOXEL_INDEX_BITS = 21;
+
+    private static final long VOXEL_INDEX_MASK = (1L << VOXEL_INDEX_BITS) - 1;
+
+    private static final int VOXEL_INDEX_OFFSET = 1 << (VOXEL_INDEX_BITS - 1);
+
+    private static final float POINT_SIZE = 10.0f;
+
+    private static final float[] POINT_COLOR = {0.12f, 0.74f, 0.82f, 1.0f};
+
+    private final int[] mBuffers = new int[1];
+
+    private final float[] mModelViewProjectionMatrix = new float[MATRIX_SIZE];
+
+    // Open addressing hash table from a voxel key to the index of its point in the staging buffer.
+    // A slot is valid only if its stamp equals mVoxelStamp, which avoids clearing the table.
+    private final long[] mVoxelKeys = new long[VOXEL_TABLE_SIZE];
+
+    private final int[] mVoxelPoints = new int[VOXEL_TABLE_SIZE];
+
+    private final int[] mVoxelStamps = new int[VOXEL_TABLE_SIZE];
+
+    private int mVoxelStamp = 0;
+
+    // Edge length of a voxel in meters, 0 disables the downsampling.
+    private float mVoxelSize = 0.0f;
+
+    private int mSegment = 0;
+
+    private int mPointCount = 0;
+
+    private long mLastTimestamp = 0;
+
+    private int mProgram;
+
+    private int glPosition;
+
+    private int glModelViewProjectionMatrix;
+
+    private int glPointSize;
+
+    private int glPointColor;
+
+    /**
+     * Create the point cloud shader and allocate the vertex buffer on the OpenGL Thread.
+     * This method will be called when {@link RenderUtil#onSurfaceCreated}.
+     */
+    public void init() {
+        mProgram = GlResourceManager.registerProgram(TAG, WorldShaderUtil.getPointCloudProgram());
+        ShaderUtil.checkGlError(TAG, "program");
+        glPosition = GLES20.glGetAttribLocation(mProgram, "inPosition");
+        glModelViewProjectionMatrix = GLES20.glGetUniformLocation(mProgram, "inMVPMatrix");
+        glPointSize = GLES20.glGetUniformLocation(mProgram, "inPointSize");
+        glPointColor = GLES20.glGetUniformLocation(mProgram, "inPointColor");
+        ShaderUtil.checkGlError(TAG, "program params");
+
+        GlResourceManager.genBuffers(TAG, mBuffers.length, mBuffers, 0);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mBuffers[0]);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, BYTES_PER_POINT * MAX_POINTS * SEGMENT_COUNT,
+            null, GLES20.GL_DYNAMIC_DRAW);
+        GlResourceManager.setSize(GlResourceManager.Type.BUFFER, mBuffers[0],
+            BYTES_PER_POINT * MAX_POINTS * SEGMENT_COUNT);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        ShaderUtil.checkGlError(TAG, "buffer alloc");
+
+        // The new buffer has no points yet, so the next point cloud is uploaded even if it is
+        // the one of the last frame drawn before the surface was created again.
+        mPointCount = 0;
+        mLastTimestamp = 0;
+    }
+
+    /**
+     * Set the edge length of the voxels used to downsample the point cloud.
+     *
+     * @param voxelSize Voxel size in meters, 0 keeps all the points.
+     */
+    public void setVoxelSize(float voxelSize) {
+        mVoxelSize = Math.max(voxelSize, 0.0f);
+    }
+
+    /**
+     * Upload the points if the point cloud changed since the last frame.
+     * This method will be called when {@link RenderUtil#onDrawFrame}.
+     *
+     * @param pointCloud Point cloud of the current frame.
+     */
+    void update(ArEnginePointCloud pointCloud) {
+        long timestamp = pointCloud.getTimestampNs();
+        if (timestamp == mLastTimestamp) {
+            return;
+        }
+        mLastTimestamp = timestamp;
+        FloatBuffer points = pointCloud.getPoints();
+        StagingBufferPool pool = StagingBufferPool.get();
+        StagingBufferPool.Slab slab = pool.acquire(BYTES_PER_POINT * MAX_POINTS);
+        FloatBuffer staging = slab.floats();
+        if (mVoxelSize > 0.0f) {
+            downsample(points, staging);
+        } else {
+            int position = points.position();
+            int limit = points.limit();
+            points.limit(position + Math.min(points.remaining(), FLOATS_PER_POINT * MAX_POINTS));
+            staging.put(points);
+            points.limit(limit).position(position);
+        }
+        staging.flip();
+        mPointCount = staging.limit() / FLOATS_PER_POINT;
+
+        // Write to the next segment, the previous one may still be in use by the GPU.
+        mSegment = (mSegment + 1) % SEGMENT_COUNT;
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mBuffers[0]);
+        GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, BYTES_PER_POINT * MAX_POINTS * mSegment,
+            FLOAT_BYTE_SIZE * staging.limit(), staging);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        pool.release(slab);
+        ShaderUtil.checkGlError(TAG, "upload points");
+    }
+
+    private void downsample(FloatBuffer points, FloatBuffer staging) {
+        mVoxelStamp++;
+        float inverseSize = 1.0f / mVoxelSize;
+        int start = points.position();
+        int pointCount = points.remaining() / FLOATS_PER_POINT;
+        int count = 0;
+        for (int i = 0; i < pointCount; i++) {
+            int base = start + i * FLOATS_PER_POINT;
+            float x = points.get(base);
+            float y = points.get(base + 1);
+            float z = points.get(base + 2);
+            float confidence = points.get(base + 3);
+            long key = voxelIndex(x * inverseSize)
+                | (voxelIndex(y * inverseSize) << VOXEL_INDEX_BITS)
+                | (voxelIndex(z * inverseSize) << (2 * VOXEL_INDEX_BITS));
+            int slot = findSlot(key);
+            if (mVoxelStamps[slot] == mVoxelStamp) {
+                // Keep the most confident point of the voxel.
+                int pointBase = mVoxelPoints[slot] * FLOATS_PER_POINT;
+                if (confidence > staging.get(pointBase + 3)) {
+                    staging.put(pointBase, x).put(pointBase + 1, y).put(pointBase + 2, z)
+                        .put(pointBase + 3, confidence);
+                }
+                continue;
+            }
+            if (count == MAX_POINTS) {
+                continue;
+            }
+            mVoxelStamps[slot] = mVoxelStamp;
+            mVoxelKeys[slot] = key;
+            mVoxelPoints[slot] = count;
+            staging.put(x).put(y).put(z).put(confidence);
+            count++;
+        }
+    }
+
+    private int findSlot(long key) {
+        int mask = VOXEL_TABLE_SIZE - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - VOXEL_TABLE_BITS));
+        while (mVoxelStamps[slot] == mVoxelStamp && mVoxelKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static long voxelIndex(float coordinate) {
+        return ((long) Math.floor(coordinate) + VOXEL_INDEX_OFFSET) & VOXEL_INDEX_MASK;
+    }
+
+    /**
+     * Draw the uploaded points.
+     * This method will be called when {@link RenderUtil#onDrawFrame}.
+     *
+     * @param cameraView A 4x4 view matrix, in column-major order.
+     * @param cameraProjection A 4x4 projection matrix, in column-major order.
+     */
+    void onDrawFrame(float[] cameraView, float[] cameraProjection) {
+        if (mPointCount == 0) {
+            return;
+        }
+        Matrix.multiplyMM(mModelViewProjectionMatrix, 0, cameraProjection, 0, cameraView, 0);
+        GLES20.glUseProgram(mProgram);
+        GLES20.glEnable(GLES20.GL_BLEND);
+        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, mBuffers[0]);
+        GLES20.glEnableVertexAttribArray(glPosition);
+        GLES20.glVertexAttribPointer(glPosition, FLOATS_PER_POINT, GLES20.GL_FLOAT, false, BYTES_PER_POINT,
+            BYTES_PER_POINT * MAX_POINTS * mSegment);
+        GLES20.glUniformMatrix4fv(glModelViewProjectionMatrix, 1, false, mModelViewProjectionMatrix, 0);
+        GLES20.glUniform1f(glPointSize, POINT_SIZE);
+        GLES20.glUniform4fv(glPointColor, 1, POINT_COLOR, 0);
+        GLES20.glDrawArrays(GLES20.GL_POINTS, 0, mPointCount);
+
+        // Clean up the state we set
+        GLES20.glDisableVertexAttribArray(glPosition);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        GLES20.glDisable(GLES20.GL_BLEND);
+        ShaderUtil.checkGlError(TAG, "Draw point cloud");
+    }
+}
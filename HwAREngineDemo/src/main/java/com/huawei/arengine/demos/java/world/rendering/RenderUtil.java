@@ -7,7 +7,6 @@ package com.huawei.arengine.demos.java.world.rendering;
 import android.app.Activity;
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.Color;
 import android.opengl.GLES20;
 import android.opengl.GLSurfaceView;
 import android.util.Log;
@@ -17,22 +16,27 @@ import android.widget.TextView;
 
 import com.huawei.arengine.demos.R;
 import com.huawei.arengine.demos.common.DisplayRotationUtil;
-import com.huawei.arengine.demos.common.TextDisplayUtil;
+import com.huawei.arengine.demos.common.FrameLogFormat;
+import com.huawei.arengine.demos.common.FrameRecorder;
+import com.huawei.arengine.demos.common.GlResourceManager;
+import com.huawei.arengine.demos.common.HudRenderer;
+import com.huawei.arengine.demos.common.OverlayModel;
+import com.huawei.arengine.demos.common.QualityGovernor;
+import com.huawei.arengine.demos.common.RenderLog;
+import com.huawei.arengine.demos.common.RenderScheduler;
 import com.huawei.arengine.demos.common.TextureRenderUtil;
+import com.huawei.arengine.demos.common.engine.ArEngineCamera;
+import com.huawei.arengine.demos.common.engine.ArEngineFrame;
+import com.huawei.arengine.demos.common.engine.ArEngineHitResult;
+import com.huawei.arengine.demos.common.engine.ArEnginePlane;
+import com.huawei.arengine.demos.common.engine.ArEnginePoint;
+import com.huawei.arengine.demos.common.engine.ArEnginePose;
+import com.huawei.arengine.demos.common.engine.ArEngineSession;
+import com.huawei.arengine.demos.common.engine.ArEngineTrackable;
 import com.huawei.arengine.demos.java.world.GestureEvent;
 import com.huawei.arengine.demos.java.world.VirtualObject;
-import com.huawei.hiar.ARCamera;
-import com.huawei.hiar.ARFrame;
-import com.huawei.hiar.ARHitResult;
-import com.huawei.hiar.ARLightEstimate;
-import com.huawei.hiar.ARPlane;
-import com.huawei.hiar.ARPoint;
-import com.huawei.hiar.ARPose;
-import com.huawei.hiar.ARSession;
-import com.huawei.hiar.ARTrackable;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 
@@ -48,12 +52,6 @@ import javax.microedition.khronos.opengles.GL10;
 public class RenderUtil implements GLSurfaceView.Renderer {
     private static final String TAG = RenderUtil.class.getSimpleName();
 
-    private static final int PROJ_MATRIX_OFFSET = 0;
-
-    private static final float PROJ_MATRIX_NEAR = 0.1f;
-
-    private static final float PROJ_MATRIX_FAR = 100.0f;
-
     private static final float MATERIAL_AMBIENT = 0.0f;
 
     private static final float MATERIAL_DIFFUSE = 3.5f;
@@ -66,18 +64,21 @@ public class RenderUtil implements GLSurfaceView.Renderer {
 
     private static final float MATERIAL_SPECULAI_POWER = 6.0f;
 
+    private static final int FPS_DECIMALS = 1;
+
     private static final float[] BLUE_COLORS = new float[] {66.0f, 133.0f, 244.0f, 255.0f};
 
     private static final float[] GREEN_COLORS = new float[] {66.0f, 133.0f, 244.0f, 255.0f};
 
-    private ARSession mSession;
+    // Time of a frame at 60 fps, the quality is lowered while the frames take longer.
+    private static final long TARGET_FRAME_NS = 16666667L;
+
+    private ArEngineSession mSession;
 
     private Activity mActivity;
 
     private Context mContext;
 
-    private TextView mTextView;
-
     private TextView mSearchingTextView;
 
     private int frames = 0;
@@ -88,20 +89,37 @@ public class RenderUtil implements GLSurfaceView.Renderer {
 
     private TextureRenderUtil mTextureRenderUtil = new TextureRenderUtil();
 
-    private TextDisplayUtil mTextDisplayUtil = new TextDisplayUtil();
+    // Fields of the text overlay.
+    private final OverlayModel mOverlay = new OverlayModel();
+
+    private final int mFpsField = mOverlay.addFloat("FPS=", FPS_DECIMALS);
+
+    private final int mQualityField = mOverlay.addInt("Quality tier=");
+
+    private final HudRenderer mHudRenderer = new HudRenderer();
 
-    private LabelDisplay mLabelDisplay = new LabelDisplay();
+    private final QualityGovernor mQualityGovernor = new QualityGovernor(TARGET_FRAME_NS);
 
-    private ObjectDisplay mObjectDisplay = new ObjectDisplay();
+    // Tier whose settings were given to the displays.
+    private QualityGovernor.Tier mAppliedTier;
+
+    // The point cloud, the planes, the labels and the virtual objects.
+    private final WorldFrameRenderer mWorldRenderer = new WorldFrameRenderer();
 
     private DisplayRotationUtil mDisplayRotationUtil;
 
     private ArrayBlockingQueue<GestureEvent> mQueuedSingleTaps;
 
-    private ArrayList<VirtualObject> mVirtualObjects = new ArrayList<>();
-
     private VirtualObject mSelectedObj = null;
 
+    private volatile FrameRecorder mFrameRecorder;
+
+    private volatile RenderScheduler mRenderScheduler;
+
+    private float[] mAnchorMatrix = new float[16];
+
+    private float[] mPlaneLabel = new float[1];
+
     /**
      * Constructor, passing in context and activity.
      * This method will be called by {@link Activity#onCreate}
@@ -112,16 +130,15 @@ public class RenderUtil implements GLSurfaceView.Renderer {
     public RenderUtil(Activity activity, Context context) {
         mActivity = activity;
         mContext = context;
-        mTextView = activity.findViewById(R.id.wordTextView);
         mSearchingTextView = activity.findViewById(R.id.searchingTextView);
     }
 
     /**
      * Set AR session for updating in onDrawFrame to get the latest data.
      *
-     * @param arSession ARSession.
+     * @param arSession Session of AREngine, or of the synthetic engine.
      */
-    public void setArSession(ARSession arSession) {
+    public void setArSession(ArEngineSession arSession) {
         if (arSession == null) {
             Log.e(TAG, "setSession error, arSession is null!");
             return;
@@ -142,6 +159,33 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         mQueuedSingleTaps = queuedSingleTaps;
     }
 
+    /**
+     * Set the recorder of the trackable data, or null to stop recording.
+     *
+     * @param frameRecorder FrameRecorder.
+     */
+    public void setFrameRecorder(FrameRecorder frameRecorder) {
+        mFrameRecorder = frameRecorder;
+    }
+
+    /**
+     * Set the scheduler of the view, which is told the camera frame of each drawn frame.
+     *
+     * @param renderScheduler RenderScheduler.
+     */
+    public void setRenderScheduler(RenderScheduler renderScheduler) {
+        mRenderScheduler = renderScheduler;
+    }
+
+    /**
+     * Get the governor of the rendering quality, for its current tier.
+     *
+     * @return QualityGovernor.
+     */
+    public QualityGovernor getQualityGovernor() {
+        return mQualityGovernor;
+    }
+
     /**
      * Set displayRotationUtil, this object will be used in onSurfaceChanged and onDrawFrame.
      *
@@ -157,46 +201,18 @@ public class RenderUtil implements GLSurfaceView.Renderer {
 
     @Override
     public void onSurfaceCreated(GL10 gl, EGLConfig config) {
+        // The handles of a previous context were deleted with it.
+        GlResourceManager.onContextCreated();
+
         // Clear color, set window color.
         GLES20.glClearColor(0.1f, 0.1f, 0.1f, 1.0f);
 
         mTextureRenderUtil.init();
-        mTextDisplayUtil.setListener(new TextDisplayUtil.OnTextInfoChangeListener() {
-            @Override
-            public boolean textInfoChanged(String text, float positionX, float positionY) {
-                showWorldTypeTextView(text, positionX, positionY);
-                return true;
-            }
-        });
 
-        mLabelDisplay.init(getPlaneBitmaps());
-
-        mObjectDisplay.init(mContext);
-    }
+        mWorldRenderer.init(mContext, getPlaneBitmaps());
 
-    /**
-     * Create a thread for UI display text, which will be used by gesture gesture rendering callback.
-     *
-     * @param text Gesture information for display on screen
-     * @param positionX The left padding in pixels.
-     * @param positionY The left padding in pixels
-     */
-    private void showWorldTypeTextView(final String text, final float positionX, final float positionY) {
-        mActivity.runOnUiThread(new Runnable() {
-            @Override
-            public void run() {
-                mTextView.setTextColor(Color.WHITE);
-
-                // Set the size of the font used for display.
-                mTextView.setTextSize(10f);
-                if (text != null) {
-                    mTextView.setText(text);
-                    mTextView.setPadding((int) positionX, (int) positionY, 0, 0);
-                } else {
-                    mTextView.setText("");
-                }
-            }
-        });
+        mHudRenderer.init();
+        GlResourceManager.logUsage();
     }
 
     @Override
@@ -204,12 +220,17 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         mTextureRenderUtil.onSurfaceChanged(width, height);
         GLES20.glViewport(0, 0, width, height);
         mDisplayRotationUtil.updateViewportRotation(width, height);
-        mObjectDisplay.setSize(width, height);
+        mWorldRenderer.onSurfaceChanged(width, height);
+        mHudRenderer.onSurfaceChanged(width, height);
     }
 
     @Override
     public void onDrawFrame(GL10 unused) {
-        Log.d("TEST QU", "mQueuedSingleTaps length: " + mQueuedSingleTaps.size());
+        // The frame time starts at the vsync: the clear below waits for a free buffer of the
+        // surface when the GPU falls behind, which a lower quality speeds up.
+        RenderScheduler scheduler = mRenderScheduler;
+        long frameStartNs = scheduler != null ? scheduler.getFrameStartNs() : System.nanoTime();
+        RenderLog.d("TEST QU", "mQueuedSingleTaps length: {}", mQueuedSingleTaps.size());
 
         // Clear screen to notify driver it should not load any pixels from previous frame.
         GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
@@ -220,57 +241,54 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         if (mDisplayRotationUtil.getDeviceRotation()) {
             mDisplayRotationUtil.updateArSessionDisplayGeometry(mSession);
         }
+        applyQualityTier();
 
         try {
             mSession.setCameraTextureName(mTextureRenderUtil.getExternalTextureId());
-            ARFrame arFrame = mSession.update();
-            ARCamera arCamera = arFrame.getCamera();
+            long updateStartNs = System.nanoTime();
+            ArEngineFrame arFrame = mSession.update();
+
+            // The update waits for the camera and the tracking, which a lower quality does not
+            // speed up, so it is not counted.
+            long updateNs = System.nanoTime() - updateStartNs;
+            if (scheduler != null) {
+                scheduler.onCameraFrame(arFrame.getTimestampNs());
+            }
             mTextureRenderUtil.onDrawFrame(arFrame);
 
-            // The size of projection matrix is 4 * 4.
-            float[] projectionMatrix = new float[16];
-
-            // Obtain the projection matrix of AR camera.
-            arCamera.getProjectionMatrix(projectionMatrix, PROJ_MATRIX_OFFSET, PROJ_MATRIX_NEAR, PROJ_MATRIX_FAR);
-
-            StringBuilder sb = new StringBuilder();
-            updateMessageData(sb);
-            mTextDisplayUtil.onDrawFrame(sb);
+            updateMessageData();
+            mHudRenderer.setText(mOverlay);
 
-            // The size of view matrix is 4 * 4.
-            float[] viewMatrix = new float[16];
-            arCamera.getViewMatrix(viewMatrix, 0);
-            for (ARPlane plane : mSession.getAllTrackables(ARPlane.class)) {
-                if (plane.getType() != ARPlane.PlaneType.UNKNOWN_FACING
-                    && plane.getTrackingState() == ARTrackable.TrackingState.TRACKING) {
-                    hideLoadingMessage();
-                    break;
-                }
-            }
-            mLabelDisplay.onDrawFrame(
-                mSession.getAllTrackables(ARPlane.class), arCamera.getDisplayOrientedPose(), projectionMatrix);
-            handleGestureEvent(arFrame, arCamera, projectionMatrix, viewMatrix);
-            float lightPixelIntensity = 1;
-            ARLightEstimate lightEstimate = arFrame.getLightEstimate();
-            if (lightEstimate.getState() != ARLightEstimate.State.NOT_VALID) {
-                lightPixelIntensity = lightEstimate.getPixelIntensity();
-            }
-            Iterator<VirtualObject> ite = mVirtualObjects.iterator();
-            while (ite.hasNext()) {
-                VirtualObject obj = ite.next();
-                if (obj.getAnchor().getTrackingState() == ARTrackable.TrackingState.STOPPED) {
-                    ite.remove();
-                }
-                if (obj.getAnchor().getTrackingState() == ARTrackable.TrackingState.TRACKING) {
-                    mObjectDisplay.onDrawFrame(viewMatrix, projectionMatrix, lightPixelIntensity, obj);
-                }
+            mWorldRenderer.update(mSession, arFrame);
+            if (mSearchingTextView != null && mWorldRenderer.getPlaneDataCache().hasTrackingLabeledPlane()) {
+                hideLoadingMessage();
             }
+            recordFrame(arFrame);
+            handleGestureEvent(arFrame, arFrame.getCamera());
+            mWorldRenderer.onDrawFrame(arFrame);
+            mHudRenderer.onDrawFrame();
+
+            // The swap of this frame is counted by the start of the next one, which waits for it.
+            mQualityGovernor.onFrame(System.nanoTime() - frameStartNs - updateNs);
         } catch (Throwable t) {
             // Avoid crashing the application due to unhandled exceptions.
             Log.e(TAG, "Exception on the OpenGL thread", t);
         }
     }
 
+    /**
+     * Give the settings of the current quality tier to the displays, when the tier changed.
+     */
+    private void applyQualityTier() {
+        QualityGovernor.Tier tier = mQualityGovernor.getTier();
+        if (tier == mAppliedTier) {
+            return;
+        }
+        mAppliedTier = tier;
+        mWorldRenderer.applyQualityTier(tier);
+        mHudRenderer.setMinTextInterval(tier.getOverlayIntervalMs());
+    }
+
     private ArrayList<Bitmap> getPlaneBitmaps() {
         ArrayList<Bitmap> bitmaps = new ArrayList<>();
         bitmaps.add(getPlaneBitmap(R.id.plane_other));
@@ -300,12 +318,10 @@ public class RenderUtil implements GLSurfaceView.Renderer {
 
     /**
      * Update gesture related data for display.
-     *
-     * @param sb string buffer.
      */
-    private void updateMessageData(StringBuilder sb) {
-        float fpsResult = doFpsCalculate();
-        sb.append("FPS=" + fpsResult + System.lineSeparator());
+    private void updateMessageData() {
+        mOverlay.setFloat(mFpsField, doFpsCalculate());
+        mOverlay.setInt(mQualityField, mQualityGovernor.getTierIndex());
     }
 
     private float doFpsCalculate() {
@@ -321,6 +337,37 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         return fps;
     }
 
+    private void recordFrame(ArEngineFrame arFrame) {
+        FrameRecorder recorder = mFrameRecorder;
+        if (recorder == null) {
+            return;
+        }
+        float[] viewMatrix = mWorldRenderer.getViewMatrix();
+        float[] projectionMatrix = mWorldRenderer.getProjectionMatrix();
+        PlaneDataCache planeDataCache = mWorldRenderer.getPlaneDataCache();
+        recorder.beginFrame(arFrame.getTimestampNs());
+        recorder.write(FrameLogFormat.TYPE_CAMERA_VIEW, 0, viewMatrix, viewMatrix.length);
+        recorder.write(FrameLogFormat.TYPE_CAMERA_PROJECTION, 0, projectionMatrix, projectionMatrix.length);
+        for (int i = 0; i < planeDataCache.size(); i++) {
+            PlaneDataCache.PlaneData planeData = planeDataCache.get(i);
+            if (planeData.isTracking()) {
+                float[] centerMatrix = planeData.getCenterMatrix();
+                recorder.write(FrameLogFormat.TYPE_PLANE_POSE, planeData.getId(), centerMatrix, centerMatrix.length);
+                recorder.write(FrameLogFormat.TYPE_PLANE_POLYGON, planeData.getId(), planeData.getPolygon(),
+                    planeData.getPolygonSize());
+                mPlaneLabel[0] = planeData.isTrackingLabeled() ? planeData.getLabelIndex() : -1;
+                recorder.write(FrameLogFormat.TYPE_PLANE_LABEL, planeData.getId(), mPlaneLabel, 1);
+            }
+        }
+        for (VirtualObject obj : mWorldRenderer.getVirtualObjects()) {
+            if (obj.getAnchor().getTrackingState() == ArEngineTrackable.TrackingState.TRACKING) {
+                obj.getAnchor().getPose().toMatrix(mAnchorMatrix, 0);
+                recorder.write(FrameLogFormat.TYPE_ANCHOR_POSE, obj.getId(), mAnchorMatrix, mAnchorMatrix.length);
+            }
+        }
+        recorder.endFrame();
+    }
+
     private void hideLoadingMessage() {
         mActivity.runOnUiThread(new Runnable() {
             @Override
@@ -334,28 +381,28 @@ public class RenderUtil implements GLSurfaceView.Renderer {
     }
 
     // Handle only one tap per frame, as taps are usually low frequency compared to frame rate.
-    private void handleGestureEvent(ARFrame arFrame, ARCamera arCamera, float[] projectionMatrix, float[] viewMatrix) {
+    private void handleGestureEvent(ArEngineFrame arFrame, ArEngineCamera arCamera) {
         GestureEvent event = mQueuedSingleTaps.poll();
         if (event == null) {
             return;
         }
 
         // do nothing when no tracking
-        if (arCamera.getTrackingState() != ARTrackable.TrackingState.TRACKING) {
+        if (arCamera.getTrackingState() != ArEngineTrackable.TrackingState.TRACKING) {
             return;
         }
 
         int eventType = event.getType();
         switch (eventType) {
             case GestureEvent.GESTURE_EVENT_TYPE_DOWN: {
-                doWhenEventTypeDown(viewMatrix, projectionMatrix, event);
+                doWhenEventTypeDown(event);
                 break;
             }
             case GestureEvent.GESTURE_EVENT_TYPE_SCROLL: {
                 if (mSelectedObj == null) {
                     break;
                 }
-                ARHitResult hitResult = hitTest4Result(arFrame, arCamera, event.getE2());
+                ArEngineHitResult hitResult = hitTest4Result(arFrame, arCamera, event.getE2());
                 if (hitResult != null) {
                     mSelectedObj.setAnchor(hitResult.createAnchor());
                 }
@@ -368,7 +415,7 @@ public class RenderUtil implements GLSurfaceView.Renderer {
                 }
 
                 MotionEvent tap = event.getE1();
-                ARHitResult hitResult = null;
+                ArEngineHitResult hitResult = null;
 
                 hitResult = hitTest4Result(arFrame, arCamera, tap);
 
@@ -385,63 +432,60 @@ public class RenderUtil implements GLSurfaceView.Renderer {
         }
     }
 
-    private void doWhenEventTypeDown(float[] viewMatrix, float[] projectionMatrix, GestureEvent event) {
+    private void doWhenEventTypeDown(GestureEvent event) {
         if (mSelectedObj != null) {
             mSelectedObj.setIsSelected(false);
             mSelectedObj = null;
         }
-        Iterator<VirtualObject> ite = mVirtualObjects.iterator();
-        while (ite.hasNext()) {
-            VirtualObject obj = ite.next();
-            if (mObjectDisplay.hitTest(viewMatrix, projectionMatrix, obj, event.getE1())) {
-                obj.setIsSelected(true);
-                mSelectedObj = obj;
-                break;
-            }
+        VirtualObject obj = mWorldRenderer.pickVirtualObject(event.getE1());
+        if (obj != null) {
+            obj.setIsSelected(true);
+            mSelectedObj = obj;
         }
     }
 
-    private void doWhenEventTypeSingleTap(ARHitResult hitResult) {
+    private void doWhenEventTypeSingleTap(ArEngineHitResult hitResult) {
         // Hits are sorted by depth. Consider only closest hit on a plane or oriented point.
         // Limit the number of objects created to 10. This avoids overloading both the
         // rendering system and AREngine.
-        if (mVirtualObjects.size() >= 10) {
-            mVirtualObjects.get(0).getAnchor().detach();
-            mVirtualObjects.remove(0);
+        List<VirtualObject> virtualObjects = mWorldRenderer.getVirtualObjects();
+        if (virtualObjects.size() >= 10) {
+            virtualObjects.get(0).getAnchor().detach();
+            virtualObjects.remove(0);
         }
 
-        ARTrackable currentTrackable = hitResult.getTrackable();
-        if (currentTrackable instanceof ARPoint) {
-            mVirtualObjects.add(new VirtualObject(hitResult.createAnchor(), BLUE_COLORS));
-        } else if (currentTrackable instanceof ARPlane) {
-            mVirtualObjects.add(new VirtualObject(hitResult.createAnchor(), GREEN_COLORS));
+        ArEngineTrackable currentTrackable = hitResult.getTrackable();
+        if (currentTrackable instanceof ArEnginePoint) {
+            virtualObjects.add(new VirtualObject(hitResult.createAnchor(), BLUE_COLORS));
+        } else if (currentTrackable instanceof ArEnginePlane) {
+            virtualObjects.add(new VirtualObject(hitResult.createAnchor(), GREEN_COLORS));
         } else {
             Log.i(TAG, "Hit result is not plane or point");
         }
     }
 
-    private ARHitResult hitTest4Result(ARFrame frame, ARCamera camera, MotionEvent event) {
-        ARHitResult hitResult = null;
-        List<ARHitResult> hitTestResults = frame.hitTest(event);
+    private ArEngineHitResult hitTest4Result(ArEngineFrame frame, ArEngineCamera camera, MotionEvent event) {
+        ArEngineHitResult hitResult = null;
+        List<ArEngineHitResult> hitTestResults = frame.hitTest(event.getX(), event.getY());
 
         for (int i = 0; i < hitTestResults.size(); i++) {
             // Check if any plane was hit, and if it was hit inside the plane polygon
-            ARHitResult hitResultTemp = hitTestResults.get(i);
-            ARTrackable trackable = hitResultTemp.getTrackable();
+            ArEngineHitResult hitResultTemp = hitTestResults.get(i);
+            ArEngineTrackable trackable = hitResultTemp.getTrackable();
 
             // Judge whether to click to the plane.
-            boolean isPlanHitJudge = trackable instanceof ARPlane
-                && ((ARPlane) trackable).isPoseInPolygon(hitResultTemp.getHitPose())
+            boolean isPlanHitJudge = trackable instanceof ArEnginePlane
+                && ((ArEnginePlane) trackable).isPoseInPolygon(hitResultTemp.getHitPose())
                 && (calculateDistanceToPlane(hitResultTemp.getHitPose(), camera.getPose()) > 0);
 
             // Determine whether to click the midpoint cloud, and whether the clicked point is facing the camera.
-            boolean isPointHitJudge = trackable instanceof ARPoint
-                && ((ARPoint) trackable).getOrientationMode() == ARPoint.OrientationMode.ESTIMATED_SURFACE_NORMAL;
+            boolean isPointHitJudge = trackable instanceof ArEnginePoint
+                && ((ArEnginePoint) trackable).hasSurfaceNormal();
 
             // Preferred plane point.
             if (isPlanHitJudge || isPointHitJudge) {
                 hitResult = hitResultTemp;
-                if (trackable instanceof ARPlane) {
+                if (trackable instanceof ArEnginePlane) {
                     break;
                 }
             }
@@ -457,7 +501,7 @@ public class RenderUtil implements GLSurfaceView.Renderer {
      * @param cameraPose Camera pose.
      * @return Distance To plane.
      */
-    private static float calculateDistanceToPlane(ARPose planePose, ARPose cameraPose) {
+    private static float calculateDistanceToPlane(ArEnginePose planePose, ArEnginePose cameraPose) {
         // The dimension of the point is 3
         float[] normals = new float[3];
 
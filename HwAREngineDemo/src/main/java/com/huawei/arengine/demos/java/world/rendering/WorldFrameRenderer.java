@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2020-2020. All rights reserved.
+ */
+
+package com.huawei.arengine.demos.java.world.rendering;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.opengl.GLES20;
+import android.view.MotionEvent;
+
+import com.huawei.arengine.demos.common.JobSystem;
+import com.huawei.arengine.demos.common.QualityGovernor;
+import com.huawei.arengine.demos.common.ScaledRenderTarget;
+import com.huawei.arengine.demos.common.ShaderUtil;
+import com.huawei.arengine.demos.common.engine.ArEngineCamera;
+import com.huawei.arengine.demos.common.engine.ArEngineFrame;
+import com.huawei.arengine.demos.common.engine.ArEnginePointCloud;
+import com.huawei.arengine.demos.common.engine.ArEngineSession;
+import com.huawei.arengine.demos.common.engine.ArEngineTrackable;
+import com.huawei.arengine.demos.java.world.VirtualObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The per-frame logic of the world demo over the camera background: the point cloud, the plane
+ * cache, the planes and their labels, and the virtual objects. It only depends on the
+ * {@link ArEngineSession} facade, so the benchmarks drive the same code as the demo with a
+ * synthetic or a replayed session.
+ *
+ * <p>A frame is processed in two steps, {@link #update(ArEngineSession, ArEngineFrame)} and
+ * {@link #onDrawFrame(ArEngineFrame)}, so that the caller can record the frame and handle the
+ * gestures on the objects with the matrices of the frame before it is drawn. The methods must be
+ * called on the OpenGL thread.
+ *
+ * @author HW
+ * @since 2020-04-29
+ */
+public class WorldFrameRenderer {
+    private static final int PROJ_MATRIX_OFFSET = 0;
+
+    private static final float PROJ_MATRIX_NEAR = 0.1f;
+
+    private static final float PROJ_MATRIX_FAR = 100.0f;
+
+    private static final int MATRIX_SIZE = 16;
+
+    private static final int MIN_OBJECT_BATCH = 32;
+
+    private final LabelDisplay mLabelDisplay = new LabelDisplay();
+
+    private final PointCloudDisplay mPointCloudDisplay = new PointCloudDisplay();
+
+    private final PlaneDisplay mPlaneDisplay = new PlaneDisplay();
+
+    private final PlaneDataCache mPlaneDataCache = new PlaneDataCache();
+
+    private final ObjectDisplay mObjectDisplay = new ObjectDisplay();
+
+    // The labels and the objects are drawn at the render scale of the quality tier.
+    private final ScaledRenderTarget mVirtualContentTarget = new ScaledRenderTarget();
+
+    private final ArrayList<VirtualObject> mVirtualObjects = new ArrayList<>();
+
+    // Objects drawn in the frame, their matrices are computed on the job system.
+    private final ArrayList<VirtualObject> mTrackingObjects = new ArrayList<>();
+
+    private final JobSystem.RangeJob mObjectMatrixJob = new JobSystem.RangeJob() {
+        @Override
+        public void run(int start, int end) {
+            for (int i = start; i < end; i++) {
+                mTrackingObjects.get(i).updateMatrices(mViewMatrix, mProjectionMatrix);
+            }
+        }
+    };
+
+    // View and projection matrices of the frame, read by the object matrix job.
+    private final float[] mViewMatrix = new float[MATRIX_SIZE];
+
+    private final float[] mProjectionMatrix = new float[MATRIX_SIZE];
+
+    // Session whose planes are held by mPlaneDataCache.
+    private ArEngineSession mPlaneDataSession;
+
+    /**
+     * Create the displays and the offscreen target.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onSurfaceCreated}.
+     *
+     * @param context Context, to read the assets of the planes and the object.
+     * @param labelBitmaps Bitmaps of the plane labels, in the order of the plane types.
+     */
+    public void init(Context context, ArrayList<Bitmap> labelBitmaps) {
+        mPointCloudDisplay.init();
+        mPlaneDisplay.init(context);
+        mPlaneDataCache.invalidateGpuState();
+        mLabelDisplay.init(labelBitmaps);
+        mObjectDisplay.init(context);
+        mVirtualContentTarget.init();
+    }
+
+    /**
+     * Set the size of the surface.
+     * This method will be called by {@link android.opengl.GLSurfaceView.Renderer#onSurfaceChanged}.
+     *
+     * @param width Width of the surface.
+     * @param height Height of the surface.
+     */
+    public void onSurfaceChanged(int width, int height) {
+        mObjectDisplay.setSize(width, height);
+        mVirtualContentTarget.onSurfaceChanged(width, height);
+    }
+
+    /**
+     * Give the settings of a quality tier to the displays.
+     *
+     * @param tier Tier of the quality governor.
+     */
+    public void applyQualityTier(QualityGovernor.Tier tier) {
+        mLabelDisplay.setLabelBudget(tier.getLabelBudget());
+        mObjectDisplay.setTextureLodBias(tier.getTextureLodBias());
+        ShaderUtil.setErrorCheckInterval(tier.getErrorCheckInterval());
+        mVirtualContentTarget.setScale(tier.getRenderScale());
+        mPointCloudDisplay.setVoxelSize(tier.getPointVoxelSize());
+    }
+
+    /**
+     * Read the camera matrices, the point cloud and the changed planes of a frame. Only the planes
+     * changed in the frame are queried again, all planes are needed for the first frame of a
+     * session.
+     *
+     * @param session Session that returned the frame.
+     * @param frame Frame returned by the last update of the session.
+     */
+    public void update(ArEngineSession session, ArEngineFrame frame) {
+        ArEngineCamera camera = frame.getCamera();
+        camera.getProjectionMatrix(mProjectionMatrix, PROJ_MATRIX_OFFSET, PROJ_MATRIX_NEAR, PROJ_MATRIX_FAR);
+        camera.getViewMatrix(mViewMatrix, 0);
+
+        ArEnginePointCloud pointCloud = frame.acquirePointCloud();
+        try {
+            mPointCloudDisplay.update(pointCloud);
+        } finally {
+            pointCloud.release();
+        }
+
+        if (mPlaneDataSession != session) {
+            mPlaneDataCache.clear();
+            mPlaneDataSession = session;
+        }
+        if (mPlaneDataCache.isEmptyFrame()) {
+            mPlaneDataCache.update(session.getAllPlanes());
+        } else {
+            mPlaneDataCache.update(frame.getUpdatedPlanes());
+        }
+    }
+
+    /**
+     * Draw the frame given to the last {@link #update(ArEngineSession, ArEngineFrame)}, over the
+     * background already drawn on the surface.
+     *
+     * @param frame Frame returned by the last update of the session.
+     */
+    public void onDrawFrame(ArEngineFrame frame) {
+        mPointCloudDisplay.onDrawFrame(mViewMatrix, mProjectionMatrix);
+        mPlaneDisplay.onDrawFrame(mPlaneDataCache, mViewMatrix, mProjectionMatrix);
+        boolean isOffscreen = mVirtualContentTarget.begin();
+        try {
+            mLabelDisplay.onDrawFrame(mPlaneDataCache, frame.getCamera().getDisplayOrientedPose(), mProjectionMatrix);
+            if (isOffscreen) {
+                clearContentAlpha();
+            }
+            float lightPixelIntensity = frame.getLightPixelIntensity();
+            updateObjectMatrices();
+            for (int i = 0; i < mTrackingObjects.size(); i++) {
+                mObjectDisplay.onDrawFrame(lightPixelIntensity, mTrackingObjects.get(i));
+            }
+        } finally {
+            mVirtualContentTarget.end();
+        }
+    }
+
+    /**
+     * Get the virtual objects, the caller adds and removes them. The objects whose anchor stopped
+     * are removed when the frame is drawn.
+     *
+     * @return Mutable list of the objects.
+     */
+    public List<VirtualObject> getVirtualObjects() {
+        return mVirtualObjects;
+    }
+
+    /**
+     * Find the first virtual object under a touch, with the matrices of the last updated frame.
+     *
+     * @param event Touch event.
+     * @return Object, or null if none is hit.
+     */
+    public VirtualObject pickVirtualObject(MotionEvent event) {
+        for (int i = 0; i < mVirtualObjects.size(); i++) {
+            VirtualObject obj = mVirtualObjects.get(i);
+            if (mObjectDisplay.hitTest(mViewMatrix, mProjectionMatrix, obj, event)) {
+                return obj;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the view matrix of the last updated frame.
+     *
+     * @return View matrix (4 * 4), valid until the next update.
+     */
+    public float[] getViewMatrix() {
+        return mViewMatrix;
+    }
+
+    /**
+     * Get the projection matrix of the last updated frame.
+     *
+     * @return Projection matrix (4 * 4), valid until the next update.
+     */
+    public float[] getProjectionMatrix() {
+        return mProjectionMatrix;
+    }
+
+    /**
+     * Get the planes of the last updated frame.
+     *
+     * @return Plane cache.
+     */
+    PlaneDataCache getPlaneDataCache() {
+        return mPlaneDataCache;
+    }
+
+    /**
+     * Clear the alpha of the offscreen content after the labels. The labels mask each other
+     * with the alpha channel and are added to the background, so with an alpha of 0 the
+     * composite adds them too, while the objects drawn afterwards hide the background.
+     */
+    private static void clearContentAlpha() {
+        GLES20.glColorMask(false, false, false, true);
+        GLES20.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+        GLES20.glColorMask(true, true, true, true);
+    }
+
+    /**
+     * Remove the objects whose anchor stopped, and compute the matrices of the tracked ones.
+     * The anchor poses are read on this thread, the matrix products run on the job system.
+     */
+    private void updateObjectMatrices() {
+        mTrackingObjects.clear();
+        Iterator<VirtualObject> ite = mVirtualObjects.iterator();
+        while (ite.hasNext()) {
+            VirtualObject obj = ite.next();
+            if (obj.getAnchor().getTrackingState() == ArEngineTrackable.TrackingState.STOPPED) {
+                ite.remove();
+            }
+            if (obj.getAnchor().getTrackingState() == ArEngineTrackable.TrackingState.TRACKING) {
+                obj.updateAnchorMatrix();
+                mTrackingObjects.add(obj);
+            }
+        }
+        JobSystem.get().parallelFor(mTrackingObjects.size(), MIN_OBJECT_BATCH, mObjectMatrixJob);
+    }
+}
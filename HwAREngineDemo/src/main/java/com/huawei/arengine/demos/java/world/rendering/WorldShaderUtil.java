@@ -45,6 +45,62 @@ class WorldShaderUtil {
         + "    gl_FragColor = vec4(control.rgb, 1.0);" + LS
         + "}";
 
+    /**
+     * Plane vertex shader code. The grid is mapped in world coordinates so it stays continuous
+     * when a plane grows or is merged with another one.
+     */
+    private static final String PLANE_VERTEX =
+        "uniform mat4 inMVPMatrix;" + LS
+        + "uniform mat4 inModelMatrix;" + LS
+        + "uniform float inGridScale;" + LS
+        + "attribute vec3 inPosXZAlpha;" + LS
+        + "varying vec3 varTexCoordAlpha;" + LS
+        + "void main() {" + LS
+        + "    vec4 tempPosition = vec4(inPosXZAlpha.x, 0.0, inPosXZAlpha.y, 1.0);" + LS
+        + "    vec4 worldPosition = inModelMatrix * tempPosition;" + LS
+        + "    varTexCoordAlpha = vec3(worldPosition.xz * inGridScale, inPosXZAlpha.z);" + LS
+        + "    gl_Position = inMVPMatrix * tempPosition;" + LS
+        + "}";
+
+    /**
+     * Plane fragment shader code.
+     */
+    private static final String PLANE_FRAGMENT =
+        "precision highp float;" + LS
+        + "uniform sampler2D inTexture;" + LS
+        + "uniform vec4 inPlaneColor;" + LS
+        + "varying vec3 varTexCoordAlpha;" + LS
+        + "void main() {" + LS
+        + "    vec4 control = texture2D(inTexture, varTexCoordAlpha.xy);" + LS
+        + "    float grid = max(control.r, control.g);" + LS
+        + "    gl_FragColor = vec4(inPlaneColor.rgb, inPlaneColor.a * grid * varTexCoordAlpha.z);" + LS
+        + "}";
+
+    /**
+     * Point cloud vertex shader code, the w component of a point is its confidence.
+     */
+    private static final String POINT_CLOUD_VERTEX =
+        "uniform mat4 inMVPMatrix;" + LS
+        + "uniform float inPointSize;" + LS
+        + "attribute vec4 inPosition;" + LS
+        + "varying float varConfidence;" + LS
+        + "void main() {" + LS
+        + "    gl_Position = inMVPMatrix * vec4(inPosition.xyz, 1.0);" + LS
+        + "    gl_PointSize = inPointSize;" + LS
+        + "    varConfidence = inPosition.w;" + LS
+        + "}";
+
+    /**
+     * Point cloud fragment shader code.
+     */
+    private static final String POINT_CLOUD_FRAGMENT =
+        "precision mediump float;" + LS
+        + "uniform vec4 inPointColor;" + LS
+        + "varying float varConfidence;" + LS
+        + "void main() {" + LS
+        + "    gl_FragColor = vec4(inPointColor.rgb, inPointColor.a * clamp(varConfidence, 0.3, 1.0));" + LS
+        + "}";
+
     private static final String OBJECT_VERTEX =
         "uniform mat4 inMVPMatrix;" + LS
         + "uniform mat4 inViewMatrix;" + LS
@@ -66,11 +122,12 @@ class WorldShaderUtil {
         + " uniform vec4 inLight;" + LS
         + "uniform vec4 inObjectColor;" + LS
         + "uniform sampler2D inObjectTexture;" + LS
+        + "uniform float inLodBias;" + LS
         + "varying vec3 varCameraPos;" + LS
         + "varying vec3 varCameraNormalVector;" + LS
         + "varying vec2 varTexCoordinate;" + LS
         + "void main() {" + LS
-        + "    vec4 objectColor = texture2D(inObjectTexture, vec2(varTexCoordinate.x, 1.0 - varTexCoordinate.y));" + LS
+        + "    vec4 objectColor = texture2D(inObjectTexture, vec2(varTexCoordinate.x, 1.0 - varTexCoordinate.y), inLodBias);" + LS
         + "    objectColor.rgb = inObjectColor.rgb / 255.0;" + LS
         + "    vec3 viewNormal = normalize(varCameraNormalVector);" + LS
         + "    vec3 reflectedLightDirection = reflect(inLight.xyz, viewNormal);" + LS
@@ -91,6 +148,14 @@ class WorldShaderUtil {
         return createGlProgram(LABEL_VERTEX, LABEL_FRAGMENT);
     }
 
+    static int getPlaneProgram() {
+        return createGlProgram(PLANE_VERTEX, PLANE_FRAGMENT);
+    }
+
+    static int getPointCloudProgram() {
+        return createGlProgram(POINT_CLOUD_VERTEX, POINT_CLOUD_FRAGMENT);
+    }
+
     static int getObjectProgram() {
         return createGlProgram(OBJECT_VERTEX, OBJECT_FRAGMENT);
     }
@@ -102,6 +167,7 @@ class WorldShaderUtil {
         }
         int fragment = loadShader(GLES20.GL_FRAGMENT_SHADER, fragmentCode);
         if (fragment == 0) {
+            GLES20.glDeleteShader(vertex);
             return 0;
         }
         int program = GLES20.glCreateProgram();
@@ -117,6 +183,10 @@ class WorldShaderUtil {
                 program = 0;
             }
         }
+
+        // The attached shaders are only flagged for deletion, they are deleted with the program.
+        GLES20.glDeleteShader(vertex);
+        GLES20.glDeleteShader(fragment);
         return program;
     }
 